@@ -142,4 +142,47 @@ describe('Página Checkout', () => {
     expect(mockClearCart).not.toHaveBeenCalled();
   });
 
+  test('8. Envía el token de sesión en el header Authorization', async () => {
+    vi.mocked(global.fetch).mockResolvedValue({
+      ok: true,
+      status: 200,
+      json: async () => ({ boletaId: 'BOLETA-TEST-456' })
+    });
+    const cartValue = { cartItems: mockCartItems, clearCart: mockClearCart };
+    const authConToken = { ...authUserLoggedIn, user: { ...authUserLoggedIn.user, token: 'tok.en.firmado' } };
+    renderCheckout(cartValue, authConToken);
+    const user = userEvent.setup();
+
+    await user.click(screen.getByRole('button', { name: 'Confirmar y Pagar' }));
+
+    await waitFor(() => {
+      expect(global.fetch).toHaveBeenCalledWith(
+        `${API_BASE}/checkout/purchase`,
+        expect.objectContaining({
+          headers: expect.objectContaining({ Authorization: 'Bearer tok.en.firmado' })
+        })
+      );
+    });
+  });
+
+  test('9. Con 401 cierra la sesión y vuelve al login', async () => {
+    const mockLogout = vi.fn();
+    vi.mocked(global.fetch).mockResolvedValue({
+      ok: false,
+      status: 401,
+      json: async () => ({ error: 'Token vencido.' })
+    });
+    const cartValue = { cartItems: mockCartItems, clearCart: mockClearCart };
+    renderCheckout(cartValue, { ...authUserLoggedIn, logout: mockLogout });
+    const user = userEvent.setup();
+
+    await user.click(screen.getByRole('button', { name: 'Confirmar y Pagar' }));
+
+    await waitFor(() => {
+      expect(mockLogout).toHaveBeenCalledTimes(1);
+      expect(mockNavigate).toHaveBeenCalledWith('/inicio', { state: { from: { pathname: '/checkout' } } });
+    });
+    expect(mockClearCart).not.toHaveBeenCalled();
+  });
+
 });
\ No newline at end of file
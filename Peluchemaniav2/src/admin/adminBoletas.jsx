@@ -1,15 +1,23 @@
 import React, { useEffect, useState } from 'react';
 import { API_BASE } from '../lib/api.js';
 
+const POR_PAGINA = 50;
+
 export default function AdminBoletas() {
   const [boletas, setBoletas] = useState([]);
+  const [page, setPage] = useState(0);
+  const [totalPaginas, setTotalPaginas] = useState(0);
+  const [totalBoletas, setTotalBoletas] = useState(0);
   const [view, setView] = useState(null);
 
-  useEffect(()=>{ load(); },[]);
-  async function load(){
-    const r = await fetch(`${API_BASE}/boletas`);
+  useEffect(()=>{ load(page); },[page]);
+  async function load(p){
+    // Listado paginado: el arreglo sin "page" trae sólo las más recientes
+    const r = await fetch(`${API_BASE}/boletas?page=${p}&size=${POR_PAGINA}&sort=fecha,desc`);
     const j = await r.json();
-    setBoletas(j || []); // <-- CAMBIO 1: (j.data -> j)
+    setBoletas(j?.boletas || []);
+    setTotalPaginas(j?.totalPaginas || 0);
+    setTotalBoletas(j?.totalBoletas || 0);
   }
 
   async function open(id){
@@ -26,6 +34,7 @@ export default function AdminBoletas() {
       <div className="container">
         <div className="card"><div className="card-body">
           <h1 style={{marginTop:0}}>Boletas</h1>
+          <p>{totalBoletas} boletas en total</p>
           <div className="grid">
             {boletas.map(b=>(
               <div key={b.id} className="card" style={{padding:12}}>
@@ -40,6 +49,13 @@ export default function AdminBoletas() {
               </div>
             ))}
           </div>
+          {totalPaginas > 1 && (
+            <div style={{display:'flex', gap:8, alignItems:'center', marginTop:16}}>
+              <button className="btn btn-ghost" disabled={page === 0} onClick={()=>setPage(page - 1)}>Anterior</button>
+              <span>Página {page + 1} de {totalPaginas}</span>
+              <button className="btn btn-ghost" disabled={page + 1 >= totalPaginas} onClick={()=>setPage(page + 1)}>Siguiente</button>
+            </div>
+          )}
         </div></div>
 
         {view && (
@@ -5,7 +5,7 @@ import { Navigate, useLocation } from 'react-router-dom';
 const AuthContext = createContext(null);
 
 export const AuthProvider = ({ children }) => {
-  const [currentUser, setCurrentUser] = useState(null); // { id, nombre, apellidos, email, rol, direccion_default }
+  const [currentUser, setCurrentUser] = useState(null); // { id, nombre, apellidos, email, rol, direccion_default, token, tokenExpira }
   const [loading, setLoading] = useState(true);
 
   useEffect(() => {
@@ -13,7 +13,9 @@ export const AuthProvider = ({ children }) => {
       const raw = localStorage.getItem('currentUser');
       if (raw) {
         const u = JSON.parse(raw);
-        if (u?.id && u?.rol) setCurrentUser(u);
+        // Con el token vencido la sesión ya no sirve en el backend: se pide login de nuevo
+        const vencido = u?.tokenExpira && new Date(u.tokenExpira).getTime() <= Date.now();
+        if (u?.id && u?.rol && !vencido) setCurrentUser(u);
         else localStorage.removeItem('currentUser');
       }
     } catch {
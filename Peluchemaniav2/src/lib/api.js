@@ -1 +1,6 @@
-export const API_BASE = '/api';
\ No newline at end of file
+export const API_BASE = '/api';
+
+// Token de sesión que entrega /api/auth/login (se guarda junto al usuario en AuthContext).
+// Los servicios lo piden como "Authorization: Bearer <token>" en las rutas protegidas (ej. checkout).
+export const authHeaders = (user) =>
+  user?.token ? { Authorization: `Bearer ${user.token}` } : {};
@@ -4,14 +4,14 @@ import { useNavigate, Link } from 'react-router-dom';
 import { CartContext } from '../context/cartContext';
 import { useAuth } from '../context/AuthContext';
 import { FaMapMarkerAlt, FaHome } from 'react-icons/fa';
-import { API_BASE } from '../lib/api.js';
+import { API_BASE, authHeaders } from '../lib/api.js';
 
 const formatPrice = (price) =>
   new Intl.NumberFormat('es-CL', { style: 'currency', currency: 'CLP' }).format(price || 0);
 
 export default function Checkout() {
   const navigate = useNavigate();
-  const { user, isLoggedIn } = useAuth();
+  const { user, isLoggedIn, logout } = useAuth();
   const { cartItems, clearCart } = useContext(CartContext);
 
   const [boletaId, setBoletaId] = useState(null);
@@ -87,12 +87,19 @@ export default function Checkout() {
         shippingAddress: { calle, depto: depto || null, region, comuna },
       };
 
-      // Esta petición fallaba con 403 (Prohibido)
+      // El checkout exige la sesión: el token del login va en el header Authorization
       const resp = await fetch(`${API_BASE}/checkout/purchase`, {
         method: 'POST',
-        headers: { 'Content-Type': 'application/json' },
+        headers: { 'Content-Type': 'application/json', ...authHeaders(user) },
         body: JSON.stringify(payload),
       });
+      if (resp.status === 401) {
+        // Sesión vencida o sin token (login antiguo): volver a iniciar sesión y regresar aquí
+        setIsProcessing(false);
+        logout();
+        navigate('/inicio', { state: { from: { pathname: '/checkout' } } });
+        return;
+      }
       const data = await resp.json();
       if (!resp.ok) {
         setIsProcessing(false);
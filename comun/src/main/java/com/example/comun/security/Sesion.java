@@ -0,0 +1,14 @@
+package com.example.comun.security;
+
+import lombok.Value;
+
+/**
+ * Usuario autenticado, tal como viene en el token (sin ir a la BD).
+ * Es el "principal" que deja TokenFilter en el SecurityContext.
+ */
+@Value
+public class Sesion {
+    Integer usuarioId;
+    String email;
+    String rol;
+}
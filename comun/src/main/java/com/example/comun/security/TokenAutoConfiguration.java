@@ -0,0 +1,36 @@
+package com.example.comun.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+
+import java.time.Duration;
+
+/**
+ * Registra los beans de tokens en cada servicio que tenga "comun" en el classpath
+ * (META-INF/spring/...AutoConfiguration.imports), sin que cada uno los escanee:
+ * - TokenVerificador: si hay app.token.claves (todos los servicios).
+ * - TokenEmisor: además con app.token.clave-activa (identidad, y ordenes para sus llamadas a catalogo).
+ * TokenFilter no es un bean: cada SecurityConfig lo agrega a su cadena de filtros.
+ */
+@AutoConfiguration
+@ConditionalOnProperty("app.token.claves")
+public class TokenAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public TokenVerificador tokenVerificador(@Value("${app.token.claves}") String claves) {
+        return new TokenVerificador(claves);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty("app.token.clave-activa")
+    public TokenEmisor tokenEmisor(@Value("${app.token.claves}") String claves,
+                                   @Value("${app.token.clave-activa}") String claveActiva,
+                                   @Value("${app.token.duracion:PT1H}") Duration duracion) {
+        return new TokenEmisor(claves, claveActiva, duracion);
+    }
+}
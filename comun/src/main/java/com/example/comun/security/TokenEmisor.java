@@ -0,0 +1,72 @@
+package com.example.comun.security;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Emite los tokens de sesión (formato en TokenVerificador) al iniciar sesión.
+ * Firma con la clave "app.token.clave-activa" de app.token.claves
+ * (sólo existe en los servicios que la configuran, ver TokenAutoConfiguration).
+ */
+public class TokenEmisor {
+
+    /** Token firmado y el instante en que vence. */
+    @lombok.Value
+    public static class Token {
+        String valor;
+        Instant expira;
+    }
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+
+    private final String kid;
+    private final SecretKeySpec clave;
+    private final Duration duracion;
+
+    public TokenEmisor(String claves, String claveActiva, Duration duracion) {
+        this.kid = claveActiva;
+        this.clave = TokenVerificador.leerClaves(claves).get(claveActiva);
+        if (this.clave == null) {
+            throw new IllegalStateException("app.token.clave-activa '" + claveActiva + "' no está en app.token.claves.");
+        }
+        this.duracion = duracion;
+    }
+
+    public Token emitir(Sesion sesion) {
+        Instant ahora = Instant.now();
+        Instant expira = ahora.plus(duracion);
+
+        Map<String, Object> cabecera = new LinkedHashMap<>();
+        cabecera.put("alg", "HS256");
+        cabecera.put("typ", "JWT");
+        cabecera.put("kid", kid);
+
+        Map<String, Object> datos = new LinkedHashMap<>();
+        datos.put("sub", String.valueOf(sesion.getUsuarioId()));
+        datos.put("email", sesion.getEmail());
+        datos.put("rol", sesion.getRol());
+        datos.put("iat", ahora.getEpochSecond());
+        datos.put("exp", expira.getEpochSecond());
+
+        String contenido = codificar(cabecera) + "." + codificar(datos);
+        String firma = BASE64URL.encodeToString(TokenVerificador.firmar(clave, contenido));
+        return new Token(contenido + "." + firma, expira);
+    }
+
+    private static String codificar(Map<String, Object> json) {
+        try {
+            return BASE64URL.encodeToString(JSON.writeValueAsString(json).getBytes(StandardCharsets.UTF_8));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
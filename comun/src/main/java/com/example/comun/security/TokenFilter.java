@@ -0,0 +1,65 @@
+package com.example.comun.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Lee "Authorization: Bearer <token>", lo verifica en memoria (TokenVerificador)
+ * y deja la Sesion como usuario autenticado, con la autoridad ROLE_<rol>.
+ * - Sin header: la request sigue como anónima (las rutas públicas funcionan igual).
+ * - Token inválido o vencido: 401 al tiro.
+ * No es un @Component para que Spring no lo registre dos veces (se agrega en SecurityConfig).
+ */
+public class TokenFilter extends OncePerRequestFilter {
+
+    private static final String PREFIJO = "Bearer ";
+
+    private final TokenVerificador verificador;
+
+    public TokenFilter(TokenVerificador verificador) {
+        this.verificador = verificador;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, PREFIJO, 0, PREFIJO.length())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        Sesion sesion;
+        try {
+            sesion = verificador.verificar(header.substring(PREFIJO.length()).trim());
+        } catch (TokenVerificador.TokenInvalidoException e) {
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding("UTF-8");
+            response.getWriter().write("{\"error\":\"" + e.getMessage() + "\"}");
+            return;
+        }
+
+        List<SimpleGrantedAuthority> autoridades = sesion.getRol() == null
+            ? List.of()
+            : List.of(new SimpleGrantedAuthority("ROLE_" + sesion.getRol()));
+        SecurityContext contexto = SecurityContextHolder.createEmptyContext();
+        contexto.setAuthentication(new UsernamePasswordAuthenticationToken(sesion, null, autoridades));
+        SecurityContextHolder.setContext(contexto);
+        chain.doFilter(request, response);
+    }
+}
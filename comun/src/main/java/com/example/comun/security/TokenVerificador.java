@@ -0,0 +1,132 @@
+package com.example.comun.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Verifica los tokens de sesión que emite servicio-identidad.
+ *
+ * Formato JWT compacto firmado con HMAC-SHA256 (HS256):
+ *   base64url(cabecera).base64url(datos).base64url(firma)
+ * cabecera = {"alg":"HS256","typ":"JWT","kid":"k1"}
+ * datos    = {"sub":"<usuarioId>","email":"...","rol":"...","iat":...,"exp":...}
+ *
+ * Las claves se leen una sola vez de app.token.claves ("kid:secretoBase64,kid2:...").
+ * El "kid" permite rotar: se agrega la clave nueva en todos los servicios, luego
+ * identidad empieza a firmar con ella, y la antigua se quita cuando vencen sus tokens.
+ * Verificar es sólo CPU (un HMAC + leer un JSON chico): sin llamadas a identidad ni a la BD.
+ *
+ * Cada servicio recibe su instancia desde TokenAutoConfiguration.
+ */
+public class TokenVerificador {
+
+    /** Token mal formado, con firma inválida, de una clave desconocida o vencido. */
+    public static class TokenInvalidoException extends RuntimeException {
+        public TokenInvalidoException(String mensaje) {
+            super(mensaje);
+        }
+    }
+
+    static final String ALGORITMO = "HmacSHA256";
+    private static final long TOLERANCIA_SEGUNDOS = 30; // Diferencia de reloj entre servidores
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final Base64.Decoder BASE64URL = Base64.getUrlDecoder();
+
+    private final Map<String, SecretKeySpec> claves;
+
+    public TokenVerificador(String claves) {
+        this.claves = leerClaves(claves);
+    }
+
+    public Sesion verificar(String token) {
+        int punto1 = token.indexOf('.');
+        int punto2 = token.indexOf('.', punto1 + 1);
+        if (punto1 <= 0 || punto2 <= punto1 + 1 || punto2 == token.length() - 1 || token.indexOf('.', punto2 + 1) >= 0) {
+            throw new TokenInvalidoException("Token mal formado.");
+        }
+
+        JsonNode cabecera = leerJson(token.substring(0, punto1));
+        if (!"HS256".equals(cabecera.path("alg").asText())) {
+            throw new TokenInvalidoException("Algoritmo de token no soportado.");
+        }
+        SecretKeySpec clave = claves.get(cabecera.path("kid").asText());
+        if (clave == null) {
+            throw new TokenInvalidoException("Token firmado con una clave desconocida.");
+        }
+
+        byte[] firma;
+        try {
+            firma = BASE64URL.decode(token.substring(punto2 + 1));
+        } catch (IllegalArgumentException e) {
+            throw new TokenInvalidoException("Token mal formado.");
+        }
+        byte[] esperada = firmar(clave, token.substring(0, punto2));
+        if (!MessageDigest.isEqual(firma, esperada)) { // Tiempo constante
+            throw new TokenInvalidoException("Firma de token inválida.");
+        }
+
+        JsonNode datos = leerJson(token.substring(punto1 + 1, punto2));
+        long ahora = Instant.now().getEpochSecond();
+        if (!datos.path("exp").canConvertToLong() || datos.path("exp").asLong() + TOLERANCIA_SEGUNDOS < ahora) {
+            throw new TokenInvalidoException("Token vencido.");
+        }
+        if (!datos.hasNonNull("sub")) {
+            throw new TokenInvalidoException("Token sin usuario.");
+        }
+        try {
+            return new Sesion(Integer.valueOf(datos.get("sub").asText()),
+                datos.path("email").asText(null), datos.path("rol").asText(null));
+        } catch (NumberFormatException e) {
+            throw new TokenInvalidoException("Token sin usuario.");
+        }
+    }
+
+    // =======================================================
+    // --- Utilidades ---
+    // =======================================================
+
+    static byte[] firmar(SecretKeySpec clave, String contenido) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITMO);
+            mac.init(clave);
+            return mac.doFinal(contenido.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo calcular el HMAC del token.", e);
+        }
+    }
+
+    /** "k1:c2VjcmV0bw==,k2:..." -> {k1: clave, k2: clave}. Exige secretos de al menos 256 bits. */
+    static Map<String, SecretKeySpec> leerClaves(String texto) {
+        Map<String, SecretKeySpec> claves = new LinkedHashMap<>();
+        for (String par : texto.split(",")) {
+            String[] partes = par.trim().split(":", 2);
+            if (partes.length != 2 || partes[0].isBlank()) {
+                throw new IllegalStateException("app.token.claves debe tener el formato kid:secretoBase64[,kid:secretoBase64...]");
+            }
+            byte[] secreto = Base64.getDecoder().decode(partes[1].trim());
+            if (secreto.length < 32) {
+                throw new IllegalStateException("La clave de token '" + partes[0] + "' debe tener al menos 32 bytes.");
+            }
+            claves.put(partes[0].trim(), new SecretKeySpec(secreto, ALGORITMO));
+        }
+        return claves;
+    }
+
+    private static JsonNode leerJson(String parteBase64) {
+        try {
+            return JSON.readTree(BASE64URL.decode(parteBase64));
+        } catch (Exception e) {
+            throw new TokenInvalidoException("Token mal formado.");
+        }
+    }
+}
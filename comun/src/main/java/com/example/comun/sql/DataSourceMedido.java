@@ -0,0 +1,188 @@
+package com.example.comun.sql;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Envuelve el DataSource (Hikari) para contar lo que se ejecuta dentro de una
+ * request: cada execute* suma una sentencia y su tiempo, cada fila leída de un
+ * ResultSet (o afectada por un UPDATE/INSERT/DELETE) suma una fila.
+ * Pasa por aquí todo JDBC: Hibernate, JdbcTemplate y consultas nativas.
+ *
+ * Costo: sin medición activa (fuera de una request) los statements salen sin
+ * envolver; con medición, un proxy por statement/ResultSet y un nanoTime por execute.
+ * Reemplaza a spring.jpa.show-sql, que imprimía cada SQL en la consola.
+ */
+public class DataSourceMedido extends DelegatingDataSource {
+
+    public DataSourceMedido(DataSource destino) {
+        super(destino);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return envolver(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String usuario, String password) throws SQLException {
+        return envolver(super.getConnection(usuario, password));
+    }
+
+    private static Connection envolver(Connection conexion) {
+        return (Connection) Proxy.newProxyInstance(DataSourceMedido.class.getClassLoader(),
+            new Class<?>[] {Connection.class}, new ConexionMedida(conexion));
+    }
+
+    // --- Proxies JDBC ---
+
+    /** Connection: envuelve los statements que se crean durante una request. */
+    private static final class ConexionMedida implements InvocationHandler {
+
+        private final Connection conexion;
+
+        ConexionMedida(Connection conexion) {
+            this.conexion = conexion;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+            switch (metodo.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            Object resultado = invocar(conexion, metodo, args);
+            MedicionSql medicion = MedicionSql.actual();
+            if (medicion != null && resultado instanceof Statement) {
+                // prepareStatement(sql, ...) y prepareCall(sql, ...) traen el SQL; createStatement() no
+                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                Class<?> tipo = resultado instanceof CallableStatement ? CallableStatement.class
+                    : resultado instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+                return Proxy.newProxyInstance(DataSourceMedido.class.getClassLoader(),
+                    new Class<?>[] {tipo}, new StatementMedido((Statement) resultado, sql, medicion));
+            }
+            return resultado;
+        }
+    }
+
+    /** Statement: cuenta cada execute*, su tiempo y las filas afectadas. */
+    private static final class StatementMedido implements InvocationHandler {
+
+        private final Statement statement;
+        private final String sqlPreparado;
+        private final MedicionSql medicion;
+
+        StatementMedido(Statement statement, String sqlPreparado, MedicionSql medicion) {
+            this.statement = statement;
+            this.sqlPreparado = sqlPreparado;
+            this.medicion = medicion;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+            String nombre = metodo.getName();
+            if (nombre.equals("equals")) {
+                return proxy == args[0];
+            }
+            if (nombre.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            if (!nombre.startsWith("execute")) {
+                Object resultado = invocar(statement, metodo, args);
+                return nombre.equals("getResultSet") ? envolver((ResultSet) resultado) : resultado;
+            }
+
+            String sql = args != null && args.length > 0 && args[0] instanceof String s ? s
+                : sqlPreparado != null ? sqlPreparado : "(batch)";
+            medicion.antesDe(sql);
+            long inicio = System.nanoTime();
+            Object resultado;
+            try {
+                resultado = invocar(statement, metodo, args);
+            } finally {
+                medicion.sumarTiempo(System.nanoTime() - inicio);
+            }
+            contarAfectadas(resultado);
+            return resultado instanceof ResultSet rs ? envolver(rs) : resultado;
+        }
+
+        private void contarAfectadas(Object resultado) {
+            if (resultado instanceof Integer n && n > 0) {
+                medicion.sumarFilas(n);
+            } else if (resultado instanceof Long n && n > 0) {
+                medicion.sumarFilas(n);
+            } else if (resultado instanceof int[] lote) {
+                for (int n : lote) {
+                    if (n > 0) medicion.sumarFilas(n);
+                }
+            } else if (resultado instanceof long[] lote) {
+                for (long n : lote) {
+                    if (n > 0) medicion.sumarFilas(n);
+                }
+            }
+        }
+
+        private ResultSet envolver(ResultSet resultSet) {
+            if (resultSet == null) {
+                return null;
+            }
+            return (ResultSet) Proxy.newProxyInstance(DataSourceMedido.class.getClassLoader(),
+                new Class<?>[] {ResultSet.class}, new ResultSetMedido(resultSet, medicion));
+        }
+    }
+
+    /** ResultSet: cada next() que trae fila suma una fila leída. */
+    private static final class ResultSetMedido implements InvocationHandler {
+
+        private final ResultSet resultSet;
+        private final MedicionSql medicion;
+
+        ResultSetMedido(ResultSet resultSet, MedicionSql medicion) {
+            this.resultSet = resultSet;
+            this.medicion = medicion;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+            switch (metodo.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "next": {
+                    boolean hayFila = resultSet.next();
+                    if (hayFila) {
+                        medicion.sumarFilas(1);
+                    }
+                    return hayFila;
+                }
+                default:
+                    return invocar(resultSet, metodo, args);
+            }
+        }
+    }
+
+    /** Llama al objeto JDBC real y relanza su excepción original (SQLException, etc.). */
+    private static Object invocar(Object destino, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(destino, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.comun.sql;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Lo que hizo una request HTTP contra la BD: sentencias, filas y tiempo.
+ * Vive en un ThreadLocal mientras dura la request (lo abre y cierra
+ * MedicionSqlInterceptor) y DataSourceMedido le suma cada sentencia de ese hilo.
+ * Fuera de una request (tareas programadas, arranque, Flyway) no hay medición
+ * y las sentencias van directo al driver, sin contar nada.
+ */
+public final class MedicionSql {
+
+    /** La request pasó su @PresupuestoSql con app.sql.presupuesto.fallar=true (pensado para tests). */
+    public static class PresupuestoExcedido extends AssertionError {
+        public PresupuestoExcedido(String mensaje) {
+            super(mensaje);
+        }
+    }
+
+    private static final ThreadLocal<MedicionSql> ACTUAL = new ThreadLocal<>();
+
+    private final int presupuesto; // -1 = sin presupuesto declarado
+    private final boolean fallar;
+
+    private int sentencias;
+    private long filas;
+    private long nanos;
+    // Veces que se ejecutó cada SQL: muchas repeticiones de un mismo SELECT = N+1
+    private final Map<String, Integer> porSql = new HashMap<>();
+
+    private MedicionSql(int presupuesto, boolean fallar) {
+        this.presupuesto = presupuesto;
+        this.fallar = fallar;
+    }
+
+    static void iniciar(int presupuesto, boolean fallar) {
+        ACTUAL.set(new MedicionSql(presupuesto, fallar));
+    }
+
+    /** La medición de la request en curso en este hilo, o null. */
+    static MedicionSql actual() {
+        return ACTUAL.get();
+    }
+
+    /** Cierra la medición del hilo y la devuelve (null si no había). */
+    static MedicionSql terminar() {
+        MedicionSql medicion = ACTUAL.get();
+        ACTUAL.remove();
+        return medicion;
+    }
+
+    /**
+     * Cuenta una sentencia ANTES de ejecutarla: si pasa el presupuesto en modo
+     * "fallar", el error sale desde la línea que la disparó (ej. el lazy load del N+1).
+     */
+    void antesDe(String sql) {
+        sentencias++;
+        porSql.merge(sql, 1, Integer::sum);
+        if (fallar && excedida()) {
+            throw new PresupuestoExcedido("Presupuesto SQL excedido: sentencia " + sentencias
+                + " de " + presupuesto + " permitidas -> " + sql);
+        }
+    }
+
+    void sumarTiempo(long nanos) {
+        this.nanos += nanos;
+    }
+
+    void sumarFilas(long filas) {
+        this.filas += filas;
+    }
+
+    boolean excedida() {
+        return presupuesto >= 0 && sentencias > presupuesto;
+    }
+
+    /** El SELECT que más se repitió en la request (o null si no hubo SELECTs). */
+    Map.Entry<String, Integer> selectMasRepetido() {
+        Map.Entry<String, Integer> mayor = null;
+        for (Map.Entry<String, Integer> entrada : porSql.entrySet()) {
+            if (entrada.getKey().regionMatches(true, 0, "select", 0, 6)
+                    && (mayor == null || entrada.getValue() > mayor.getValue())) {
+                mayor = entrada;
+            }
+        }
+        return mayor;
+    }
+
+    int getPresupuesto() {
+        return presupuesto;
+    }
+
+    int getSentencias() {
+        return sentencias;
+    }
+
+    long getFilas() {
+        return filas;
+    }
+
+    long getNanos() {
+        return nanos;
+    }
+}
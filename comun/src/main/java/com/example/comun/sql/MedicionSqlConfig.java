@@ -0,0 +1,56 @@
+package com.example.comun.sql;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+/**
+ * Conecta la medición de SQL por request: envuelve el DataSource con
+ * DataSourceMedido y registra MedicionSqlInterceptor en Spring MVC.
+ * Se registra sola (META-INF/spring/...AutoConfiguration.imports) en los
+ * servicios web con JDBC y Micrometer (actuator); servicio-reportes no tiene BD y no la carga.
+ */
+@AutoConfiguration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnClass({DelegatingDataSource.class, MeterRegistry.class})
+public class MedicionSqlConfig implements WebMvcConfigurer {
+
+    private final MeterRegistry registry;
+    private final boolean fallar;
+    private final int umbralRepetidas;
+
+    public MedicionSqlConfig(MeterRegistry registry,
+                             @Value("${app.sql.presupuesto.fallar:false}") boolean fallar,
+                             @Value("${app.sql.repetidas.umbral:5}") int umbralRepetidas) {
+        this.registry = registry;
+        this.fallar = fallar;
+        this.umbralRepetidas = umbralRepetidas;
+    }
+
+    /** static: el post-procesador se crea antes que el resto de los beans (incluido el DataSource). */
+    @Bean
+    public static BeanPostProcessor dataSourceMedidoPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String nombre) {
+                return bean instanceof DataSource ds && !(bean instanceof DataSourceMedido)
+                    ? new DataSourceMedido(ds) : bean;
+            }
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry interceptores) {
+        interceptores.addInterceptor(new MedicionSqlInterceptor(registry, fallar, umbralRepetidas));
+    }
+}
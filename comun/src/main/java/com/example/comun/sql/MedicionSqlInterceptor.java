@@ -0,0 +1,105 @@
+package com.example.comun.sql;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Abre una MedicionSql al entrar a un endpoint y al terminar la request
+ * (ya serializada la respuesta, con los lazy loads incluidos) la publica por endpoint:
+ *   http.sql.sentencias, http.sql.filas (resúmenes) y http.sql.tiempo (timer),
+ *   con tags method y uri (el patrón, ej. /api/productos/{id}).
+ * Además cuenta y avisa en el log (WARN):
+ *   http.sql.presupuesto.excedido  más sentencias que su @PresupuestoSql
+ *   http.sql.repetidas             un mismo SELECT repetido "umbral" veces o más (típico N+1)
+ */
+public class MedicionSqlInterceptor implements AsyncHandlerInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(MedicionSqlInterceptor.class);
+
+    private final MeterRegistry registry;
+    private final boolean fallar;
+    private final int umbralRepetidas;
+
+    public MedicionSqlInterceptor(MeterRegistry registry, boolean fallar, int umbralRepetidas) {
+        this.registry = registry;
+        this.fallar = fallar;
+        this.umbralRepetidas = umbralRepetidas;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // El segundo despacho de una respuesta asíncrona no se mide (ya se publicó la primera parte)
+        if (request.getDispatcherType() != DispatcherType.ASYNC) {
+            MedicionSql.iniciar(presupuestoDe(handler), fallar);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Respuesta asíncrona (streaming): lo que siga corre en otro hilo y no se mide
+        publicar(request, MedicionSql.terminar());
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        publicar(request, MedicionSql.terminar());
+    }
+
+    private void publicar(HttpServletRequest request, MedicionSql medicion) {
+        if (medicion == null) {
+            return;
+        }
+        Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = patron != null ? patron.toString() : "UNKNOWN";
+        Tags tags = Tags.of("method", request.getMethod(), "uri", uri);
+
+        DistributionSummary.builder("http.sql.sentencias").description("Sentencias SQL por request")
+            .tags(tags).register(registry).record(medicion.getSentencias());
+        DistributionSummary.builder("http.sql.filas").description("Filas leídas o afectadas por request")
+            .tags(tags).register(registry).record(medicion.getFilas());
+        Timer.builder("http.sql.tiempo").description("Tiempo ejecutando SQL por request")
+            .tags(tags).register(registry).record(medicion.getNanos(), TimeUnit.NANOSECONDS);
+
+        if (medicion.excedida()) {
+            Counter.builder("http.sql.presupuesto.excedido").tags(tags).register(registry).increment();
+            log.warn("{} {}: {} sentencias (presupuesto {})",
+                request.getMethod(), uri, medicion.getSentencias(), medicion.getPresupuesto());
+        }
+        Map.Entry<String, Integer> repetido = medicion.selectMasRepetido();
+        if (repetido != null && repetido.getValue() >= umbralRepetidas) {
+            Counter.builder("http.sql.repetidas").tags(tags).register(registry).increment();
+            log.warn("Posible N+1 en {} {}: {} veces -> {}",
+                request.getMethod(), uri, repetido.getValue(), repetido.getKey());
+        }
+    }
+
+    /** @PresupuestoSql del método, o si no tiene, el de su controller (-1 = sin presupuesto). */
+    private static int presupuestoDe(Object handler) {
+        if (!(handler instanceof HandlerMethod metodo)) {
+            return -1;
+        }
+        PresupuestoSql presupuesto = AnnotatedElementUtils.findMergedAnnotation(metodo.getMethod(), PresupuestoSql.class);
+        if (presupuesto == null) {
+            presupuesto = AnnotatedElementUtils.findMergedAnnotation(metodo.getBeanType(), PresupuestoSql.class);
+        }
+        return presupuesto != null ? presupuesto.value() : -1;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.comun.sql;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Máximo de sentencias SQL que puede ejecutar una request a este endpoint
+ * (contando el caso sin caché). Al pasarse, MedicionSqlInterceptor lo registra
+ * en la métrica http.sql.presupuesto.excedido; con app.sql.presupuesto.fallar=true
+ * (los tests) la sentencia que se pasa lanza MedicionSql.PresupuestoExcedido.
+ * En una clase aplica a todos sus endpoints que no declaren el suyo.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface PresupuestoSql {
+
+    int value();
+}
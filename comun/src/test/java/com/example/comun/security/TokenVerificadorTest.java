@@ -0,0 +1,111 @@
+package com.example.comun.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TokenVerificadorTest {
+
+	// Secretos de prueba (32 bytes cada uno)
+	private static final String K1 = "k1:" + base64("clave-de-prueba-uno-32-bytes-ok!");
+	private static final String K2 = "k2:" + base64("clave-de-prueba-dos-32-bytes-ok!");
+
+	private final Sesion sesion = new Sesion(42, "cliente@peluchemania.cl", "Cliente");
+
+	@Test
+	void verificaElTokenQueEmiteIdentidad() {
+		String token = new TokenEmisor(K1, "k1", Duration.ofHours(1)).emitir(sesion).getValor();
+
+		assertEquals(sesion, new TokenVerificador(K1).verificar(token));
+	}
+
+	@Test
+	void aceptaTokensDeLaClaveAnteriorDuranteLaRotacion() {
+		String anterior = new TokenEmisor(K1, "k1", Duration.ofHours(1)).emitir(sesion).getValor();
+		String nuevo = new TokenEmisor(K1 + "," + K2, "k2", Duration.ofHours(1)).emitir(sesion).getValor();
+		TokenVerificador verificador = new TokenVerificador(K2 + "," + K1);
+
+		assertEquals(sesion, verificador.verificar(anterior));
+		assertEquals(sesion, verificador.verificar(nuevo));
+	}
+
+	@Test
+	void rechazaUnaClaveQueYaNoEstaConfigurada() {
+		String token = new TokenEmisor(K1, "k1", Duration.ofHours(1)).emitir(sesion).getValor();
+
+		assertInvalido("Token firmado con una clave desconocida.", new TokenVerificador(K2), token);
+	}
+
+	@Test
+	void rechazaDatosModificados() {
+		String token = new TokenEmisor(K1, "k1", Duration.ofHours(1)).emitir(sesion).getValor();
+		String[] partes = token.split("\\.");
+		String datosAdmin = Base64.getUrlEncoder().withoutPadding().encodeToString(
+			new String(Base64.getUrlDecoder().decode(partes[1]), StandardCharsets.UTF_8)
+				.replace("\"Cliente\"", "\"Administrador\"").getBytes(StandardCharsets.UTF_8));
+
+		assertInvalido("Firma de token inválida.", new TokenVerificador(K1),
+			partes[0] + "." + datosAdmin + "." + partes[2]);
+	}
+
+	@Test
+	void rechazaTokensVencidosMasAllaDeLaTolerancia() {
+		TokenVerificador verificador = new TokenVerificador(K1);
+		String vencidoHaceUnMinuto = new TokenEmisor(K1, "k1", Duration.ofMinutes(-1)).emitir(sesion).getValor();
+		String vencidoHaceDiezSegundos = new TokenEmisor(K1, "k1", Duration.ofSeconds(-10)).emitir(sesion).getValor();
+
+		assertInvalido("Token vencido.", verificador, vencidoHaceUnMinuto);
+		// Dentro de los 30 s de diferencia de reloj todavía vale
+		assertEquals(sesion, verificador.verificar(vencidoHaceDiezSegundos));
+	}
+
+	@Test
+	void rechazaOtroAlgoritmo() {
+		String token = new TokenEmisor(K1, "k1", Duration.ofHours(1)).emitir(sesion).getValor();
+		String sinFirma = base64Url("{\"alg\":\"none\",\"typ\":\"JWT\",\"kid\":\"k1\"}")
+			+ token.substring(token.indexOf('.'));
+
+		assertInvalido("Algoritmo de token no soportado.", new TokenVerificador(K1), sinFirma);
+	}
+
+	@Test
+	void rechazaTokensMalFormados() {
+		TokenVerificador verificador = new TokenVerificador(K1);
+
+		for (String token : new String[] {"", "abc", "a.b", "a..c", ".b.c", "a.b.", "a.b.c.d", "%%%.b.c"}) {
+			assertInvalido("Token mal formado.", verificador, token);
+		}
+	}
+
+	@Test
+	void exigeSecretosDeAlMenos256Bits() {
+		assertThrows(IllegalStateException.class, () -> new TokenVerificador("corta:" + base64("muy-corta")));
+		assertThrows(IllegalStateException.class, () -> new TokenVerificador("sin-separador"));
+	}
+
+	@Test
+	void elEmisorExigeQueLaClaveActivaEsteConfigurada() {
+		assertThrows(IllegalStateException.class, () -> new TokenEmisor(K1, "k2", Duration.ofHours(1)));
+	}
+
+	// --- Utilidades ---
+
+	private static void assertInvalido(String mensaje, TokenVerificador verificador, String token) {
+		TokenVerificador.TokenInvalidoException e =
+			assertThrows(TokenVerificador.TokenInvalidoException.class, () -> verificador.verificar(token));
+		assertEquals(mensaje, e.getMessage());
+	}
+
+	private static String base64(String texto) {
+		return Base64.getEncoder().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String base64Url(String texto) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -2,8 +2,10 @@ package com.example.servicio_catalogo;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling // Para liberar las reservas de stock vencidas (ReservaExpirador)
 public class ServicioCatalogoApplication {
 
 	public static void main(String[] args) {
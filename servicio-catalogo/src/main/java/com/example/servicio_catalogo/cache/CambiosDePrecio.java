@@ -0,0 +1,101 @@
+package com.example.servicio_catalogo.cache;
+
+import com.example.servicio_catalogo.dto.CambiosPrecioDTO;
+import com.example.servicio_catalogo.entity.Producto;
+import com.example.servicio_catalogo.event.ProductoCambiadoEvent;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Versión de los precios del catálogo + registro de los últimos cambios.
+ *
+ * Cada vez que cambia el precio, la oferta o el descuento de un producto,
+ * o el nombre o la imagen que la boleta copia de PrecioDTO (o se elimina), la versión sube y se anota el id. servicio-ordenes guarda
+ * los precios en memoria y pregunta "¿qué cambió desde la versión N?"
+ * para borrar sólo esos, sin consultar precios en cada compra.
+ */
+@Component
+public class CambiosDePrecio {
+
+    // Cuántos cambios se recuerdan; si un cliente se atrasa más, se le pide recargar todo
+    private static final int MAX_CAMBIOS = 10000;
+
+    // Distingue cada arranque del servicio (las versiones vuelven a 0 al reiniciar)
+    private final long epoch = System.currentTimeMillis();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<long[]> cambios = new ArrayDeque<>(); // {version, productoId}
+    private long version;
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public long getVersion() {
+        lock.lock();
+        try {
+            return version;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onProductoCambiado(ProductoCambiadoEvent evento) {
+        if (!cambioElPrecio(evento.getAnterior(), evento.getActual())) {
+            return;
+        }
+        lock.lock();
+        try {
+            version++;
+            cambios.addLast(new long[] { version, evento.getProductoId() });
+            if (cambios.size() > MAX_CAMBIOS) {
+                cambios.removeFirst();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Ids cuyo precio cambió después de la versión "desde" del arranque "epochCliente". */
+    public CambiosPrecioDTO cambiosDesde(long epochCliente, long desde) {
+        lock.lock();
+        try {
+            long primera = cambios.isEmpty() ? version + 1 : cambios.peekFirst()[0];
+            if (epochCliente != epoch || desde > version || desde < primera - 1) {
+                return new CambiosPrecioDTO(epoch, version, new ArrayList<>(), true);
+            }
+            Set<Integer> ids = new LinkedHashSet<>();
+            for (long[] cambio : cambios) {
+                if (cambio[0] > desde) {
+                    ids.add((int) cambio[1]);
+                }
+            }
+            return new CambiosPrecioDTO(epoch, version, new ArrayList<>(ids), false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static boolean cambioElPrecio(Producto anterior, Producto actual) {
+        if (anterior == null) {
+            return false; // Producto nuevo: nadie tiene su precio guardado
+        }
+        if (actual == null) {
+            return true; // Eliminado
+        }
+        return !Objects.equals(anterior.getPrecio(), actual.getPrecio())
+            || !Objects.equals(anterior.getOnSale(), actual.getOnSale())
+            || !Objects.equals(anterior.getDiscountPercentage(), actual.getDiscountPercentage())
+            || !Objects.equals(anterior.getNombre(), actual.getNombre())
+            || !Objects.equals(anterior.getImagenUrl(), actual.getImagenUrl());
+    }
+}
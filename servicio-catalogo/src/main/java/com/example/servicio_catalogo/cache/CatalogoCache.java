@@ -0,0 +1,310 @@
+package com.example.servicio_catalogo.cache;
+
+import com.example.servicio_catalogo.dto.PaginaDTO;
+import com.example.servicio_catalogo.dto.ProductoDetalleDTO;
+import com.example.servicio_catalogo.entity.Categoria;
+import com.example.servicio_catalogo.entity.Producto;
+import com.example.servicio_catalogo.event.CategoriaCambiadaEvent;
+import com.example.servicio_catalogo.event.ProductoCambiadoEvent;
+import com.example.servicio_catalogo.repository.ProductoFiltro;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Caché en memoria (read-through) para las lecturas del catálogo.
+ *
+ * - Acotado por "peso": cada entrada pesa 1 + el número de productos que
+ *   contiene, así un listado de 500 productos cuenta más que un detalle.
+ *   Caffeine desaloja con su política W-TinyLFU al pasar el máximo.
+ * - Invalidación precisa: cada entrada recuerda qué productos y categorías
+ *   contiene. Cuando CatalogoService publica un cambio, sólo se borran las
+ *   entradas que contienen ese producto o los listados donde podría entrar.
+ * - Contadores de hit/miss/evictions en Micrometer
+ *   (/actuator/metrics/cache.gets?tag=cache:catalogo, cache.evictions, ...).
+ * - Además guarda las respuestas HTTP ya serializadas (CuerpoJson, con
+ *   ETag y gzip) en un segundo caché "catalogo-json", acotado por bytes.
+ */
+@Component
+public class CatalogoCache {
+
+    /** Llave de una entrada: un listado (filtro + variante de página), un detalle o las categorías. */
+    public static final class Clave {
+
+        private enum Tipo { LISTADO, DETALLE, CATEGORIAS }
+
+        private final Tipo tipo;
+        private final ProductoFiltro filtro;
+        private final Integer id;
+        private final String variante;
+
+        private Clave(Tipo tipo, ProductoFiltro filtro, Integer id, String variante) {
+            this.tipo = tipo;
+            this.filtro = filtro;
+            this.id = id;
+            this.variante = variante;
+        }
+
+        /** Lista completa de un filtro (variante = null) o una página (variante = orden|size|cursor). */
+        public static Clave listado(ProductoFiltro filtro, String variante) {
+            return new Clave(Tipo.LISTADO, filtro, null, variante);
+        }
+
+        public static Clave detalle(Integer productoId) {
+            return new Clave(Tipo.DETALLE, null, productoId, null);
+        }
+
+        public static Clave categorias() {
+            return new Clave(Tipo.CATEGORIAS, null, null, null);
+        }
+
+        /** ¿Un producto con este estado aparecería en esta entrada? */
+        boolean podriaContener(Producto producto) {
+            switch (tipo) {
+                case LISTADO:
+                    return filtro.coincide(producto);
+                case DETALLE:
+                    return Objects.equals(id, producto.getId());
+                default:
+                    return false;
+            }
+        }
+
+        boolean dependeDeCategoria(Integer categoriaId) {
+            return tipo == Tipo.CATEGORIAS
+                || (tipo == Tipo.LISTADO && filtro.getTipo() == ProductoFiltro.Tipo.CATEGORIA
+                    && Objects.equals(filtro.getValor(), categoriaId));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Clave)) return false;
+            Clave otra = (Clave) o;
+            return tipo == otra.tipo && Objects.equals(filtro, otra.filtro)
+                && Objects.equals(id, otra.id) && Objects.equals(variante, otra.variante);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(tipo, filtro, id, variante);
+        }
+
+        @Override
+        public String toString() {
+            return tipo + "[" + (filtro != null ? filtro : "") + (id != null ? id : "")
+                + (variante != null ? "|" + variante : "") + "]";
+        }
+    }
+
+    /** Valor guardado + los productos/categorías que contiene (para invalidar). */
+    private static final class Entrada {
+        final Object valor;
+        final Set<Integer> productoIds = new HashSet<>();
+        final Set<Integer> categoriaIds = new HashSet<>();
+
+        Entrada(Object valor) {
+            this(valor, valor);
+        }
+
+        /** "contenido" es el objeto del que salen los ids (para un CuerpoJson, la respuesta antes de serializar). */
+        Entrada(Object valor, Object contenido) {
+            this.valor = valor;
+            recolectar(contenido);
+        }
+
+        int peso() {
+            return 1 + productoIds.size();
+        }
+
+        private void recolectar(Object obj) {
+            if (obj instanceof Producto) {
+                Producto p = (Producto) obj;
+                productoIds.add(p.getId());
+                if (p.getCategoria() != null) {
+                    categoriaIds.add(p.getCategoria().getId());
+                }
+            } else if (obj instanceof ProductoDetalleDTO) {
+                ProductoDetalleDTO d = (ProductoDetalleDTO) obj;
+                productoIds.add(d.getId());
+                if (d.getCategoria() != null) {
+                    categoriaIds.add(d.getCategoria().getId());
+                }
+            } else if (obj instanceof Categoria) {
+                categoriaIds.add(((Categoria) obj).getId());
+            } else if (obj instanceof Map) {
+                recolectar(((Map<?, ?>) obj).values());
+            } else if (obj instanceof PaginaDTO) {
+                recolectar(((PaginaDTO<?>) obj).getItems());
+            } else if (obj instanceof Collection) {
+                for (Object item : (Collection<?>) obj) {
+                    recolectar(item);
+                }
+            }
+        }
+    }
+
+    private final Cache<Clave, Entrada> cache;
+
+    // Respuestas ya serializadas (CuerpoJson), acotadas por bytes.
+    // Usan las mismas claves y reglas de invalidación que "cache".
+    private final Cache<Clave, Entrada> respuestas;
+    private final ObjectMapper objectMapper;
+
+    // Sube con cada invalidación. Si una carga empezó antes de un cambio,
+    // su resultado puede estar viejo y no se guarda (evita carreras lectura/escritura).
+    private final AtomicLong generacion = new AtomicLong();
+
+    public CatalogoCache(@Value("${catalogo.cache.peso-maximo:20000}") long pesoMaximo,
+                         @Value("${catalogo.cache.expiracion:PT10M}") Duration expiracion,
+                         @Value("${catalogo.cache.json-bytes-maximo:33554432}") long bytesMaximo,
+                         ObjectMapper objectMapper,
+                         MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+            .maximumWeight(pesoMaximo)
+            .weigher((Clave clave, Entrada entrada) -> entrada.peso())
+            // Red de seguridad por si alguien modifica la BD por fuera del servicio
+            .expireAfterWrite(expiracion)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "catalogo");
+
+        this.respuestas = Caffeine.newBuilder()
+            .maximumWeight(bytesMaximo)
+            .weigher((Clave clave, Entrada entrada) -> ((CuerpoJson) entrada.valor).peso())
+            .expireAfterWrite(expiracion)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, respuestas, "catalogo-json");
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Devuelve el valor cacheado para la clave o lo carga con "cargador"
+     * (la consulta a PostgreSQL) y lo guarda.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T obtener(Clave clave, Supplier<T> cargador) {
+        Entrada entrada = cache.getIfPresent(clave);
+        if (entrada != null) {
+            return (T) entrada.valor;
+        }
+
+        long generacionInicial = generacion.get();
+        T valor = cargador.get();
+        if (valor != null && generacion.get() == generacionInicial) {
+            cache.put(clave, new Entrada(valor));
+        }
+        return valor;
+    }
+
+    /**
+     * Igual que obtener(), pero para varias claves a la vez: lo que ya está
+     * en caché se devuelve directo y los faltantes se cargan con UNA sola
+     * llamada a "cargador" (p. ej. una consulta con IN).
+     */
+    @SuppressWarnings("unchecked")
+    public <K, T> Map<K, T> obtenerVarios(List<K> ids, Function<K, Clave> clave,
+                                          Function<List<K>, Map<K, T>> cargador) {
+        Map<K, T> resultado = new HashMap<>();
+        List<K> faltantes = new ArrayList<>();
+        for (K id : ids) {
+            Entrada entrada = cache.getIfPresent(clave.apply(id));
+            if (entrada != null) {
+                resultado.put(id, (T) entrada.valor);
+            } else {
+                faltantes.add(id);
+            }
+        }
+        if (faltantes.isEmpty()) {
+            return resultado;
+        }
+
+        long generacionInicial = generacion.get();
+        Map<K, T> cargados = cargador.apply(faltantes);
+        if (generacion.get() == generacionInicial) {
+            cargados.forEach((id, valor) -> cache.put(clave.apply(id), new Entrada(valor)));
+        }
+        resultado.putAll(cargados);
+        return resultado;
+    }
+
+    /**
+     * Devuelve la respuesta HTTP ya serializada para la clave. Si no está
+     * (o un cambio del catálogo la invalidó), se arma con "respuesta",
+     * se pasa por Jackson una sola vez y se guarda con su ETag.
+     */
+    public CuerpoJson obtenerJson(Clave clave, Supplier<?> respuesta) {
+        Entrada entrada = respuestas.getIfPresent(clave);
+        if (entrada != null) {
+            return (CuerpoJson) entrada.valor;
+        }
+
+        long generacionInicial = generacion.get();
+        Object contenido = respuesta.get();
+        CuerpoJson cuerpo;
+        try {
+            cuerpo = new CuerpoJson(objectMapper.writeValueAsBytes(contenido));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la respuesta " + clave, e);
+        }
+        if (generacion.get() == generacionInicial) {
+            respuestas.put(clave, new Entrada(cuerpo, contenido));
+        }
+        return cuerpo;
+    }
+
+    // =======================================================
+    // --- INVALIDACIÓN (escuchando los eventos del servicio) ---
+    // =======================================================
+
+    @EventListener
+    public void onProductoCambiado(ProductoCambiadoEvent evento) {
+        generacion.incrementAndGet();
+        Integer productoId = evento.getProductoId();
+        Producto actual = evento.getActual();
+
+        // Se borra lo que contiene al producto (estado viejo) y los listados
+        // donde el producto entra con su estado nuevo.
+        invalidar(e ->
+            e.getValue().productoIds.contains(productoId)
+                || (actual != null && e.getKey().podriaContener(actual)));
+    }
+
+    @EventListener
+    public void onCategoriaCambiada(CategoriaCambiadaEvent evento) {
+        generacion.incrementAndGet();
+        Integer categoriaId = evento.getCategoriaId();
+
+        invalidar(e ->
+            e.getKey().dependeDeCategoria(categoriaId)
+                || e.getValue().categoriaIds.contains(categoriaId));
+    }
+
+    private void invalidar(Predicate<Map.Entry<Clave, Entrada>> condicion) {
+        cache.asMap().entrySet().removeIf(condicion);
+        respuestas.asMap().entrySet().removeIf(condicion);
+    }
+}
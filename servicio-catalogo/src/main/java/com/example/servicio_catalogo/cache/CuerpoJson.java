@@ -0,0 +1,64 @@
+package com.example.servicio_catalogo.cache;
+
+import lombok.Getter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Respuesta JSON ya serializada (y comprimida con gzip si vale la pena),
+ * con su ETag fuerte. Se guarda en CatalogoCache para no volver a pasar
+ * por Jackson en cada GET del catálogo.
+ */
+@Getter
+public class CuerpoJson {
+
+    // Bajo este tamaño gzip casi no ahorra y sólo gasta CPU
+    private static final int MINIMO_PARA_GZIP = 1024;
+
+    private final byte[] json;
+    private final byte[] gzip; // null si el cuerpo es muy chico
+    private final String etag;
+
+    public CuerpoJson(byte[] json) {
+        this.json = json;
+        this.gzip = json.length >= MINIMO_PARA_GZIP ? comprimir(json) : null;
+        this.etag = calcularEtag(json);
+    }
+
+    /** ETag de la versión gzip (otra representación, así que otro ETag fuerte). */
+    public String getEtagGzip() {
+        return etag.substring(0, etag.length() - 1) + "-gz\"";
+    }
+
+    int peso() {
+        return json.length + (gzip != null ? gzip.length : 0);
+    }
+
+    private static byte[] comprimir(byte[] datos) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(datos.length / 4);
+        try (GZIPOutputStream gz = new GZIPOutputStream(salida)) {
+            gz.write(datos);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return salida.toByteArray();
+    }
+
+    private static String calcularEtag(byte[] datos) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(datos);
+            // 16 bytes del SHA-256 bastan para distinguir versiones
+            byte[] corto = Arrays.copyOf(hash, 16);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(corto) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -4,7 +4,14 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.http.HttpStatus;
+
+import com.example.comun.security.TokenFilter;
+import com.example.comun.security.TokenVerificador;
 
 @Configuration
 public class SecurityConfig {
@@ -16,14 +23,22 @@ public class SecurityConfig {
     }
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, TokenVerificador tokenVerificador) throws Exception {
         http
             // 1. Deshabilitar CSRF
             .csrf(AbstractHttpConfigurer::disable)
+
+            // Token de identidad opcional: si viene, se verifica aquí mismo (sin llamar a identidad)
+            .sessionManagement(s -> s.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .addFilterBefore(new TokenFilter(tokenVerificador), UsernamePasswordAuthenticationFilter.class)
+            // Sin token en una ruta protegida: 401 (no 403)
+            .exceptionHandling(e -> e.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
             
             // 2. --- ¡EL GRAN CAMBIO! ---
             // Le decimos que CUALQUIER RUTA (anyRequest) está PERMITIDA (permitAll)
             .authorizeHttpRequests(auth -> auth
+                // Reservar, confirmar y liberar stock: sólo servicio-ordenes (token de servicio, ver CatalogoClient)
+                .requestMatchers("/api/reservas/**").hasRole("Servicio")
                 .anyRequest().permitAll() 
             )
             
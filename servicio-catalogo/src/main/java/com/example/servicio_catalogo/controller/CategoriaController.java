@@ -5,7 +5,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import com.example.servicio_catalogo.entity.Categoria;
 import com.example.servicio_catalogo.service.CatalogoService;
-import java.util.List;
+import com.example.comun.sql.PresupuestoSql;
+import jakarta.servlet.http.HttpServletRequest;
 
 // --- AÑADE ESTAS IMPORTACIONES ---
 import org.springframework.http.ResponseEntity;
@@ -28,9 +29,11 @@ public class CategoriaController {
     }
 
     // GET (Este ya lo tenías)
+    // Devuelve el JSON ya serializado, con ETag (304 si no cambió) y gzip
+    @PresupuestoSql(1)
     @GetMapping
-    public List<Categoria> getAllCategorias() {
-        return catalogoService.findAllCategorias();
+    public ResponseEntity<byte[]> getAllCategorias(HttpServletRequest request) {
+        return RespuestaJson.responder(catalogoService.findAllCategoriasJson(), request);
     }
     
     // --- AÑADE LOS NUEVOS ENDPOINTS CRUD ---
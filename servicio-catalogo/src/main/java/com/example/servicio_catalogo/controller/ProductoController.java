@@ -3,9 +3,13 @@ package com.example.servicio_catalogo.controller;
 import com.example.servicio_catalogo.entity.Producto;
 import com.example.servicio_catalogo.service.CatalogoService;
 import com.example.servicio_catalogo.dto.ProductoDetalleDTO;
+import com.example.servicio_catalogo.dto.CambiosPrecioDTO;
 import com.example.servicio_catalogo.dto.ProductoFormDTO; // <-- Importante para el CRUD
+import com.example.servicio_catalogo.repository.ProductoFiltro;
+import com.example.comun.sql.PresupuestoSql;
 
 import org.springframework.http.ResponseEntity;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.web.bind.annotation.*; // <-- Importante (para POST, PUT, DELETE)
 import java.util.List;
 import java.util.Map;
@@ -32,57 +36,160 @@ public class ProductoController {
     /**
      * Obtiene todos los productos.
      * Responde a: GET /api/productos
+     *
+     * Paginado (keyset): GET /api/productos?size=20&sort=id|precio&cursor=...
+     * Sin parámetros devuelve la lista completa, como antes (la usa el frontend actual).
      */
+    @PresupuestoSql(1)
     @GetMapping
-    public List<Producto> getAllProductos() {
-        return catalogoService.findAllProductos();
+    public ResponseEntity<?> getAllProductos(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String sort,
+            HttpServletRequest request) {
+        return listar(ProductoFiltro.todos(), cursor, size, sort, request);
     }
     
     /**
      * Obtiene productos con stock bajo (crítico).
-     * Responde a: GET /api/productos/low-stock
+     * Responde a: GET /api/productos/low-stock (acepta cursor/size/sort)
      */
+    @PresupuestoSql(1)
     @GetMapping("/low-stock")
-    public ResponseEntity<List<Producto>> getLowStockProductos() {
-        List<Producto> productosCriticos = catalogoService.findProductosConStockBajo();
-        return ResponseEntity.ok(productosCriticos);
+    public ResponseEntity<?> getLowStockProductos(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String sort,
+            HttpServletRequest request) {
+        return listar(catalogoService.filtroStockBajo(), cursor, size, sort, request);
     }
     
     /**
      * Obtiene productos marcados como "en oferta".
-     * Responde a: GET /api/productos/on-sale
+     * Responde a: GET /api/productos/on-sale (acepta cursor/size/sort)
      */
+    @PresupuestoSql(1)
     @GetMapping("/on-sale")
-    public List<Producto> getOnSaleProductos() {
-        return catalogoService.findOnSaleProductos();
+    public ResponseEntity<?> getOnSaleProductos(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String sort,
+            HttpServletRequest request) {
+        return listar(ProductoFiltro.enOferta(), cursor, size, sort, request);
     }
 
     /**
      * Obtiene productos filtrados por ID de categoría.
-     * Responde a: GET /api/productos/category/{categoryId}
+     * Responde a: GET /api/productos/category/{categoryId} (acepta cursor/size/sort)
      */
+    @PresupuestoSql(1)
     @GetMapping("/category/{categoryId}")
-    public List<Producto> getProductosByCategoria(@PathVariable Integer categoryId) {
-        return catalogoService.findProductosByCategoria(categoryId);
+    public ResponseEntity<?> getProductosByCategoria(
+            @PathVariable Integer categoryId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String sort,
+            HttpServletRequest request) {
+        return listar(ProductoFiltro.categoria(categoryId), cursor, size, sort, request);
     }
 
     /**
      * Obtiene los detalles completos de un solo producto (para la página de detalles).
      * Responde a: GET /api/productos/{id}/details
      */
+    @PresupuestoSql(1)
     @GetMapping("/{id}/details")
-    public ResponseEntity<?> getProductoDetails(@PathVariable Integer id) {
+    public ResponseEntity<?> getProductoDetails(@PathVariable Integer id, HttpServletRequest request) {
         try {
-            // El servicio devuelve el DTO con producto + imágenes
-            ProductoDetalleDTO detalle = catalogoService.findProductoDetails(id);
-            // El frontend espera un objeto { "data": ... }
-            return ResponseEntity.ok(Map.of("data", detalle));
+            // El servicio devuelve el JSON { "data": ... } (producto + imágenes)
+            // ya serializado, con su ETag
+            return RespuestaJson.responder(catalogoService.findProductoDetailsJson(id), request);
         } catch (Exception e) {
             // Maneja el caso de producto no encontrado
             return ResponseEntity.status(404).body(Map.of("error", e.getMessage()));
         }
     }
 
+    /**
+     * Busca productos por nombre o descripción (sin importar tildes ni mayúsculas).
+     * La última palabra se completa como prefijo, para el buscador con sugerencias.
+     * Responde a: GET /api/productos/search?q=peluche osi&limit=10
+     */
+    // Sale del índice en memoria (IndiceProductos), sin tocar la BD
+    @PresupuestoSql(0)
+    @GetMapping("/search")
+    public ResponseEntity<?> searchProductos(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(catalogoService.buscarProductos(q, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Filtros combinados con conteos por faceta, para el panel de filtros de la tienda.
+     * Los valores repetidos de una misma faceta se combinan con OR, y las facetas entre sí con AND.
+     * Responde a: GET /api/productos/facets?categoria=1&categoria=3&onSale=true&inStock=true&precio=10000-20000
+     */
+    // Ídem: facetas en memoria
+    @PresupuestoSql(0)
+    @GetMapping("/facets")
+    public ResponseEntity<?> getProductosPorFacetas(
+            @RequestParam(required = false) List<Integer> categoria,
+            @RequestParam(required = false) Boolean onSale,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(required = false) List<String> precio,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(catalogoService.findProductosPorFacetas(categoria, onSale, inStock, precio, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Obtiene los detalles de varios productos en una sola llamada
+     * (para el carro y la wishlist, en vez de un /{id}/details por producto).
+     * Responde a: GET /api/productos/details?ids=1,2,3
+     */
+    @PresupuestoSql(1)
+    @GetMapping("/details")
+    public ResponseEntity<?> getProductosDetails(@RequestParam List<Integer> ids) {
+        try {
+            List<ProductoDetalleDTO> detalles = catalogoService.findProductosDetails(ids);
+            return ResponseEntity.ok(Map.of("data", detalles));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Precios vigentes (con descuento aplicado en "precioFinal") + versión de precios.
+     * Lo usa el checkout de servicio-ordenes cuando no tiene el precio en memoria.
+     * Responde a: GET /api/productos/precios?ids=1,2,3
+     */
+    @PresupuestoSql(1)
+    @GetMapping("/precios")
+    public ResponseEntity<?> getPrecios(@RequestParam List<Integer> ids) {
+        try {
+            return ResponseEntity.ok(catalogoService.findPrecios(ids));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Ids de los productos cuyo precio cambió desde la versión "desde".
+     * servicio-ordenes lo consulta cada pocos segundos para invalidar su caché de precios.
+     * Responde a: GET /api/productos/precios/cambios?epoch=...&desde=...
+     */
+    @GetMapping("/precios/cambios")
+    public CambiosPrecioDTO getCambiosDePrecio(@RequestParam long epoch, @RequestParam long desde) {
+        return catalogoService.findCambiosDePrecio(epoch, desde);
+    }
+
     // ======================================================
     // --- ENDPOINTS CRUD (CREAR, ACTUALIZAR, BORRAR) ---
     // ======================================================
@@ -120,4 +227,29 @@ public class ProductoController {
         // Devuelve 200 OK (vacío) si tiene éxito
         return ResponseEntity.ok().build();
     }
+
+    // ======================================================
+    // --- AYUDANTES DE LISTADOS (PAGINACIÓN + JSON CACHEADO) ---
+    // ======================================================
+
+    private boolean esPaginado(String cursor, Integer size, String sort) {
+        return cursor != null || size != null || sort != null;
+    }
+
+    /**
+     * Responde un listado (completo o paginado) con el JSON ya serializado
+     * por el servicio: ETag fuerte, 304 si no cambió y gzip si se acepta.
+     */
+    private ResponseEntity<?> listar(ProductoFiltro filtro, String cursor, Integer size, String sort,
+                                     HttpServletRequest request) {
+        if (!esPaginado(cursor, size, sort)) {
+            return RespuestaJson.responder(catalogoService.findProductosJson(filtro), request);
+        }
+        try {
+            return RespuestaJson.responder(catalogoService.findProductosPaginaJson(filtro, cursor, size, sort), request);
+        } catch (IllegalArgumentException e) {
+            // Cursor u orden inválido
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,76 @@
+package com.example.servicio_catalogo.controller;
+
+import com.example.servicio_catalogo.dto.ReservaRequestDTO;
+import com.example.servicio_catalogo.entity.Reserva;
+import com.example.servicio_catalogo.service.ReservaService;
+import com.example.comun.sql.PresupuestoSql;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.Map;
+
+/**
+ * Reservas de stock que usa el checkout de servicio-ordenes:
+ * reservar -> (guardar la boleta) -> confirmar, o liberar si algo falló.
+ * Mapeado a la ruta base "/api/reservas"
+ */
+@RestController
+@RequestMapping("/api/reservas")
+public class ReservaController {
+
+    private final ReservaService reservaService;
+
+    public ReservaController(ReservaService reservaService) {
+        this.reservaService = reservaService;
+    }
+
+    /**
+     * Reserva (descuenta) el stock de todos los productos, o de ninguno.
+     * Responde a: POST /api/reservas  { "items": [ { "productoId": 1, "cantidad": 2 } ] }
+     * 409 si algún producto no tiene stock suficiente.
+     */
+    @PostMapping
+    public ResponseEntity<?> reservar(@RequestBody ReservaRequestDTO request) {
+        try {
+            Reserva reserva = reservaService.reservar(request.getItems());
+            return ResponseEntity.ok(Map.of("reservaId", reserva.getId(), "expiraEn", reserva.getExpiraEn()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Confirma la reserva (la compra se guardó). También una ya vencida: su stock se vuelve a descontar.
+     * Responde a: POST /api/reservas/{id}/confirmar
+     * (El presupuesto SQL es el del caso normal, una reserva activa)
+     */
+    @PresupuestoSql(1)
+    @PostMapping("/{id}/confirmar")
+    public ResponseEntity<?> confirmar(@PathVariable Integer id) {
+        try {
+            return ResponseEntity.ok(Map.of("reservaId", id, "estado", reservaService.confirmar(id)));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Libera la reserva y devuelve el stock (la compra falló).
+     * Responde a: POST /api/reservas/{id}/liberar
+     */
+    @PostMapping("/{id}/liberar")
+    public ResponseEntity<?> liberar(@PathVariable Integer id) {
+        try {
+            return ResponseEntity.ok(Map.of("reservaId", id, "estado", reservaService.liberar(id)));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.servicio_catalogo.controller;
+
+import com.example.servicio_catalogo.cache.CuerpoJson;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Arma la respuesta HTTP a partir de un CuerpoJson ya serializado:
+ * - If-None-Match con el ETag actual  -> 304 Not Modified (sin cuerpo)
+ * - Accept-Encoding: gzip             -> cuerpo comprimido de antemano
+ * - si no                             -> JSON tal cual
+ */
+final class RespuestaJson {
+
+    private RespuestaJson() {
+    }
+
+    static ResponseEntity<byte[]> responder(CuerpoJson cuerpo, HttpServletRequest request) {
+        boolean usarGzip = cuerpo.getGzip() != null && aceptaGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = usarGzip ? cuerpo.getEtagGzip() : cuerpo.getEtag();
+
+        boolean sinCambios = coincideEtag(request.getHeader(HttpHeaders.IF_NONE_MATCH), cuerpo);
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(sinCambios ? HttpStatus.NOT_MODIFIED : HttpStatus.OK)
+            .eTag(etag)
+            // El navegador puede guardarla, pero debe revalidar (y recibirá un 304)
+            .cacheControl(CacheControl.noCache())
+            .varyBy(HttpHeaders.ACCEPT_ENCODING);
+
+        if (sinCambios) {
+            return builder.build();
+        }
+
+        builder.contentType(MediaType.APPLICATION_JSON);
+        if (usarGzip) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(cuerpo.getGzip());
+        }
+        return builder.body(cuerpo.getJson());
+    }
+
+    private static boolean aceptaGzip(String acceptEncoding) {
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+    }
+
+    /** If-None-Match puede traer "*" o una lista de ETags separados por coma. */
+    private static boolean coincideEtag(String ifNoneMatch, CuerpoJson cuerpo) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String valor : ifNoneMatch.split(",")) {
+            String etag = valor.trim();
+            if (etag.startsWith("W/")) {
+                etag = etag.substring(2); // comparación débil, como pide RFC 9110 para GET
+            }
+            if (etag.equals("*") || etag.equals(cuerpo.getEtag()) || etag.equals(cuerpo.getEtagGzip())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
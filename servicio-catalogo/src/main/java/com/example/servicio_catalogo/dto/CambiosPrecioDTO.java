@@ -0,0 +1,25 @@
+package com.example.servicio_catalogo.dto;
+
+import lombok.Data;
+import java.util.List;
+
+/**
+ * Productos cuyo precio cambió desde una versión dada.
+ * Si "completo" es true, el cliente debe descartar todos sus precios
+ * (el catálogo se reinició o la versión pedida es demasiado vieja).
+ */
+@Data
+public class CambiosPrecioDTO {
+
+    private long epoch;
+    private long version;
+    private List<Integer> ids;
+    private boolean completo;
+
+    public CambiosPrecioDTO(long epoch, long version, List<Integer> ids, boolean completo) {
+        this.epoch = epoch;
+        this.version = version;
+        this.ids = ids;
+        this.completo = completo;
+    }
+}
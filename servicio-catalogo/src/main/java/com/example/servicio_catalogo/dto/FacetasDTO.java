@@ -0,0 +1,26 @@
+package com.example.servicio_catalogo.dto;
+
+import com.example.servicio_catalogo.entity.Producto;
+
+import lombok.Data;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resultado del filtro por facetas: los productos que cumplen todos los
+ * filtros, cuántos son en total, y para cada faceta cuántos productos
+ * habría con cada valor, p. ej. {"categoria": {"1": 4, "2": 1}, "onSale": {"true": 2, "false": 3}}.
+ */
+@Data
+public class FacetasDTO {
+
+    private List<Producto> items;
+    private int total;
+    private Map<String, Map<String, Integer>> facetas;
+
+    public FacetasDTO(List<Producto> items, int total, Map<String, Map<String, Integer>> facetas) {
+        this.items = items;
+        this.total = total;
+        this.facetas = facetas;
+    }
+}
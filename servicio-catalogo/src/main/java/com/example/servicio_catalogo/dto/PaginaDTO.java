@@ -0,0 +1,23 @@
+package com.example.servicio_catalogo.dto;
+
+import lombok.Data;
+import java.util.List;
+
+/**
+ * Una página de resultados con paginación por cursor (keyset).
+ * El frontend pide la siguiente página mandando "next" como ?cursor=...
+ * Si "next" es null, ya no quedan más resultados.
+ */
+@Data
+public class PaginaDTO<T> {
+
+    private List<T> items;
+    private String next;
+    private int size;
+
+    public PaginaDTO(List<T> items, String next) {
+        this.items = items;
+        this.next = next;
+        this.size = items.size();
+    }
+}
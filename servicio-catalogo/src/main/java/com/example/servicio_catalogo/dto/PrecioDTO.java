@@ -0,0 +1,42 @@
+package com.example.servicio_catalogo.dto;
+
+import lombok.Data;
+
+/**
+ * Precio vigente de un producto, para que el checkout (servicio-ordenes)
+ * cobre lo que dice el catálogo y no lo que manda el navegador.
+ * Nombre e imagen van también: la boleta los copia de aquí, no del carrito.
+ */
+@Data
+public class PrecioDTO {
+
+    private Integer id;
+    private String nombre;
+    private String imagenUrl;
+    private Double precio;
+    private Boolean onSale;
+    private Double discountPercentage;
+
+    // Lo usa la consulta JPQL "SELECT new ...PrecioDTO(...)" de ProductoRepository
+    public PrecioDTO(Integer id, String nombre, String imagenUrl, Double precio, Boolean onSale, Double discountPercentage) {
+        this.id = id;
+        this.nombre = nombre;
+        this.imagenUrl = imagenUrl;
+        this.precio = precio;
+        this.onSale = onSale;
+        this.discountPercentage = discountPercentage;
+    }
+
+    /** Precio a cobrar: con el descuento aplicado si está en oferta, redondeado a pesos. */
+    public Double getPrecioFinal() {
+        if (precio == null) {
+            return null;
+        }
+        double descuento = 0;
+        if (Boolean.TRUE.equals(onSale) && discountPercentage != null) {
+            // El descuento se guarda como fracción (0.25); si viene como 25, se toma como 25%
+            descuento = discountPercentage > 1 ? discountPercentage / 100 : discountPercentage;
+        }
+        return (double) Math.round(precio * (1 - descuento));
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.servicio_catalogo.dto;
+
+import lombok.Data;
+import java.util.List;
+
+/**
+ * Respuesta de GET /api/productos/precios: los precios pedidos y la versión
+ * de precios del catálogo al momento de leerlos (ver CambiosDePrecio).
+ */
+@Data
+public class PreciosDTO {
+
+    private long epoch;
+    private long version;
+    private List<PrecioDTO> precios;
+
+    public PreciosDTO(long epoch, long version, List<PrecioDTO> precios) {
+        this.epoch = epoch;
+        this.version = version;
+        this.precios = precios;
+    }
+}
@@ -2,10 +2,9 @@ package com.example.servicio_catalogo.dto;
 
 import com.example.servicio_catalogo.entity.Categoria;
 import com.example.servicio_catalogo.entity.Producto;
-import com.example.servicio_catalogo.entity.ProductoImagen; // Importa ProductoImagen
 import lombok.Data;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Data // Lombok nos da getters y setters
 public class ProductoDetalleDTO {
@@ -24,9 +23,10 @@ public class ProductoDetalleDTO {
     private List<String> images; // Tu React espera un campo "images"
 
     /**
-     * Constructor para crear este DTO a partir de un Producto y su lista de imágenes.
+     * Constructor para crear este DTO a partir de un Producto y las URLs de sus imágenes
+     * (ya ordenadas, vienen de ProductoRepository.findConImagenesByIdIn).
      */
-    public ProductoDetalleDTO(Producto producto, List<ProductoImagen> imagenes) {
+    public ProductoDetalleDTO(Producto producto, List<String> imagenUrls) {
         this.id = producto.getId();
         this.nombre = producto.getNombre();
         this.descripcion = producto.getDescripcion();
@@ -36,10 +36,8 @@ public class ProductoDetalleDTO {
         this.onSale = producto.getOnSale();
         this.discountPercentage = producto.getDiscountPercentage();
 
-        // Convertimos la lista de objetos ProductoImagen a una lista de Strings (URLs)
-        this.images = imagenes.stream()
-                              .map(ProductoImagen::getImagenUrl) // Extrae solo la URL
-                              .collect(Collectors.toList());
+        // Copiamos la lista de URLs de la tabla 'producto_imagenes'
+        this.images = new ArrayList<>(imagenUrls);
         
         // BACKUP: Si no hay imágenes en la tabla 'producto_imagenes',
         // usamos la 'imagenUrl' principal de la tabla 'productos'.
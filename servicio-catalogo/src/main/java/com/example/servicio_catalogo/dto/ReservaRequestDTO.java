@@ -0,0 +1,20 @@
+package com.example.servicio_catalogo.dto;
+
+import lombok.Data;
+import java.util.List;
+
+/**
+ * Lo que envía el checkout (servicio-ordenes) para reservar stock:
+ * { "items": [ { "productoId": 1, "cantidad": 2 }, ... ] }
+ */
+@Data
+public class ReservaRequestDTO {
+
+    private List<Item> items;
+
+    @Data
+    public static class Item {
+        private Integer productoId;
+        private Integer cantidad;
+    }
+}
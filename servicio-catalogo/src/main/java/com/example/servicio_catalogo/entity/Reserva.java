@@ -0,0 +1,59 @@
+package com.example.servicio_catalogo.entity;
+
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reserva temporal de stock hecha por el checkout (servicio-ordenes).
+ * El stock ya se descontó al crearla; si no se confirma antes de "expiraEn",
+ * se libera sola (ver ReservaService).
+ */
+@Data
+@Entity
+@Table(name = "reservas") // Índices y restricciones: db/migration (Flyway)
+public class Reserva {
+
+    public enum Estado { ACTIVA, CONFIRMADA, LIBERADA, EXPIRADA }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Estado estado = Estado.ACTIVA;
+
+    private LocalDateTime creadaEn = LocalDateTime.now();
+    private LocalDateTime expiraEn;
+
+    @ElementCollection
+    @CollectionTable(name = "reserva_items", joinColumns = @JoinColumn(name = "reserva_id"))
+    private List<Item> items = new ArrayList<>();
+
+    /** Un producto y cuántas unidades se reservaron. */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Embeddable
+    public static class Item {
+        private Integer productoId;
+        private Integer cantidad;
+    }
+}
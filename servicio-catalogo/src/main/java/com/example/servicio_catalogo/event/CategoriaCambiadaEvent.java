@@ -0,0 +1,13 @@
+package com.example.servicio_catalogo.event;
+
+import lombok.Value;
+
+/**
+ * Se publica cuando una categoría se crea, renombra o elimina.
+ * Los productos serializan su Categoria completa, así que también
+ * cambian los listados que la contienen.
+ */
+@Value
+public class CategoriaCambiadaEvent {
+    Integer categoriaId;
+}
@@ -0,0 +1,21 @@
+package com.example.servicio_catalogo.event;
+
+import com.example.servicio_catalogo.entity.Producto;
+import lombok.Value;
+
+/**
+ * Se publica cada vez que un producto se crea, actualiza o elimina.
+ * - Al crear:      anterior = null
+ * - Al eliminar:   actual   = null
+ * "anterior" es una copia del estado previo (categoría, oferta, stock...),
+ * para que los cachés e índices sepan exactamente qué invalidar.
+ */
+@Value
+public class ProductoCambiadoEvent {
+    Producto anterior;
+    Producto actual;
+
+    public Integer getProductoId() {
+        return actual != null ? actual.getId() : anterior.getId();
+    }
+}
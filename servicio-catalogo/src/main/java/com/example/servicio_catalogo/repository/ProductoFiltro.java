@@ -0,0 +1,111 @@
+package com.example.servicio_catalogo.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.example.servicio_catalogo.entity.Producto;
+
+import jakarta.persistence.criteria.JoinType;
+
+import java.util.Objects;
+
+/**
+ * Representa "qué productos" pide cada listado de la tienda
+ * (todos, en oferta, por categoría o con stock bajo).
+ * Se traduce a una Specification para las consultas paginadas.
+ */
+public final class ProductoFiltro {
+
+    public enum Tipo { TODOS, EN_OFERTA, CATEGORIA, STOCK_BAJO }
+
+    private final Tipo tipo;
+    private final Integer valor; // categoriaId o stock máximo (según el tipo)
+
+    private ProductoFiltro(Tipo tipo, Integer valor) {
+        this.tipo = tipo;
+        this.valor = valor;
+    }
+
+    public static ProductoFiltro todos() {
+        return new ProductoFiltro(Tipo.TODOS, null);
+    }
+
+    public static ProductoFiltro enOferta() {
+        return new ProductoFiltro(Tipo.EN_OFERTA, null);
+    }
+
+    public static ProductoFiltro categoria(Integer categoriaId) {
+        return new ProductoFiltro(Tipo.CATEGORIA, categoriaId);
+    }
+
+    public static ProductoFiltro stockBajo(int stockMaximo) {
+        return new ProductoFiltro(Tipo.STOCK_BAJO, stockMaximo);
+    }
+
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    public Integer getValor() {
+        return valor;
+    }
+
+    /**
+     * ¿Este producto pertenece al listado? (misma regla que la consulta SQL,
+     * la usa el caché para saber qué listados invalidar).
+     */
+    public boolean coincide(Producto producto) {
+        switch (tipo) {
+            case EN_OFERTA:
+                return Boolean.TRUE.equals(producto.getOnSale());
+            case CATEGORIA:
+                return producto.getCategoria() != null && Objects.equals(producto.getCategoria().getId(), valor);
+            case STOCK_BAJO:
+                return producto.getStock() != null && producto.getStock() <= valor;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Condición WHERE del filtro. Además hace LEFT JOIN FETCH de la categoría
+     * para que la página completa salga en una sola consulta (sin N+1).
+     */
+    public Specification<Producto> toSpecification() {
+        return (root, query, cb) -> {
+            // El fetch sólo aplica a la consulta de datos, nunca a un COUNT
+            if (query.getResultType() != Long.class && query.getResultType() != long.class) {
+                root.fetch("categoria", JoinType.LEFT);
+            }
+            switch (tipo) {
+                case EN_OFERTA:
+                    return cb.isTrue(root.get("onSale"));
+                case CATEGORIA:
+                    return cb.equal(root.get("categoria").get("id"), valor);
+                case STOCK_BAJO:
+                    // Umbral como literal en el SQL: con un parámetro, el plan genérico de
+                    // Postgres no puede usar el índice parcial "WHERE stock <= 10"
+                    return cb.lessThanOrEqualTo(root.get("stock"), cb.literal(valor));
+                default:
+                    return cb.conjunction();
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ProductoFiltro)) return false;
+        ProductoFiltro otro = (ProductoFiltro) o;
+        return tipo == otro.tipo && Objects.equals(valor, otro.valor);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(tipo, valor);
+    }
+
+    @Override
+    public String toString() {
+        return valor == null ? tipo.name() : tipo.name() + ":" + valor;
+    }
+}
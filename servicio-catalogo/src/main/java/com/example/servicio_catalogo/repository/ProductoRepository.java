@@ -1,11 +1,17 @@
 package com.example.servicio_catalogo.repository;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import com.example.servicio_catalogo.entity.Producto;
+import com.example.servicio_catalogo.dto.PrecioDTO;
 import org.springframework.stereotype.Repository; // <-- AÑADIR IMPORT
 
 @Repository // <-- AÑADIR ANOTACIÓN
-public interface ProductoRepository extends JpaRepository<Producto, Integer> {
+public interface ProductoRepository extends JpaRepository<Producto, Integer>, JpaSpecificationExecutor<Producto> {
     
     // Este ya lo tenías (para /on-sale)
     List<Producto> findByOnSale(Boolean onSale);
@@ -21,4 +27,50 @@ public interface ProductoRepository extends JpaRepository<Producto, Integer> {
      * Este es necesario para el endpoint /low-stock
      */
     List<Producto> findByStockLessThanEqual(int stockMinimo);
+
+    /**
+     * Detalle de uno o varios productos en UNA sola consulta:
+     * producto + categoría (JOIN FETCH) + URLs de sus imágenes (LEFT JOIN).
+     * Devuelve una fila [Producto, imagenUrl] por imagen (o una fila con
+     * imagenUrl = null si el producto no tiene imágenes), ordenadas por producto.
+     */
+    @Query("SELECT p, i.imagenUrl FROM Producto p "
+         + "LEFT JOIN FETCH p.categoria "
+         + "LEFT JOIN ProductoImagen i ON i.producto = p "
+         + "WHERE p.id IN :ids "
+         + "ORDER BY p.id, i.orden, i.id")
+    List<Object[]> findConImagenesByIdIn(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Sólo los datos de precio de varios productos (sin categoría ni galería de imágenes),
+     * para el checkout de servicio-ordenes.
+     */
+    @Query("SELECT new com.example.servicio_catalogo.dto.PrecioDTO(p.id, p.nombre, p.imagenUrl, p.precio, p.onSale, p.discountPercentage) "
+         + "FROM Producto p WHERE p.id IN :ids")
+    List<PrecioDTO> findPreciosByIdIn(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Descuenta stock SÓLO si alcanza (UPDATE condicional, sin leer antes).
+     * Devuelve 1 si se descontó y 0 si no había suficiente.
+     * Bloquea únicamente la fila del producto mientras dura la transacción.
+     */
+    @Modifying
+    @Query("UPDATE Producto p SET p.stock = p.stock - :cantidad WHERE p.id = :id AND p.stock >= :cantidad")
+    int descontarStock(@Param("id") Integer id, @Param("cantidad") int cantidad);
+
+    /**
+     * Descuenta aunque no alcance (el stock puede quedar negativo = sobrevendido).
+     * Sólo para una reserva vencida cuya compra sí se pagó (ver ReservaService.confirmar).
+     */
+    @Modifying
+    @Query("UPDATE Producto p SET p.stock = p.stock - :cantidad WHERE p.id = :id")
+    int descontarStockSinLimite(@Param("id") Integer id, @Param("cantidad") int cantidad);
+
+    /** Devuelve stock de una reserva liberada o vencida. */
+    @Modifying
+    @Query("UPDATE Producto p SET p.stock = p.stock + :cantidad WHERE p.id = :id")
+    int devolverStock(@Param("id") Integer id, @Param("cantidad") int cantidad);
+
+    // Las páginas por cursor (keyset) usan JpaSpecificationExecutor.findBy(...)
+    // con un ProductoFiltro + la condición del cursor. Ver CatalogoService.
 }
\ No newline at end of file
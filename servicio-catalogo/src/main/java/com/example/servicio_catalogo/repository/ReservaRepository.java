@@ -0,0 +1,27 @@
+package com.example.servicio_catalogo.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import com.example.servicio_catalogo.entity.Reserva;
+
+public interface ReservaRepository extends JpaRepository<Reserva, Integer> {
+
+    /** Ids de las reservas activas ya vencidas (para liberarlas). */
+    @Query("SELECT r.id FROM Reserva r WHERE r.estado = :estado AND r.expiraEn < :ahora")
+    List<Integer> findIdsByEstadoAndExpiraEnBefore(@Param("estado") Reserva.Estado estado,
+                                                   @Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Cambia el estado SÓLO si sigue en "actual" (devuelve 0 si otro ya lo cambió).
+     * Así confirmar, liberar y expirar nunca se pisan: sólo uno gana.
+     */
+    @Modifying
+    @Query("UPDATE Reserva r SET r.estado = :nuevo WHERE r.id = :id AND r.estado = :actual")
+    int cambiarEstado(@Param("id") Integer id,
+                      @Param("actual") Reserva.Estado actual,
+                      @Param("nuevo") Reserva.Estado nuevo);
+}
@@ -0,0 +1,190 @@
+package com.example.servicio_catalogo.search;
+
+import com.example.servicio_catalogo.entity.Producto;
+import com.example.servicio_catalogo.repository.ProductoRepository;
+
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido en memoria para buscar productos por nombre y descripción.
+ *
+ * - Normaliza a minúsculas y sin tildes ("Mágico" == "magico", "ñandú" == "nandu").
+ * - La última palabra de la consulta se busca como prefijo (typeahead: "uni" -> "unicornio").
+ * - Ranking tipo TF-IDF: un término raro pesa más, y el nombre pesa más que la descripción.
+ * - Se construye al arrancar y se actualiza con los eventos de CatalogoService,
+ *   así que nunca hace falta un LIKE '%...%' sobre la tabla.
+ */
+@Component
+public class IndiceBusqueda extends IndiceProductos {
+
+    private static final float PESO_NOMBRE = 3.0f;
+    private static final float PESO_DESCRIPCION = 1.0f;
+    // Un término que sólo calza por prefijo vale un poco menos que uno exacto
+    private static final float FACTOR_PREFIJO = 0.8f;
+    // Máximo de términos en que se expande un prefijo (para prefijos muy cortos)
+    private static final int MAX_EXPANSIONES = 64;
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^a-z0-9]+");
+    private static final Set<String> STOPWORDS = Set.of(
+        "a", "al", "con", "de", "del", "el", "en", "es", "la", "las", "lo", "los",
+        "mas", "muy", "o", "para", "por", "que", "se", "su", "sus", "un", "una", "y");
+
+    // término -> (productoId -> peso del término en ese producto)
+    private final TreeMap<String, Map<Integer, Float>> postings = new TreeMap<>();
+    // productoId -> términos que tiene (para poder sacarlo del índice)
+    private final Map<Integer, Set<String>> terminosPorProducto = new HashMap<>();
+
+    public IndiceBusqueda(ProductoRepository productoRepository) {
+        super(productoRepository);
+    }
+
+    // =======================================================
+    // --- ACTUALIZACIÓN ---
+    // =======================================================
+
+    @Override
+    protected void indexar(Producto producto) {
+        Map<String, Float> pesos = new HashMap<>();
+        for (String termino : tokenizar(producto.getNombre())) {
+            pesos.merge(termino, PESO_NOMBRE, Float::sum);
+        }
+        for (String termino : tokenizar(producto.getDescripcion())) {
+            pesos.merge(termino, PESO_DESCRIPCION, Float::sum);
+        }
+
+        pesos.forEach((termino, peso) ->
+            postings.computeIfAbsent(termino, t -> new HashMap<>()).put(producto.getId(), peso));
+        terminosPorProducto.put(producto.getId(), pesos.keySet());
+    }
+
+    @Override
+    protected void desindexar(Integer productoId) {
+        for (String termino : terminosPorProducto.remove(productoId)) {
+            Map<Integer, Float> lista = postings.get(termino);
+            lista.remove(productoId);
+            if (lista.isEmpty()) {
+                postings.remove(termino);
+            }
+        }
+    }
+
+    @Override
+    protected void limpiar() {
+        postings.clear();
+        terminosPorProducto.clear();
+    }
+
+    // =======================================================
+    // --- BÚSQUEDA ---
+    // =======================================================
+
+    /**
+     * Devuelve los productos que contienen TODAS las palabras de la consulta,
+     * ordenados por relevancia. La última palabra calza también por prefijo,
+     * salvo que la consulta termine en espacio (palabra ya completa).
+     */
+    public List<Producto> buscar(String consulta, int limite) {
+        List<String> palabras = tokenizar(consulta);
+        if (palabras.isEmpty()) {
+            return Collections.emptyList();
+        }
+        boolean ultimaEsPrefijo = !Character.isWhitespace(consulta.charAt(consulta.length() - 1));
+
+        lock.readLock().lock();
+        try {
+            Map<Integer, Float> puntajes = null;
+            for (int i = 0; i < palabras.size(); i++) {
+                boolean prefijo = ultimaEsPrefijo && i == palabras.size() - 1;
+                Map<Integer, Float> deLaPalabra = puntajesDe(palabras.get(i), prefijo);
+
+                if (puntajes == null) {
+                    puntajes = deLaPalabra;
+                } else {
+                    // AND: sólo quedan los productos que calzan con todas las palabras
+                    Map<Integer, Float> acumulado = puntajes;
+                    deLaPalabra.keySet().retainAll(acumulado.keySet());
+                    deLaPalabra.replaceAll((id, puntaje) -> puntaje + acumulado.get(id));
+                    puntajes = deLaPalabra;
+                }
+                if (puntajes.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+
+            List<Map.Entry<Integer, Float>> ordenados = new ArrayList<>(puntajes.entrySet());
+            ordenados.sort(Map.Entry.<Integer, Float>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+
+            List<Producto> resultado = new ArrayList<>();
+            for (int i = 0; i < ordenados.size() && i < limite; i++) {
+                resultado.add(productos.get(ordenados.get(i).getKey()));
+            }
+            return resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Llamar sólo con el readLock tomado
+    private Map<Integer, Float> puntajesDe(String palabra, boolean prefijo) {
+        Map<Integer, Float> puntajes = new HashMap<>();
+        sumarTermino(puntajes, palabra, 1.0f);
+
+        if (prefijo) {
+            NavigableMap<String, Map<Integer, Float>> candidatos =
+                postings.subMap(palabra, false, palabra + Character.MAX_VALUE, false);
+            int expansiones = 0;
+            for (String termino : candidatos.keySet()) {
+                if (expansiones++ >= MAX_EXPANSIONES) {
+                    break;
+                }
+                sumarTermino(puntajes, termino, FACTOR_PREFIJO);
+            }
+        }
+        return puntajes;
+    }
+
+    private void sumarTermino(Map<Integer, Float> puntajes, String termino, float factor) {
+        Map<Integer, Float> lista = postings.get(termino);
+        if (lista == null) {
+            return;
+        }
+        // IDF: un término que aparece en pocos productos distingue más
+        float idf = (float) Math.log(1.0 + (double) productos.size() / lista.size());
+        // Si un producto calza por varios términos del mismo prefijo, nos quedamos con el mejor
+        lista.forEach((id, peso) -> puntajes.merge(id, peso * idf * factor, Math::max));
+    }
+
+    // =======================================================
+    // --- NORMALIZACIÓN ---
+    // =======================================================
+
+    /** Minúsculas, sin tildes ni signos, sin palabras vacías ("de", "la", ...). */
+    static List<String> tokenizar(String texto) {
+        List<String> tokens = new ArrayList<>();
+        if (texto == null || texto.isBlank()) {
+            return tokens;
+        }
+        String normalizado = MARCAS.matcher(Normalizer.normalize(texto.toLowerCase(), Normalizer.Form.NFD)).replaceAll("");
+        Set<String> vistos = new HashSet<>();
+        for (String token : SEPARADORES.split(normalizado)) {
+            if (!token.isEmpty() && !STOPWORDS.contains(token) && vistos.add(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
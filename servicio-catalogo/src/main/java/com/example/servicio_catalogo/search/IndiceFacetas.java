@@ -0,0 +1,245 @@
+package com.example.servicio_catalogo.search;
+
+import com.example.servicio_catalogo.dto.FacetasDTO;
+import com.example.servicio_catalogo.entity.Producto;
+import com.example.servicio_catalogo.repository.ProductoRepository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Índice de facetas en memoria: un BitSet por valor de cada faceta
+ * (categoría, en oferta, con stock, rango de precio), indexado por id de producto.
+ *
+ * Combinar filtros es un AND/OR de bits, y los conteos por faceta son
+ * cardinality() de esas intersecciones: todo en una llamada, sin SQL.
+ * Los conteos de cada faceta aplican los filtros de las OTRAS facetas
+ * (conteo disyuntivo), así el usuario ve cuántos quedarían si cambia esa opción.
+ */
+@Component
+public class IndiceFacetas extends IndiceProductos {
+
+    /** Filtros pedidos; null (o vacío) = esa faceta no filtra. */
+    public static final class Consulta {
+        final Collection<Integer> categorias;
+        final Boolean onSale;
+        final Boolean inStock;
+        final Collection<String> precios;
+
+        public Consulta(Collection<Integer> categorias, Boolean onSale, Boolean inStock, Collection<String> precios) {
+            this.categorias = categorias;
+            this.onSale = onSale;
+            this.inStock = inStock;
+            this.precios = precios;
+        }
+    }
+
+    private final BitSet todos = new BitSet();
+    private final Map<Integer, BitSet> porCategoria = new TreeMap<>();
+    private final BitSet enOferta = new BitSet();
+    private final BitSet conStock = new BitSet();
+    private final BitSet[] porPrecio;
+
+    // Límites de los rangos de precio, p. ej. [10000, 20000, 30000] ->
+    // "0-10000", "10000-20000", "20000-30000", "30000+"
+    private final int[] limitesPrecio;
+    private final String[] nombresPrecio;
+
+    public IndiceFacetas(ProductoRepository productoRepository,
+                         @Value("${catalogo.facetas.limites-precio:10000,20000,30000}") int[] limitesPrecio) {
+        super(productoRepository);
+        this.limitesPrecio = limitesPrecio.clone();
+        Arrays.sort(this.limitesPrecio);
+
+        this.nombresPrecio = new String[this.limitesPrecio.length + 1];
+        this.porPrecio = new BitSet[nombresPrecio.length];
+        int desde = 0;
+        for (int i = 0; i < this.limitesPrecio.length; i++) {
+            nombresPrecio[i] = desde + "-" + this.limitesPrecio[i];
+            desde = this.limitesPrecio[i];
+        }
+        nombresPrecio[this.limitesPrecio.length] = desde + "+";
+        for (int i = 0; i < porPrecio.length; i++) {
+            porPrecio[i] = new BitSet();
+        }
+    }
+
+    // =======================================================
+    // --- ACTUALIZACIÓN ---
+    // =======================================================
+
+    @Override
+    protected void indexar(Producto producto) {
+        int id = producto.getId();
+        todos.set(id);
+        if (producto.getCategoria() != null) {
+            porCategoria.computeIfAbsent(producto.getCategoria().getId(), c -> new BitSet()).set(id);
+        }
+        if (Boolean.TRUE.equals(producto.getOnSale())) {
+            enOferta.set(id);
+        }
+        if (producto.getStock() != null && producto.getStock() > 0) {
+            conStock.set(id);
+        }
+        if (producto.getPrecio() != null) {
+            porPrecio[rangoDe(producto.getPrecio())].set(id);
+        }
+    }
+
+    @Override
+    protected void desindexar(Integer productoId) {
+        todos.clear(productoId);
+        porCategoria.values().removeIf(bits -> {
+            bits.clear(productoId);
+            return bits.isEmpty();
+        });
+        enOferta.clear(productoId);
+        conStock.clear(productoId);
+        for (BitSet bits : porPrecio) {
+            bits.clear(productoId);
+        }
+    }
+
+    @Override
+    protected void limpiar() {
+        todos.clear();
+        porCategoria.clear();
+        enOferta.clear();
+        conStock.clear();
+        for (BitSet bits : porPrecio) {
+            bits.clear();
+        }
+    }
+
+    private int rangoDe(double precio) {
+        int i = 0;
+        while (i < limitesPrecio.length && precio >= limitesPrecio[i]) {
+            i++;
+        }
+        return i;
+    }
+
+    // =======================================================
+    // --- CONSULTA ---
+    // =======================================================
+
+    /**
+     * Productos que cumplen todos los filtros (ordenados por id, hasta "limite")
+     * + el total + los conteos de cada faceta.
+     */
+    public FacetasDTO consultar(Consulta consulta, int limite) {
+        lock.readLock().lock();
+        try {
+            // Un BitSet por faceta filtrada (null = no filtra)
+            BitSet filtroCategoria = unir(consulta.categorias, porCategoria::get);
+            BitSet filtroOferta = booleano(consulta.onSale, enOferta);
+            BitSet filtroStock = booleano(consulta.inStock, conStock);
+            BitSet filtroPrecio = unir(consulta.precios, nombre -> porPrecio[indicePrecio(nombre)]);
+
+            BitSet resultado = intersectar(filtroCategoria, filtroOferta, filtroStock, filtroPrecio);
+
+            List<Producto> items = new ArrayList<>();
+            for (int id = resultado.nextSetBit(0); id >= 0 && items.size() < limite; id = resultado.nextSetBit(id + 1)) {
+                items.add(productos.get(id));
+            }
+
+            // Conteos disyuntivos: cada faceta se cuenta con los filtros de las demás
+            Map<String, Map<String, Integer>> facetas = new LinkedHashMap<>();
+
+            BitSet sinCategoria = intersectar(filtroOferta, filtroStock, filtroPrecio);
+            Map<String, Integer> categorias = new LinkedHashMap<>();
+            porCategoria.forEach((id, bits) -> categorias.put(String.valueOf(id), contar(sinCategoria, bits)));
+            facetas.put("categoria", categorias);
+
+            facetas.put("onSale", conteoBooleano(intersectar(filtroCategoria, filtroStock, filtroPrecio), enOferta));
+            facetas.put("inStock", conteoBooleano(intersectar(filtroCategoria, filtroOferta, filtroPrecio), conStock));
+
+            BitSet sinPrecio = intersectar(filtroCategoria, filtroOferta, filtroStock);
+            Map<String, Integer> precios = new LinkedHashMap<>();
+            for (int i = 0; i < porPrecio.length; i++) {
+                precios.put(nombresPrecio[i], contar(sinPrecio, porPrecio[i]));
+            }
+            facetas.put("precio", precios);
+
+            return new FacetasDTO(items, resultado.cardinality(), facetas);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int indicePrecio(String nombre) {
+        // "30000+" sin codificar llega como "30000 " (el '+' de la URL es un espacio)
+        String buscado = nombre.trim().replace("+", "");
+        for (int i = 0; i < nombresPrecio.length; i++) {
+            if (nombresPrecio[i].replace("+", "").equals(buscado)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Rango de precio inválido: " + nombre
+            + ". Valores posibles: " + String.join(", ", nombresPrecio));
+    }
+
+    /** OR de los BitSet de los valores elegidos (null si no se eligió ninguno). */
+    private <K> BitSet unir(Collection<K> valores, Function<K, BitSet> bitsDe) {
+        if (valores == null || valores.isEmpty()) {
+            return null;
+        }
+        BitSet union = new BitSet();
+        for (K valor : valores) {
+            BitSet bits = bitsDe.apply(valor);
+            if (bits != null) {
+                union.or(bits);
+            }
+        }
+        return union;
+    }
+
+    /** true -> los que tienen el bit, false -> los que no (null si no filtra). */
+    private BitSet booleano(Boolean valor, BitSet bits) {
+        if (valor == null) {
+            return null;
+        }
+        BitSet resultado = (BitSet) todos.clone();
+        if (valor) {
+            resultado.and(bits);
+        } else {
+            resultado.andNot(bits);
+        }
+        return resultado;
+    }
+
+    /** AND de todos los productos con los filtros no nulos. */
+    private BitSet intersectar(BitSet... filtros) {
+        BitSet resultado = (BitSet) todos.clone();
+        for (BitSet filtro : filtros) {
+            if (filtro != null) {
+                resultado.and(filtro);
+            }
+        }
+        return resultado;
+    }
+
+    private Map<String, Integer> conteoBooleano(BitSet base, BitSet bits) {
+        int si = contar(base, bits);
+        Map<String, Integer> conteo = new LinkedHashMap<>();
+        conteo.put("true", si);
+        conteo.put("false", base.cardinality() - si);
+        return conteo;
+    }
+
+    private static int contar(BitSet base, BitSet bits) {
+        BitSet interseccion = (BitSet) base.clone();
+        interseccion.and(bits);
+        return interseccion.cardinality();
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.servicio_catalogo.search;
+
+import com.example.servicio_catalogo.entity.Producto;
+import com.example.servicio_catalogo.event.CategoriaCambiadaEvent;
+import com.example.servicio_catalogo.event.ProductoCambiadoEvent;
+import com.example.servicio_catalogo.repository.ProductoFiltro;
+import com.example.servicio_catalogo.repository.ProductoRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Base de los índices en memoria del catálogo (búsqueda, facetas).
+ *
+ * Se encarga de lo que comparten: cargarse al arrancar, mantenerse al día
+ * con los eventos de CatalogoService y el lock lectura/escritura.
+ * Cada índice sólo implementa cómo agregar y quitar un producto.
+ */
+abstract class IndiceProductos {
+
+    // Con la clase concreta, para saber qué índice escribió
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final ProductoRepository productoRepository;
+
+    // productoId -> producto (lo que se devuelve, sin ir a la BD)
+    protected final Map<Integer, Producto> productos = new HashMap<>();
+
+    // Muchas lecturas en paralelo, escrituras sólo cuando el admin cambia algo
+    protected final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    protected IndiceProductos(ProductoRepository productoRepository) {
+        this.productoRepository = productoRepository;
+    }
+
+    /** Agrega el producto a las estructuras del índice (con el writeLock tomado). */
+    protected abstract void indexar(Producto producto);
+
+    /** Quita el producto de las estructuras del índice (con el writeLock tomado). */
+    protected abstract void desindexar(Integer productoId);
+
+    /** Vacía las estructuras del índice (con el writeLock tomado). */
+    protected abstract void limpiar();
+
+    /** Se construye cuando la app ya arrancó (después del CatalogoDataSeeder). */
+    @EventListener(ApplicationReadyEvent.class)
+    public void construir() {
+        List<Producto> todos = productoRepository.findAll(ProductoFiltro.todos().toSpecification());
+        lock.writeLock().lock();
+        try {
+            productos.clear();
+            limpiar();
+            todos.forEach(this::agregar);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("{} listo: {} productos.", getClass().getSimpleName(), todos.size());
+    }
+
+    @EventListener
+    public void onProductoCambiado(ProductoCambiadoEvent evento) {
+        lock.writeLock().lock();
+        try {
+            quitar(evento.getProductoId());
+            if (evento.getActual() != null) {
+                agregar(evento.getActual());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Si se renombra una categoría, se refrescan los productos que la usan. */
+    @EventListener
+    public void onCategoriaCambiada(CategoriaCambiadaEvent evento) {
+        List<Producto> afectados = productoRepository.findAll(
+            ProductoFiltro.categoria(evento.getCategoriaId()).toSpecification());
+        lock.writeLock().lock();
+        try {
+            for (Producto producto : afectados) {
+                quitar(producto.getId());
+                agregar(producto);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void agregar(Producto producto) {
+        productos.put(producto.getId(), producto);
+        indexar(producto);
+    }
+
+    private void quitar(Integer productoId) {
+        if (productos.remove(productoId) != null) {
+            desindexar(productoId);
+        }
+    }
+}
@@ -9,15 +9,37 @@ import com.example.servicio_catalogo.entity.ProductoImagen;
 import com.example.servicio_catalogo.repository.ProductoRepository;
 import com.example.servicio_catalogo.repository.CategoriaRepository;
 import com.example.servicio_catalogo.repository.ProductoImagenRepository;
+import com.example.servicio_catalogo.repository.ProductoFiltro;
 
 // Imports de DTOs
 import com.example.servicio_catalogo.dto.ProductoDetalleDTO;
 import com.example.servicio_catalogo.dto.ProductoFormDTO; 
+import com.example.servicio_catalogo.dto.PaginaDTO;
+import com.example.servicio_catalogo.dto.FacetasDTO;
+import com.example.servicio_catalogo.dto.PreciosDTO;
+import com.example.servicio_catalogo.dto.CambiosPrecioDTO;
+
+// Caché y eventos del catálogo
+import com.example.servicio_catalogo.cache.CatalogoCache;
+import com.example.servicio_catalogo.cache.CuerpoJson;
+import com.example.servicio_catalogo.cache.CambiosDePrecio;
+import com.example.servicio_catalogo.event.CategoriaCambiadaEvent;
+import com.example.servicio_catalogo.event.ProductoCambiadoEvent;
+import com.example.servicio_catalogo.search.IndiceBusqueda;
+import com.example.servicio_catalogo.search.IndiceFacetas;
 
 // Imports de Spring y Java
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 import java.lang.RuntimeException; // Para las excepciones
 
 @Service
@@ -34,8 +56,28 @@ public class CatalogoService {
     @Autowired
     private ProductoImagenRepository productoImagenRepository; 
 
-    // Constante para stock bajo
+    @Autowired
+    private CatalogoCache catalogoCache;
+
+    @Autowired
+    private CambiosDePrecio cambiosDePrecio;
+
+    @Autowired
+    private IndiceBusqueda indiceBusqueda;
+
+    @Autowired
+    private IndiceFacetas indiceFacetas;
+
+    // Avisa de cada escritura (el caché y el índice de búsqueda la escuchan)
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Constante para stock bajo (el índice parcial idx_productos_stock_bajo usa el mismo umbral)
     private static final int STOCK_CRITICO = 10;
+
+    // Tamaño de página por defecto y máximo para los listados paginados
+    private static final int PAGINA_DEFAULT = 20;
+    private static final int PAGINA_MAXIMA = 100;
     
     // =======================================================
     // --- MÉTODOS DE PRODUCTO (LEER) ---
@@ -46,7 +88,9 @@ public class CatalogoService {
      * (Para GET /api/productos)
      */
     public List<Producto> findAllProductos() { 
-        return productoRepository.findAll();
+        // Con JOIN FETCH de la categoría: findAll() hacía 1 consulta más por cada categoría (N+1)
+        return catalogoCache.obtener(CatalogoCache.Clave.listado(ProductoFiltro.todos(), null),
+            () -> productoRepository.findAll(ProductoFiltro.todos().toSpecification()));
     }
     
     /**
@@ -54,8 +98,10 @@ public class CatalogoService {
      * (Para GET /api/productos/on-sale)
      */
     public List<Producto> findOnSaleProductos() { 
-        // Asume que findByOnSale existe en ProductoRepository
-        return productoRepository.findByOnSale(true); 
+        // Misma condición que las páginas (on_sale literal, no parámetro): así Postgres
+        // puede usar el índice parcial idx_productos_en_oferta
+        return catalogoCache.obtener(CatalogoCache.Clave.listado(ProductoFiltro.enOferta(), null),
+            () -> productoRepository.findAll(ProductoFiltro.enOferta().toSpecification())); 
     }
     
     /**
@@ -63,8 +109,9 @@ public class CatalogoService {
      * (Para GET /api/productos/category/{id})
      */
     public List<Producto> findProductosByCategoria(Integer categoryId) { 
-        // Asume que findByCategoriaId existe en ProductoRepository
-        return productoRepository.findByCategoriaId(categoryId); 
+        // Misma consulta que las páginas: trae la categoría en el mismo SELECT
+        return catalogoCache.obtener(CatalogoCache.Clave.listado(ProductoFiltro.categoria(categoryId), null),
+            () -> productoRepository.findAll(ProductoFiltro.categoria(categoryId).toSpecification())); 
     }
 
     /**
@@ -72,26 +119,220 @@ public class CatalogoService {
      * (Para GET /api/productos/low-stock)
      */
     public List<Producto> findProductosConStockBajo() {
-        // Asume que findByStockLessThanEqual existe en ProductoRepository
-        return productoRepository.findByStockLessThanEqual(STOCK_CRITICO);
+        // Misma condición que las páginas (umbral literal): usa idx_productos_stock_bajo
+        return catalogoCache.obtener(CatalogoCache.Clave.listado(filtroStockBajo(), null),
+            () -> productoRepository.findAll(filtroStockBajo().toSpecification()));
     }
     
+    /**
+     * Devuelve una página de productos usando paginación por cursor (keyset).
+     * (Para GET /api/productos?cursor=&size=&sort=, y lo mismo en
+     *  /on-sale, /category/{id} y /low-stock)
+     *
+     * Se piden size + 1 filas: si llega la fila extra, hay página siguiente
+     * y el cursor "next" apunta al último producto entregado.
+     */
+    public PaginaDTO<Producto> findProductosPagina(ProductoFiltro filtro, String cursor, Integer size, String sort) {
+        ProductoCursor.Orden orden = ProductoCursor.parseOrden(sort);
+        int limite = limiteDePagina(size);
+
+        Specification<Producto> spec = filtro.toSpecification();
+        if (cursor != null && !cursor.isEmpty()) {
+            spec = spec.and(ProductoCursor.decodificar(cursor, orden).toSpecification());
+        }
+
+        // Cada página se cachea con su orden, tamaño y cursor ya normalizados
+        Specification<Producto> consulta = spec;
+        return catalogoCache.obtener(CatalogoCache.Clave.listado(filtro, varianteDePagina(orden, limite, cursor)),
+            () -> cargarPagina(consulta, orden, limite));
+    }
+
+    private static int limiteDePagina(Integer size) {
+        return (size == null || size <= 0) ? PAGINA_DEFAULT : Math.min(size, PAGINA_MAXIMA);
+    }
+
+    private static String varianteDePagina(ProductoCursor.Orden orden, int limite, String cursor) {
+        return orden + "|" + limite + "|" + (cursor == null ? "" : cursor);
+    }
+
+    private PaginaDTO<Producto> cargarPagina(Specification<Producto> spec, ProductoCursor.Orden orden, int limite) {
+        List<Producto> filas = productoRepository.findBy(spec,
+            q -> q.sortBy(ProductoCursor.toSort(orden)).limit(limite + 1).all());
+
+        if (filas.size() <= limite) {
+            return new PaginaDTO<>(filas, null);
+        }
+        List<Producto> items = new ArrayList<>(filas.subList(0, limite));
+        String next = ProductoCursor.despuesDe(items.get(limite - 1), orden).codificar();
+        return new PaginaDTO<>(items, next);
+    }
+
+    /**
+     * Filtro de stock bajo con el umbral del servicio (para /low-stock paginado).
+     */
+    public ProductoFiltro filtroStockBajo() {
+        return ProductoFiltro.stockBajo(STOCK_CRITICO);
+    }
+
     /**
      * Devuelve los detalles de un producto (incluyendo imágenes).
      * (Para GET /api/productos/{id}/details)
      */
     public ProductoDetalleDTO findProductoDetails(Integer id) {
-        // 1. Buscar el producto
-        Producto producto = productoRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Producto no encontrado con id: " + id));
+        ProductoDetalleDTO detalle = catalogoCache.obtener(CatalogoCache.Clave.detalle(id),
+            () -> cargarProductosDetails(List.of(id)).get(id));
+        if (detalle == null) {
+            throw new RuntimeException("Producto no encontrado con id: " + id);
+        }
+        return detalle;
+    }
 
-        // 2. Buscar las imágenes asociadas
-        List<ProductoImagen> imagenes = productoImagenRepository.findByProductoId(id);
+    /**
+     * Devuelve los detalles de varios productos a la vez, en el mismo orden
+     * de "ids" (los que no existen se omiten).
+     * (Para GET /api/productos/details?ids=1,2,3 - carro y wishlist)
+     */
+    public List<ProductoDetalleDTO> findProductosDetails(List<Integer> ids) {
+        if (ids.size() > PAGINA_MAXIMA) {
+            throw new IllegalArgumentException("Máximo " + PAGINA_MAXIMA + " productos por consulta.");
+        }
+        List<Integer> unicos = ids.stream().distinct().collect(Collectors.toList());
+
+        // Los que están en caché salen de ahí; el resto en una sola consulta
+        Map<Integer, ProductoDetalleDTO> detalles = catalogoCache.obtenerVarios(unicos,
+            CatalogoCache.Clave::detalle, this::cargarProductosDetails);
+
+        return ids.stream()
+            .map(detalles::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+    }
 
-        // 3. Usar el constructor del DTO para combinar la info
-        return new ProductoDetalleDTO(producto, imagenes);
+    /**
+     * Arma los DTO de detalle con UNA consulta (producto + categoría + imágenes).
+     * Antes eran hasta 3 viajes a la BD por producto.
+     */
+    private Map<Integer, ProductoDetalleDTO> cargarProductosDetails(List<Integer> ids) {
+        // 1. Agrupar las filas [Producto, imagenUrl] por producto (vienen ordenadas)
+        Map<Integer, Producto> productos = new LinkedHashMap<>();
+        Map<Integer, List<String>> imagenes = new HashMap<>();
+        for (Object[] fila : productoRepository.findConImagenesByIdIn(ids)) {
+            Producto producto = (Producto) fila[0];
+            String imagenUrl = (String) fila[1];
+            productos.putIfAbsent(producto.getId(), producto);
+            List<String> urls = imagenes.computeIfAbsent(producto.getId(), k -> new ArrayList<>());
+            if (imagenUrl != null) {
+                urls.add(imagenUrl);
+            }
+        }
+
+        // 2. Usar el constructor del DTO para combinar la info
+        Map<Integer, ProductoDetalleDTO> detalles = new HashMap<>();
+        productos.forEach((id, producto) -> detalles.put(id, new ProductoDetalleDTO(producto, imagenes.get(id))));
+        return detalles;
     }
     
+    // =======================================================
+    // --- PRECIOS (para el checkout de servicio-ordenes) ---
+    // =======================================================
+
+    /**
+     * Precios vigentes de varios productos en una consulta, con la versión
+     * de precios leída ANTES de consultar (así la versión nunca es más nueva que los datos).
+     * (Para GET /api/productos/precios?ids=1,2,3)
+     */
+    public PreciosDTO findPrecios(List<Integer> ids) {
+        if (ids.size() > PAGINA_MAXIMA) {
+            throw new IllegalArgumentException("Máximo " + PAGINA_MAXIMA + " productos por consulta.");
+        }
+        long version = cambiosDePrecio.getVersion();
+        return new PreciosDTO(cambiosDePrecio.getEpoch(), version, productoRepository.findPreciosByIdIn(ids));
+    }
+
+    /**
+     * Productos cuyo precio cambió desde una versión.
+     * (Para GET /api/productos/precios/cambios?epoch=...&desde=...)
+     */
+    public CambiosPrecioDTO findCambiosDePrecio(long epoch, long desde) {
+        return cambiosDePrecio.cambiosDesde(epoch, desde);
+    }
+
+    // =======================================================
+    // --- BÚSQUEDA ---
+    // =======================================================
+
+    /**
+     * Busca productos por nombre y descripción en el índice en memoria
+     * (sin tildes, con autocompletado de la última palabra, por relevancia).
+     * (Para GET /api/productos/search?q=...)
+     */
+    public List<Producto> buscarProductos(String consulta, Integer limite) {
+        if (consulta == null || consulta.isBlank()) {
+            throw new IllegalArgumentException("El parámetro 'q' es obligatorio.");
+        }
+        return indiceBusqueda.buscar(consulta, limiteDePagina(limite));
+    }
+
+    /**
+     * Filtro combinado (categorías + oferta + stock + rangos de precio) con
+     * los conteos de cada faceta, resuelto con los BitSet del índice en memoria.
+     * (Para GET /api/productos/facets)
+     */
+    public FacetasDTO findProductosPorFacetas(List<Integer> categorias, Boolean onSale, Boolean inStock,
+                                              List<String> precios, Integer limite) {
+        IndiceFacetas.Consulta consulta = new IndiceFacetas.Consulta(categorias, onSale, inStock, precios);
+        return indiceFacetas.consultar(consulta, limiteDePagina(limite));
+    }
+
+    // =======================================================
+    // --- RESPUESTAS YA SERIALIZADAS (JSON + ETag) ---
+    // =======================================================
+    // Mismos datos que los métodos de arriba, pero ya pasados por Jackson
+    // y guardados como bytes. Se regeneran en la primera lectura después
+    // de un cambio (el caché los invalida con las mismas reglas).
+
+    /**
+     * Lista completa de un filtro (GET /api/productos, /on-sale, /category/{id}, /low-stock).
+     */
+    public CuerpoJson findProductosJson(ProductoFiltro filtro) {
+        return catalogoCache.obtenerJson(CatalogoCache.Clave.listado(filtro, null), () -> {
+            switch (filtro.getTipo()) {
+                case EN_OFERTA:
+                    return findOnSaleProductos();
+                case CATEGORIA:
+                    return findProductosByCategoria(filtro.getValor());
+                case STOCK_BAJO:
+                    return findProductosConStockBajo();
+                default:
+                    return findAllProductos();
+            }
+        });
+    }
+
+    /**
+     * Página por cursor ya serializada (mismos parámetros que findProductosPagina).
+     */
+    public CuerpoJson findProductosPaginaJson(ProductoFiltro filtro, String cursor, Integer size, String sort) {
+        String variante = varianteDePagina(ProductoCursor.parseOrden(sort), limiteDePagina(size), cursor);
+        return catalogoCache.obtenerJson(CatalogoCache.Clave.listado(filtro, variante),
+            () -> findProductosPagina(filtro, cursor, size, sort));
+    }
+
+    /**
+     * Detalle de un producto con el formato { "data": ... } que espera el frontend.
+     */
+    public CuerpoJson findProductoDetailsJson(Integer id) {
+        return catalogoCache.obtenerJson(CatalogoCache.Clave.detalle(id),
+            () -> Map.of("data", findProductoDetails(id)));
+    }
+
+    /**
+     * Todas las categorías (GET /api/categorias).
+     */
+    public CuerpoJson findAllCategoriasJson() {
+        return catalogoCache.obtenerJson(CatalogoCache.Clave.categorias(), this::findAllCategorias);
+    }
+
     // =======================================================
     // --- MÉTODOS DE PRODUCTO (ESCRIBIR: C-U-D) ---
     // =======================================================
@@ -120,7 +361,9 @@ public class CatalogoService {
         producto.setDiscountPercentage(dto.getDiscountPercentage());
 
         // 3. Guardar la nueva entidad Producto
-        return productoRepository.save(producto);
+        Producto guardado = productoRepository.save(producto);
+        eventPublisher.publishEvent(new ProductoCambiadoEvent(null, guardado));
+        return guardado;
     }
 
     /**
@@ -131,6 +374,7 @@ public class CatalogoService {
         // 1. Buscar el producto que ya existe
         Producto productoExistente = productoRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Producto no encontrado con id: " + id));
+        Producto anterior = copiarProducto(productoExistente); // Estado previo (para el caché)
         
         // 2. Buscar la entidad Categoria (si cambió)
         if (dto.getCategoriaId() != null) {
@@ -151,7 +395,9 @@ public class CatalogoService {
         productoExistente.setDiscountPercentage(dto.getDiscountPercentage());
 
         // 4. Guardar los cambios en la entidad existente
-        return productoRepository.save(productoExistente);
+        Producto guardado = productoRepository.save(productoExistente);
+        eventPublisher.publishEvent(new ProductoCambiadoEvent(anterior, guardado));
+        return guardado;
     }
 
     /**
@@ -171,6 +417,7 @@ public class CatalogoService {
         
         // 3. Ahora sí, borramos el producto
         productoRepository.delete(producto);
+        eventPublisher.publishEvent(new ProductoCambiadoEvent(producto, null));
     }
 
     // =======================================================
@@ -182,7 +429,7 @@ public class CatalogoService {
      * (Para GET /api/categorias)
      */
     public List<Categoria> findAllCategorias() {
-        return categoriaRepository.findAll();
+        return catalogoCache.obtener(CatalogoCache.Clave.categorias(), () -> categoriaRepository.findAll());
     }
 
     /**
@@ -191,7 +438,9 @@ public class CatalogoService {
      */
     public Categoria createCategoria(Categoria categoria) {
         // Aquí no usamos DTO porque la entidad Categoria es simple
-        return categoriaRepository.save(categoria);
+        Categoria guardada = categoriaRepository.save(categoria);
+        eventPublisher.publishEvent(new CategoriaCambiadaEvent(guardada.getId()));
+        return guardada;
     }
 
     /**
@@ -208,7 +457,9 @@ public class CatalogoService {
         // (Añade más campos si los tienes, ej: categoria.setDescripcion(...))
         
         // 3. Guardar
-        return categoriaRepository.save(categoria);
+        Categoria guardada = categoriaRepository.save(categoria);
+        eventPublisher.publishEvent(new CategoriaCambiadaEvent(id));
+        return guardada;
     }
 
     /**
@@ -224,5 +475,28 @@ public class CatalogoService {
         // (CUIDADO: Si tienes productos con esta categoría, esto podría fallar
         // si no tienes 'ON DELETE SET NULL' en tu base de datos)
         categoriaRepository.delete(categoria);
+        eventPublisher.publishEvent(new CategoriaCambiadaEvent(id));
+    }
+
+    // =======================================================
+    // --- AYUDANTES ---
+    // =======================================================
+
+    /**
+     * Copia suelta (no administrada por JPA) de un producto, para guardar
+     * su estado antes de modificarlo.
+     */
+    static Producto copiarProducto(Producto original) {
+        Producto copia = new Producto();
+        copia.setId(original.getId());
+        copia.setNombre(original.getNombre());
+        copia.setDescripcion(original.getDescripcion());
+        copia.setPrecio(original.getPrecio());
+        copia.setStock(original.getStock());
+        copia.setImagenUrl(original.getImagenUrl());
+        copia.setCategoria(original.getCategoria());
+        copia.setOnSale(original.getOnSale());
+        copia.setDiscountPercentage(original.getDiscountPercentage());
+        return copia;
     }
 }
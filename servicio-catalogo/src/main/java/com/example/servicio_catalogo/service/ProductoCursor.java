@@ -0,0 +1,100 @@
+package com.example.servicio_catalogo.service;
+
+import com.example.servicio_catalogo.entity.Producto;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Cursor de paginación "keyset": guarda la llave del último producto
+ * entregado (id, o precio + id) y la siguiente página se pide con
+ * WHERE llave > cursor. Así no usamos OFFSET y el costo no crece
+ * con el número de página, y el cursor sigue siendo válido aunque
+ * se agreguen productos nuevos.
+ *
+ * Formato (en Base64 URL-safe): "id:15" o "precio:19990.0:15"
+ */
+final class ProductoCursor {
+
+    enum Orden { ID, PRECIO }
+
+    private final Orden orden;
+    private final Double precio;
+    private final Integer id;
+
+    private ProductoCursor(Orden orden, Double precio, Integer id) {
+        this.orden = orden;
+        this.precio = precio;
+        this.id = id;
+    }
+
+    static Orden parseOrden(String sort) {
+        if (sort == null || sort.isEmpty() || sort.equalsIgnoreCase("id")) {
+            return Orden.ID;
+        }
+        if (sort.equalsIgnoreCase("precio") || sort.equalsIgnoreCase("price")) {
+            return Orden.PRECIO;
+        }
+        throw new IllegalArgumentException("Orden no soportado: " + sort + " (use 'id' o 'precio')");
+    }
+
+    static Sort toSort(Orden orden) {
+        // El id siempre va al final para desempatar (orden total y estable)
+        return orden == Orden.PRECIO ? Sort.by("precio", "id") : Sort.by("id");
+    }
+
+    /** Cursor que apunta justo después del producto dado. */
+    static ProductoCursor despuesDe(Producto producto, Orden orden) {
+        return new ProductoCursor(orden, producto.getPrecio(), producto.getId());
+    }
+
+    static ProductoCursor decodificar(String cursor, Orden orden) {
+        String texto;
+        try {
+            texto = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido.");
+        }
+
+        String[] partes = texto.split(":");
+        try {
+            if (orden == Orden.ID && partes.length == 2 && partes[0].equals("id")) {
+                return new ProductoCursor(orden, null, Integer.valueOf(partes[1]));
+            }
+            if (orden == Orden.PRECIO && partes.length == 3 && partes[0].equals("precio")) {
+                Double precio = partes[1].equals("null") ? null : Double.valueOf(partes[1]);
+                return new ProductoCursor(orden, precio, Integer.valueOf(partes[2]));
+            }
+        } catch (NumberFormatException e) {
+            // cae al error de abajo
+        }
+        throw new IllegalArgumentException("Cursor inválido para el orden '" + orden.name().toLowerCase() + "'.");
+    }
+
+    String codificar() {
+        String texto = orden == Orden.PRECIO ? "precio:" + precio + ":" + id : "id:" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Condición "llave > cursor" según el orden. */
+    Specification<Producto> toSpecification() {
+        return (root, query, cb) -> {
+            if (orden == Orden.ID) {
+                return cb.greaterThan(root.get("id"), id);
+            }
+            // Los NULL van al final del ORDER BY (hibernate.order_by.default_null_ordering=last),
+            // así que los productos sin precio se recorren después de todos los demás.
+            if (precio == null) {
+                return cb.and(cb.isNull(root.get("precio")), cb.greaterThan(root.get("id"), id));
+            }
+            return cb.or(
+                cb.greaterThan(root.get("precio"), precio),
+                cb.and(cb.equal(root.get("precio"), precio), cb.greaterThan(root.get("id"), id)),
+                cb.isNull(root.get("precio"))
+            );
+        };
+    }
+}
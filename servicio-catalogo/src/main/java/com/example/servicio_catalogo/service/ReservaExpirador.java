@@ -0,0 +1,33 @@
+package com.example.servicio_catalogo.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Revisa cada cierto tiempo las reservas que nadie confirmó ni liberó
+ * (p. ej. el checkout se cayó a la mitad) y les devuelve el stock.
+ */
+@Component
+public class ReservaExpirador {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservaExpirador.class);
+
+    private final ReservaService reservaService;
+
+    public ReservaExpirador(ReservaService reservaService) {
+        this.reservaService = reservaService;
+    }
+
+    @Scheduled(fixedDelayString = "${catalogo.reservas.revision:PT30S}")
+    public void liberarVencidas() {
+        for (Integer id : reservaService.findReservasVencidas()) {
+            try {
+                reservaService.expirar(id); // Cada una en su propia transacción
+            } catch (RuntimeException e) {
+                log.error("No se pudo expirar la reserva {}: {}", id, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.servicio_catalogo.service;
+
+import com.example.servicio_catalogo.dto.ReservaRequestDTO;
+import com.example.servicio_catalogo.entity.Producto;
+import com.example.servicio_catalogo.entity.Reserva;
+import com.example.servicio_catalogo.event.ProductoCambiadoEvent;
+import com.example.servicio_catalogo.repository.ProductoFiltro;
+import com.example.servicio_catalogo.repository.ProductoRepository;
+import com.example.servicio_catalogo.repository.ReservaRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reservas de stock para el checkout.
+ *
+ * - Reservar descuenta el stock de todos los productos en UNA transacción con
+ *   UPDATE condicionales (stock >= cantidad): si alguno no alcanza, se hace
+ *   rollback de todo. No hay SELECT ... FOR UPDATE ni locks de tabla; sólo se
+ *   bloquea la fila de cada producto hasta el commit.
+ * - Los productos se descuentan siempre en orden de id, así dos compras con
+ *   los mismos productos no pueden bloquearse mutuamente (deadlock).
+ * - Confirmar / liberar / expirar cambian el estado con un UPDATE condicional:
+ *   sólo uno de ellos gana, y el stock se devuelve una sola vez.
+ * - Una compra pagada nunca pierde su stock: ordenes reintenta la confirmación
+ *   hasta que llega, y si llega cuando la reserva ya venció (stock devuelto),
+ *   confirmar lo vuelve a descontar.
+ */
+@Service
+public class ReservaService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservaService.class);
+
+    private static final int MAX_ITEMS = 100;
+
+    private final ProductoRepository productoRepository;
+    private final ReservaRepository reservaRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration ttl;
+
+    public ReservaService(ProductoRepository productoRepository,
+                          ReservaRepository reservaRepository,
+                          ApplicationEventPublisher eventPublisher,
+                          @Value("${catalogo.reservas.ttl:PT10M}") Duration ttl) {
+        this.productoRepository = productoRepository;
+        this.reservaRepository = reservaRepository;
+        this.eventPublisher = eventPublisher;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Descuenta el stock de todos los items y crea la reserva (ACTIVA hasta "expiraEn").
+     * Lanza IllegalStateException si algún producto no tiene stock suficiente
+     * (en ese caso no se descuenta nada).
+     */
+    @Transactional
+    public Reserva reservar(List<ReservaRequestDTO.Item> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("La reserva debe tener al menos un producto.");
+        }
+        if (items.size() > MAX_ITEMS) {
+            throw new IllegalArgumentException("Máximo " + MAX_ITEMS + " productos por reserva.");
+        }
+
+        // Suma repetidos y ordena por id (TreeMap)
+        Map<Integer, Integer> cantidades = new TreeMap<>();
+        for (ReservaRequestDTO.Item item : items) {
+            if (item.getProductoId() == null || item.getCantidad() == null || item.getCantidad() <= 0) {
+                throw new IllegalArgumentException("Cada item necesita productoId y una cantidad mayor a cero.");
+            }
+            cantidades.merge(item.getProductoId(), item.getCantidad(), Integer::sum);
+        }
+
+        for (Map.Entry<Integer, Integer> e : cantidades.entrySet()) {
+            if (productoRepository.descontarStock(e.getKey(), e.getValue()) == 0) {
+                // La excepción hace rollback de los descuentos anteriores
+                throw new IllegalStateException("Stock insuficiente para el producto " + e.getKey());
+            }
+        }
+
+        Reserva reserva = new Reserva();
+        reserva.setExpiraEn(LocalDateTime.now().plus(ttl));
+        cantidades.forEach((productoId, cantidad) -> reserva.getItems().add(new Reserva.Item(productoId, cantidad)));
+        Reserva guardada = reservaRepository.save(reserva);
+
+        publicarDespuesDelCommit(cantidades, -1);
+        return guardada;
+    }
+
+    /** La compra se guardó: el stock queda descontado para siempre. */
+    @Transactional
+    public Reserva.Estado confirmar(Integer id) {
+        if (reservaRepository.cambiarEstado(id, Reserva.Estado.ACTIVA, Reserva.Estado.CONFIRMADA) == 1) {
+            return Reserva.Estado.CONFIRMADA;
+        }
+        Reserva reserva = findReserva(id);
+        if (reserva.getEstado() == Reserva.Estado.EXPIRADA
+                && reservaRepository.cambiarEstado(id, Reserva.Estado.EXPIRADA, Reserva.Estado.CONFIRMADA) == 1) {
+            // La confirmación llegó después del vencimiento: su stock ya se había devuelto
+            retomarStock(reserva);
+            return Reserva.Estado.CONFIRMADA;
+        }
+        Reserva.Estado estado = reserva.getEstado();
+        if (estado != Reserva.Estado.CONFIRMADA) {
+            throw new IllegalStateException("La reserva " + id + " ya no está activa (" + estado + ").");
+        }
+        return estado; // Confirmar dos veces no es error
+    }
+
+    /** La compra falló: se devuelve el stock. Liberar dos veces no hace nada. */
+    @Transactional
+    public Reserva.Estado liberar(Integer id) {
+        if (reservaRepository.cambiarEstado(id, Reserva.Estado.ACTIVA, Reserva.Estado.LIBERADA) == 1) {
+            devolverStock(findReserva(id));
+            return Reserva.Estado.LIBERADA;
+        }
+        Reserva.Estado estado = findReserva(id).getEstado();
+        if (estado == Reserva.Estado.CONFIRMADA) {
+            throw new IllegalStateException("La reserva " + id + " ya fue confirmada.");
+        }
+        return estado;
+    }
+
+    /** Ids de reservas activas cuyo plazo ya venció. */
+    public List<Integer> findReservasVencidas() {
+        return reservaRepository.findIdsByEstadoAndExpiraEnBefore(Reserva.Estado.ACTIVA, LocalDateTime.now());
+    }
+
+    /** Libera una reserva vencida (si mientras tanto se confirmó o liberó, no hace nada). */
+    @Transactional
+    public void expirar(Integer id) {
+        if (reservaRepository.cambiarEstado(id, Reserva.Estado.ACTIVA, Reserva.Estado.EXPIRADA) == 1) {
+            devolverStock(findReserva(id));
+        }
+    }
+
+    // =======================================================
+    // --- AYUDANTES ---
+    // =======================================================
+
+    private Reserva findReserva(Integer id) {
+        return reservaRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Reserva no encontrada con id: " + id));
+    }
+
+    private void devolverStock(Reserva reserva) {
+        Map<Integer, Integer> cantidades = new TreeMap<>();
+        reserva.getItems().forEach(item -> cantidades.merge(item.getProductoId(), item.getCantidad(), Integer::sum));
+        cantidades.forEach(productoRepository::devolverStock);
+        publicarDespuesDelCommit(cantidades, 1);
+    }
+
+    /**
+     * Vuelve a descontar el stock de una reserva vencida que sí se pagó. Si entretanto
+     * se vendió, el producto queda con stock negativo (sobrevendido) y se avisa.
+     */
+    private void retomarStock(Reserva reserva) {
+        Map<Integer, Integer> cantidades = new TreeMap<>();
+        reserva.getItems().forEach(item -> cantidades.merge(item.getProductoId(), item.getCantidad(), Integer::sum));
+        cantidades.forEach((productoId, cantidad) -> {
+            if (productoRepository.descontarStock(productoId, cantidad) == 0) {
+                productoRepository.descontarStockSinLimite(productoId, cantidad);
+                log.warn("Reserva {} confirmada después de vencer: el producto {} quedó sobrevendido en hasta {} unidades.",
+                    reserva.getId(), productoId, cantidad);
+            }
+        });
+        publicarDespuesDelCommit(cantidades, -1);
+    }
+
+    /**
+     * Avisa a los cachés e índices que cambió el stock, recién después del
+     * commit (antes, una lectura concurrente podría volver a cachear el valor viejo).
+     */
+    private void publicarDespuesDelCommit(Map<Integer, Integer> cantidades, int signo) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                Specification<Producto> porIds = (root, query, cb) -> root.get("id").in(cantidades.keySet());
+                for (Producto actual : productoRepository.findAll(ProductoFiltro.todos().toSpecification().and(porIds))) {
+                    Producto anterior = CatalogoService.copiarProducto(actual);
+                    anterior.setStock(actual.getStock() - signo * cantidades.get(actual.getId()));
+                    eventPublisher.publishEvent(new ProductoCambiadoEvent(anterior, actual));
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,30 @@
+-- Esquema base de catalogo_db: las tablas que creaba ddl-auto=update ANTES de las
+-- migraciones (tal como están en producción). Lo agregado después va en V3 en adelante.
+-- En una BD que ya tenía estas tablas Flyway NO corre este script
+-- (baseline-on-migrate marca la versión 1 como aplicada) y sigue con la V2.
+
+CREATE TABLE categorias (
+    id      integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nombre  varchar(255)
+);
+
+CREATE TABLE productos (
+    id                  integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nombre              varchar(255),
+    descripcion         varchar(255),
+    precio              double precision,
+    stock               integer,
+    imagen_url          varchar(255),
+    categoria_id        integer,
+    on_sale             boolean,
+    discount_percentage double precision,
+    CONSTRAINT fk_productos_categoria FOREIGN KEY (categoria_id) REFERENCES categorias (id)
+);
+
+CREATE TABLE producto_imagenes (
+    id          integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    imagen_url  varchar(255),
+    orden       integer,
+    producto_id integer,
+    CONSTRAINT fk_producto_imagenes_producto FOREIGN KEY (producto_id) REFERENCES productos (id)
+);
@@ -0,0 +1,17 @@
+-- Índices para los predicados de las consultas calientes del catálogo.
+-- Postgres no indexa solo las llaves foráneas; sin estos índices cada listado
+-- por categoría, oferta o stock bajo recorre la tabla completa.
+-- IF NOT EXISTS: en BDs que venían de ddl-auto=update alguno puede existir ya.
+
+-- GET /api/productos/category/{id} (y el JOIN desde categorías)
+CREATE INDEX IF NOT EXISTS idx_productos_categoria ON productos (categoria_id, id);
+
+-- GET /api/productos/on-sale: sólo las filas en oferta, ordenadas por id (orden del cursor)
+CREATE INDEX IF NOT EXISTS idx_productos_en_oferta ON productos (id) WHERE on_sale;
+
+-- GET /api/productos/low-stock: el umbral debe coincidir con CatalogoService.STOCK_CRITICO,
+-- si no, el planner no puede usar el índice parcial
+CREATE INDEX IF NOT EXISTS idx_productos_stock_bajo ON productos (stock, id) WHERE stock <= 10;
+
+-- Galería de cada producto, ya en su orden
+CREATE INDEX IF NOT EXISTS idx_producto_imagenes_producto ON producto_imagenes (producto_id, orden);
@@ -0,0 +1,21 @@
+-- Reservas temporales de stock del checkout (ver entity/Reserva y ReservaService).
+-- IF NOT EXISTS: una BD que corrió con ddl-auto=update después de agregar
+-- las reservas ya puede tener estas tablas.
+
+CREATE TABLE IF NOT EXISTS reservas (
+    id         integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    estado     varchar(16) NOT NULL CHECK (estado IN ('ACTIVA', 'CONFIRMADA', 'LIBERADA', 'EXPIRADA')),
+    creada_en  timestamp(6),
+    expira_en  timestamp(6)
+);
+
+CREATE TABLE IF NOT EXISTS reserva_items (
+    reserva_id  integer NOT NULL,
+    producto_id integer,
+    cantidad    integer,
+    CONSTRAINT fk_reserva_items_reserva FOREIGN KEY (reserva_id) REFERENCES reservas (id)
+);
+
+-- Las vencidas que revisa ReservaService y los ítems de cada una
+CREATE INDEX IF NOT EXISTS idx_reservas_estado_expira ON reservas (estado, expira_en);
+CREATE INDEX IF NOT EXISTS idx_reserva_items_reserva ON reserva_items (reserva_id);
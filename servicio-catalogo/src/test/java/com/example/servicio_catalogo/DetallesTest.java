@@ -0,0 +1,130 @@
+package com.example.servicio_catalogo;
+
+import com.example.servicio_catalogo.dto.ProductoFormDTO;
+import com.example.servicio_catalogo.entity.Producto;
+import com.example.servicio_catalogo.entity.ProductoImagen;
+import com.example.servicio_catalogo.repository.ProductoImagenRepository;
+import com.example.servicio_catalogo.service.CatalogoService;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Detalle de producto armado en una sola consulta (el @PresupuestoSql(1) de los
+ * endpoints falla en el perfil "test" si no): imágenes en su orden, la imagen
+ * principal como respaldo, y el endpoint por lotes en el orden pedido.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class DetallesTest {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private CatalogoService catalogoService;
+
+	@Autowired
+	private ProductoImagenRepository productoImagenRepository;
+
+	private final List<Integer> creados = new ArrayList<>();
+	private Integer conGaleria;
+	private Integer sinGaleria;
+
+	@BeforeEach
+	void crearProductos() {
+		// Productos nuevos: ninguna otra prueba los tiene en el caché
+		Producto producto = catalogoService.createProducto(formulario("Con galería", "/principal.jpg"));
+		imagen(producto, "/tercera.jpg", 3);
+		imagen(producto, "/primera.jpg", 1);
+		imagen(producto, "/segunda.jpg", 2);
+		conGaleria = producto.getId();
+		sinGaleria = catalogoService.createProducto(formulario("Sin galería", "/principal.jpg")).getId();
+		creados.add(conGaleria);
+		creados.add(sinGaleria);
+	}
+
+	@AfterEach
+	void borrarCreados() {
+		creados.forEach(catalogoService::deleteProducto);
+	}
+
+	@Test
+	void detalleConLasImagenesEnOrden() throws Exception {
+		mvc.perform(get("/api/productos/{id}/details", conGaleria))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.data.nombre").value("Con galería"))
+			.andExpect(jsonPath("$.data.images", contains("/primera.jpg", "/segunda.jpg", "/tercera.jpg")));
+	}
+
+	@Test
+	void sinGaleriaUsaLaImagenPrincipal() throws Exception {
+		mvc.perform(get("/api/productos/{id}/details", sinGaleria))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.data.images", contains("/principal.jpg")));
+	}
+
+	@Test
+	void productoInexistente() throws Exception {
+		mvc.perform(get("/api/productos/{id}/details", 999999)).andExpect(status().isNotFound());
+	}
+
+	@Test
+	void porLotesEnElOrdenPedidoYSinLosQueNoExisten() throws Exception {
+		mvc.perform(get("/api/productos/details").param("ids", sinGaleria + ",999999," + conGaleria + "," + sinGaleria))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.data[*].id", contains(sinGaleria, conGaleria, sinGaleria)))
+			.andExpect(jsonPath("$.data[1].images", contains("/primera.jpg", "/segunda.jpg", "/tercera.jpg")));
+	}
+
+	@Test
+	void porLotesMezclaCacheYBd() throws Exception {
+		// El primero queda en el caché; el lote sólo consulta el otro
+		mvc.perform(get("/api/productos/{id}/details", conGaleria)).andExpect(status().isOk());
+
+		mvc.perform(get("/api/productos/details").param("ids", conGaleria + "," + sinGaleria))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.data[*].id", contains(conGaleria, sinGaleria)));
+	}
+
+	@Test
+	void porLotesTieneUnMaximo() throws Exception {
+		String ids = String.join(",", Collections.nCopies(101, "1"));
+		mvc.perform(get("/api/productos/details").param("ids", ids)).andExpect(status().isBadRequest());
+	}
+
+	// --- Utilidades ---
+
+	private static ProductoFormDTO formulario(String nombre, String imagenUrl) {
+		ProductoFormDTO dto = new ProductoFormDTO();
+		dto.setNombre(nombre);
+		dto.setPrecio(9990.0);
+		dto.setStock(3);
+		dto.setImagenUrl(imagenUrl);
+		return dto;
+	}
+
+	private void imagen(Producto producto, String url, int orden) {
+		ProductoImagen imagen = new ProductoImagen();
+		imagen.setProducto(producto);
+		imagen.setImagenUrl(url);
+		imagen.setOrden(orden);
+		productoImagenRepository.save(imagen);
+	}
+}
@@ -0,0 +1,179 @@
+package com.example.servicio_catalogo;
+
+import com.example.servicio_catalogo.dto.ProductoFormDTO;
+import com.example.servicio_catalogo.entity.Categoria;
+import com.example.servicio_catalogo.service.CatalogoService;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Respuestas ya serializadas del catálogo: ETag fuerte, 304 con If-None-Match,
+ * gzip precomprimido con su propio ETag, y un ETag nuevo después de cada cambio.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class EtagTest {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private CatalogoService catalogoService;
+
+	private final List<Integer> creados = new ArrayList<>();
+	private final List<Integer> categoriasCreadas = new ArrayList<>();
+	private Integer productoId;
+
+	@BeforeEach
+	void crearProducto() {
+		productoId = crear("Oso con ETag", "Suave");
+	}
+
+	@AfterEach
+	void borrarCreados() {
+		creados.forEach(catalogoService::deleteProducto);
+		categoriasCreadas.forEach(catalogoService::deleteCategoria);
+	}
+
+	@Test
+	void conElMismoEtagResponde304SinCuerpo() throws Exception {
+		String etag = etag("/api/productos/{id}/details", productoId);
+
+		mvc.perform(get("/api/productos/{id}/details", productoId).header(HttpHeaders.IF_NONE_MATCH, etag))
+			.andExpect(status().isNotModified())
+			.andExpect(header().string(HttpHeaders.ETAG, etag))
+			.andExpect(content().bytes(new byte[0]));
+	}
+
+	@Test
+	void conOtroEtagRespondeElCuerpo() throws Exception {
+		mvc.perform(get("/api/productos/{id}/details", productoId).header(HttpHeaders.IF_NONE_MATCH, "\"otro\""))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.data.nombre").value("Oso con ETag"));
+	}
+
+	@Test
+	void aceptaListasEtagsDebilesYAsterisco() throws Exception {
+		String etag = etag("/api/productos/{id}/details", productoId);
+
+		mvc.perform(get("/api/productos/{id}/details", productoId).header(HttpHeaders.IF_NONE_MATCH, "\"viejo\", " + etag))
+			.andExpect(status().isNotModified());
+		mvc.perform(get("/api/productos/{id}/details", productoId).header(HttpHeaders.IF_NONE_MATCH, "W/" + etag))
+			.andExpect(status().isNotModified());
+		mvc.perform(get("/api/productos/{id}/details", productoId).header(HttpHeaders.IF_NONE_MATCH, "*"))
+			.andExpect(status().isNotModified());
+	}
+
+	@Test
+	void despuesDeEditarCambiaElEtag() throws Exception {
+		String antes = etag("/api/productos/{id}/details", productoId);
+
+		ProductoFormDTO dto = formulario("Oso con ETag editado", "Otra descripción");
+		catalogoService.updateProducto(productoId, dto);
+
+		mvc.perform(get("/api/productos/{id}/details", productoId).header(HttpHeaders.IF_NONE_MATCH, antes))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.data.nombre").value("Oso con ETag editado"));
+		assertNotEquals(antes, etag("/api/productos/{id}/details", productoId));
+	}
+
+	@Test
+	void crearUnProductoCambiaElEtagDelListado() throws Exception {
+		String antes = etag("/api/productos");
+
+		crear("Otro oso", "Nuevo");
+
+		mvc.perform(get("/api/productos").header(HttpHeaders.IF_NONE_MATCH, antes)).andExpect(status().isOk());
+	}
+
+	@Test
+	void gzipPrecomprimidoConSuPropioEtag() throws Exception {
+		// Descripciones largas: el listado completo pasa el mínimo para comprimir
+		for (int i = 0; i < 5; i++) {
+			crear("Oso largo " + i, "Suave ".repeat(40));
+		}
+		byte[] json = mvc.perform(get("/api/productos")).andReturn().getResponse().getContentAsByteArray();
+		String etag = etag("/api/productos");
+
+		var respuesta = mvc.perform(get("/api/productos").header(HttpHeaders.ACCEPT_ENCODING, "gzip, br"))
+			.andExpect(status().isOk())
+			.andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+			.andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+			.andReturn().getResponse();
+		String etagGzip = respuesta.getHeader(HttpHeaders.ETAG);
+
+		assertNotEquals(etag, etagGzip);
+		assertArrayEquals(json, descomprimir(respuesta.getContentAsByteArray()));
+		// Cualquiera de los dos ETags vale para revalidar
+		mvc.perform(get("/api/productos").header(HttpHeaders.IF_NONE_MATCH, etagGzip))
+			.andExpect(status().isNotModified());
+	}
+
+	@Test
+	void categoriasConEtagQueCambiaAlCrearUna() throws Exception {
+		String antes = etag("/api/categorias");
+		mvc.perform(get("/api/categorias").header(HttpHeaders.IF_NONE_MATCH, antes))
+			.andExpect(status().isNotModified());
+
+		Categoria categoria = new Categoria();
+		categoria.setNombre("Categoria con ETag");
+		categoriasCreadas.add(catalogoService.createCategoria(categoria).getId());
+
+		mvc.perform(get("/api/categorias").header(HttpHeaders.IF_NONE_MATCH, antes))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$[?(@.nombre == 'Categoria con ETag')]").exists());
+	}
+
+	// --- Utilidades ---
+
+	private String etag(String url, Object... variables) throws Exception {
+		return mvc.perform(get(url, variables))
+			.andExpect(status().isOk())
+			.andExpect(header().exists(HttpHeaders.ETAG))
+			.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+	}
+
+	private Integer crear(String nombre, String descripcion) {
+		Integer id = catalogoService.createProducto(formulario(nombre, descripcion)).getId();
+		creados.add(id);
+		return id;
+	}
+
+	private static ProductoFormDTO formulario(String nombre, String descripcion) {
+		ProductoFormDTO dto = new ProductoFormDTO();
+		dto.setNombre(nombre);
+		dto.setDescripcion(descripcion);
+		dto.setPrecio(9990.0);
+		dto.setStock(3);
+		return dto;
+	}
+
+	private static byte[] descomprimir(byte[] gzip) throws IOException {
+		try (GZIPInputStream entrada = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+			return entrada.readAllBytes();
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package com.example.servicio_catalogo;
+
+import com.example.comun.security.Sesion;
+import com.example.comun.security.TokenEmisor;
+
+import com.jayway.jsonpath.JsonPath;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Cada endpoint con @PresupuestoSql sobre los productos de CatalogoDataSeeder:
+ * con app.sql.presupuesto.fallar=true (perfil "test") una sentencia de más,
+ * por ejemplo cargar las imágenes de cada producto por separado, hace fallar la request.
+ * Cada URL se pide una sola vez: la segunda vendría del caché, sin SQL.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PresupuestoSqlTest {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Value("${app.token.claves}")
+	private String claves;
+
+	@Test
+	void listadosDeProductos() throws Exception {
+		mvc.perform(get("/api/productos")).andExpect(status().isOk());
+		mvc.perform(get("/api/productos").param("size", "2").param("sort", "precio")).andExpect(status().isOk());
+		mvc.perform(get("/api/productos/low-stock")).andExpect(status().isOk());
+		mvc.perform(get("/api/productos/on-sale")).andExpect(status().isOk());
+		mvc.perform(get("/api/productos/category/{id}", 1)).andExpect(status().isOk());
+		mvc.perform(get("/api/categorias")).andExpect(status().isOk());
+	}
+
+	@Test
+	void detallesYPrecios() throws Exception {
+		mvc.perform(get("/api/productos/{id}/details", 1)).andExpect(status().isOk());
+		mvc.perform(get("/api/productos/details").param("ids", "1,2,3"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.data.length()").value(3));
+		mvc.perform(get("/api/productos/precios").param("ids", "1,2,3")).andExpect(status().isOk());
+	}
+
+	@Test
+	void busquedaYFacetasSinSql() throws Exception {
+		mvc.perform(get("/api/productos/search").param("q", "peluche")).andExpect(status().isOk());
+		mvc.perform(get("/api/productos/facets").param("onSale", "true")).andExpect(status().isOk());
+	}
+
+	@Test
+	void confirmarReserva() throws Exception {
+		String token = "Bearer " + new TokenEmisor(claves, "dev1", Duration.ofMinutes(5))
+			.emitir(new Sesion(0, "servicio-ordenes", "Servicio")).getValor();
+
+		String reserva = mvc.perform(post("/api/reservas").header("Authorization", token)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"items\":[{\"productoId\":1,\"cantidad\":1},{\"productoId\":2,\"cantidad\":2}]}"))
+			.andExpect(status().isOk())
+			.andReturn().getResponse().getContentAsString();
+		Integer reservaId = JsonPath.read(reserva, "$.reservaId");
+
+		mvc.perform(post("/api/reservas/{id}/confirmar", reservaId).header("Authorization", token))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.estado").value("CONFIRMADA"));
+	}
+}
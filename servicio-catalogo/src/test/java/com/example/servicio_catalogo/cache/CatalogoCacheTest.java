@@ -0,0 +1,237 @@
+package com.example.servicio_catalogo.cache;
+
+import com.example.servicio_catalogo.cache.CatalogoCache.Clave;
+import com.example.servicio_catalogo.entity.Categoria;
+import com.example.servicio_catalogo.entity.Producto;
+import com.example.servicio_catalogo.event.CategoriaCambiadaEvent;
+import com.example.servicio_catalogo.event.ProductoCambiadoEvent;
+import com.example.servicio_catalogo.repository.ProductoFiltro;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Invalidación precisa: un cambio borra sólo las entradas que contienen al
+ * producto (o categoría) y los listados donde podría entrar con su estado nuevo.
+ */
+class CatalogoCacheTest {
+
+	private static final Clave TODOS = Clave.listado(ProductoFiltro.todos(), null);
+	private static final Clave EN_OFERTA = Clave.listado(ProductoFiltro.enOferta(), null);
+	private static final Clave PELUCHES = Clave.listado(ProductoFiltro.categoria(1), null);
+	private static final Clave LLAVEROS = Clave.listado(ProductoFiltro.categoria(2), null);
+
+	private final SimpleMeterRegistry metricas = new SimpleMeterRegistry();
+	private final CatalogoCache cache = new CatalogoCache(
+		20000, Duration.ofMinutes(10), 1_000_000, new ObjectMapper(), metricas);
+
+	// Cuántas veces se "consultó la BD" por cada clave
+	private final Map<Clave, AtomicInteger> cargas = new HashMap<>();
+
+	private final Producto osito = producto(10, 1, false);
+	private final Producto conejo = producto(11, 1, false);
+	private final Producto llavero = producto(20, 2, true);
+
+	@Test
+	void laSegundaLecturaNoVaALaBd() {
+		leerTodo();
+		leerTodo();
+
+		assertEquals(1, cargas(TODOS));
+		assertEquals(1, cargas(Clave.detalle(10)));
+	}
+
+	@Test
+	void editarUnProductoBorraSoloLoQueLoContiene() {
+		leerTodo();
+
+		Producto editado = producto(10, 1, false);
+		editado.setNombre("Osito grande");
+		cache.onProductoCambiado(new ProductoCambiadoEvent(osito, editado));
+		leerTodo();
+
+		assertEquals(2, cargas(TODOS));
+		assertEquals(2, cargas(PELUCHES));
+		assertEquals(2, cargas(Clave.detalle(10)));
+		// No lo contienen y tampoco entra en ellos
+		assertEquals(1, cargas(EN_OFERTA));
+		assertEquals(1, cargas(LLAVEROS));
+		assertEquals(1, cargas(Clave.detalle(11)));
+		assertEquals(1, cargas(Clave.detalle(20)));
+	}
+
+	@Test
+	void ponerEnOfertaBorraElListadoDondeAhoraEntra() {
+		leerTodo();
+
+		cache.onProductoCambiado(new ProductoCambiadoEvent(osito, producto(10, 1, true)));
+		leerTodo();
+
+		assertEquals(2, cargas(EN_OFERTA));
+		assertEquals(1, cargas(LLAVEROS));
+	}
+
+	@Test
+	void cambiarDeCategoriaBorraLaViejaYLaNueva() {
+		leerTodo();
+
+		cache.onProductoCambiado(new ProductoCambiadoEvent(osito, producto(10, 2, false)));
+		leerTodo();
+
+		assertEquals(2, cargas(PELUCHES));
+		assertEquals(2, cargas(LLAVEROS));
+		assertEquals(1, cargas(EN_OFERTA));
+	}
+
+	@Test
+	void crearBorraSoloLosListadosDondeEntra() {
+		leerTodo();
+
+		cache.onProductoCambiado(new ProductoCambiadoEvent(null, producto(30, 2, false)));
+		leerTodo();
+
+		assertEquals(2, cargas(TODOS));
+		assertEquals(2, cargas(LLAVEROS));
+		assertEquals(1, cargas(PELUCHES));
+		assertEquals(1, cargas(EN_OFERTA));
+		assertEquals(1, cargas(Clave.detalle(10)));
+	}
+
+	@Test
+	void eliminarBorraDondeEstaba() {
+		leerTodo();
+
+		cache.onProductoCambiado(new ProductoCambiadoEvent(llavero, null));
+		leerTodo();
+
+		assertEquals(2, cargas(TODOS));
+		assertEquals(2, cargas(EN_OFERTA));
+		assertEquals(2, cargas(LLAVEROS));
+		assertEquals(2, cargas(Clave.detalle(20)));
+		assertEquals(1, cargas(PELUCHES));
+		assertEquals(1, cargas(Clave.detalle(10)));
+	}
+
+	@Test
+	void cambiarUnaCategoriaBorraLoQueLaMuestra() {
+		leerTodo();
+
+		cache.onCategoriaCambiada(new CategoriaCambiadaEvent(2));
+		leerTodo();
+
+		assertEquals(2, cargas(Clave.categorias()));
+		assertEquals(2, cargas(LLAVEROS));
+		// Contienen un producto de la categoría (que serializa la Categoria completa)
+		assertEquals(2, cargas(TODOS));
+		assertEquals(2, cargas(EN_OFERTA));
+		assertEquals(2, cargas(Clave.detalle(20)));
+		assertEquals(1, cargas(PELUCHES));
+		assertEquals(1, cargas(Clave.detalle(10)));
+	}
+
+	@Test
+	void unaCargaQueCruzaUnCambioNoSeGuarda() {
+		// La consulta empezó antes del cambio: su resultado puede estar viejo
+		cache.obtener(TODOS, () -> {
+			cargas.computeIfAbsent(TODOS, c -> new AtomicInteger()).incrementAndGet();
+			cache.onProductoCambiado(new ProductoCambiadoEvent(osito, producto(10, 1, true)));
+			return List.of(osito);
+		});
+		leer(TODOS, List.of(osito));
+
+		assertEquals(2, cargas(TODOS));
+	}
+
+	@Test
+	void variosCarganSoloLosFaltantesEnUnaLlamada() {
+		leer(Clave.detalle(10), osito);
+		List<List<Integer>> llamadas = new ArrayList<>();
+
+		Map<Integer, Producto> resultado = cache.obtenerVarios(List.of(10, 11, 20), Clave::detalle, faltantes -> {
+			llamadas.add(faltantes);
+			return Map.of(11, conejo, 20, llavero);
+		});
+
+		assertEquals(List.of(List.of(11, 20)), llamadas);
+		assertEquals(3, resultado.size());
+		cache.onProductoCambiado(new ProductoCambiadoEvent(conejo, producto(11, 1, true)));
+		cache.obtenerVarios(List.of(10, 11, 20), Clave::detalle, faltantes -> {
+			llamadas.add(faltantes);
+			return Map.of(11, conejo);
+		});
+		assertEquals(List.of(11), llamadas.get(1));
+	}
+
+	@Test
+	void lasRespuestasSerializadasSeInvalidanIgual() {
+		CuerpoJson peluches = cache.obtenerJson(PELUCHES, () -> List.of(osito, conejo));
+		CuerpoJson llaveros = cache.obtenerJson(LLAVEROS, () -> List.of(llavero));
+		assertSame(peluches, cache.obtenerJson(PELUCHES, () -> List.of()));
+
+		cache.onProductoCambiado(new ProductoCambiadoEvent(conejo, producto(11, 1, true)));
+
+		assertNotSame(peluches, cache.obtenerJson(PELUCHES, () -> List.of(osito, conejo)));
+		assertSame(llaveros, cache.obtenerJson(LLAVEROS, () -> List.of()));
+	}
+
+	@Test
+	void cuentaHitsYMisses() {
+		leer(TODOS, List.of(osito));
+		leer(TODOS, List.of(osito));
+		leer(TODOS, List.of(osito));
+
+		assertEquals(2.0, metricas.get("cache.gets").tags("cache", "catalogo", "result", "hit").functionCounter().count());
+		assertEquals(1.0, metricas.get("cache.gets").tags("cache", "catalogo", "result", "miss").functionCounter().count());
+	}
+
+	// --- Utilidades ---
+
+	private void leerTodo() {
+		leer(TODOS, List.of(osito, conejo, llavero));
+		leer(EN_OFERTA, List.of(llavero));
+		leer(PELUCHES, List.of(osito, conejo));
+		leer(LLAVEROS, List.of(llavero));
+		leer(Clave.categorias(), List.of(osito.getCategoria(), llavero.getCategoria()));
+		leer(Clave.detalle(10), osito);
+		leer(Clave.detalle(11), conejo);
+		leer(Clave.detalle(20), llavero);
+	}
+
+	private void leer(Clave clave, Object valor) {
+		cache.obtener(clave, () -> {
+			cargas.computeIfAbsent(clave, c -> new AtomicInteger()).incrementAndGet();
+			return valor;
+		});
+	}
+
+	private int cargas(Clave clave) {
+		return cargas.getOrDefault(clave, new AtomicInteger()).get();
+	}
+
+	private static Producto producto(int id, int categoriaId, boolean enOferta) {
+		Categoria categoria = new Categoria();
+		categoria.setId(categoriaId);
+		categoria.setNombre("Categoría " + categoriaId);
+		Producto producto = new Producto();
+		producto.setId(id);
+		producto.setNombre("Producto " + id);
+		producto.setPrecio(9990.0);
+		producto.setStock(5);
+		producto.setCategoria(categoria);
+		producto.setOnSale(enOferta);
+		return producto;
+	}
+}
@@ -0,0 +1,103 @@
+package com.example.servicio_catalogo.search;
+
+import com.example.servicio_catalogo.entity.Producto;
+import com.example.servicio_catalogo.event.ProductoCambiadoEvent;
+import com.example.servicio_catalogo.repository.ProductoRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IndiceBusquedaTest {
+
+	private final Producto unicornio = producto(1, "Unicornio Mágico", "Peluche suave con cuerno dorado");
+	private final Producto oso = producto(2, "Oso Azul", "Oso de peluche grande");
+	private final Producto osos = producto(3, "Osos Rosados", "Peluche pequeño, ideal para regalo");
+	private final Producto dragon = producto(4, "Dragón", "Con alas azul marino");
+
+	private IndiceBusqueda indice;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void construir() {
+		ProductoRepository repositorio = mock(ProductoRepository.class);
+		when(repositorio.findAll(any(Specification.class))).thenReturn(List.of(unicornio, oso, osos, dragon));
+		indice = new IndiceBusqueda(repositorio);
+		indice.construir();
+	}
+
+	@Test
+	void ignoraMayusculasYTildes() {
+		assertEquals(List.of(unicornio), indice.buscar("MAGICO ", 10));
+		assertEquals(List.of(dragon), indice.buscar("dragon ", 10));
+	}
+
+	@Test
+	void laUltimaPalabraCalzaPorPrefijo() {
+		assertEquals(List.of(unicornio), indice.buscar("uni", 10));
+		// Con espacio al final la palabra está completa: "uni" no es un término
+		assertEquals(List.of(), indice.buscar("uni ", 10));
+		// Sólo la última palabra es prefijo
+		assertEquals(List.of(), indice.buscar("pel grande", 10));
+	}
+
+	@Test
+	void exigeTodasLasPalabras() {
+		assertEquals(List.of(oso), indice.buscar("oso peluche ", 10));
+	}
+
+	@Test
+	void elNombrePesaMasQueLaDescripcion() {
+		// "azul" está en el nombre del oso y en la descripción del dragón
+		assertEquals(List.of(oso, dragon), indice.buscar("azul ", 10));
+	}
+
+	@Test
+	void elTerminoExactoPesaMasQueElPrefijo() {
+		// "oso" calza exacto en el oso y por prefijo en los osos rosados
+		assertEquals(List.of(oso, osos), indice.buscar("oso", 10));
+	}
+
+	@Test
+	void respetaElLimite() {
+		assertEquals(2, indice.buscar("peluche ", 2).size());
+	}
+
+	@Test
+	void sinPalabrasUtilesNoDevuelveNada() {
+		assertEquals(List.of(), indice.buscar("de la ", 10));
+		assertEquals(List.of(), indice.buscar("  ", 10));
+	}
+
+	@Test
+	void seActualizaConLosEventos() {
+		Producto renombrado = producto(1, "Pegaso Mágico", "Peluche con alas");
+		indice.onProductoCambiado(new ProductoCambiadoEvent(unicornio, renombrado));
+
+		assertEquals(List.of(), indice.buscar("unicornio ", 10));
+		assertEquals(List.of(renombrado), indice.buscar("pegaso ", 10));
+
+		indice.onProductoCambiado(new ProductoCambiadoEvent(oso, null));
+		assertTrue(indice.buscar("oso ", 10).isEmpty());
+
+		Producto nuevo = producto(5, "Oso Polar", "Blanco");
+		indice.onProductoCambiado(new ProductoCambiadoEvent(null, nuevo));
+		assertEquals(List.of(nuevo), indice.buscar("polar ", 10));
+	}
+
+	private static Producto producto(Integer id, String nombre, String descripcion) {
+		Producto producto = new Producto();
+		producto.setId(id);
+		producto.setNombre(nombre);
+		producto.setDescripcion(descripcion);
+		return producto;
+	}
+}
@@ -0,0 +1,147 @@
+package com.example.servicio_catalogo.search;
+
+import com.example.servicio_catalogo.dto.FacetasDTO;
+import com.example.servicio_catalogo.dto.ProductoFormDTO;
+import com.example.servicio_catalogo.entity.Producto;
+import com.example.servicio_catalogo.repository.ProductoRepository;
+import com.example.servicio_catalogo.service.CatalogoService;
+
+import jakarta.persistence.criteria.Predicate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Cada combinación de filtros se compara con la misma consulta hecha en SQL
+ * sobre la BD: los productos, el total y los conteos de cada faceta
+ * (con los filtros de las demás facetas, como el conteo disyuntivo del índice).
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class IndiceFacetasTest {
+
+	private static final List<List<Integer>> CATEGORIAS = Arrays.asList(null, List.of(1), List.of(1, 3));
+	private static final List<Boolean> BOOLEANOS = Arrays.asList(null, true, false);
+
+	@Autowired
+	private IndiceFacetas indice;
+
+	@Autowired
+	private CatalogoService catalogoService;
+
+	@Autowired
+	private ProductoRepository productoRepository;
+
+	private final List<Integer> creados = new ArrayList<>();
+
+	@BeforeEach
+	void agregarCasosBorde() {
+		// Además de los del CatalogoDataSeeder: sin stock, justo en un límite, sin precio, sin categoría
+		creados.add(crear(null, 20000.0, 0, false));
+		creados.add(crear(3, null, null, null));
+		creados.add(crear(2, 35000.0, 0, true));
+	}
+
+	@AfterEach
+	void borrarCreados() {
+		creados.forEach(catalogoService::deleteProducto);
+	}
+
+	@Test
+	void coincideConLaBdEnTodasLasCombinaciones() {
+		List<String> rangos = new ArrayList<>(indice.consultar(new IndiceFacetas.Consulta(null, null, null, null), 0)
+			.getFacetas().get("precio").keySet());
+		List<List<String>> filtrosDePrecio = Arrays.asList(null, List.of(rangos.get(0)),
+			List.of(rangos.get(1), rangos.get(rangos.size() - 1)));
+
+		for (List<Integer> categorias : CATEGORIAS) {
+			for (Boolean onSale : BOOLEANOS) {
+				for (Boolean inStock : BOOLEANOS) {
+					for (List<String> precios : filtrosDePrecio) {
+						comparar(categorias, onSale, inStock, precios);
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	void rechazaUnRangoDePrecioDesconocido() {
+		assertThrows(IllegalArgumentException.class,
+			() -> indice.consultar(new IndiceFacetas.Consulta(null, null, null, List.of("5-10")), 10));
+	}
+
+	private void comparar(List<Integer> categorias, Boolean onSale, Boolean inStock, List<String> precios) {
+		String caso = "categorias=" + categorias + " onSale=" + onSale + " inStock=" + inStock + " precios=" + precios;
+		FacetasDTO facetas = indice.consultar(new IndiceFacetas.Consulta(categorias, onSale, inStock, precios), 1000);
+
+		List<Integer> esperados = productoRepository.findAll(enBd(categorias, onSale, inStock, precios), Sort.by("id"))
+			.stream().map(Producto::getId).toList();
+		assertEquals(esperados, facetas.getItems().stream().map(Producto::getId).toList(), caso);
+		assertEquals(esperados.size(), facetas.getTotal(), caso);
+
+		// Cada faceta se cuenta con los filtros de las otras
+		Map<String, Map<String, Integer>> conteos = facetas.getFacetas();
+		conteos.get("categoria").forEach((id, conteo) -> assertEquals(
+			productoRepository.count(enBd(List.of(Integer.valueOf(id)), onSale, inStock, precios)), (long) conteo, caso + " categoria=" + id));
+		conteos.get("onSale").forEach((valor, conteo) -> assertEquals(
+			productoRepository.count(enBd(categorias, Boolean.valueOf(valor), inStock, precios)), (long) conteo, caso + " onSale=" + valor));
+		conteos.get("inStock").forEach((valor, conteo) -> assertEquals(
+			productoRepository.count(enBd(categorias, onSale, Boolean.valueOf(valor), precios)), (long) conteo, caso + " inStock=" + valor));
+		conteos.get("precio").forEach((rango, conteo) -> assertEquals(
+			productoRepository.count(enBd(categorias, onSale, inStock, List.of(rango))), (long) conteo, caso + " precio=" + rango));
+	}
+
+	/** El mismo filtro como WHERE: "false" es "no true" (incluye NULL) y un rango "a-b" es [a, b). */
+	private static Specification<Producto> enBd(List<Integer> categorias, Boolean onSale, Boolean inStock, List<String> precios) {
+		return (root, query, cb) -> {
+			List<Predicate> condiciones = new ArrayList<>();
+			if (categorias != null) {
+				condiciones.add(root.get("categoria").get("id").in(categorias));
+			}
+			if (onSale != null) {
+				Predicate enOferta = cb.isTrue(root.get("onSale"));
+				condiciones.add(onSale ? enOferta : cb.or(cb.isNull(root.get("onSale")), cb.not(enOferta)));
+			}
+			if (inStock != null) {
+				Predicate conStock = cb.greaterThan(root.get("stock"), 0);
+				condiciones.add(inStock ? conStock : cb.or(cb.isNull(root.get("stock")), cb.not(conStock)));
+			}
+			if (precios != null) {
+				List<Predicate> rangos = new ArrayList<>();
+				for (String rango : precios) {
+					String[] limites = rango.replace("+", "").split("-");
+					Predicate desde = cb.greaterThanOrEqualTo(root.get("precio"), Double.valueOf(limites[0]));
+					rangos.add(limites.length == 1 ? desde
+						: cb.and(desde, cb.lessThan(root.get("precio"), Double.valueOf(limites[1]))));
+				}
+				condiciones.add(cb.or(rangos.toArray(new Predicate[0])));
+			}
+			return cb.and(condiciones.toArray(new Predicate[0]));
+		};
+	}
+
+	private Integer crear(Integer categoriaId, Double precio, Integer stock, Boolean onSale) {
+		ProductoFormDTO dto = new ProductoFormDTO();
+		dto.setNombre("Caso borde " + precio);
+		dto.setCategoriaId(categoriaId);
+		dto.setPrecio(precio);
+		dto.setStock(stock);
+		dto.setOnSale(onSale);
+		return catalogoService.createProducto(dto).getId();
+	}
+}
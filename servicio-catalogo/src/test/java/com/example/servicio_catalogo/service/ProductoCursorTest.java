@@ -0,0 +1,129 @@
+package com.example.servicio_catalogo.service;
+
+import com.example.servicio_catalogo.dto.PaginaDTO;
+import com.example.servicio_catalogo.dto.ProductoFormDTO;
+import com.example.servicio_catalogo.entity.Producto;
+import com.example.servicio_catalogo.repository.ProductoFiltro;
+import com.example.servicio_catalogo.repository.ProductoRepository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Cursor keyset: ida y vuelta por Base64 y recorrido completo del listado
+ * ordenado por precio, con productos sin precio (van al final, como en Postgres).
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductoCursorTest {
+
+	@Autowired
+	private CatalogoService catalogoService;
+
+	@Autowired
+	private ProductoRepository productoRepository;
+
+	private final List<Integer> creados = new ArrayList<>();
+
+	@AfterEach
+	void borrarCreados() {
+		creados.forEach(catalogoService::deleteProducto);
+	}
+
+	@Test
+	void codificaYDecodificaPorId() {
+		String cursor = ProductoCursor.despuesDe(producto(15, 9990.0), ProductoCursor.Orden.ID).codificar();
+
+		assertEquals("id:15", texto(cursor));
+		assertEquals(cursor, ProductoCursor.decodificar(cursor, ProductoCursor.Orden.ID).codificar());
+	}
+
+	@Test
+	void codificaYDecodificaPorPrecio() {
+		String cursor = ProductoCursor.despuesDe(producto(15, 19990.0), ProductoCursor.Orden.PRECIO).codificar();
+
+		assertEquals("precio:19990.0:15", texto(cursor));
+		assertEquals(cursor, ProductoCursor.decodificar(cursor, ProductoCursor.Orden.PRECIO).codificar());
+	}
+
+	@Test
+	void conservaElPrecioNulo() {
+		String cursor = ProductoCursor.despuesDe(producto(7, null), ProductoCursor.Orden.PRECIO).codificar();
+
+		assertEquals("precio:null:7", texto(cursor));
+		assertEquals(cursor, ProductoCursor.decodificar(cursor, ProductoCursor.Orden.PRECIO).codificar());
+	}
+
+	@Test
+	void rechazaCursoresInvalidos() {
+		String porId = ProductoCursor.despuesDe(producto(15, 9990.0), ProductoCursor.Orden.ID).codificar();
+
+		// Cursor de otro orden, Base64 roto, campos de más y números que no lo son
+		assertThrows(IllegalArgumentException.class, () -> ProductoCursor.decodificar(porId, ProductoCursor.Orden.PRECIO));
+		assertThrows(IllegalArgumentException.class, () -> ProductoCursor.decodificar("%%%", ProductoCursor.Orden.ID));
+		assertThrows(IllegalArgumentException.class, () -> ProductoCursor.decodificar(base64("id:1:2"), ProductoCursor.Orden.ID));
+		assertThrows(IllegalArgumentException.class, () -> ProductoCursor.decodificar(base64("id:x"), ProductoCursor.Orden.ID));
+		assertThrows(IllegalArgumentException.class, () -> ProductoCursor.decodificar(base64("precio:abc:1"), ProductoCursor.Orden.PRECIO));
+		assertThrows(IllegalArgumentException.class, () -> ProductoCursor.parseOrden("nombre"));
+	}
+
+	@Test
+	void recorrePorPrecioSinRepetirNiSaltarseLosNulos() {
+		creados.add(crear("Sin precio A", null));
+		creados.add(crear("Sin precio B", null));
+		double repetido = productoRepository.findAll().get(0).getPrecio();
+		creados.add(crear("Mismo precio", repetido)); // Empate: desempata el id
+
+		List<Producto> recorridos = new ArrayList<>();
+		String cursor = null;
+		do {
+			PaginaDTO<Producto> pagina = catalogoService.findProductosPagina(ProductoFiltro.todos(), cursor, 2, "precio");
+			recorridos.addAll(pagina.getItems());
+			cursor = pagina.getNext();
+		} while (cursor != null);
+
+		List<Integer> esperados = productoRepository.findAll(ProductoCursor.toSort(ProductoCursor.Orden.PRECIO))
+			.stream().map(Producto::getId).toList();
+		assertEquals(esperados, recorridos.stream().map(Producto::getId).toList());
+		// Los productos sin precio quedan al final
+		assertNull(recorridos.get(recorridos.size() - 1).getPrecio());
+		assertNull(recorridos.get(recorridos.size() - 2).getPrecio());
+	}
+
+	// --- Utilidades ---
+
+	private Integer crear(String nombre, Double precio) {
+		ProductoFormDTO dto = new ProductoFormDTO();
+		dto.setNombre(nombre);
+		dto.setPrecio(precio);
+		dto.setStock(1);
+		return catalogoService.createProducto(dto).getId();
+	}
+
+	private static Producto producto(Integer id, Double precio) {
+		Producto producto = new Producto();
+		producto.setId(id);
+		producto.setPrecio(precio);
+		return producto;
+	}
+
+	private static String texto(String cursor) {
+		return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+	}
+
+	private static String base64(String texto) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,218 @@
+package com.example.servicio_catalogo.service;
+
+import com.example.servicio_catalogo.dto.ProductoFormDTO;
+import com.example.servicio_catalogo.dto.ReservaRequestDTO;
+import com.example.servicio_catalogo.entity.Reserva;
+import com.example.servicio_catalogo.repository.ProductoRepository;
+import com.example.servicio_catalogo.repository.ReservaRepository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Reservas de stock contra la BD: todo o nada, sin sobreventa con compras
+ * concurrentes, vencimiento, operaciones repetidas y confirmación tardía.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ReservaServiceTest {
+
+	@Autowired
+	private ReservaService reservaService;
+
+	@Autowired
+	private ReservaExpirador reservaExpirador;
+
+	@Autowired
+	private CatalogoService catalogoService;
+
+	@Autowired
+	private ProductoRepository productoRepository;
+
+	@Autowired
+	private ReservaRepository reservaRepository;
+
+	private final List<Integer> creados = new ArrayList<>();
+
+	@AfterEach
+	void borrarCreados() {
+		creados.forEach(catalogoService::deleteProducto);
+	}
+
+	@Test
+	void todoONada() {
+		Integer conStock = producto(5);
+		Integer escaso = producto(1);
+
+		assertThrows(IllegalStateException.class,
+			() -> reservaService.reservar(List.of(item(conStock, 2), item(escaso, 2))));
+
+		// El primer descuento se deshizo con el rollback
+		assertEquals(5, stock(conStock));
+		assertEquals(1, stock(escaso));
+	}
+
+	@Test
+	void losRepetidosSeSumanAntesDeDescontar() {
+		Integer id = producto(3);
+
+		assertThrows(IllegalStateException.class,
+			() -> reservaService.reservar(List.of(item(id, 2), item(id, 2))));
+		assertEquals(3, stock(id));
+	}
+
+	@Test
+	void comprasConcurrentesNoSobrevenden() throws Exception {
+		Integer id = producto(10);
+		int compradores = 25;
+		CountDownLatch largada = new CountDownLatch(1);
+
+		ExecutorService hilos = Executors.newFixedThreadPool(8);
+		List<Future<Boolean>> resultados = new ArrayList<>();
+		try {
+			for (int i = 0; i < compradores; i++) {
+				Callable<Boolean> compra = () -> {
+					largada.await();
+					try {
+						reservaService.reservar(List.of(item(id, 1)));
+						return true;
+					} catch (IllegalStateException sinStock) {
+						return false;
+					}
+				};
+				resultados.add(hilos.submit(compra));
+			}
+			largada.countDown();
+
+			int exitosas = 0;
+			for (Future<Boolean> resultado : resultados) {
+				if (resultado.get(30, TimeUnit.SECONDS)) {
+					exitosas++;
+				}
+			}
+			assertEquals(10, exitosas);
+		} finally {
+			hilos.shutdownNow();
+		}
+		assertEquals(0, stock(id));
+	}
+
+	@Test
+	void alVencerSeDevuelveElStock() {
+		Integer id = producto(4);
+		Reserva reserva = reservaService.reservar(List.of(item(id, 3)));
+		assertEquals(1, stock(id));
+
+		vencer(reserva.getId());
+		reservaExpirador.liberarVencidas();
+
+		assertEquals(Reserva.Estado.EXPIRADA, estado(reserva.getId()));
+		assertEquals(4, stock(id));
+		// Una segunda pasada no la vuelve a devolver
+		reservaExpirador.liberarVencidas();
+		assertEquals(4, stock(id));
+	}
+
+	@Test
+	void confirmarDosVecesNoHaceNada() {
+		Integer id = producto(4);
+		Integer reservaId = reservaService.reservar(List.of(item(id, 3))).getId();
+
+		assertEquals(Reserva.Estado.CONFIRMADA, reservaService.confirmar(reservaId));
+		assertEquals(Reserva.Estado.CONFIRMADA, reservaService.confirmar(reservaId));
+
+		assertEquals(1, stock(id));
+		// Ya confirmada: ni liberar ni vencer devuelven el stock
+		assertThrows(IllegalStateException.class, () -> reservaService.liberar(reservaId));
+		reservaService.expirar(reservaId);
+		assertEquals(1, stock(id));
+	}
+
+	@Test
+	void liberarDosVecesDevuelveElStockUnaSolaVez() {
+		Integer id = producto(4);
+		Integer reservaId = reservaService.reservar(List.of(item(id, 3))).getId();
+
+		assertEquals(Reserva.Estado.LIBERADA, reservaService.liberar(reservaId));
+		assertEquals(Reserva.Estado.LIBERADA, reservaService.liberar(reservaId));
+
+		assertEquals(4, stock(id));
+		assertThrows(IllegalStateException.class, () -> reservaService.confirmar(reservaId));
+	}
+
+	@Test
+	void confirmarDespuesDeVencerVuelveADescontar() {
+		Integer id = producto(4);
+		Integer reservaId = reservaService.reservar(List.of(item(id, 3))).getId();
+		vencer(reservaId);
+		reservaExpirador.liberarVencidas();
+		assertEquals(4, stock(id));
+
+		assertEquals(Reserva.Estado.CONFIRMADA, reservaService.confirmar(reservaId));
+
+		assertEquals(1, stock(id));
+	}
+
+	@Test
+	void confirmarDespuesDeVencerSinStockQuedaSobrevendido() {
+		// Documentado en ReservaService.retomarStock: una compra pagada no pierde su stock
+		Integer id = producto(4);
+		Integer reservaId = reservaService.reservar(List.of(item(id, 3))).getId();
+		vencer(reservaId);
+		reservaExpirador.liberarVencidas();
+		reservaService.reservar(List.of(item(id, 2))); // Otra compra toma parte del stock devuelto
+
+		assertEquals(Reserva.Estado.CONFIRMADA, reservaService.confirmar(reservaId));
+
+		assertEquals(-1, stock(id));
+	}
+
+	// --- Utilidades ---
+
+	private Integer producto(int stock) {
+		ProductoFormDTO dto = new ProductoFormDTO();
+		dto.setNombre("Reserva " + stock);
+		dto.setPrecio(9990.0);
+		dto.setStock(stock);
+		Integer id = catalogoService.createProducto(dto).getId();
+		creados.add(id);
+		return id;
+	}
+
+	private static ReservaRequestDTO.Item item(Integer productoId, int cantidad) {
+		ReservaRequestDTO.Item item = new ReservaRequestDTO.Item();
+		item.setProductoId(productoId);
+		item.setCantidad(cantidad);
+		return item;
+	}
+
+	private int stock(Integer productoId) {
+		return productoRepository.findById(productoId).orElseThrow().getStock();
+	}
+
+	private Reserva.Estado estado(Integer reservaId) {
+		return reservaRepository.findById(reservaId).orElseThrow().getEstado();
+	}
+
+	private void vencer(Integer reservaId) {
+		Reserva reserva = reservaRepository.findById(reservaId).orElseThrow();
+		reserva.setExpiraEn(LocalDateTime.now().minusMinutes(1));
+		reservaRepository.save(reserva);
+	}
+}
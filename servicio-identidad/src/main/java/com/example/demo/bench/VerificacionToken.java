@@ -0,0 +1,84 @@
+package com.example.demo.bench;
+
+import com.example.comun.security.Sesion;
+import com.example.comun.security.TokenEmisor;
+import com.example.comun.security.TokenVerificador;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Costo por request de verificar un token (lo que hace TokenFilter en cada
+ * servicio): HMAC-SHA256 + leer la cabecera y los datos. No levanta Spring
+ * ni usa la red: mide sólo la CPU, para compararla con lo que costaba buscar
+ * al usuario en la BD (~1 ms o más por request).
+ *
+ * Uso (después de mvn compile):
+ *   java -cp "target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *        com.example.demo.bench.VerificacionToken 4 10
+ * Argumentos: hilos (núcleos), segundos por medición (10).
+ */
+public class VerificacionToken {
+
+    private static final String CLAVES = "bench:YmVuY2htYXJrLWJlbmNobWFyay1iZW5jaG1hcmstYmVuY2g=";
+
+    public static void main(String[] args) throws Exception {
+        int hilos = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int segundos = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        TokenVerificador verificador = new TokenVerificador(CLAVES);
+        String token = new TokenEmisor(CLAVES, "bench", Duration.ofHours(1))
+            .emitir(new Sesion(42, "cliente@peluchemania.cl", "Cliente"))
+            .getValor();
+        System.out.println("🔑 [token] " + token.length() + " caracteres: " + token);
+
+        System.out.println("🔥 [token] calentando (JIT)...");
+        medir(verificador, token, 1, Math.max(1, segundos / 2));
+
+        System.out.println("⏱️ [token] 1 hilo, " + segundos + " s...");
+        imprimir(1, medir(verificador, token, 1, segundos), segundos);
+        if (hilos > 1) {
+            System.out.println("⏱️ [token] " + hilos + " hilos, " + segundos + " s...");
+            imprimir(hilos, medir(verificador, token, hilos, segundos), segundos);
+        }
+    }
+
+    /** Verificaciones hechas en total por "hilos" hilos durante "segundos". */
+    private static long medir(TokenVerificador verificador, String token, int hilos, long segundos) throws Exception {
+        long fin = System.nanoTime() + Duration.ofSeconds(segundos).toNanos();
+        ExecutorService pool = Executors.newFixedThreadPool(hilos);
+        try {
+            List<Future<Long>> futuros = new ArrayList<>();
+            for (int i = 0; i < hilos; i++) {
+                futuros.add(pool.submit(() -> {
+                    long cantidad = 0;
+                    long usuarios = 0; // Para que el JIT no elimine la verificación
+                    while (System.nanoTime() < fin) {
+                        for (int j = 0; j < 1000; j++) {
+                            usuarios += verificador.verificar(token).getUsuarioId();
+                        }
+                        cantidad += 1000;
+                    }
+                    return usuarios == 42 * cantidad ? cantidad : -1;
+                }));
+            }
+            long total = 0;
+            for (Future<Long> futuro : futuros) {
+                total += futuro.get();
+            }
+            return total;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void imprimir(int hilos, long total, long segundos) {
+        double porSegundo = total / (double) segundos;
+        System.out.printf("📊 [token] %d hilo(s): %.0f verificaciones/s, %.2f µs por verificación y hilo%n",
+            hilos, porSegundo, hilos * 1e6 / porSegundo);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.demo.cache;
+
+import com.example.demo.repository.UsuarioRepository;
+import com.example.demo.repository.UsuarioRepository.PerfilLogin;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Perfil de login (usuario + rol + dirección por defecto) en memoria, por email normalizado.
+ *
+ * - Un login repetido no va a la BD; el primero hace una sola consulta (UsuarioRepository.perfilLogin).
+ * - Acotado en cantidad, con vencimiento como red de seguridad si otra instancia
+ *   o alguien por fuera del servicio cambia un usuario.
+ * - Sólo se guardan los emails que existen: un email desconocido siempre consulta la BD
+ *   (así un registro nuevo se ve al tiro).
+ * - Quien cambie un usuario (registro, rehash de contraseña, perfil) debe llamar a invalidar.
+ * Incluye el hash de la contraseña (bcrypt), nunca la contraseña.
+ * Métricas en /actuator/metrics/cache.gets?tag=cache:perfil-login
+ */
+@Component
+public class PerfilLoginCache {
+
+    private final UsuarioRepository usuarioRepository;
+    private final Cache<String, PerfilLogin> perfiles;
+
+    public PerfilLoginCache(UsuarioRepository usuarioRepository, MeterRegistry meterRegistry,
+                            @Value("${app.perfiles.maximo:10000}") long maximo,
+                            @Value("${app.perfiles.expiracion:PT10M}") Duration expiracion) {
+        this.usuarioRepository = usuarioRepository;
+        this.perfiles = Caffeine.newBuilder()
+            .maximumSize(maximo)
+            .expireAfterWrite(expiracion)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, perfiles, "perfil-login");
+    }
+
+    /** Email tal como se guarda y se busca: sin espacios alrededor y en minúsculas. */
+    public static String normalizar(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public Optional<PerfilLogin> obtener(String email) {
+        String clave = normalizar(email);
+        if (clave == null || clave.isEmpty()) {
+            return Optional.empty();
+        }
+        // Si la BD no lo tiene, la función devuelve null y Caffeine no guarda nada
+        return Optional.ofNullable(perfiles.get(clave, k -> usuarioRepository.perfilLogin(k).orElse(null)));
+    }
+
+    public void invalidar(String email) {
+        if (email != null) {
+            perfiles.invalidate(normalizar(email));
+        }
+    }
+}
@@ -1,28 +1,44 @@
 package com.example.demo.config; // O tu paquete correspondiente
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 // Imports para el nuevo método
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.http.HttpStatus;
+
+import com.example.comun.security.TokenFilter;
+import com.example.comun.security.TokenVerificador;
 
 // Imports para el método que ya tenías
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.Map;
+
 
 @Configuration
 public class SecurityConfig {
 
     /**
-     * Este Bean crea el encriptador de contraseñas (bcrypt).
+     * Este Bean crea el encriptador de contraseñas (bcrypt, con costo configurable).
+     * Los hashes nuevos quedan como "{bcrypt}$2a$<costo>$..."; los antiguos sin
+     * prefijo se siguen aceptando. Al subir app.password.bcrypt-costo,
+     * upgradeEncoding avisa qué hashes rehacer (AuthService lo hace en el login).
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        // Este método ya lo tenías
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.password.bcrypt-costo:10}") int costo) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(costo);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt); // Hashes guardados antes del prefijo
+        return encoder;
     }
 
     /**
@@ -30,16 +46,24 @@ public class SecurityConfig {
      * Aquí es donde deshabilitamos el pop-up y hacemos públicas las rutas.
      */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, TokenVerificador tokenVerificador) throws Exception {
         http
             // 1. Deshabilitar CSRF (necesario para APIs REST)
             .csrf(AbstractHttpConfigurer::disable)
+
+            // Sin sesión HTTP: cada request trae su token (Authorization: Bearer ...)
+            .sessionManagement(s -> s.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .addFilterBefore(new TokenFilter(tokenVerificador), UsernamePasswordAuthenticationFilter.class)
+            // Sin token en una ruta protegida: 401 (no 403)
+            .exceptionHandling(e -> e.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
             
             // 2. Definir permisos para las rutas
             .authorizeHttpRequests(auth -> auth
                 // Permitir que CUALQUIERA (permitAll) se registre o inicie sesión
                 .requestMatchers("/api/auth/register").permitAll()
                 .requestMatchers("/api/auth/login").permitAll()
+                // Salud y métricas (ej. auth.password.*) para monitoreo
+                .requestMatchers("/actuator/health", "/actuator/metrics/**").permitAll()
                 
                 // Pedir autenticación para cualquier otra ruta
                 .anyRequest().authenticated()
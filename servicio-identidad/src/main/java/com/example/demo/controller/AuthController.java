@@ -1,7 +1,11 @@
 package com.example.demo.controller;
 
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -11,9 +15,12 @@ import com.example.demo.dto.LoginRequest;
 import com.example.demo.dto.LoginResponse;
 import com.example.demo.dto.RegistroRequest;
 import com.example.demo.entity.Usuario;
+import com.example.comun.security.Sesion;
 import com.example.demo.service.AuthService;
+import com.example.demo.service.ContrasenaService;
 import com.example.demo.dto.LoginRequest;
 import com.example.demo.dto.LoginResponse;
+import com.example.comun.sql.PresupuestoSql;
 
 @RestController // Le dice a Spring que esta clase es un controlador de API REST
 @RequestMapping("/api/auth") // Todas las rutas aquí empiezan con /api/auth
@@ -26,6 +33,8 @@ public class AuthController {
     }
 
     // Define el endpoint POST /api/auth/register
+    // Existe el email, rol Cliente, INSERT usuario, INSERT dirección
+    @PresupuestoSql(4)
     @PostMapping("/register")
     public ResponseEntity<?> registerUser(@RequestBody RegistroRequest registroRequest) {
         try {
@@ -33,6 +42,11 @@ public class AuthController {
             // Si funciona, devolvemos 201 Created (es mejor que 200 OK para registros)
             return new ResponseEntity<>(usuario, HttpStatus.CREATED);
 
+        } catch (ContrasenaService.SaturadoException e) {
+            return saturado(e);
+        } catch (DataIntegrityViolationException e) {
+            // Dos registros con el mismo email a la vez: el índice único rechazó el segundo
+            return new ResponseEntity<>("El correo ya está registrado.", HttpStatus.CONFLICT); // 409 Conflict
         } catch (Exception e) {
             // Si el email ya existe (de nuestro "throw new Exception...")
             if (e.getMessage().contains("El correo ya está registrado")) {
@@ -44,6 +58,8 @@ public class AuthController {
     }
 
     // --- ENDPOINT DE LOGIN (NUEVO) ---
+    // Perfil en una consulta (0 si está en caché) + UPDATE si hay que rehacer el hash
+    @PresupuestoSql(2)
     @PostMapping("/login")
     public ResponseEntity<?> loginUser(@RequestBody LoginRequest loginRequest) {
         try {
@@ -51,9 +67,27 @@ public class AuthController {
             // Si funciona, devolvemos 200 OK con los datos del usuario
             return ResponseEntity.ok(response);
 
+        } catch (ContrasenaService.SaturadoException e) {
+            // Demasiados logins a la vez: no es culpa de las credenciales
+            return saturado(e);
         } catch (Exception e) {
             // Si las credenciales son malas
             return new ResponseEntity<>(e.getMessage(), HttpStatus.UNAUTHORIZED); // 401 Unauthorized
         }
     }
-}
\ No newline at end of file
+
+    // --- SESIÓN ACTUAL ---
+    // GET /api/auth/me con "Authorization: Bearer <token>": datos del token, sin ir a la BD
+    @PresupuestoSql(0)
+    @GetMapping("/me")
+    public ResponseEntity<Sesion> sesionActual(@AuthenticationPrincipal Sesion sesion) {
+        return ResponseEntity.ok(sesion);
+    }
+
+    // 503 + Retry-After: el cliente puede reintentar en unos segundos
+    private ResponseEntity<?> saturado(ContrasenaService.SaturadoException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "2")
+                .body(e.getMessage());
+    }
+}
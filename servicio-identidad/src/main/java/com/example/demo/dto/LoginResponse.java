@@ -2,6 +2,8 @@ package com.example.demo.dto;
 
 import lombok.Data;
 
+import java.time.Instant;
+
 @Data
 public class LoginResponse {
     private Integer id;
@@ -10,6 +12,8 @@ public class LoginResponse {
     private String email;
     private String rol; // El nombre del rol (ej. "Administrador")
     private DireccionDTO direccionDefault;
+    private String token;        // Enviarlo como "Authorization: Bearer <token>" a todos los servicios
+    private Instant tokenExpira; // Después de esto hay que volver a iniciar sesión
 
     // DTO anidado para la dirección
     @Data
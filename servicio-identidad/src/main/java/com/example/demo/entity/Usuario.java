@@ -15,7 +15,8 @@ import lombok.Data;
 
 @Data
 @Entity
-@Table(name = "usuarios")
+// Índice único en email: el login y el chequeo de duplicados son una búsqueda por índice
+@Table(name = "usuarios") // Índices y restricciones: db/migration (Flyway)
 public class Usuario {
 
     @Id
@@ -24,7 +25,7 @@ public class Usuario {
 
     private String nombre;
     private String apellidos;
-    private String email;
+    private String email; // Siempre normalizado (ver PerfilLoginCache.normalizar)
     private String passwordHash;
 
     // --- RELACIONES ---
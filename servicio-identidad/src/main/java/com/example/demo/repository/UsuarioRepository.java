@@ -1,6 +1,10 @@
 package com.example.demo.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.demo.entity.Usuario;
 
@@ -12,4 +16,39 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Integer> {
     // llamado "findByEmail", ¡automáticamente crea la consulta SQL
     // "SELECT * FROM usuarios WHERE email = ?" por ti!
     Optional<Usuario> findByEmail(String email);
-}
\ No newline at end of file
+
+    // Registro: una búsqueda en el índice único de email, sin cargar el usuario ni su rol
+    boolean existsByEmail(String email);
+
+    // --- LOGIN (ver PerfilLoginCache) ---
+    // Todo lo que necesita el login en UNA consulta: usuario + nombre del rol
+    // + su dirección por defecto (la primera que registró)
+
+    interface PerfilLogin {
+        Integer getId();
+        String getNombre();
+        String getApellidos();
+        String getEmail();
+        String getPasswordHash();
+        String getRol();
+        String getCalle();
+        String getDepto();
+        String getRegion();
+        String getComuna();
+    }
+
+    @Query("SELECT u.id AS id, u.nombre AS nombre, u.apellidos AS apellidos, u.email AS email, "
+         + "u.passwordHash AS passwordHash, r.nombre AS rol, "
+         + "d.calle AS calle, d.depto AS depto, d.region AS region, d.comuna AS comuna "
+         + "FROM Usuario u LEFT JOIN u.rol r "
+         + "LEFT JOIN Direccion d ON d.usuario = u "
+         + "AND d.id = (SELECT MIN(d2.id) FROM Direccion d2 WHERE d2.usuario = u) "
+         + "WHERE u.email = :email")
+    Optional<PerfilLogin> perfilLogin(@Param("email") String email);
+
+    // Rehash de la contraseña tras el login, sin cargar la entidad
+    @Transactional
+    @Modifying
+    @Query("UPDATE Usuario u SET u.passwordHash = :hash WHERE u.id = :id")
+    int actualizarPasswordHash(@Param("id") Integer id, @Param("hash") String hash);
+}
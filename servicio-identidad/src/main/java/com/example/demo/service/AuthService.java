@@ -1,9 +1,11 @@
 package com.example.demo.service;
 
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.demo.cache.PerfilLoginCache;
 import com.example.demo.entity.Direccion;
 import com.example.demo.entity.Rol;
 import com.example.demo.entity.Usuario;
@@ -13,25 +15,33 @@ import com.example.demo.dto.LoginResponse; // Importar DTO de Login
 import com.example.demo.repository.DireccionRepository;
 import com.example.demo.repository.RolRepository;
 import com.example.demo.repository.UsuarioRepository;
+import com.example.demo.repository.UsuarioRepository.PerfilLogin;
+import com.example.comun.security.Sesion;
+import com.example.comun.security.TokenEmisor;
 
-import java.util.List; // Importar List
-import java.util.Optional; // Importar Optional
 
 @Service // Marca esto como una clase de servicio
 public class AuthService {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthService.class);
+
     // Inyectamos todos los componentes que necesitamos
     private final UsuarioRepository usuarioRepository;
     private final DireccionRepository direccionRepository;
     private final RolRepository rolRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final ContrasenaService contrasenaService; // bcrypt en su propio pool acotado
+    private final TokenEmisor tokenEmisor;
+    private final PerfilLoginCache perfilLoginCache;
 
     public AuthService(UsuarioRepository usuarioRepository, DireccionRepository direccionRepository,
-                       RolRepository rolRepository, PasswordEncoder passwordEncoder) {
+                       RolRepository rolRepository, ContrasenaService contrasenaService,
+                       TokenEmisor tokenEmisor, PerfilLoginCache perfilLoginCache) {
         this.usuarioRepository = usuarioRepository;
         this.direccionRepository = direccionRepository;
         this.rolRepository = rolRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.contrasenaService = contrasenaService;
+        this.tokenEmisor = tokenEmisor;
+        this.perfilLoginCache = perfilLoginCache;
     }
 
     /**
@@ -40,8 +50,10 @@ public class AuthService {
     @Transactional // Asegura que si algo falla, se hace un "ROLLBACK"
     public Usuario registrarUsuario(RegistroRequest request) throws Exception {
         
-        // 1. Revisar si el email ya existe
-        if (usuarioRepository.findByEmail(request.getEmail()).isPresent()) {
+        // 1. Revisar si el email ya existe (una búsqueda en el índice único;
+        //    si dos registros llegan a la vez, el índice rechaza al segundo)
+        String email = PerfilLoginCache.normalizar(request.getEmail());
+        if (usuarioRepository.existsByEmail(email)) {
             // Lanzamos una excepción que el controlador atrapará
             throw new Exception("El correo ya está registrado.");
         }
@@ -53,8 +65,8 @@ public class AuthService {
         Usuario nuevoUsuario = new Usuario();
         nuevoUsuario.setNombre(request.getNombre());
         nuevoUsuario.setApellidos(request.getApellidos());
-        nuevoUsuario.setEmail(request.getEmail());
-        nuevoUsuario.setPasswordHash(passwordEncoder.encode(request.getPassword()));
+        nuevoUsuario.setEmail(email);
+        nuevoUsuario.setPasswordHash(contrasenaService.encriptar(request.getPassword()));
         nuevoUsuario.setRol(rolCliente);
 
         // Guardamos el usuario para obtener su ID
@@ -71,45 +83,60 @@ public class AuthService {
         // Guardamos la dirección
         direccionRepository.save(nuevaDireccion);
 
+        perfilLoginCache.invalidar(email);
         return usuarioGuardado;
     }
 
     /**
      * Lógica para el endpoint POST /api/auth/login
-     * (Esta es la versión CORREGIDA Y RÁPIDA)
+     * Usuario, rol y dirección por defecto salen de una sola consulta, y los
+     * logins siguientes del mismo email salen de memoria (PerfilLoginCache).
      */
     public LoginResponse loginUsuario(LoginRequest request) throws Exception {
     
-        // 1. Buscar al usuario por email
-        Usuario usuario = usuarioRepository.findByEmail(request.getEmail())
+        // 1. Buscar el perfil por email (normalizado)
+        PerfilLogin perfil = perfilLoginCache.obtener(request.getEmail())
                 .orElseThrow(() -> new Exception("Credenciales incorrectas."));
 
-        // 2. Comparar la contraseña (usando el PasswordEncoder)
-        if (!passwordEncoder.matches(request.getPassword(), usuario.getPasswordHash())) {
+        // 2. Comparar la contraseña (bcrypt en el pool de ContrasenaService, no en este hilo)
+        if (!contrasenaService.verificar(request.getPassword(), perfil.getPasswordHash())) {
             throw new Exception("Credenciales incorrectas.");
         }
 
+        // 2b. Si el hash es de un costo menor al configurado (o sin prefijo), lo rehacemos
+        //     ahora que tenemos la contraseña en claro. Si falla, el login sigue igual.
+        if (contrasenaService.necesitaActualizar(perfil.getPasswordHash())) {
+            try {
+                usuarioRepository.actualizarPasswordHash(perfil.getId(), contrasenaService.encriptar(request.getPassword()));
+                perfilLoginCache.invalidar(perfil.getEmail());
+            } catch (RuntimeException e) {
+                log.warn("No se pudo actualizar el hash del usuario {}: {}", perfil.getId(), e.getMessage());
+            }
+        }
+
         // 3. Si todo está OK, construir la respuesta
         LoginResponse response = new LoginResponse();
-        response.setId(usuario.getId());
-        response.setNombre(usuario.getNombre());
-        response.setApellidos(usuario.getApellidos());
-        response.setEmail(usuario.getEmail());
-        response.setRol(usuario.getRol().getNombre()); // Obtenemos el nombre del rol
-
-        // 4. Buscar su dirección por defecto (usando el método rápido del repo)
-        List<Direccion> direcciones = direccionRepository.findByUsuarioId(usuario.getId());
-
-        if (!direcciones.isEmpty()) {
-            Direccion dir = direcciones.get(0); // Tomamos la primera dirección
+        response.setId(perfil.getId());
+        response.setNombre(perfil.getNombre());
+        response.setApellidos(perfil.getApellidos());
+        response.setEmail(perfil.getEmail());
+        response.setRol(perfil.getRol()); // El nombre del rol
+
+        // 4. Su dirección por defecto (ya viene en el perfil, si tiene)
+        if (perfil.getCalle() != null) {
             LoginResponse.DireccionDTO dirDto = new LoginResponse.DireccionDTO();
-            dirDto.setCalle(dir.getCalle());
-            dirDto.setDepto(dir.getDepto());
-            dirDto.setRegion(dir.getRegion());
-            dirDto.setComuna(dir.getComuna());
+            dirDto.setCalle(perfil.getCalle());
+            dirDto.setDepto(perfil.getDepto());
+            dirDto.setRegion(perfil.getRegion());
+            dirDto.setComuna(perfil.getComuna());
             response.setDireccionDefault(dirDto);
         }
 
+        // 5. Token firmado: los demás servicios lo verifican sin volver a consultar al usuario
+        TokenEmisor.Token token = tokenEmisor.emitir(new Sesion(perfil.getId(), perfil.getEmail(), perfil.getRol()));
+        response.setToken(token.getValor());
+        response.setTokenExpira(token.getExpira());
+
         return response;
     }
-}
\ No newline at end of file
+}
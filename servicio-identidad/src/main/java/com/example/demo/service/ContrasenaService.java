@@ -0,0 +1,129 @@
+package com.example.demo.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hash y verificación de contraseñas (bcrypt) en un pool de hilos propio y acotado.
+ *
+ * bcrypt gasta CPU a propósito (~50-100 ms por llamada con costo 10-12). Si se
+ * hace en el hilo de la request, una ráfaga de logins ocupa todos los núcleos y
+ * el resto de los endpoints se queda sin CPU. Aquí:
+ * - A lo más "hilos" hashes a la vez (por defecto, los núcleos menos uno).
+ * - Una cola de "cola" pendientes; si está llena se rechaza al tiro con
+ *   SaturadoException (el controller responde 503) en vez de acumular requests.
+ * - Métricas en /actuator/metrics: auth.password.tiempo (op=verificar|encriptar),
+ *   auth.password.cola, auth.password.activos y auth.password.rechazados.
+ */
+@Service
+public class ContrasenaService implements DisposableBean {
+
+    /** No hay cupo para hashear ahora (cola llena o espera muy larga). */
+    public static class SaturadoException extends RuntimeException {
+        public SaturadoException(String mensaje) {
+            super(mensaje);
+        }
+    }
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor pool;
+    private final Duration esperaMaxima;
+
+    private final Timer tiempoVerificar;
+    private final Timer tiempoEncriptar;
+    private final Counter rechazados;
+
+    public ContrasenaService(PasswordEncoder passwordEncoder, MeterRegistry meterRegistry,
+                             @Value("${app.password.hilos:0}") int hilos,
+                             @Value("${app.password.cola:64}") int cola,
+                             @Value("${app.password.espera-maxima:PT5S}") Duration esperaMaxima) {
+        this.passwordEncoder = passwordEncoder;
+        this.esperaMaxima = esperaMaxima;
+
+        // 0 = automático: deja un núcleo libre para atender el resto de las requests
+        int tamano = hilos > 0 ? hilos : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        AtomicInteger numero = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(tamano, tamano, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(cola),
+            tarea -> {
+                Thread hilo = new Thread(tarea, "bcrypt-" + numero.incrementAndGet());
+                hilo.setDaemon(true);
+                return hilo;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+
+        this.tiempoVerificar = Timer.builder("auth.password.tiempo").tag("op", "verificar")
+            .description("Tiempo de bcrypt (sin contar la cola)").register(meterRegistry);
+        this.tiempoEncriptar = Timer.builder("auth.password.tiempo").tag("op", "encriptar")
+            .description("Tiempo de bcrypt (sin contar la cola)").register(meterRegistry);
+        this.rechazados = Counter.builder("auth.password.rechazados")
+            .description("Hashes rechazados por cola llena o espera excesiva").register(meterRegistry);
+        Gauge.builder("auth.password.cola", pool, p -> p.getQueue().size())
+            .description("Hashes esperando un hilo").register(meterRegistry);
+        Gauge.builder("auth.password.activos", pool, ThreadPoolExecutor::getActiveCount)
+            .description("Hashes en curso").register(meterRegistry);
+    }
+
+    /** true si "contrasena" corresponde al hash guardado. */
+    public boolean verificar(String contrasena, String hash) {
+        return ejecutar(() -> tiempoVerificar.record(() -> passwordEncoder.matches(contrasena, hash)));
+    }
+
+    /** Hash de "contrasena" con el algoritmo y costo configurados. */
+    public String encriptar(String contrasena) {
+        return ejecutar(() -> tiempoEncriptar.record(() -> passwordEncoder.encode(contrasena)));
+    }
+
+    /** true si el hash se hizo con otro algoritmo o un costo menor al actual (hay que rehacerlo). */
+    public boolean necesitaActualizar(String hash) {
+        return passwordEncoder.upgradeEncoding(hash);
+    }
+
+    private <T> T ejecutar(Callable<T> tarea) {
+        Future<T> futuro;
+        try {
+            futuro = pool.submit(tarea);
+        } catch (RejectedExecutionException e) {
+            rechazados.increment();
+            throw new SaturadoException("Demasiados inicios de sesión en curso, intenta de nuevo en unos segundos.");
+        }
+        try {
+            return futuro.get(esperaMaxima.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            futuro.cancel(true);
+            rechazados.increment();
+            throw new SaturadoException("El inicio de sesión tardó demasiado, intenta de nuevo en unos segundos.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando el hash de la contraseña.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+    }
+}
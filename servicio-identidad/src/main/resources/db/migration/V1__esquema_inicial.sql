@@ -0,0 +1,28 @@
+-- Esquema base de identidad_db: las mismas tablas que creaba ddl-auto=update.
+-- En una BD que ya tenía estas tablas Flyway NO corre este script
+-- (baseline-on-migrate marca la versión 1 como aplicada) y sigue con la V2.
+
+CREATE TABLE roles (
+    id      integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nombre  varchar(255)
+);
+
+CREATE TABLE usuarios (
+    id            integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nombre        varchar(255),
+    apellidos     varchar(255),
+    email         varchar(255),
+    password_hash varchar(255),
+    rol_id        integer,
+    CONSTRAINT fk_usuarios_rol FOREIGN KEY (rol_id) REFERENCES roles (id)
+);
+
+CREATE TABLE direcciones (
+    id         integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    calle      varchar(255),
+    depto      varchar(255),
+    region     varchar(255),
+    comuna     varchar(255),
+    usuario_id integer,
+    CONSTRAINT fk_direcciones_usuario FOREIGN KEY (usuario_id) REFERENCES usuarios (id)
+);
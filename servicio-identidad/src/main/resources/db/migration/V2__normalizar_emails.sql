@@ -0,0 +1,31 @@
+-- Emails en su forma normalizada (trim + minúsculas, igual que PerfilLoginCache.normalizar)
+-- y sin duplicados, antes del índice único de V3.
+-- Con ddl-auto=update el registro guardaba el email tal cual llegaba, así que una BD
+-- existente puede tener "Ana@x.cl" y "ana@x.cl " como dos usuarios distintos.
+
+-- 1. Por cada email repetido se queda la cuenta más antigua (MIN(id)) y recibe
+--    las direcciones de las demás
+UPDATE direcciones d
+SET usuario_id = c.canonico
+FROM (
+    SELECT id, MIN(id) OVER (PARTITION BY LOWER(TRIM(email))) AS canonico
+    FROM usuarios
+    WHERE email IS NOT NULL
+) c
+WHERE d.usuario_id = c.id AND c.id <> c.canonico;
+
+-- 2. Las cuentas repetidas quedan sin email (ya no pueden iniciar sesión ni chocan
+--    con el índice único). No se borran: las boletas de ordenes_db apuntan a su id.
+UPDATE usuarios u
+SET email = NULL
+FROM (
+    SELECT id, MIN(id) OVER (PARTITION BY LOWER(TRIM(email))) AS canonico
+    FROM usuarios
+    WHERE email IS NOT NULL
+) c
+WHERE u.id = c.id AND c.id <> c.canonico;
+
+-- 3. El resto, normalizado
+UPDATE usuarios
+SET email = LOWER(TRIM(email))
+WHERE email IS NOT NULL AND email <> LOWER(TRIM(email));
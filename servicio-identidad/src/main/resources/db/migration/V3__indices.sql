@@ -0,0 +1,9 @@
+-- Índices para el login y el registro.
+-- IF NOT EXISTS: en BDs que venían de ddl-auto=update alguno puede existir ya.
+
+-- Login y registro buscan por email (ya normalizado: V2 y PerfilLoginCache.normalizar).
+-- Único: si dos registros del mismo email llegan a la vez, el segundo falla (409)
+CREATE UNIQUE INDEX IF NOT EXISTS uk_usuarios_email ON usuarios (email);
+
+-- Dirección por defecto del perfil de login: MIN(id) de las direcciones del usuario
+CREATE INDEX IF NOT EXISTS idx_direcciones_usuario ON direcciones (usuario_id, id);
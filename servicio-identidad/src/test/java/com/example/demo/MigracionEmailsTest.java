@@ -0,0 +1,105 @@
+package com.example.demo;
+
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * V2__normalizar_emails sobre una BD con emails repetidos (como los dejaba
+ * ddl-auto=update), y el índice único de V3 después. Usa su propia H2 con las
+ * migraciones reales de Flyway, aparte de la BD del perfil "test".
+ */
+class MigracionEmailsTest {
+
+	private JdbcTemplate jdbc;
+	private JdbcDataSource dataSource;
+
+	@BeforeEach
+	void migrarHastaV1() {
+		dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:migracion-emails-" + System.nanoTime() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+		jdbc = new JdbcTemplate(dataSource);
+		flyway("1").migrate();
+	}
+
+	@Test
+	void quedaLaCuentaMasAntiguaConLasDirecciones() {
+		int ana = usuario("Ana@Peluchemania.cl");
+		int anaRepetida = usuario(" ana@peluchemania.cl ");
+		int anaOtraVez = usuario("ANA@PELUCHEMANIA.CL");
+		int beto = usuario("Beto@Peluchemania.cl");
+		int sinEmail = usuario(null);
+		int dirAna = direccion(ana);
+		int dirRepetida = direccion(anaRepetida);
+		int dirOtraVez = direccion(anaOtraVez);
+		int dirBeto = direccion(beto);
+
+		flyway(null).migrate();
+
+		assertEquals("ana@peluchemania.cl", email(ana));
+		assertEquals(null, email(anaRepetida));
+		assertEquals(null, email(anaOtraVez));
+		assertEquals("beto@peluchemania.cl", email(beto));
+		assertEquals(null, email(sinEmail));
+		// Las cuentas repetidas no se borran (las boletas apuntan a su id)
+		assertEquals(5, jdbc.queryForObject("SELECT COUNT(*) FROM usuarios", Integer.class));
+		assertEquals(List.of(dirAna, dirRepetida, dirOtraVez),
+			jdbc.queryForList("SELECT id FROM direcciones WHERE usuario_id = ? ORDER BY id", Integer.class, ana));
+		assertEquals(List.of(dirBeto),
+			jdbc.queryForList("SELECT id FROM direcciones WHERE usuario_id = ? ORDER BY id", Integer.class, beto));
+	}
+
+	@Test
+	void despuesElEmailEsUnico() {
+		usuario("ana@peluchemania.cl");
+		flyway(null).migrate();
+
+		assertThrows(DataIntegrityViolationException.class, () -> usuario("ana@peluchemania.cl"));
+		// Varias cuentas sin email sí pueden convivir
+		usuario(null);
+		usuario(null);
+	}
+
+	@Test
+	void sinRepetidosNoCambiaNada() {
+		int ana = usuario("ana@peluchemania.cl");
+		int dirAna = direccion(ana);
+
+		flyway(null).migrate();
+
+		assertEquals("ana@peluchemania.cl", email(ana));
+		assertEquals(ana, jdbc.queryForObject("SELECT usuario_id FROM direcciones WHERE id = ?", Integer.class, dirAna));
+	}
+
+	// --- Utilidades ---
+
+	private Flyway flyway(String version) {
+		var configuracion = Flyway.configure().dataSource(dataSource).locations("classpath:db/migration");
+		if (version != null) {
+			configuracion.target(version);
+		}
+		return configuracion.load();
+	}
+
+	private int usuario(String email) {
+		jdbc.update("INSERT INTO usuarios (nombre, email) VALUES (?, ?)", "Usuario", email);
+		return jdbc.queryForObject("SELECT MAX(id) FROM usuarios", Integer.class);
+	}
+
+	private int direccion(int usuarioId) {
+		jdbc.update("INSERT INTO direcciones (calle, usuario_id) VALUES (?, ?)", "Calle " + usuarioId, usuarioId);
+		return jdbc.queryForObject("SELECT MAX(id) FROM direcciones", Integer.class);
+	}
+
+	private String email(int usuarioId) {
+		return jdbc.queryForObject("SELECT email FROM usuarios WHERE id = ?", String.class, usuarioId);
+	}
+}
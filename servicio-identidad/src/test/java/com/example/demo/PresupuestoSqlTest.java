@@ -0,0 +1,55 @@
+package com.example.demo;
+
+import com.jayway.jsonpath.JsonPath;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Registro, login y sesión actual dentro de su @PresupuestoSql: con
+ * app.sql.presupuesto.fallar=true (perfil "test") una sentencia de más hace fallar la request.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PresupuestoSqlTest {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Test
+	void registroLoginYSesion() throws Exception {
+		mvc.perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"nombre\":\"Ana\",\"apellidos\":\"Pérez\",\"email\":\"ana@peluchemania.cl\","
+					+ "\"password\":\"secreta123\",\"calle\":\"Calle 1\",\"region\":\"Metropolitana\",\"comuna\":\"Santiago\"}"))
+			.andExpect(status().isCreated());
+
+		String login = mvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"email\":\"ana@peluchemania.cl\",\"password\":\"secreta123\"}"))
+			.andExpect(status().isOk())
+			.andReturn().getResponse().getContentAsString();
+		String token = JsonPath.read(login, "$.token");
+
+		mvc.perform(get("/api/auth/me").header("Authorization", "Bearer " + token))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.email").value("ana@peluchemania.cl"));
+	}
+
+	@Test
+	void loginDelAdministradorSembrado() throws Exception {
+		mvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"email\":\"admin@duoc.cl\",\"password\":\"admin123\"}"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.rol").value("Administrador"));
+	}
+}
@@ -0,0 +1,98 @@
+package com.example.demo.cache;
+
+import com.example.demo.repository.UsuarioRepository;
+import com.example.demo.repository.UsuarioRepository.PerfilLogin;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PerfilLoginCacheTest {
+
+	private UsuarioRepository usuarioRepository;
+	private PerfilLoginCache cache;
+
+	@BeforeEach
+	void crear() {
+		usuarioRepository = mock(UsuarioRepository.class);
+		when(usuarioRepository.perfilLogin(anyString())).thenReturn(Optional.empty());
+		cache = new PerfilLoginCache(usuarioRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(10));
+	}
+
+	@Test
+	void unLoginRepetidoNoVaALaBd() {
+		PerfilLogin ana = perfil("ana@x.cl", "hash1");
+		when(usuarioRepository.perfilLogin("ana@x.cl")).thenReturn(Optional.of(ana));
+
+		cache.obtener("ana@x.cl");
+		cache.obtener("ana@x.cl");
+
+		verify(usuarioRepository, times(1)).perfilLogin("ana@x.cl");
+	}
+
+	@Test
+	void laClaveEsElEmailNormalizado() {
+		PerfilLogin ana = perfil("ana@x.cl", "hash1");
+		when(usuarioRepository.perfilLogin("ana@x.cl")).thenReturn(Optional.of(ana));
+
+		assertTrue(cache.obtener("  Ana@X.cl ").isPresent());
+		assertTrue(cache.obtener("ANA@x.CL").isPresent());
+
+		verify(usuarioRepository, times(1)).perfilLogin("ana@x.cl");
+		verify(usuarioRepository, never()).perfilLogin("  Ana@X.cl ");
+	}
+
+	@Test
+	void unEmailDesconocidoNoSeGuarda() {
+		assertTrue(cache.obtener("nuevo@x.cl").isEmpty());
+
+		// Se registra después: el siguiente login ya lo encuentra
+		PerfilLogin nuevo = perfil("nuevo@x.cl", "hash1");
+		when(usuarioRepository.perfilLogin("nuevo@x.cl")).thenReturn(Optional.of(nuevo));
+		assertTrue(cache.obtener("nuevo@x.cl").isPresent());
+	}
+
+	@Test
+	void invalidarVuelveALeerLaBd() {
+		PerfilLogin antes = perfil("ana@x.cl", "hash1");
+		PerfilLogin despues = perfil("ana@x.cl", "hash2");
+		when(usuarioRepository.perfilLogin("ana@x.cl")).thenReturn(Optional.of(antes)).thenReturn(Optional.of(despues));
+		cache.obtener("ana@x.cl");
+
+		cache.invalidar(" Ana@X.cl");
+
+		assertEquals("hash2", cache.obtener("ana@x.cl").orElseThrow().getPasswordHash());
+	}
+
+	@Test
+	void sinEmailNoConsulta() {
+		assertTrue(cache.obtener(null).isEmpty());
+		assertTrue(cache.obtener("   ").isEmpty());
+		cache.invalidar(null);
+
+		verify(usuarioRepository, never()).perfilLogin(anyString());
+	}
+
+	// --- Utilidades ---
+
+	private static PerfilLogin perfil(String email, String hash) {
+		PerfilLogin perfil = mock(PerfilLogin.class);
+		when(perfil.getId()).thenReturn(1);
+		when(perfil.getEmail()).thenReturn(email);
+		when(perfil.getPasswordHash()).thenReturn(hash);
+		return perfil;
+	}
+}
@@ -0,0 +1,101 @@
+package com.example.demo.service;
+
+import com.example.demo.cache.PerfilLoginCache;
+import com.example.demo.dto.LoginRequest;
+import com.example.demo.dto.RegistroRequest;
+import com.example.demo.entity.Usuario;
+import com.example.demo.repository.UsuarioRepository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Registro y login con el email normalizado, y el perfil en caché que se
+ * invalida al registrar y al rehacer un hash de costo menor.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class AuthServiceTest {
+
+	@Autowired
+	private AuthService authService;
+
+	@Autowired
+	private UsuarioRepository usuarioRepository;
+
+	@Autowired
+	private PerfilLoginCache perfilLoginCache;
+
+	@Test
+	void registroGuardaElEmailNormalizadoYElLoginIgnoraMayusculas() throws Exception {
+		Usuario usuario = authService.registrarUsuario(registro("  Bea.Soto@Peluchemania.CL "));
+
+		assertEquals("bea.soto@peluchemania.cl", usuario.getEmail());
+		assertEquals(usuario.getId(), authService.loginUsuario(login("BEA.SOTO@peluchemania.cl")).getId());
+		assertEquals("Calle 1", authService.loginUsuario(login("bea.soto@peluchemania.cl")).getDireccionDefault().getCalle());
+	}
+
+	@Test
+	void rechazaElMismoEmailConOtrasMayusculas() throws Exception {
+		authService.registrarUsuario(registro("carla@peluchemania.cl"));
+
+		Exception error = assertThrows(Exception.class, () -> authService.registrarUsuario(registro(" Carla@PeluchemanIA.cl")));
+		assertEquals("El correo ya está registrado.", error.getMessage());
+	}
+
+	@Test
+	void unLoginFallidoAntesDelRegistroNoQuedaEnCache() throws Exception {
+		assertThrows(Exception.class, () -> authService.loginUsuario(login("dani@peluchemania.cl")));
+
+		authService.registrarUsuario(registro("dani@peluchemania.cl"));
+
+		assertEquals("dani@peluchemania.cl", authService.loginUsuario(login("dani@peluchemania.cl")).getEmail());
+	}
+
+	@Test
+	void unHashDeCostoMenorSeRehaceEnElLogin() throws Exception {
+		Usuario usuario = authService.registrarUsuario(registro("eli@peluchemania.cl"));
+		String antiguo = new BCryptPasswordEncoder(4).encode("secreta123");
+		usuarioRepository.actualizarPasswordHash(usuario.getId(), antiguo);
+		perfilLoginCache.invalidar("eli@peluchemania.cl");
+
+		authService.loginUsuario(login("eli@peluchemania.cl"));
+
+		String nuevo = usuarioRepository.findById(usuario.getId()).orElseThrow().getPasswordHash();
+		assertNotEquals(antiguo, nuevo);
+		assertTrue(nuevo.startsWith("{bcrypt}$2a$10$"), nuevo);
+		// La caché ya tiene el hash nuevo, y el login sigue funcionando con él
+		assertEquals(nuevo, perfilLoginCache.obtener("eli@peluchemania.cl").orElseThrow().getPasswordHash());
+		authService.loginUsuario(login("eli@peluchemania.cl"));
+		assertEquals(nuevo, usuarioRepository.findById(usuario.getId()).orElseThrow().getPasswordHash());
+	}
+
+	// --- Utilidades ---
+
+	private static RegistroRequest registro(String email) {
+		RegistroRequest request = new RegistroRequest();
+		request.setNombre("Cliente");
+		request.setApellidos("De Prueba");
+		request.setEmail(email);
+		request.setPassword("secreta123");
+		request.setCalle("Calle 1");
+		request.setRegion("Metropolitana");
+		request.setComuna("Santiago");
+		return request;
+	}
+
+	private static LoginRequest login(String email) {
+		LoginRequest request = new LoginRequest();
+		request.setEmail(email);
+		request.setPassword("secreta123");
+		return request;
+	}
+}
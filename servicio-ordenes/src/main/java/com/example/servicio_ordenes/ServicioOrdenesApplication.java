@@ -2,8 +2,10 @@ package com.example.servicio_ordenes;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling // Precios del catálogo (PrecioCache) y publicación del outbox (OutboxRelay)
 public class ServicioOrdenesApplication {
 
 	public static void main(String[] args) {
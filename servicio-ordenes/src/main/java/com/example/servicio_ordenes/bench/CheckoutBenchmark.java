@@ -0,0 +1,145 @@
+package com.example.servicio_ordenes.bench;
+
+import com.example.servicio_ordenes.entity.Boleta;
+import com.example.servicio_ordenes.entity.BoletaDetalle;
+import com.example.servicio_ordenes.repository.BoletaRepository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Benchmark del camino de escritura de las compras (Boleta + detalles).
+ * Sólo corre con el perfil "bench" y mide filas insertadas por segundo en:
+ *   1. carros grandes (muchas líneas por boleta), un hilo
+ *   2. compras concurrentes (carros chicos, varios hilos)
+ *
+ * Uso (contra la BD de desarrollo; borra lo que inserta al terminar):
+ *   mvn spring-boot:run -Dspring-boot.run.profiles=bench
+ *
+ * Para comparar, correrlo en este commit y en el anterior (IDENTITY, sin batch),
+ * o aquí mismo con --spring.jpa.properties.hibernate.jdbc.batch_size=1.
+ * No llama a servicio-catalogo: guarda las boletas directo con el repositorio,
+ * igual que el paso 4 de OrdenesService.processPurchase.
+ *
+ * Mediciones (JDK 17, 1 CPU, H2 en memoria; no había Postgres donde se midió):
+ *                                 batch_size=50              batch_size=1
+ *   carros grandes (200 x 100)    24421 filas/s, 242 compras/s  24865 filas/s, 246 compras/s
+ *   concurrente (2000 x 5, 8 hilos) 15441 filas/s, 2574 compras/s 17146 filas/s, 2858 compras/s
+ * En H2 en memoria no hay viaje de red por sentencia, así que el batch no cambia nada.
+ * Lo que sí se confirmó (hibernate.generate_statistics): con batch cada compra de hasta
+ * 50 líneas son 2 JDBC batches (boleta + detalles) en vez de 1 + N sentencias; cuánto
+ * se gana contra Postgres (un viaje por sentencia) falta medirlo allí.
+ */
+@Component
+@Profile("bench")
+public class CheckoutBenchmark implements CommandLineRunner {
+
+    // Las boletas del benchmark se marcan con este usuario para borrarlas después
+    private static final int USUARIO_BENCH = -1;
+
+    private final BoletaRepository boletaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final ConfigurableApplicationContext contexto;
+
+    @Value("${bench.carros-grandes.boletas:200}")
+    private int boletasGrandes;
+    @Value("${bench.carros-grandes.lineas:100}")
+    private int lineasGrandes;
+    @Value("${bench.concurrente.boletas:2000}")
+    private int boletasConcurrentes;
+    @Value("${bench.concurrente.lineas:5}")
+    private int lineasConcurrentes;
+    @Value("${bench.concurrente.hilos:8}")
+    private int hilos;
+    @Value("${bench.cerrar:true}")
+    private boolean cerrarAlTerminar;
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:0}")
+    private int batchSize;
+
+    public CheckoutBenchmark(BoletaRepository boletaRepository, TransactionTemplate transactionTemplate,
+                             JdbcTemplate jdbcTemplate, ConfigurableApplicationContext contexto) {
+        this.boletaRepository = boletaRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.contexto = contexto;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        System.out.println("📊 [bench] hibernate.jdbc.batch_size=" + batchSize);
+        try {
+            medir("calentamiento", 1, 20, 10);
+            medir("carros grandes", 1, boletasGrandes, lineasGrandes);
+            medir("concurrente", hilos, boletasConcurrentes, lineasConcurrentes);
+        } finally {
+            borrarBoletasDelBenchmark();
+        }
+        if (cerrarAlTerminar) {
+            SpringApplication.exit(contexto);
+        }
+    }
+
+    private void medir(String nombre, int hilos, int boletas, int lineas) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(hilos);
+        List<Future<?>> pendientes = new ArrayList<>();
+        long inicio = System.nanoTime();
+        try {
+            for (int i = 0; i < boletas; i++) {
+                pendientes.add(pool.submit(() ->
+                    transactionTemplate.executeWithoutResult(estado -> boletaRepository.save(nuevaBoleta(lineas)))));
+            }
+            for (Future<?> pendiente : pendientes) {
+                pendiente.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        long filas = (long) boletas * (1 + lineas);
+        System.out.printf("📊 [bench] %s: %d boletas x %d líneas, %d hilo(s) -> %d filas en %.2f s = %.0f filas/s, %.0f compras/s%n",
+            nombre, boletas, lineas, hilos, filas, segundos, filas / segundos, boletas / segundos);
+    }
+
+    private Boleta nuevaBoleta(int lineas) {
+        Boleta boleta = new Boleta();
+        boleta.setUsuarioId(USUARIO_BENCH);
+        boleta.setCalleEnvio("Benchmark 123");
+        boleta.setRegionEnvio("RM");
+        boleta.setComunaEnvio("Santiago");
+
+        List<BoletaDetalle> detalles = new ArrayList<>();
+        double total = 0;
+        for (int i = 0; i < lineas; i++) {
+            BoletaDetalle detalle = new BoletaDetalle();
+            detalle.setBoleta(boleta);
+            detalle.setProductoId(i + 1);
+            detalle.setNombreProducto("Peluche " + (i + 1));
+            detalle.setPrecioUnitario(9990.0);
+            detalle.setCantidad(1);
+            detalles.add(detalle);
+            total += 9990.0;
+        }
+        boleta.setDetalles(detalles);
+        boleta.setTotal(total);
+        return boleta;
+    }
+
+    private void borrarBoletasDelBenchmark() {
+        jdbcTemplate.update("DELETE FROM boleta_detalles WHERE boleta_id IN (SELECT id FROM boletas WHERE usuario_id = ?)", USUARIO_BENCH);
+        int borradas = jdbcTemplate.update("DELETE FROM boletas WHERE usuario_id = ?", USUARIO_BENCH);
+        System.out.println("📊 [bench] " + borradas + " boletas de prueba borradas.");
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.servicio_ordenes.cache;
+
+import com.example.servicio_ordenes.client.CatalogoClient;
+import com.example.servicio_ordenes.dto.CambiosPrecioDTO;
+import com.example.servicio_ordenes.dto.PrecioDTO;
+import com.example.servicio_ordenes.dto.PreciosDTO;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Copia local de los precios del catálogo, para que el checkout no tenga
+ * que llamar a servicio-catalogo en cada compra.
+ *
+ * - Lo que falta se pide en UNA llamada (GET /api/productos/precios?ids=...).
+ * - Cada pocos segundos se pregunta qué precios cambiaron desde la última
+ *   versión vista, y sólo esos se borran (o todo, si catálogo se reinició).
+ * - Si catálogo no responde a esas preguntas, cada precio igual vence
+ *   después de "app.precios.expiracion".
+ */
+@Component
+public class PrecioCache {
+
+    private static final Logger log = LoggerFactory.getLogger(PrecioCache.class);
+
+    private static final class Entrada {
+        final PrecioDTO precio;
+        final long cargadoEn; // System.nanoTime()
+
+        Entrada(PrecioDTO precio, long cargadoEn) {
+            this.precio = precio;
+            this.cargadoEn = cargadoEn;
+        }
+    }
+
+    private final CatalogoClient catalogoClient;
+    private final long expiracionNanos;
+
+    private final Map<Integer, Entrada> precios = new ConcurrentHashMap<>();
+
+    // Arranque y versión de precios del catálogo que ya están aplicados.
+    // Se leen y cambian junto con "precios" bajo el mismo lock.
+    private final ReentrantLock lock = new ReentrantLock();
+    private long epoch = -1;
+    private long version = -1;
+
+    public PrecioCache(CatalogoClient catalogoClient,
+                       @Value("${app.precios.expiracion:PT5M}") Duration expiracion) {
+        this.catalogoClient = catalogoClient;
+        this.expiracionNanos = expiracion.toNanos();
+    }
+
+    /**
+     * Precios de los productos pedidos (los que no existen en el catálogo no vienen).
+     * Los que no están en memoria se piden al catálogo en una sola llamada.
+     */
+    public Map<Integer, PrecioDTO> obtener(Collection<Integer> ids) {
+        Map<Integer, PrecioDTO> resultado = new HashMap<>();
+        List<Integer> faltantes = new ArrayList<>();
+        long ahora = System.nanoTime();
+        for (Integer id : ids) {
+            Entrada entrada = precios.get(id);
+            if (entrada != null && ahora - entrada.cargadoEn < expiracionNanos) {
+                resultado.put(id, entrada.precio);
+            } else if (!faltantes.contains(id)) {
+                faltantes.add(id);
+            }
+        }
+        if (faltantes.isEmpty()) {
+            return resultado;
+        }
+
+        PreciosDTO respuesta = catalogoClient.obtenerPrecios(faltantes);
+        for (PrecioDTO precio : respuesta.getPrecios()) {
+            resultado.put(precio.getId(), precio);
+        }
+        guardar(respuesta, ahora);
+        return resultado;
+    }
+
+    private void guardar(PreciosDTO respuesta, long cargadoEn) {
+        lock.lock();
+        try {
+            if (respuesta.getEpoch() != epoch) {
+                // Primera carga o catálogo reiniciado: lo anterior no sirve
+                precios.clear();
+                epoch = respuesta.getEpoch();
+                version = respuesta.getVersion();
+            } else if (respuesta.getVersion() < version) {
+                // Ya aplicamos cambios posteriores a esta lectura: podría estar vieja
+                return;
+            }
+            for (PrecioDTO precio : respuesta.getPrecios()) {
+                precios.put(precio.getId(), new Entrada(precio, cargadoEn));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Borra los precios que cambiaron en el catálogo desde la última versión vista. */
+    @Scheduled(fixedDelayString = "${app.precios.revision:PT2S}")
+    public void sincronizar() {
+        long epochVisto;
+        long desde;
+        lock.lock();
+        try {
+            epochVisto = epoch;
+            desde = version;
+        } finally {
+            lock.unlock();
+        }
+        if (epochVisto < 0) {
+            return; // Todavía no hay nada guardado
+        }
+
+        CambiosPrecioDTO cambios;
+        try {
+            cambios = catalogoClient.cambiosDePrecio(epochVisto, desde);
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron consultar los cambios de precio: {}", e.getMessage());
+            return; // Se reintenta en la próxima vuelta (y la expiración acota el daño)
+        }
+
+        lock.lock();
+        try {
+            if (cambios.isCompleto() || cambios.getEpoch() != epoch) {
+                precios.clear();
+                epoch = cambios.getEpoch();
+                version = cambios.getVersion();
+            } else {
+                cambios.getIds().forEach(precios::remove);
+                version = Math.max(version, cambios.getVersion());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
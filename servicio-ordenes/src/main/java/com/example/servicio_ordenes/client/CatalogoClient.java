@@ -0,0 +1,115 @@
+package com.example.servicio_ordenes.client;
+
+import com.example.comun.security.Sesion;
+import com.example.comun.security.TokenEmisor;
+import com.example.servicio_ordenes.dto.CambiosPrecioDTO;
+import com.example.servicio_ordenes.dto.CheckoutItemDTO;
+import com.example.servicio_ordenes.dto.PreciosDTO;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Llamadas a servicio-catalogo:
+ * - reservar el stock de una compra: reservar -> confirmar (si la boleta se guardó) o liberar (si falló).
+ *   Catálogo sólo las acepta con un token de rol "Servicio", que ordenes firma con su TokenEmisor.
+ * - leer los precios oficiales y sus cambios (ver PrecioCache).
+ */
+@Component
+public class CatalogoClient {
+
+    /** Quién llama en el token de servicio (no es un usuario de identidad). */
+    private static final Sesion SERVICIO = new Sesion(0, "servicio-ordenes", "Servicio");
+    /** Se renueva un poco antes de vencer, para que no venza en camino. */
+    private static final Duration MARGEN_RENOVACION = Duration.ofMinutes(1);
+
+    private final RestTemplate restTemplate;
+    private final TokenEmisor tokenEmisor;
+    private volatile TokenEmisor.Token tokenServicio;
+
+    @Value("${app.services.catalogo_url}")
+    private String catalogoServiceUrl;
+
+    public CatalogoClient(RestTemplate restTemplate, TokenEmisor tokenEmisor) {
+        this.restTemplate = restTemplate;
+        this.tokenEmisor = tokenEmisor;
+    }
+
+    /**
+     * Descuenta el stock de todo el carrito (o de nada) y devuelve el id de la reserva.
+     * Lanza IllegalStateException si falta stock de algún producto.
+     */
+    public Integer reservar(List<CheckoutItemDTO> items) {
+        List<Map<String, Integer>> reservaItems = items.stream()
+            .map(item -> Map.of("productoId", item.getId(), "cantidad", item.getQuantity()))
+            .collect(Collectors.toList());
+        try {
+            Map<?, ?> respuesta = restTemplate.postForObject(
+                catalogoServiceUrl + "/api/reservas", conTokenDeServicio(Map.of("items", reservaItems)), Map.class);
+            return ((Number) respuesta.get("reservaId")).intValue();
+        } catch (HttpClientErrorException.Conflict e) {
+            throw new IllegalStateException(mensajeDeError(e));
+        } catch (HttpClientErrorException.BadRequest e) {
+            throw new IllegalArgumentException(mensajeDeError(e));
+        }
+    }
+
+    /**
+     * Confirma la reserva de una compra ya guardada.
+     * Lanza IllegalStateException si catálogo la rechaza (no existe o se liberó):
+     * reintentar no sirve. Cualquier otro error (red, 5xx) sí se puede reintentar.
+     */
+    public void confirmar(Integer reservaId) {
+        try {
+            restTemplate.postForObject(catalogoServiceUrl + "/api/reservas/" + reservaId + "/confirmar",
+                conTokenDeServicio(null), Map.class);
+        } catch (HttpClientErrorException.Conflict | HttpClientErrorException.NotFound e) {
+            throw new IllegalStateException(mensajeDeError(e));
+        }
+    }
+
+    public void liberar(Integer reservaId) {
+        restTemplate.postForObject(catalogoServiceUrl + "/api/reservas/" + reservaId + "/liberar",
+            conTokenDeServicio(null), Map.class);
+    }
+
+    /** Precios vigentes de varios productos en una sola llamada. */
+    public PreciosDTO obtenerPrecios(Collection<Integer> ids) {
+        String lista = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+        return restTemplate.getForObject(catalogoServiceUrl + "/api/productos/precios?ids={ids}", PreciosDTO.class, lista);
+    }
+
+    /** Productos cuyo precio cambió desde la versión "desde". */
+    public CambiosPrecioDTO cambiosDePrecio(long epoch, long desde) {
+        return restTemplate.getForObject(catalogoServiceUrl + "/api/productos/precios/cambios?epoch={epoch}&desde={desde}",
+            CambiosPrecioDTO.class, epoch, desde);
+    }
+
+    /** Cuerpo de la request con "Authorization: Bearer" del token de servicio (se reutiliza hasta casi vencer). */
+    private HttpEntity<Object> conTokenDeServicio(Object cuerpo) {
+        TokenEmisor.Token token = tokenServicio;
+        if (token == null || Instant.now().plus(MARGEN_RENOVACION).isAfter(token.getExpira())) {
+            token = tokenEmisor.emitir(SERVICIO);
+            tokenServicio = token;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token.getValor());
+        return new HttpEntity<>(cuerpo, headers);
+    }
+
+    private static String mensajeDeError(HttpClientErrorException e) {
+        Map<?, ?> cuerpo = e.getResponseBodyAs(Map.class);
+        return cuerpo != null && cuerpo.get("error") != null ? cuerpo.get("error").toString() : e.getMessage();
+    }
+}
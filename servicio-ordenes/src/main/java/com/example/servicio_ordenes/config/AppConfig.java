@@ -0,0 +1,28 @@
+package com.example.servicio_ordenes.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+
+@Configuration
+public class AppConfig {
+
+    /**
+     * Para llamar a servicio-catalogo (reservas de stock y precios).
+     * Con límites de tiempo: un catálogo lento hace fallar el checkout en
+     * segundos, en vez de dejar hilos colgados esperando para siempre.
+     */
+    @Bean
+    public RestTemplate restTemplate(RestTemplateBuilder builder,
+                                     @Value("${app.services.timeout-conexion:PT1S}") Duration timeoutConexion,
+                                     @Value("${app.services.timeout-lectura:PT5S}") Duration timeoutLectura) {
+        return builder
+            .connectTimeout(timeoutConexion)
+            .readTimeout(timeoutLectura)
+            .build();
+    }
+}
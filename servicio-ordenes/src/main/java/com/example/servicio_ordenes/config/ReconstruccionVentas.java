@@ -0,0 +1,38 @@
+package com.example.servicio_ordenes.config;
+
+import com.example.servicio_ordenes.service.VentasRollup;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Backfill / reconstrucción del rollup de ventas al arrancar:
+ * - Si hay boletas y el rollup está vacío (primera vez), lo llena solo.
+ * - Con app.rollup.reconstruir=true lo recalcula completo, p. ej.
+ *   java -jar servicio-ordenes.jar --app.rollup.reconstruir=true
+ *
+ * Corre apenas se crean los beans, antes de que arranque Tomcat: así ninguna
+ * compra (VentasRollup.registrar) puede sumar en medio del borrado y el recálculo.
+ * (Un ApplicationRunner corre con el servidor ya aceptando requests.)
+ * Con varias instancias, la reconstrucción forzada va con las demás detenidas.
+ */
+@Component
+public class ReconstruccionVentas implements SmartInitializingSingleton {
+
+    private final VentasRollup ventasRollup;
+    private final boolean reconstruir;
+
+    public ReconstruccionVentas(VentasRollup ventasRollup,
+                                @Value("${app.rollup.reconstruir:false}") boolean reconstruir) {
+        this.ventasRollup = ventasRollup;
+        this.reconstruir = reconstruir;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (reconstruir || ventasRollup.necesitaBackfill()) {
+            ventasRollup.reconstruir();
+        }
+    }
+}
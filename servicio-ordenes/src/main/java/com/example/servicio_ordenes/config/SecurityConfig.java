@@ -5,7 +5,14 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod; // Importa HttpMethod
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.http.HttpStatus;
+
+import com.example.comun.security.TokenFilter;
+import com.example.comun.security.TokenVerificador;
 
 @Configuration
 public class SecurityConfig {
@@ -26,16 +33,27 @@ public class SecurityConfig {
      * Aquí le decimos que permita las rutas de checkout.
      */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, TokenVerificador tokenVerificador) throws Exception {
         http
             // 1. Deshabilitar CSRF (necesario para APIs REST)
             .csrf(AbstractHttpConfigurer::disable)
-            
+
+            // Token de identidad (Authorization: Bearer ...), verificado aquí mismo sin llamar a identidad
+            .sessionManagement(s -> s.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .addFilterBefore(new TokenFilter(tokenVerificador), UsernamePasswordAuthenticationFilter.class)
+            // Sin token en una ruta protegida: 401 (no 403)
+            .exceptionHandling(e -> e.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+
             // 2. Definir permisos
             .authorizeHttpRequests(auth -> auth
-                // Permitir que CUALQUIERA acceda a las rutas de checkout y boletas
-                .requestMatchers("/api/checkout/**").permitAll() 
+                // Comprar requiere sesión: el usuario de la boleta sale del token
+                .requestMatchers("/api/checkout/**").authenticated()
+                // El historial de un usuario requiere su token (ver BoletaController)
+                .requestMatchers(HttpMethod.GET, "/api/boletas/usuario/**").authenticated()
+                // Permitir que CUALQUIERA consulte las boletas
                 .requestMatchers(HttpMethod.GET, "/api/boletas/**").permitAll()
+                // Salud y métricas (ej. http.sql.*) para monitoreo
+                .requestMatchers("/actuator/health", "/actuator/metrics/**").permitAll()
                 
                 // Pedir autenticación para cualquier otra cosa
                 .anyRequest().authenticated()
@@ -1,18 +1,36 @@
 package com.example.servicio_ordenes.controller;
 
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
     
 import com.example.servicio_ordenes.entity.Boleta;
 import com.example.servicio_ordenes.service.OrdenesService;
+import com.example.servicio_ordenes.service.VentasService;
+import com.example.servicio_ordenes.service.ExportacionService;
+import com.example.servicio_ordenes.service.HistorialService;
+import com.example.comun.security.Sesion;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import com.example.servicio_ordenes.dto.ListadoBoletasDTO;
+import com.example.servicio_ordenes.dto.ResumenVentasDTO;
+import com.example.servicio_ordenes.dto.TopProductoDTO;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 // --- AÑADIMOS LAS IMPORTACIONES ---
 import com.example.servicio_ordenes.repository.BoletaRepository;
+import com.example.comun.sql.PresupuestoSql;
 import org.springframework.web.bind.annotation.RequestParam;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Map;
 // --- FIN DE IMPORTACIONES ---
 
 @RestController
@@ -21,42 +39,211 @@ public class BoletaController {
 
     private final OrdenesService ordenesService;
     private final BoletaRepository boletaRepository; // <-- AÑADIDO
+    private final VentasService ventasService;
+    private final ExportacionService exportacionService;
+    private final HistorialService historialService;
 
     // --- CONSTRUCTOR MODIFICADO ---
-    public BoletaController(OrdenesService ordenesService, BoletaRepository boletaRepository) {
+    public BoletaController(OrdenesService ordenesService, BoletaRepository boletaRepository,
+                            VentasService ventasService, ExportacionService exportacionService,
+                            HistorialService historialService) {
         this.ordenesService = ordenesService;
         this.boletaRepository = boletaRepository; // <-- AÑADIDO
+        this.ventasService = ventasService;
+        this.exportacionService = exportacionService;
+        this.historialService = historialService;
     }
 
     /**
-     * GET /api/boletas
-     * Obtiene una lista de TODAS las boletas (para adminBoletas.jsx)
+     * GET /api/boletas?page=0&size=50&sort=fecha,desc
+     * Listado paginado de boletas: filas planas (id, usuarioId, fechaCompra, total,
+     * region, items) calculadas en un solo query, sin detalles.
+     * sort = id | fecha | total | usuarioId, con ",asc" o ",desc" (por defecto fecha,desc).
+     *
+     * Sin page, size ni sort responde como antes, un arreglo JSON, para los clientes viejos:
+     * sólo las filas de las TAMANO_MAXIMO_PAGINA boletas más recientes, y el total en
+     * X-Total-Count. adminBoletas.jsx usa el listado paginado.
      */
+    // Página + COUNT
+    @PresupuestoSql(2)
     @GetMapping
-    public List<Boleta> getAllBoletas() {
-        return ordenesService.findAllBoletas();
+    public ResponseEntity<?> getAllBoletas(
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String sort) {
+        try {
+            if (page == null && size == null && sort == null) {
+                ListadoBoletasDTO listado = ordenesService.listarParaAdmin(0, OrdenesService.TAMANO_MAXIMO_PAGINA, null);
+                return ResponseEntity.ok()
+                    .header("X-Total-Count", String.valueOf(listado.getTotalBoletas()))
+                    .body(listado.getBoletas());
+            }
+            ListadoBoletasDTO listado = ordenesService.listarParaAdmin(
+                page != null ? page : 0, size != null ? size : 50, sort);
+            return ResponseEntity.ok(listado);
+        } catch (IllegalArgumentException e) {
+            // page/size fuera de rango o sort desconocido
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/boletas/{id}
+     * Una boleta con sus detalles (lo que antes venía en el listado completo).
+     */
+    @PresupuestoSql(1)
+    @GetMapping("/{id:\\d+}")
+    public ResponseEntity<?> getBoleta(@PathVariable Integer id) {
+        return ordenesService.findBoletaConDetalles(id)
+            .<ResponseEntity<?>>map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                                           .body(Map.of("error", "No existe la boleta " + id + ".")));
     }
     
+    /**
+     * GET /api/boletas/usuario/{id}?limit=20&cursor=...&detalles=false
+     * Historial de compras de un usuario, de la más reciente a la más antigua,
+     * paginado por cursor (ver HistorialService). La respuesta trae "siguiente":
+     * el cursor de la página siguiente, o null si no hay más.
+     * Requiere token: cada usuario ve sólo sus boletas (el Administrador, las de todos).
+     */
+    // Página + detalles de toda la página (con detalles=true)
+    @PresupuestoSql(2)
+    @GetMapping("/usuario/{id}")
+    public ResponseEntity<?> getHistorialUsuario(
+            @PathVariable Integer id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "false") boolean detalles,
+            @AuthenticationPrincipal Sesion sesion) {
+        if (!id.equals(sesion.getUsuarioId()) && !"Administrador".equals(sesion.getRol())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                                 .body(Map.of("error", "No puedes ver las boletas de otro usuario."));
+        }
+        try {
+            return ResponseEntity.ok(historialService.pagina(id, cursor, limit, detalles));
+        } catch (IllegalArgumentException e) {
+            // limit fuera de rango o cursor inválido
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     /**
      * GET /api/boletas/reporte?from=YYYY-MM-DD&to=YYYY-MM-DD
-     * Obtiene boletas filtradas por rango de fecha (para adminReportes.jsx)
+     * Obtiene boletas (con detalles) filtradas por rango de fecha.
+     * Las dos fechas son obligatorias: sin rango serían todas las boletas en una
+     * sola respuesta. Para totales está /resumen; para rangos grandes, /export.
      */
+    // Boletas y detalles en un solo JOIN FETCH
+    @PresupuestoSql(1)
     @GetMapping("/reporte")
-    public List<Boleta> getBoletasByDateRange(
-            @RequestParam(required = false) String from, // Hacemos que sean opcionales
+    public ResponseEntity<?> getBoletasByDateRange(
+            @RequestParam(required = false) String from,
             @RequestParam(required = false) String to) {
-        
-        // Si no nos dan fechas, devolvemos todo
         if (from == null || to == null || from.isEmpty() || to.isEmpty()) {
-            return ordenesService.findAllBoletas();
+            return ResponseEntity.badRequest().body(Map.of("error", "Faltan 'from' y 'to' (formato YYYY-MM-DD)."));
+        }
+        try {
+            // Convierte las fechas de String a LocalDateTime
+            // 'from' -> YYYY-MM-DD 00:00:00
+            // 'to'   -> YYYY-MM-DD 23:59:59
+            LocalDateTime fromDate = LocalDate.parse(from).atStartOfDay();
+            LocalDateTime toDate = LocalDate.parse(to).atTime(LocalTime.MAX);
+            if (fromDate.isAfter(toDate)) {
+                return ResponseEntity.badRequest().body(Map.of("error", "'from' no puede ser posterior a 'to'."));
+            }
+            List<Boleta> boletas = boletaRepository.findByFechaCompraBetween(fromDate, toDate);
+            return ResponseEntity.ok(boletas);
+
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Fecha inválida (formato YYYY-MM-DD): " + e.getParsedString()));
+        }
+    }
+
+    /**
+     * GET /api/boletas/resumen?from=YYYY-MM-DD&to=YYYY-MM-DD&group=day|week|month
+     * Cantidad de boletas y total vendido del rango (calculado en SQL).
+     * Con "group" agrega el desglose por período. Sin fechas = todas las boletas.
+     */
+    @PresupuestoSql(2)
+    @GetMapping("/resumen")
+    public ResponseEntity<?> getResumenVentas(
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) String group) {
+        try {
+            LocalDate desde = (from == null || from.isEmpty()) ? null : LocalDate.parse(from);
+            LocalDate hasta = (to == null || to.isEmpty()) ? null : LocalDate.parse(to);
+            VentasService.Agrupacion agrupacion = (group == null || group.isEmpty())
+                ? null
+                : VentasService.Agrupacion.desde(group);
+
+            ResumenVentasDTO resumen = ventasService.resumen(desde, hasta, agrupacion);
+            return ResponseEntity.ok(resumen);
+
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Fecha inválida (formato YYYY-MM-DD): " + e.getParsedString()));
+        } catch (IllegalArgumentException e) {
+            // group desconocido o rango invertido
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
-        
-        // Convierte las fechas de String a LocalDateTime
-        // 'from' -> YYYY-MM-DD 00:00:00
-        // 'to'   -> YYYY-MM-DD 23:59:59
-        LocalDateTime fromDate = LocalDate.parse(from).atStartOfDay();
-        LocalDateTime toDate = LocalDate.parse(to).atTime(LocalTime.MAX);
+    }
+
+    /**
+     * GET /api/boletas/top-productos?from=YYYY-MM-DD&to=YYYY-MM-DD&limit=10
+     * Productos más vendidos del rango (por unidades), calculado en SQL.
+     */
+    @PresupuestoSql(1)
+    @GetMapping("/top-productos")
+    public ResponseEntity<?> getTopProductos(
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            LocalDate desde = (from == null || from.isEmpty()) ? null : LocalDate.parse(from);
+            LocalDate hasta = (to == null || to.isEmpty()) ? null : LocalDate.parse(to);
+
+            List<TopProductoDTO> top = ventasService.topProductos(desde, hasta, limit);
+            return ResponseEntity.ok(top);
+
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Fecha inválida (formato YYYY-MM-DD): " + e.getParsedString()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/boletas/export?from=YYYY-MM-DD&to=YYYY-MM-DD&format=ndjson|csv
+     * Exportación para rangos grandes: las boletas se escriben en la respuesta
+     * a medida que se leen de la BD (memoria constante, ver ExportacionService).
+     * Los parámetros inválidos los responde exportacionInvalida (400).
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportarBoletas(
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        LocalDate desde = (from == null || from.isEmpty()) ? null : LocalDate.parse(from);
+        LocalDate hasta = (to == null || to.isEmpty()) ? null : LocalDate.parse(to);
+        if (desde != null && hasta != null && desde.isAfter(hasta)) {
+            throw new IllegalArgumentException("'from' no puede ser posterior a 'to'.");
+        }
+        ExportacionService.Formato formato = ExportacionService.Formato.desde(format);
+
+        StreamingResponseBody cuerpo = salida -> exportacionService.exportar(desde, hasta, formato, salida);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(formato.getContentType() + ";charset=UTF-8"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"boletas." + formato.getExtension() + "\"")
+            .body(cuerpo);
+    }
 
-        return boletaRepository.findByFechaCompraBetween(fromDate, toDate);
+    // El cuerpo de /export es un stream, así que los errores de parámetros se responden aquí
+    @ExceptionHandler({ IllegalArgumentException.class, DateTimeParseException.class })
+    public ResponseEntity<Map<String, String>> exportacionInvalida(RuntimeException e) {
+        String mensaje = e instanceof DateTimeParseException fecha
+            ? "Fecha inválida (formato YYYY-MM-DD): " + fecha.getParsedString()
+            : e.getMessage();
+        return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON).body(Map.of("error", mensaje));
     }
-}
\ No newline at end of file
+}
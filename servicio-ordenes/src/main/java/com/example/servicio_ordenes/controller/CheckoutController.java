@@ -2,14 +2,18 @@ package com.example.servicio_ordenes.controller;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 // Importa el DTO y el Servicio
 import com.example.servicio_ordenes.dto.PurchaseRequestDTO;
+import com.example.comun.security.Sesion;
 import com.example.servicio_ordenes.service.OrdenesService;
+import com.example.servicio_ordenes.service.IdempotenciaService;
 
 import java.util.Map; // Para crear el JSON de respuesta
 
@@ -18,33 +22,58 @@ import java.util.Map; // Para crear el JSON de respuesta
 public class CheckoutController {
 
     private final OrdenesService ordenesService;
+    private final IdempotenciaService idempotenciaService;
 
     // Spring inyecta el servicio que creamos
-    public CheckoutController(OrdenesService ordenesService) {
+    public CheckoutController(OrdenesService ordenesService, IdempotenciaService idempotenciaService) {
         this.ordenesService = ordenesService;
+        this.idempotenciaService = idempotenciaService;
     }
 
     /**
      * Este es el endpoint que tu frontend llama para comprar.
      * POST /api/checkout/purchase
+     *
+     * Con el header "Idempotency-Key" (p. ej. un UUID por intento de compra),
+     * los reintentos con la misma clave devuelven el mismo boletaId sin crear otra boleta.
+     *
+     * Requiere "Authorization: Bearer <token>" (de /api/auth/login): la boleta queda
+     * a nombre del usuario del token. Si el body trae otro userId se rechaza (403).
      */
     @PostMapping("/purchase")
-    public ResponseEntity<?> processPurchase(@RequestBody PurchaseRequestDTO request) {
+    public ResponseEntity<?> processPurchase(@RequestBody PurchaseRequestDTO request,
+                                             @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                             @AuthenticationPrincipal Sesion sesion) {
         try {
+            // El usuario sale del token, no del body
+            if (request.getUserId() != null && !request.getUserId().equals(sesion.getUsuarioId())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                                     .body(Map.of("error", "No puedes comprar a nombre de otro usuario."));
+            }
+            request.setUserId(sesion.getUsuarioId());
+
             // Validación simple
             if (request.getCartItems() == null || request.getCartItems().isEmpty()) {
                 return ResponseEntity.badRequest().body(Map.of("error", "El carrito está vacío."));
             }
             
             // Llama a la lógica de negocio en el servicio
-            Integer boletaId = ordenesService.processPurchase(request);
+            Integer boletaId = idempotencyKey == null
+                ? ordenesService.processPurchase(request, null, null)
+                : idempotenciaService.procesarUnaVez(idempotencyKey, request);
 
             // Éxito: Devuelve 200 OK con el ID de la boleta
             return ResponseEntity.ok(Map.of("boletaId", boletaId));
 
+        } catch (IdempotenciaService.ClaveReutilizadaException e) {
+            // Misma clave (del mismo usuario) con otro carrito
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(Map.of("error", e.getMessage()));
         } catch (IllegalArgumentException e) {
             // Error de validación (ej. total 0)
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            // Sin stock suficiente para algún producto del carrito
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             // Cualquier otro error (ej. problema de base de datos)
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
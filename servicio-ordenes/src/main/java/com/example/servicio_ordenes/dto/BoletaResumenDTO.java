@@ -0,0 +1,34 @@
+package com.example.servicio_ordenes.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Una boleta del historial de un usuario, sin sus detalles salvo que se pidan
+ * (GET /api/boletas/usuario/{id}?detalles=true).
+ */
+@Data
+public class BoletaResumenDTO {
+    private Integer id;
+    private LocalDateTime fechaCompra;
+    private Double total;
+    private String calleEnvio;
+    private String deptoEnvio;
+    private String regionEnvio;
+    private String comunaEnvio;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<DetalleDTO> detalles;
+
+    // DTO anidado para cada producto de la boleta
+    @Data
+    public static class DetalleDTO {
+        private Integer productoId;
+        private String nombreProducto;
+        private Integer cantidad;
+        private Double precioUnitario;
+        private String imagenUrl;
+    }
+}
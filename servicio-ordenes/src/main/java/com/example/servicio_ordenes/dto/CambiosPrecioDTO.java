@@ -0,0 +1,13 @@
+package com.example.servicio_ordenes.dto;
+
+import lombok.Data;
+import java.util.List;
+
+// Respuesta de GET /api/productos/precios/cambios en servicio-catalogo
+@Data
+public class CambiosPrecioDTO {
+    private long epoch;
+    private long version;
+    private List<Integer> ids;
+    private boolean completo; // true = descartar todos los precios guardados
+}
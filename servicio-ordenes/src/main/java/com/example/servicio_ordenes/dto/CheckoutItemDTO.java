@@ -5,8 +5,8 @@ import lombok.Data;
 @Data
 public class CheckoutItemDTO {
     private Integer id; // ID del producto
-    private String nombre;
-    private Double precio;
+    private String nombre; // Lo manda el carrito, pero la boleta usa el del catálogo
+    private Double precio; // Idem: se cobra el precio del catálogo
     private Integer quantity;
-    private String imagen;
+    private String imagen; // Idem: la boleta guarda la imagen del catálogo
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.example.servicio_ordenes.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Una fila de la exportación: una línea de detalle junto con los datos de su
+ * boleta (JOIN plano). Los campos del detalle son null si la boleta no tiene detalles.
+ * Se arma con "SELECT new" para que no pase por el contexto de persistencia.
+ */
+@Data
+@AllArgsConstructor
+public class LineaExportacionDTO {
+    private Integer boletaId;
+    private Integer usuarioId;
+    private LocalDateTime fechaCompra;
+    private Double total;
+    private String calleEnvio;
+    private String deptoEnvio;
+    private String regionEnvio;
+    private String comunaEnvio;
+
+    private Integer productoId;
+    private String nombreProducto;
+    private Integer cantidad;
+    private Double precioUnitario;
+}
@@ -0,0 +1,34 @@
+package com.example.servicio_ordenes.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Una página del listado de boletas del admin (GET /api/boletas).
+ * Sin detalles: se piden por boleta con GET /api/boletas/{id}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListadoBoletasDTO {
+    private List<FilaDTO> boletas;
+    private int pagina;          // Desde 0
+    private int tamano;
+    private long totalBoletas;
+    private int totalPaginas;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FilaDTO {
+        private Integer id;
+        private Integer usuarioId;
+        private LocalDateTime fechaCompra;
+        private Double total;
+        private String region;
+        private long items;      // Unidades compradas (suma de cantidades)
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.servicio_ordenes.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Evento "OrdenCreada": una compra se confirmó. Es lo que necesitan los
+ * consumidores para actualizarse incrementalmente (stock vendido, rollups
+ * de reportes) sin volver a leer las boletas.
+ * "eventoId" es el id del outbox: sirve para descartar repetidos (la entrega
+ * es "al menos una vez").
+ */
+@Data
+public class OrdenCreadaEvento {
+    public static final String TIPO = "OrdenCreada";
+
+    @JsonInclude(JsonInclude.Include.NON_NULL) // No se guarda en el outbox: lo pone el transporte
+    private Long eventoId;
+    private Integer boletaId;
+    private Integer usuarioId;
+    private LocalDateTime fechaCompra;
+    private Double total;
+    private String regionEnvio;
+    private String comunaEnvio;
+    private List<Item> items;
+
+    @Data
+    public static class Item {
+        private Integer productoId;
+        private String nombreProducto;
+        private Integer cantidad;
+        private Double precioUnitario;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.servicio_ordenes.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+/**
+ * Una página del historial. "siguiente" es el cursor para pedir la página
+ * siguiente (?cursor=...), o null si ésta es la última.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaBoletasDTO {
+    private List<BoletaResumenDTO> boletas;
+    private String siguiente;
+}
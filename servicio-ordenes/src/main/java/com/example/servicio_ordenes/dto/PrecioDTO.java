@@ -0,0 +1,19 @@
+package com.example.servicio_ordenes.dto;
+
+import lombok.Data;
+
+/**
+ * Precio oficial de un producto según servicio-catalogo.
+ * "precioFinal" ya trae el descuento aplicado si está en oferta.
+ * Nombre e imagen son los que se guardan en BoletaDetalle (no los del carrito).
+ */
+@Data
+public class PrecioDTO {
+    private Integer id;
+    private String nombre;
+    private String imagenUrl;
+    private Double precio;
+    private Boolean onSale;
+    private Double discountPercentage;
+    private Double precioFinal;
+}
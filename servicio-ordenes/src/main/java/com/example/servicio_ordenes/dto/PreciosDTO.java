@@ -0,0 +1,12 @@
+package com.example.servicio_ordenes.dto;
+
+import lombok.Data;
+import java.util.List;
+
+// Respuesta de GET /api/productos/precios en servicio-catalogo
+@Data
+public class PreciosDTO {
+    private long epoch;
+    private long version;
+    private List<PrecioDTO> precios;
+}
@@ -0,0 +1,21 @@
+package com.example.servicio_ordenes.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Resumen de ventas de un rango de fechas, calculado en la BD (COUNT/SUM):
+ * totales del rango y, si se pidió agrupación, el desglose por período.
+ * "desde"/"hasta" son null cuando no se pidió rango (todas las boletas).
+ */
+@Data
+public class ResumenVentasDTO {
+    private LocalDate desde;
+    private LocalDate hasta;
+    private String agrupacion;
+    private long boletas;
+    private double total;
+    private List<VentasPeriodoDTO> periodos;
+}
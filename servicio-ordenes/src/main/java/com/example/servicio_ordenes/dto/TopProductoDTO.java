@@ -0,0 +1,18 @@
+package com.example.servicio_ordenes.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Un producto del ranking de más vendidos (unidades y total del rango).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TopProductoDTO {
+    private Integer productoId;
+    private String nombreProducto;
+    private long unidades;
+    private double total;
+}
@@ -0,0 +1,20 @@
+package com.example.servicio_ordenes.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Ventas de un período (día, semana o mes) del resumen de ventas.
+ * "periodo" es el primer día del período (las semanas empiezan el lunes).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VentasPeriodoDTO {
+    private LocalDate periodo;
+    private long boletas;
+    private double total;
+}
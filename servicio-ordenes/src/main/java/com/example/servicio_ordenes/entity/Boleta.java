@@ -5,21 +5,26 @@ import java.util.List;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.OneToMany;
 // ---
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.Data;
 import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "boletas")
+@Table(name = "boletas") // Índices y restricciones: db/migration (Flyway), ver V2__indices.sql
 public class Boleta {
     
+    // Secuencia con "pooled" de 50: Hibernate reserva 50 ids por cada nextval
+    // y puede agrupar los INSERT en batch (con IDENTITY no puede)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "boletas_seq")
+    @SequenceGenerator(name = "boletas_seq", sequenceName = "boletas_seq", allocationSize = 50)
     private Integer id;
 
     private Integer usuarioId;
@@ -31,6 +36,23 @@ public class Boleta {
     private String regionEnvio;
     private String comunaEnvio;
 
+    // Header Idempotency-Key de la compra (si el cliente lo mandó).
+    // UNIQUE por usuario (usuario_id, idempotency_key): aunque dos reintentos lleguen a la vez, sólo uno puede guardarse.
+    @Column(length = 64)
+    private String idempotencyKey;
+
+    // SHA-256 de la compra que usó la clave (ver IdempotenciaService.huella)
+    @Column(length = 64)
+    private String idempotencyHuella;
+
+    // Reserva de stock en servicio-catalogo que falta confirmar (null = ya confirmada).
+    // Se guarda con la boleta: si la confirmación falla, ConfirmacionReservas la reintenta.
+    private Integer reservaPendiente;
+
+    // Cuándo catálogo rechazó confirmar esa reserva (null = no rechazada). La boleta queda
+    // con reservaPendiente para revisarla a mano, y ConfirmacionReservas ya no la reintenta.
+    private LocalDateTime reservaRechazada;
+
     // --- ¡AÑADE ESTA RELACIÓN! ---
     // Una Boleta tiene muchos Detalles
     // "mappedBy" le dice a Spring que la 'boleta' en BoletaDetalle es la dueña
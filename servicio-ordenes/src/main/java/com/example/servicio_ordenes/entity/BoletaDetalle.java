@@ -4,21 +4,27 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 // ... (otras imports)
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 // --- ¡ASEGÚRATE DE QUE ESTA IMPORTACIÓN NO ESTÉ! ---
 // import com.example.servicio_ordenes.entity.Boleta; // ¡Esta línea no va aquí si la clase Boleta está en el mismo paquete!
 
 @Data
 @Entity
-@Table(name = "boleta_detalles")
+@Table(name = "boleta_detalles") // Índices y restricciones: db/migration (Flyway), ver V2__indices.sql
 public class BoletaDetalle {
     // ... (id, productoId, nombreProducto, etc.)
+    // Igual que Boleta: ids por secuencia para que los detalles se inserten en batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "boleta_detalles_seq")
+    @SequenceGenerator(name = "boleta_detalles_seq", sequenceName = "boleta_detalles_seq", allocationSize = 50)
     private Integer id;
 
     private Integer productoId;
@@ -27,6 +33,10 @@ public class BoletaDetalle {
     private Integer cantidad;
     private String imagenUrl;
 
+    // Sin esto, el JSON (y toString/hashCode de Lombok) iba boleta -> detalles -> boleta -> ... sin fin
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne
     @JoinColumn(name = "boleta_id") 
     private Boleta boleta;
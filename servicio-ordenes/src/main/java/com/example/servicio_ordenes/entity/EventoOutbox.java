@@ -0,0 +1,44 @@
+package com.example.servicio_ordenes.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Evento pendiente de publicar (patrón "transactional outbox").
+ *
+ * Se inserta en la MISMA transacción que la compra: si la compra se guarda,
+ * el evento también, y si falla, ninguno. OutboxRelay los publica después,
+ * en orden de id, y marca "publicado".
+ */
+@Data
+@Entity
+// Índice para encontrar rápido los pendientes (publicado IS NULL) en orden
+@Table(name = "outbox_eventos") // Índices y restricciones: db/migration (Flyway)
+public class EventoOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_eventos_seq")
+    @SequenceGenerator(name = "outbox_eventos_seq", sequenceName = "outbox_eventos_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, length = 50)
+    private String tipo;            // Ej. "OrdenCreada"
+
+    @Column(nullable = false)
+    private Integer agregadoId;     // Id de la boleta
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String datos;           // JSON del evento (ej. OrdenCreadaEvento)
+
+    @Column(nullable = false)
+    private LocalDateTime creado = LocalDateTime.now();
+
+    private LocalDateTime publicado; // null = pendiente
+}
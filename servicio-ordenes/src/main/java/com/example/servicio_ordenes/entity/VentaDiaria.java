@@ -0,0 +1,24 @@
+package com.example.servicio_ordenes.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import java.time.LocalDate;
+
+/**
+ * Rollup de ventas por día: una fila por día con boletas y total vendido.
+ * OrdenesService la actualiza en la misma transacción de cada compra
+ * (VentasRollup), así los reportes leen O(días) filas en vez de O(boletas).
+ */
+@Data
+@Entity
+@Table(name = "ventas_diarias")
+public class VentaDiaria {
+
+    @Id
+    private LocalDate dia;
+
+    private long boletas;
+    private double total;
+}
@@ -0,0 +1,39 @@
+package com.example.servicio_ordenes.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.Data;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Rollup de ventas por día y producto: unidades vendidas y total.
+ * Se mantiene junto con VentaDiaria (ver VentasRollup).
+ */
+@Data
+@Entity
+@Table(name = "ventas_producto_diarias")
+@IdClass(VentaProductoDiaria.Clave.class)
+public class VentaProductoDiaria {
+
+    @Id
+    private LocalDate dia;
+
+    @Id
+    private Integer productoId;
+
+    // Último nombre con que se vendió (para mostrarlo en el ranking sin ir a los detalles)
+    private String nombreProducto;
+
+    private long unidades;
+    private double total;
+
+    /** Clave compuesta (dia, productoId). */
+    @Data
+    public static class Clave implements Serializable {
+        private LocalDate dia;
+        private Integer productoId;
+    }
+}
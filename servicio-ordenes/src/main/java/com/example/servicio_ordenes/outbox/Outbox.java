@@ -0,0 +1,70 @@
+package com.example.servicio_ordenes.outbox;
+
+import com.example.servicio_ordenes.dto.OrdenCreadaEvento;
+import com.example.servicio_ordenes.entity.Boleta;
+import com.example.servicio_ordenes.entity.BoletaDetalle;
+import com.example.servicio_ordenes.entity.EventoOutbox;
+import com.example.servicio_ordenes.repository.EventoOutboxRepository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Escribe los eventos en la tabla outbox_eventos. Siempre dentro de la
+ * transacción de quien lo llama (MANDATORY): el evento existe si y sólo si
+ * la compra se guardó. La publicación la hace OutboxRelay.
+ */
+@Component
+public class Outbox {
+
+    private final EventoOutboxRepository eventoOutboxRepository;
+    private final ObjectMapper objectMapper;
+
+    public Outbox(EventoOutboxRepository eventoOutboxRepository, ObjectMapper objectMapper) {
+        this.eventoOutboxRepository = eventoOutboxRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /** Registra el evento OrdenCreada de una boleta recién guardada. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void ordenCreada(Boleta boleta) {
+        OrdenCreadaEvento evento = new OrdenCreadaEvento();
+        evento.setBoletaId(boleta.getId());
+        evento.setUsuarioId(boleta.getUsuarioId());
+        evento.setFechaCompra(boleta.getFechaCompra());
+        evento.setTotal(boleta.getTotal());
+        evento.setRegionEnvio(boleta.getRegionEnvio());
+        evento.setComunaEnvio(boleta.getComunaEnvio());
+        List<OrdenCreadaEvento.Item> items = new ArrayList<>();
+        for (BoletaDetalle detalle : boleta.getDetalles()) {
+            OrdenCreadaEvento.Item item = new OrdenCreadaEvento.Item();
+            item.setProductoId(detalle.getProductoId());
+            item.setNombreProducto(detalle.getNombreProducto());
+            item.setCantidad(detalle.getCantidad());
+            item.setPrecioUnitario(detalle.getPrecioUnitario());
+            items.add(item);
+        }
+        evento.setItems(items);
+
+        EventoOutbox fila = new EventoOutbox();
+        fila.setTipo(OrdenCreadaEvento.TIPO);
+        fila.setAgregadoId(boleta.getId());
+        fila.setDatos(json(evento));
+        eventoOutboxRepository.save(fila);
+    }
+
+    private String json(Object evento) {
+        try {
+            return objectMapper.writeValueAsString(evento);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el evento.", e);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.servicio_ordenes.outbox;
+
+import com.example.servicio_ordenes.entity.EventoOutbox;
+import com.example.servicio_ordenes.repository.EventoOutboxRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Publica los eventos pendientes del outbox, por lotes y en orden de id.
+ *
+ * Cada lote: se bloquean las filas (SKIP LOCKED, así varias instancias no se
+ * pisan), se entregan al transporte y se marcan "publicado" en la misma
+ * transacción. Si el transporte falla, nada se marca y el lote se reintenta en
+ * la siguiente pasada. Entrega "al menos una vez": si el proceso cae entre
+ * publicar y confirmar, el lote sale de nuevo (los consumidores descartan por id).
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final EventoOutboxRepository eventoOutboxRepository;
+    private final TransporteEventos transporte;
+    private final TransactionTemplate transaccion;
+    private final int tamanoLote;
+    private final Duration retencion;
+
+    public OutboxRelay(EventoOutboxRepository eventoOutboxRepository, TransporteEventos transporte,
+                       TransactionTemplate transaccion,
+                       @Value("${app.outbox.lote:100}") int tamanoLote,
+                       @Value("${app.outbox.retencion:P7D}") Duration retencion) {
+        this.eventoOutboxRepository = eventoOutboxRepository;
+        this.transporte = transporte;
+        this.transaccion = transaccion;
+        this.tamanoLote = tamanoLote;
+        this.retencion = retencion;
+    }
+
+    /** Publica lotes hasta vaciar los pendientes (o hasta el primer error). */
+    @Scheduled(fixedDelayString = "${app.outbox.revision:PT1S}")
+    public void publicarPendientes() {
+        try {
+            int publicados;
+            do {
+                publicados = publicarLote();
+            } while (publicados == tamanoLote);
+        } catch (Exception e) {
+            log.warn("No se pudo publicar un lote del outbox, se reintenta en la próxima pasada: {}", e.getMessage());
+        }
+    }
+
+    /** Publica un lote; devuelve cuántos eventos salieron. */
+    public int publicarLote() {
+        Integer publicados = transaccion.execute(estado -> {
+            List<EventoOutbox> lote = eventoOutboxRepository.pendientes(Limit.of(tamanoLote));
+            if (lote.isEmpty()) {
+                return 0;
+            }
+            try {
+                transporte.publicar(lote);
+            } catch (Exception e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+            LocalDateTime ahora = LocalDateTime.now();
+            lote.forEach(evento -> evento.setPublicado(ahora)); // UPDATE en batch al confirmar
+            return lote.size();
+        });
+        return publicados == null ? 0 : publicados;
+    }
+
+    /** Borra los eventos ya publicados hace más de app.outbox.retencion. */
+    @Scheduled(fixedDelayString = "${app.outbox.limpieza:PT1H}")
+    public void limpiar() {
+        Integer borrados = transaccion.execute(estado ->
+            eventoOutboxRepository.borrarPublicadosAntesDe(LocalDateTime.now().minus(retencion)));
+        if (borrados != null && borrados > 0) {
+            log.info("Outbox: {} eventos publicados borrados.", borrados);
+        }
+    }
+}
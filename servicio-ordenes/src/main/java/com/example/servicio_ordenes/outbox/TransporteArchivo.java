@@ -0,0 +1,81 @@
+package com.example.servicio_ordenes.outbox;
+
+import com.example.servicio_ordenes.entity.EventoOutbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Transporte a un archivo local (log de eventos): agrega cada lote al final de
+ * app.outbox.archivo, un evento por línea (NDJSON):
+ *   {"id":1,"tipo":"OrdenCreada","agregadoId":10,"creado":"...","datos":{...}}
+ * Los consumidores (catálogo, reportes) leen el archivo desde el último id que
+ * procesaron. Cada lote se fuerza a disco antes de marcarlo como publicado.
+ * Las líneas se arman fuera del lock; sólo la escritura al archivo va de a un lote.
+ * Es el transporte por defecto.
+ */
+@Component
+@ConditionalOnProperty(name = "app.outbox.transporte", havingValue = "archivo", matchIfMissing = true)
+public class TransporteArchivo implements TransporteEventos {
+
+    private static final Logger log = LoggerFactory.getLogger(TransporteArchivo.class);
+
+    private final Path archivo;
+    private final ObjectMapper objectMapper;
+    // Dos lotes a la vez (publicarLote llamado en paralelo) no deben mezclar sus líneas
+    private final ReentrantLock escritura = new ReentrantLock();
+
+    public TransporteArchivo(@Value("${app.outbox.archivo:eventos/ordenes.ndjson}") Path archivo,
+                             ObjectMapper objectMapper) throws IOException {
+        this.archivo = archivo.toAbsolutePath();
+        this.objectMapper = objectMapper;
+        if (this.archivo.getParent() != null) {
+            Files.createDirectories(this.archivo.getParent());
+        }
+        log.info("Eventos de ordenes en {}", this.archivo);
+    }
+
+    @Override
+    public void publicar(List<EventoOutbox> lote) throws IOException {
+        ByteArrayOutputStream lineas = new ByteArrayOutputStream();
+        for (EventoOutbox fila : lote) {
+            Map<String, Object> linea = new LinkedHashMap<>();
+            linea.put("id", fila.getId());
+            linea.put("tipo", fila.getTipo());
+            linea.put("agregadoId", fila.getAgregadoId());
+            linea.put("creado", fila.getCreado());
+            linea.put("datos", objectMapper.readTree(fila.getDatos()));
+            lineas.write(objectMapper.writeValueAsBytes(linea));
+            lineas.write('\n');
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(lineas.toByteArray());
+        escritura.lock();
+        try (FileChannel canal = FileChannel.open(archivo,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            canal.force(false);
+        } finally {
+            escritura.unlock();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.servicio_ordenes.outbox;
+
+import com.example.servicio_ordenes.entity.EventoOutbox;
+
+import java.util.List;
+
+/**
+ * Cómo salen los eventos del outbox hacia los consumidores. Se elige con
+ * app.outbox.transporte (local | archivo); para otro medio (cola, HTTP...)
+ * basta otra implementación.
+ *
+ * publicar() recibe un lote en orden de id y debe lanzar excepción si no lo
+ * pudo entregar completo: el relay lo reintenta entero (los consumidores
+ * descartan repetidos por id).
+ */
+public interface TransporteEventos {
+
+    void publicar(List<EventoOutbox> lote) throws Exception;
+}
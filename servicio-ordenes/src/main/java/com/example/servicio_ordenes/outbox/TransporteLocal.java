@@ -0,0 +1,42 @@
+package com.example.servicio_ordenes.outbox;
+
+import com.example.servicio_ordenes.dto.OrdenCreadaEvento;
+import com.example.servicio_ordenes.entity.EventoOutbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Transporte en el mismo proceso: cada evento se publica como evento de Spring
+ * (OrdenCreadaEvento), y lo recibe cualquier @EventListener de este servicio.
+ * Sin listeners los eventos igual se marcan publicados y se pierden: sólo
+ * sirve si algo de este proceso los consume.
+ */
+@Component
+@ConditionalOnProperty(name = "app.outbox.transporte", havingValue = "local")
+public class TransporteLocal implements TransporteEventos {
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+
+    public TransporteLocal(ApplicationEventPublisher eventPublisher, ObjectMapper objectMapper) {
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void publicar(List<EventoOutbox> lote) throws Exception {
+        for (EventoOutbox fila : lote) {
+            if (OrdenCreadaEvento.TIPO.equals(fila.getTipo())) {
+                OrdenCreadaEvento evento = objectMapper.readValue(fila.getDatos(), OrdenCreadaEvento.class);
+                evento.setEventoId(fila.getId());
+                eventPublisher.publishEvent(evento);
+            }
+        }
+    }
+}
@@ -1,14 +1,145 @@
 package com.example.servicio_ordenes.repository;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.jpa.repository.QueryHints;
+import com.example.servicio_ordenes.dto.LineaExportacionDTO;
 import com.example.servicio_ordenes.entity.Boleta;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import java.time.LocalDateTime; // <-- AÑADE ESTA IMPORTACIÓN
+import java.util.Collection;
 import java.util.List; // <-- AÑADE ESTA IMPORTACIÓN
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BoletaRepository extends JpaRepository<Boleta, Integer> {
 
     // --- AÑADE ESTE MÉTODO ---
-    // Spring creará la consulta:
-    // SELECT * FROM boletas WHERE fecha_compra BETWEEN ? AND ?
-    List<Boleta> findByFechaCompraBetween(LocalDateTime from, LocalDateTime to);
-}
\ No newline at end of file
+    // SELECT * FROM boletas WHERE fecha_compra BETWEEN ? AND ?, con sus detalles en el
+    // mismo query: el reporte los serializa, y cargarlos de a uno era 1 consulta por boleta (N+1)
+    @Query("SELECT b FROM Boleta b LEFT JOIN FETCH b.detalles WHERE b.fechaCompra BETWEEN :from AND :to ORDER BY b.id")
+    List<Boleta> findByFechaCompraBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // --- RESERVAS DE STOCK POR CONFIRMAR (ver ConfirmacionReservas) ---
+
+    interface ReservaPendiente {
+        Integer getBoletaId();
+        Integer getReservaId();
+    }
+
+    // Las más antiguas primero, usando el índice parcial idx_boletas_reserva_pendiente.
+    // Las rechazadas por catálogo no se reintentan: esperan revisión manual.
+    @Query("SELECT b.id AS boletaId, b.reservaPendiente AS reservaId FROM Boleta b "
+         + "WHERE b.reservaPendiente IS NOT NULL AND b.reservaRechazada IS NULL ORDER BY b.id")
+    List<ReservaPendiente> reservasPendientes(Limit limite);
+
+    @Modifying
+    @Query("UPDATE Boleta b SET b.reservaPendiente = NULL WHERE b.id = :id")
+    int marcarReservaConfirmada(@Param("id") Integer id);
+
+    // Deja la reserva pendiente (la boleta sigue marcada), sólo anota el rechazo
+    @Modifying
+    @Query("UPDATE Boleta b SET b.reservaRechazada = CURRENT_TIMESTAMP WHERE b.id = :id")
+    int marcarReservaRechazada(@Param("id") Integer id);
+
+    // --- COMPRAS IDEMPOTENTES (ver IdempotenciaService) ---
+
+    interface CompraIdempotente {
+        Integer getBoletaId();
+        String getHuella();
+    }
+
+    // Boleta ya creada por este usuario con esta Idempotency-Key, y la huella de su compra
+    // (sin cargar la boleta ni sus detalles; usa uk_boletas_usuario_idempotency_key)
+    @Query("SELECT b.id AS boletaId, b.idempotencyHuella AS huella FROM Boleta b "
+         + "WHERE b.usuarioId = :usuarioId AND b.idempotencyKey = :clave")
+    Optional<CompraIdempotente> findCompraIdempotente(@Param("usuarioId") Integer usuarioId, @Param("clave") String clave);
+
+
+    // Exportación (ver ExportacionService): boletas + detalles en un solo query,
+    // leído con cursor (fetch size) y sin entidades administradas: memoria constante.
+    // Ordenado por boleta para que sus detalles lleguen seguidos.
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.example.servicio_ordenes.dto.LineaExportacionDTO("
+         + "b.id, b.usuarioId, b.fechaCompra, b.total, b.calleEnvio, b.deptoEnvio, b.regionEnvio, b.comunaEnvio, "
+         + "d.productoId, d.nombreProducto, d.cantidad, d.precioUnitario) "
+         + "FROM Boleta b LEFT JOIN b.detalles d "
+         + "WHERE b.fechaCompra >= :desde AND b.fechaCompra < :hasta ORDER BY b.id, d.id")
+    Stream<LineaExportacionDTO> streamParaExportar(@Param("desde") LocalDateTime desde, @Param("hasta") LocalDateTime hasta);
+
+    // --- HISTORIAL POR USUARIO (ver HistorialService) ---
+    // Paginación por cursor (keyset): la página siguiente empieza después de la última
+    // boleta vista (fecha, id), usando el índice idx_boletas_usuario_fecha.
+    // El costo de una página no depende de cuántas boletas tenga el usuario (sin OFFSET).
+
+    interface ResumenBoleta {
+        Integer getId();
+        LocalDateTime getFechaCompra();
+        Double getTotal();
+        String getCalleEnvio();
+        String getDeptoEnvio();
+        String getRegionEnvio();
+        String getComunaEnvio();
+    }
+
+    interface DetalleDeBoleta {
+        Integer getBoletaId();
+        Integer getProductoId();
+        String getNombreProducto();
+        Integer getCantidad();
+        Double getPrecioUnitario();
+        String getImagenUrl();
+    }
+
+    @Query("SELECT b.id AS id, b.fechaCompra AS fechaCompra, b.total AS total, b.calleEnvio AS calleEnvio, "
+         + "b.deptoEnvio AS deptoEnvio, b.regionEnvio AS regionEnvio, b.comunaEnvio AS comunaEnvio "
+         + "FROM Boleta b WHERE b.usuarioId = :usuarioId "
+         + "ORDER BY b.fechaCompra DESC, b.id DESC")
+    List<ResumenBoleta> historial(@Param("usuarioId") Integer usuarioId, Limit limite);
+
+    @Query("SELECT b.id AS id, b.fechaCompra AS fechaCompra, b.total AS total, b.calleEnvio AS calleEnvio, "
+         + "b.deptoEnvio AS deptoEnvio, b.regionEnvio AS regionEnvio, b.comunaEnvio AS comunaEnvio "
+         + "FROM Boleta b WHERE b.usuarioId = :usuarioId AND (b.fechaCompra, b.id) < (:fecha, :id) "
+         + "ORDER BY b.fechaCompra DESC, b.id DESC")
+    List<ResumenBoleta> historialDespuesDe(@Param("usuarioId") Integer usuarioId, @Param("fecha") LocalDateTime fecha,
+                                           @Param("id") Integer id, Limit limite);
+
+    // Detalles de varias boletas en un solo query (sólo si se piden)
+    @Query("SELECT d.boleta.id AS boletaId, d.productoId AS productoId, d.nombreProducto AS nombreProducto, "
+         + "d.cantidad AS cantidad, d.precioUnitario AS precioUnitario, d.imagenUrl AS imagenUrl "
+         + "FROM BoletaDetalle d WHERE d.boleta.id IN :boletaIds ORDER BY d.boleta.id, d.id")
+    List<DetalleDeBoleta> detallesDe(@Param("boletaIds") Collection<Integer> boletaIds);
+
+    // --- LISTADO DEL ADMIN (ver OrdenesService.listarParaAdmin) ---
+    // Una fila plana por boleta, en un solo query (los items se cuentan en SQL,
+    // sólo para las boletas de la página). Orden y página vienen en el Pageable.
+
+    interface FilaAdmin {
+        Integer getId();
+        Integer getUsuarioId();
+        LocalDateTime getFechaCompra();
+        Double getTotal();
+        String getRegion();
+        long getItems();
+    }
+
+    @Query(value = "SELECT b.id AS id, b.usuarioId AS usuarioId, b.fechaCompra AS fechaCompra, b.total AS total, "
+                 + "b.regionEnvio AS region, "
+                 + "(SELECT COALESCE(SUM(d.cantidad), 0) FROM BoletaDetalle d WHERE d.boleta = b) AS items "
+                 + "FROM Boleta b",
+           countQuery = "SELECT COUNT(b) FROM Boleta b")
+    Page<FilaAdmin> listarParaAdmin(Pageable pagina);
+
+    // Una boleta con sus detalles (detalle bajo demanda del listado)
+    @Query("SELECT b FROM Boleta b LEFT JOIN FETCH b.detalles WHERE b.id = :id")
+    Optional<Boleta> findConDetalles(@Param("id") Integer id);
+}
@@ -0,0 +1,33 @@
+package com.example.servicio_ordenes.repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import com.example.servicio_ordenes.entity.EventoOutbox;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface EventoOutboxRepository extends JpaRepository<EventoOutbox, Long> {
+
+    // Próximo lote de pendientes, bloqueado hasta el fin de la transacción.
+    // SKIP LOCKED (lock.timeout = -2): si hay varias instancias, cada una toma
+    // eventos distintos en vez de esperar a la otra.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM EventoOutbox e WHERE e.publicado IS NULL ORDER BY e.id")
+    List<EventoOutbox> pendientes(Limit limite);
+
+    @Query("SELECT COUNT(e) FROM EventoOutbox e WHERE e.publicado IS NULL")
+    long contarPendientes();
+
+    // Limpieza: los ya publicados hace más de la retención
+    @Modifying
+    @Query("DELETE FROM EventoOutbox e WHERE e.publicado < :antes")
+    int borrarPublicadosAntesDe(@Param("antes") LocalDateTime antes);
+}
@@ -0,0 +1,50 @@
+package com.example.servicio_ordenes.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import com.example.servicio_ordenes.entity.VentaDiaria;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface VentaDiariaRepository extends JpaRepository<VentaDiaria, LocalDate> {
+
+    // Suma una boleta al día (crea la fila si es la primera del día).
+    // Un solo statement atómico: dos compras a la vez no se pisan.
+    @Modifying
+    @Query("INSERT INTO VentaDiaria (dia, boletas, total) VALUES (:dia, 1, :total) "
+         + "ON CONFLICT (dia) DO UPDATE SET boletas = boletas + excluded.boletas, total = total + excluded.total")
+    void sumar(@Param("dia") LocalDate dia, @Param("total") double total);
+
+    // --- LECTURA (ver VentasService) ---
+    // Se lee una fila por día del rango, nunca las boletas
+
+    interface TotalVentas {
+        long getBoletas();
+        double getTotal();
+    }
+
+    interface VentasPorPeriodo {
+        LocalDate getPeriodo();
+        long getBoletas();
+        double getTotal();
+    }
+
+    @Query("SELECT COALESCE(SUM(v.boletas), 0) AS boletas, COALESCE(SUM(v.total), 0) AS total FROM VentaDiaria v "
+         + "WHERE v.dia BETWEEN :desde AND :hasta")
+    TotalVentas totalVentas(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+
+    @Query("SELECT v.dia AS periodo, v.boletas AS boletas, v.total AS total FROM VentaDiaria v "
+         + "WHERE v.dia BETWEEN :desde AND :hasta ORDER BY v.dia")
+    List<VentasPorPeriodo> ventasPorDia(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+
+    // Semanas y meses se suman desde las filas diarias (la unidad de trunc() tiene que ser literal)
+    @Query("SELECT cast(trunc(v.dia, week) AS LocalDate) AS periodo, SUM(v.boletas) AS boletas, SUM(v.total) AS total "
+         + "FROM VentaDiaria v WHERE v.dia BETWEEN :desde AND :hasta GROUP BY 1 ORDER BY 1")
+    List<VentasPorPeriodo> ventasPorSemana(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+
+    @Query("SELECT cast(trunc(v.dia, month) AS LocalDate) AS periodo, SUM(v.boletas) AS boletas, SUM(v.total) AS total "
+         + "FROM VentaDiaria v WHERE v.dia BETWEEN :desde AND :hasta GROUP BY 1 ORDER BY 1")
+    List<VentasPorPeriodo> ventasPorMes(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+}
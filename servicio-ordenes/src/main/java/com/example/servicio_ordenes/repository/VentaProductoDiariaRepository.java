@@ -0,0 +1,39 @@
+package com.example.servicio_ordenes.repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import com.example.servicio_ordenes.entity.VentaProductoDiaria;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface VentaProductoDiariaRepository extends JpaRepository<VentaProductoDiaria, VentaProductoDiaria.Clave> {
+
+    // Igual que VentaDiariaRepository.sumar, por producto
+    @Modifying
+    @Query("INSERT INTO VentaProductoDiaria (dia, productoId, nombreProducto, unidades, total) "
+         + "VALUES (:dia, :productoId, :nombre, :unidades, :total) "
+         + "ON CONFLICT (dia, productoId) DO UPDATE SET nombreProducto = excluded.nombreProducto, "
+         + "unidades = unidades + excluded.unidades, total = total + excluded.total")
+    void sumar(@Param("dia") LocalDate dia, @Param("productoId") Integer productoId, @Param("nombre") String nombre,
+               @Param("unidades") long unidades, @Param("total") double total);
+
+    // --- RANKING (ver VentasService.topProductos) ---
+    // GROUP BY + ORDER BY + LIMIT en la BD sobre el rollup: a lo más
+    // (días del rango x productos vendidos) filas, nunca los detalles
+
+    interface VentasProducto {
+        Integer getProductoId();
+        String getNombreProducto();
+        long getUnidades();
+        double getTotal();
+    }
+
+    @Query("SELECT v.productoId AS productoId, MAX(v.nombreProducto) AS nombreProducto, "
+         + "SUM(v.unidades) AS unidades, SUM(v.total) AS total FROM VentaProductoDiaria v "
+         + "WHERE v.dia BETWEEN :desde AND :hasta GROUP BY v.productoId "
+         + "ORDER BY SUM(v.unidades) DESC, SUM(v.total) DESC, v.productoId")
+    List<VentasProducto> topProductos(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta, Limit limite);
+}
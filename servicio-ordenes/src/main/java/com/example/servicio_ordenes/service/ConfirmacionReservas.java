@@ -0,0 +1,76 @@
+package com.example.servicio_ordenes.service;
+
+import com.example.servicio_ordenes.client.CatalogoClient;
+import com.example.servicio_ordenes.repository.BoletaRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Confirma en servicio-catalogo la reserva de stock de cada boleta guardada.
+ *
+ * La boleta se guarda con su reserva pendiente (boletas.reserva_pendiente) en la
+ * misma transacción, y sólo se marca como confirmada cuando catálogo responde.
+ * Si catálogo no responde, o el proceso se cae justo después del commit,
+ * reintentarPendientes() la vuelve a pedir hasta que llega (confirmar dos veces
+ * no es error en catálogo). Si llega después del vencimiento de la reserva,
+ * catálogo vuelve a descontar su stock: una compra pagada nunca lo pierde.
+ * Si catálogo la rechaza (liberada o inexistente), la boleta NO se da por
+ * confirmada: queda con su reserva pendiente y marcada como rechazada
+ * (boletas.reserva_rechazada), fuera de los reintentos, para revisarla a mano.
+ */
+@Service
+public class ConfirmacionReservas {
+
+    private static final Logger log = LoggerFactory.getLogger(ConfirmacionReservas.class);
+
+    private final CatalogoClient catalogoClient;
+    private final BoletaRepository boletaRepository;
+    private final TransactionTemplate transaccion;
+    private final int tamanoLote;
+
+    public ConfirmacionReservas(CatalogoClient catalogoClient, BoletaRepository boletaRepository,
+                                TransactionTemplate transaccion,
+                                @Value("${app.reservas.lote:100}") int tamanoLote) {
+        this.catalogoClient = catalogoClient;
+        this.boletaRepository = boletaRepository;
+        this.transaccion = transaccion;
+        this.tamanoLote = tamanoLote;
+    }
+
+    /**
+     * Confirma la reserva de una boleta; devuelve false si catálogo no respondió
+     * y queda pendiente para el próximo reintento.
+     */
+    public boolean confirmar(Integer boletaId, Integer reservaId) {
+        try {
+            catalogoClient.confirmar(reservaId);
+        } catch (IllegalStateException e) {
+            // Catálogo la rechaza (liberada o inexistente): reintentar no sirve, hay que revisarla a mano
+            log.error("Reserva {} de la boleta {} rechazada por catálogo, queda marcada para revisión: {}",
+                reservaId, boletaId, e.getMessage());
+            transaccion.executeWithoutResult(estado -> boletaRepository.marcarReservaRechazada(boletaId));
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("No se pudo confirmar la reserva {} de la boleta {}, se reintenta: {}", reservaId, boletaId, e.getMessage());
+            return false;
+        }
+        transaccion.executeWithoutResult(estado -> boletaRepository.marcarReservaConfirmada(boletaId));
+        return true;
+    }
+
+    /** Reintenta las confirmaciones pendientes, de la más antigua a la más nueva. */
+    @Scheduled(fixedDelayString = "${app.reservas.reintento:PT30S}", initialDelayString = "${app.reservas.reintento:PT30S}")
+    public void reintentarPendientes() {
+        for (BoletaRepository.ReservaPendiente pendiente : boletaRepository.reservasPendientes(Limit.of(tamanoLote))) {
+            if (!confirmar(pendiente.getBoletaId(), pendiente.getReservaId())) {
+                return; // Catálogo sigue sin responder: el resto espera a la próxima pasada
+            }
+        }
+    }
+}
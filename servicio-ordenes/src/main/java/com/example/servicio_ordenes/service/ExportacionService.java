@@ -0,0 +1,183 @@
+package com.example.servicio_ordenes.service;
+
+import com.example.servicio_ordenes.dto.LineaExportacionDTO;
+import com.example.servicio_ordenes.repository.BoletaRepository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Exportación de boletas (con sus detalles) escribiendo directo en la respuesta.
+ *
+ * Las filas se leen de la BD con cursor (BoletaRepository.streamParaExportar)
+ * y se escriben a medida que llegan: la memoria usada no depende del rango,
+ * y el admin empieza a recibir datos de inmediato.
+ * - NDJSON: una boleta por línea, con sus detalles (mismos nombres que /api/boletas).
+ * - CSV: una línea por detalle, con los datos de la boleta repetidos.
+ */
+@Service
+public class ExportacionService {
+
+    public enum Formato {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Formato(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Formato desde(String valor) {
+            for (Formato formato : values()) {
+                if (formato.name().equalsIgnoreCase(valor.trim())) {
+                    return formato;
+                }
+            }
+            throw new IllegalArgumentException("Formato inválido: " + valor + ". Valores posibles: ndjson, csv");
+        }
+    }
+
+    // Sin rango = todas las boletas
+    private static final LocalDateTime DESDE_SIEMPRE = LocalDate.of(1970, 1, 1).atStartOfDay();
+    private static final LocalDateTime HASTA_SIEMPRE = LocalDate.of(9999, 1, 1).atStartOfDay();
+
+    private static final String CABECERA_CSV = "boleta_id,usuario_id,fecha_compra,total,calle_envio,depto_envio,"
+        + "region_envio,comuna_envio,producto_id,nombre_producto,cantidad,precio_unitario";
+
+    private final BoletaRepository boletaRepository;
+    private final ObjectMapper objectMapper;
+
+    public ExportacionService(BoletaRepository boletaRepository, ObjectMapper objectMapper) {
+        this.boletaRepository = boletaRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Escribe las boletas entre "desde" y "hasta" (días incluidos; null = sin límite)
+     * en "salida". La transacción (y el cursor) dura lo que dura la escritura.
+     */
+    @Transactional(readOnly = true)
+    public void exportar(LocalDate desde, LocalDate hasta, Formato formato, OutputStream salida) throws IOException {
+        LocalDateTime inicio = desde != null ? desde.atStartOfDay() : DESDE_SIEMPRE;
+        LocalDateTime fin = hasta != null ? hasta.plusDays(1).atStartOfDay() : HASTA_SIEMPRE;
+
+        OutputStream buffer = new BufferedOutputStream(salida, 64 * 1024);
+        try (Stream<LineaExportacionDTO> filas = boletaRepository.streamParaExportar(inicio, fin)) {
+            if (formato == Formato.CSV) {
+                escribirCsv(filas.iterator(), buffer);
+            } else {
+                escribirNdjson(filas.iterator(), buffer);
+            }
+        }
+        buffer.flush();
+    }
+
+    // =======================================================
+    // --- NDJSON ---
+    // =======================================================
+
+    private void escribirNdjson(Iterator<LineaExportacionDTO> filas, OutputStream salida) throws IOException {
+        Map<String, Object> boleta = null;
+        List<Map<String, Object>> detalles = null;
+        Integer boletaActual = null;
+
+        while (filas.hasNext()) {
+            LineaExportacionDTO fila = filas.next();
+            if (!Objects.equals(fila.getBoletaId(), boletaActual)) {
+                // Empieza otra boleta: la anterior ya está completa
+                if (boleta != null) {
+                    escribirLinea(boleta, salida);
+                }
+                boletaActual = fila.getBoletaId();
+                detalles = new ArrayList<>();
+                boleta = new LinkedHashMap<>();
+                boleta.put("id", fila.getBoletaId());
+                boleta.put("usuarioId", fila.getUsuarioId());
+                boleta.put("fechaCompra", fila.getFechaCompra());
+                boleta.put("total", fila.getTotal());
+                boleta.put("calleEnvio", fila.getCalleEnvio());
+                boleta.put("deptoEnvio", fila.getDeptoEnvio());
+                boleta.put("regionEnvio", fila.getRegionEnvio());
+                boleta.put("comunaEnvio", fila.getComunaEnvio());
+                boleta.put("detalles", detalles);
+            }
+            if (fila.getProductoId() != null) {
+                Map<String, Object> detalle = new LinkedHashMap<>();
+                detalle.put("productoId", fila.getProductoId());
+                detalle.put("nombreProducto", fila.getNombreProducto());
+                detalle.put("cantidad", fila.getCantidad());
+                detalle.put("precioUnitario", fila.getPrecioUnitario());
+                detalles.add(detalle);
+            }
+        }
+        if (boleta != null) {
+            escribirLinea(boleta, salida);
+        }
+    }
+
+    private void escribirLinea(Map<String, Object> boleta, OutputStream salida) throws IOException {
+        salida.write(objectMapper.writeValueAsBytes(boleta));
+        salida.write('\n');
+    }
+
+    // =======================================================
+    // --- CSV ---
+    // =======================================================
+
+    private void escribirCsv(Iterator<LineaExportacionDTO> filas, OutputStream salida) throws IOException {
+        Writer writer = new OutputStreamWriter(salida, StandardCharsets.UTF_8);
+        writer.write(CABECERA_CSV);
+        writer.write("\r\n");
+        while (filas.hasNext()) {
+            LineaExportacionDTO fila = filas.next();
+            writer.write(String.join(",",
+                campo(fila.getBoletaId()), campo(fila.getUsuarioId()), campo(fila.getFechaCompra()),
+                campo(fila.getTotal()), campo(fila.getCalleEnvio()), campo(fila.getDeptoEnvio()),
+                campo(fila.getRegionEnvio()), campo(fila.getComunaEnvio()), campo(fila.getProductoId()),
+                campo(fila.getNombreProducto()), campo(fila.getCantidad()), campo(fila.getPrecioUnitario())));
+            writer.write("\r\n");
+        }
+        writer.flush();
+    }
+
+    /** Valor CSV (RFC 4180): entre comillas si tiene coma, comillas o salto de línea. */
+    private static String campo(Object valor) {
+        if (valor == null) {
+            return "";
+        }
+        String texto = valor.toString();
+        if (texto.indexOf(',') >= 0 || texto.indexOf('"') >= 0 || texto.indexOf('\n') >= 0 || texto.indexOf('\r') >= 0) {
+            return '"' + texto.replace("\"", "\"\"") + '"';
+        }
+        return texto;
+    }
+}
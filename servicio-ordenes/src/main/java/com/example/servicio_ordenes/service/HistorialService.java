@@ -0,0 +1,127 @@
+package com.example.servicio_ordenes.service;
+
+import com.example.servicio_ordenes.dto.BoletaResumenDTO;
+import com.example.servicio_ordenes.dto.PaginaBoletasDTO;
+import com.example.servicio_ordenes.repository.BoletaRepository;
+import com.example.servicio_ordenes.repository.BoletaRepository.DetalleDeBoleta;
+import com.example.servicio_ordenes.repository.BoletaRepository.ResumenBoleta;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Historial de compras de un usuario ("mis pedidos"), de la más reciente a la más antigua.
+ *
+ * Paginación por cursor: el cursor codifica (fechaCompra, id) de la última boleta
+ * entregada y la página siguiente se lee con WHERE (fecha, id) < cursor sobre el
+ * índice (usuario_id, fecha_compra DESC, id DESC). A diferencia de OFFSET, la página
+ * 100 cuesta lo mismo que la primera, y no se repiten ni saltan boletas si llegan
+ * compras nuevas mientras el usuario navega.
+ */
+@Service
+public class HistorialService {
+
+    public static final int LIMITE_MAXIMO = 100;
+
+    private final BoletaRepository boletaRepository;
+
+    public HistorialService(BoletaRepository boletaRepository) {
+        this.boletaRepository = boletaRepository;
+    }
+
+    /**
+     * Hasta "limite" boletas del usuario, después de "cursor" (null = desde la más reciente).
+     * Con "conDetalles" incluye los productos de cada boleta (un query más para toda la página).
+     */
+    @Transactional(readOnly = true)
+    public PaginaBoletasDTO pagina(Integer usuarioId, String cursor, int limite, boolean conDetalles) {
+        if (limite < 1 || limite > LIMITE_MAXIMO) {
+            throw new IllegalArgumentException("'limit' debe estar entre 1 y " + LIMITE_MAXIMO + ".");
+        }
+
+        // Se pide una de más para saber si hay página siguiente
+        List<ResumenBoleta> filas;
+        if (cursor == null || cursor.isEmpty()) {
+            filas = boletaRepository.historial(usuarioId, Limit.of(limite + 1));
+        } else {
+            Cursor desde = Cursor.leer(cursor);
+            filas = boletaRepository.historialDespuesDe(usuarioId, desde.fecha, desde.id, Limit.of(limite + 1));
+        }
+        boolean haySiguiente = filas.size() > limite;
+        if (haySiguiente) {
+            filas = filas.subList(0, limite);
+        }
+
+        Map<Integer, BoletaResumenDTO> boletas = new LinkedHashMap<>();
+        for (ResumenBoleta fila : filas) {
+            BoletaResumenDTO dto = new BoletaResumenDTO();
+            dto.setId(fila.getId());
+            dto.setFechaCompra(fila.getFechaCompra());
+            dto.setTotal(fila.getTotal());
+            dto.setCalleEnvio(fila.getCalleEnvio());
+            dto.setDeptoEnvio(fila.getDeptoEnvio());
+            dto.setRegionEnvio(fila.getRegionEnvio());
+            dto.setComunaEnvio(fila.getComunaEnvio());
+            if (conDetalles) {
+                dto.setDetalles(new ArrayList<>());
+            }
+            boletas.put(fila.getId(), dto);
+        }
+
+        if (conDetalles && !boletas.isEmpty()) {
+            for (DetalleDeBoleta fila : boletaRepository.detallesDe(boletas.keySet())) {
+                BoletaResumenDTO.DetalleDTO detalle = new BoletaResumenDTO.DetalleDTO();
+                detalle.setProductoId(fila.getProductoId());
+                detalle.setNombreProducto(fila.getNombreProducto());
+                detalle.setCantidad(fila.getCantidad());
+                detalle.setPrecioUnitario(fila.getPrecioUnitario());
+                detalle.setImagenUrl(fila.getImagenUrl());
+                boletas.get(fila.getBoletaId()).getDetalles().add(detalle);
+            }
+        }
+
+        String siguiente = null;
+        if (haySiguiente) {
+            ResumenBoleta ultima = filas.get(filas.size() - 1);
+            siguiente = new Cursor(ultima.getFechaCompra(), ultima.getId()).escribir();
+        }
+        return new PaginaBoletasDTO(new ArrayList<>(boletas.values()), siguiente);
+    }
+
+    /** Posición en el historial: la última boleta entregada. Se envía opaco (base64url). */
+    private static final class Cursor {
+        final LocalDateTime fecha;
+        final Integer id;
+
+        Cursor(LocalDateTime fecha, Integer id) {
+            this.fecha = fecha;
+            this.id = id;
+        }
+
+        String escribir() {
+            String texto = fecha + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor leer(String cursor) {
+            try {
+                String texto = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separador = texto.indexOf('|');
+                return new Cursor(LocalDateTime.parse(texto.substring(0, separador)),
+                    Integer.valueOf(texto.substring(separador + 1)));
+            } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Cursor inválido.");
+            }
+        }
+    }
+}
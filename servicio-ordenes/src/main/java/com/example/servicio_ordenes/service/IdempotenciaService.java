@@ -0,0 +1,170 @@
+package com.example.servicio_ordenes.service;
+
+import com.example.servicio_ordenes.dto.PurchaseRequestDTO;
+import com.example.servicio_ordenes.repository.BoletaRepository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Compras idempotentes con el header Idempotency-Key. La clave es de cada
+ * usuario: la misma clave de otro usuario es otra compra.
+ *
+ * - En memoria (acotado y con vencimiento) se guarda, por usuario y clave, la
+ *   compra en curso o ya terminada. Un reintento recibe el mismo boletaId sin volver
+ *   a ejecutar processPurchase; si llega mientras la primera sigue en curso,
+ *   espera ese mismo resultado (no se ejecuta dos veces).
+ * - Si la clave ya no está en memoria (reinicio, vencimiento), se busca en la
+ *   BD; y el índice UNIQUE (usuario_id, idempotency_key) impide duplicados aunque
+ *   dos instancias reciban el mismo reintento.
+ * - En ambos casos la compra se compara por su huella (SHA-256 del request):
+ *   la misma clave con otro carrito es ClaveReutilizadaException (422).
+ * - Si la compra falla, la clave se olvida: el cliente puede reintentar.
+ */
+@Service
+public class IdempotenciaService {
+
+    /** La misma Idempotency-Key llegó con otro carrito (error del cliente). */
+    public static class ClaveReutilizadaException extends RuntimeException {
+        public ClaveReutilizadaException(String clave) {
+            super("La Idempotency-Key '" + clave + "' ya se usó para otra compra.");
+        }
+    }
+
+    /** Compra (en curso o terminada) asociada a una clave. */
+    private static final class Entrada {
+        final String huella;
+        final CompletableFuture<Integer> boletaId = new CompletableFuture<>();
+
+        Entrada(String huella) {
+            this.huella = huella;
+        }
+    }
+
+    private static final int LARGO_MAXIMO_CLAVE = 64; // Igual que la columna
+
+    // Propio (no el de Spring): la huella no debe cambiar si cambia la configuración de JSON
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final OrdenesService ordenesService;
+    private final BoletaRepository boletaRepository;
+    private final Cache<String, Entrada> compras;
+    private final Duration esperaMaxima;
+
+    public IdempotenciaService(OrdenesService ordenesService,
+                               BoletaRepository boletaRepository,
+                               @Value("${app.idempotencia.maximo:100000}") long maximo,
+                               @Value("${app.idempotencia.expiracion:PT24H}") Duration expiracion,
+                               @Value("${app.idempotencia.espera-maxima:PT30S}") Duration esperaMaxima) {
+        this.ordenesService = ordenesService;
+        this.boletaRepository = boletaRepository;
+        this.compras = Caffeine.newBuilder()
+            .maximumSize(maximo)
+            .expireAfterWrite(expiracion)
+            .build();
+        this.esperaMaxima = esperaMaxima;
+    }
+
+    /**
+     * Procesa la compra una sola vez por usuario y clave, y devuelve el id de la
+     * boleta (el de la primera ejecución si es un reintento).
+     * request.getUserId() ya debe ser el del token.
+     */
+    public Integer procesarUnaVez(String clave, PurchaseRequestDTO request) throws Exception {
+        if (clave.isBlank() || clave.length() > LARGO_MAXIMO_CLAVE) {
+            throw new IllegalArgumentException("La Idempotency-Key debe tener entre 1 y " + LARGO_MAXIMO_CLAVE + " caracteres.");
+        }
+
+        String huella = huella(request);
+        Entrada nueva = new Entrada(huella);
+        String llave = request.getUserId() + ":" + clave;
+        Entrada existente = compras.asMap().putIfAbsent(llave, nueva);
+        if (existente != null) {
+            if (!existente.huella.equals(huella)) {
+                throw new ClaveReutilizadaException(clave);
+            }
+            return esperar(existente);
+        }
+
+        // Somos la primera ejecución con esta clave
+        try {
+            // Puede que ya exista en la BD (la memoria se perdió con un reinicio o venció)
+            Integer boletaId = buscarEnBd(request.getUserId(), clave, huella).orElse(null);
+            if (boletaId == null) {
+                boletaId = procesarOBuscar(clave, request, huella);
+            }
+            nueva.boletaId.complete(boletaId);
+            return boletaId;
+        } catch (Exception e) {
+            compras.asMap().remove(llave, nueva); // Un fallo no se recuerda: se puede reintentar
+            nueva.boletaId.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private Integer procesarOBuscar(String clave, PurchaseRequestDTO request, String huella) throws Exception {
+        try {
+            return ordenesService.processPurchase(request, clave, huella);
+        } catch (DataIntegrityViolationException e) {
+            // Otra instancia guardó la misma clave primero: devolvemos su boleta
+            Optional<Integer> ganadora = buscarEnBd(request.getUserId(), clave, huella);
+            if (ganadora.isPresent()) {
+                return ganadora.get();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Boleta ya guardada por este usuario con esta clave. Si su huella es otra, la clave
+     * se reutilizó con otro carrito. Las boletas de antes de la huella (null) se aceptan.
+     */
+    private Optional<Integer> buscarEnBd(Integer usuarioId, String clave, String huella) {
+        return boletaRepository.findCompraIdempotente(usuarioId, clave).map(compra -> {
+            if (compra.getHuella() != null && !compra.getHuella().equals(huella)) {
+                throw new ClaveReutilizadaException(clave);
+            }
+            return compra.getBoletaId();
+        });
+    }
+
+    /** SHA-256 (hex) del request tal como se recibió: usuario, carrito y dirección. */
+    static String huella(PurchaseRequestDTO request) {
+        try {
+            byte[] json = JSON.writeValueAsBytes(request);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Integer esperar(Entrada entrada) throws Exception {
+        try {
+            return entrada.boletaId.get(esperaMaxima.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Una compra con esta Idempotency-Key todavía se está procesando.");
+        } catch (ExecutionException e) {
+            // El reintento recibe el mismo error que la ejecución original
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
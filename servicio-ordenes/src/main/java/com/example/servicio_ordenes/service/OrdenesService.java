@@ -1,50 +1,111 @@
 package com.example.servicio_ordenes.service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Cliente de servicio-catalogo (reservas de stock y precios)
+import com.example.servicio_ordenes.client.CatalogoClient;
+import com.example.servicio_ordenes.cache.PrecioCache;
+import com.example.servicio_ordenes.dto.PrecioDTO;
 
 // Tus DTOs (que deberías tener en la carpeta 'dto')
 import com.example.servicio_ordenes.dto.CheckoutItemDTO;
+import com.example.servicio_ordenes.dto.ListadoBoletasDTO;
 import com.example.servicio_ordenes.dto.PurchaseRequestDTO;
 
 // Tus Entidades (de la carpeta 'entity')
 import com.example.servicio_ordenes.entity.Boleta;
 import com.example.servicio_ordenes.entity.BoletaDetalle;
+import com.example.servicio_ordenes.outbox.Outbox;
 
 // Tus Repositorios (de la carpeta 'repository')
 import com.example.servicio_ordenes.repository.BoletaRepository;
 import com.example.servicio_ordenes.repository.BoletaDetalleRepository;
+import com.example.servicio_ordenes.repository.BoletaRepository.FilaAdmin;
 
 import java.util.ArrayList; // Importante
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 public class OrdenesService {
 
+    private static final Logger log = LoggerFactory.getLogger(OrdenesService.class);
+
     private final BoletaRepository boletaRepository;
     private final BoletaDetalleRepository boletaDetalleRepository;
+    private final CatalogoClient catalogoClient;
+    private final PrecioCache precioCache;
+    private final VentasRollup ventasRollup;
+    private final Outbox outbox;
+    private final TransactionTemplate transaccion;
+    private final ConfirmacionReservas confirmacionReservas;
 
     // Spring inyectará los repositorios que ya creamos
-    public OrdenesService(BoletaRepository boletaRepository, BoletaDetalleRepository boletaDetalleRepository) {
+    public OrdenesService(BoletaRepository boletaRepository, BoletaDetalleRepository boletaDetalleRepository,
+                          CatalogoClient catalogoClient, PrecioCache precioCache, VentasRollup ventasRollup,
+                          Outbox outbox, TransactionTemplate transaccion, ConfirmacionReservas confirmacionReservas) {
         this.boletaRepository = boletaRepository;
         this.boletaDetalleRepository = boletaDetalleRepository;
+        this.catalogoClient = catalogoClient;
+        this.precioCache = precioCache;
+        this.ventasRollup = ventasRollup;
+        this.outbox = outbox;
+        this.transaccion = transaccion;
+        this.confirmacionReservas = confirmacionReservas;
     }
 
     /**
      * Esta es la lógica principal para procesar una compra.
+     * "idempotencyKey" es el header Idempotency-Key (o null) y "huella" la de la compra
+     * (ver IdempotenciaService); se guardan en la boleta y la restricción UNIQUE
+     * (usuario, clave) impide una segunda boleta del mismo usuario con la misma clave.
+     *
+     * Las llamadas a catálogo (precios y reserva) van ANTES de abrir la transacción:
+     * mientras esperan la red no retienen una conexión del pool de la BD.
+     * La transacción sólo cubre los INSERT de la boleta, el rollup y el outbox.
      */
-    @Transactional
-    public Integer processPurchase(PurchaseRequestDTO request) throws Exception {
+    public Integer processPurchase(PurchaseRequestDTO request, String idempotencyKey, String huella) throws Exception {
         
-        // Calcula el total desde el carrito
-        Double total = request.getCartItems().stream()
-            .mapToDouble(item -> item.getPrecio() * item.getQuantity())
+        // Calcula el total con los precios oficiales del catálogo
+        // (el precio que manda el navegador se ignora)
+        Map<Integer, PrecioDTO> precios = preciosDelCarrito(request.getCartItems());
+        double total = request.getCartItems().stream()
+            .mapToDouble(item -> precios.get(item.getId()).getPrecioFinal() * item.getQuantity())
             .sum();
 
         if (total <= 0) {
             throw new IllegalArgumentException("El total de la compra debe ser mayor a cero.");
         }
 
+        // 0. Reservar el stock en servicio-catalogo (todo o nada).
+        //    Si falta stock lanza IllegalStateException y no se guarda nada.
+        Integer reservaId = catalogoClient.reservar(request.getCartItems());
+
+        Integer boletaId;
+        try {
+            boletaId = transaccion.execute(estado -> guardarBoleta(request, idempotencyKey, huella, precios, total, reservaId));
+        } catch (RuntimeException e) {
+            // La boleta no se guardó: se devuelve el stock reservado
+            liberarReserva(reservaId);
+            throw e;
+        }
+        // La boleta ya está guardada (con su reserva pendiente): si esto falla, se reintenta después
+        confirmacionReservas.confirmar(boletaId, reservaId);
+        return boletaId;
+    }
+
+    /** Guarda la boleta con sus detalles, la suma al rollup y deja su evento en el outbox (una transacción). */
+    private Integer guardarBoleta(PurchaseRequestDTO request, String idempotencyKey, String huella,
+                                  Map<Integer, PrecioDTO> precios, double total, Integer reservaId) {
         // 1. Crear la Boleta (aún no guardada)
         Boleta boleta = new Boleta();
         boleta.setUsuarioId(request.getUserId());
@@ -53,20 +114,25 @@ public class OrdenesService {
         boleta.setDeptoEnvio(request.getShippingAddress().getDepto());
         boleta.setRegionEnvio(request.getShippingAddress().getRegion());
         boleta.setComunaEnvio(request.getShippingAddress().getComuna());
+        boleta.setIdempotencyKey(idempotencyKey);
+        boleta.setIdempotencyHuella(huella);
+        boleta.setReservaPendiente(reservaId);
 
         // 2. Crear la lista de detalles
         List<BoletaDetalle> detalles = new ArrayList<>();
         for (CheckoutItemDTO item : request.getCartItems()) {
             BoletaDetalle detalle = new BoletaDetalle();
+            PrecioDTO catalogo = precios.get(item.getId());
             
             // Asignamos la boleta al detalle (importante para la relación)
             detalle.setBoleta(boleta); 
             
             detalle.setProductoId(item.getId());
-            detalle.setNombreProducto(item.getNombre());
-            detalle.setPrecioUnitario(item.getPrecio());
+            // Nombre, imagen y precio salen del catálogo; del carrito sólo el id y la cantidad
+            detalle.setNombreProducto(catalogo.getNombre());
+            detalle.setPrecioUnitario(catalogo.getPrecioFinal());
             detalle.setCantidad(item.getQuantity());
-            detalle.setImagenUrl(item.getImagen());
+            detalle.setImagenUrl(catalogo.getImagenUrl());
             
             detalles.add(detalle);
         }
@@ -77,14 +143,102 @@ public class OrdenesService {
         // 4. Guardar TODO de una vez
         // (Al guardar la boleta, se guardan los detalles automáticamente)
         Boleta savedBoleta = boletaRepository.save(boleta);
+
+        // 5. Sumarla al rollup de ventas (misma transacción)
+        ventasRollup.registrar(savedBoleta);
+
+        // 6. Evento OrdenCreada al outbox (misma transacción; lo publica OutboxRelay)
+        outbox.ordenCreada(savedBoleta);
         
         return savedBoleta.getId();
     }
     
     /**
-     * Método para que el Admin vea las boletas
+     * Precio oficial de cada producto del carrito (desde PrecioCache: en memoria,
+     * o una sola llamada al catálogo por los que falten).
      */
-    public List<Boleta> findAllBoletas() {
-        return boletaRepository.findAll();
+    private Map<Integer, PrecioDTO> preciosDelCarrito(List<CheckoutItemDTO> items) {
+        for (CheckoutItemDTO item : items) {
+            if (item.getId() == null || item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Cada producto del carrito necesita id y una cantidad mayor a cero.");
+            }
+        }
+        List<Integer> ids = items.stream().map(CheckoutItemDTO::getId).distinct().collect(Collectors.toList());
+        Map<Integer, PrecioDTO> precios = precioCache.obtener(ids);
+        for (Integer id : ids) {
+            if (precios.get(id) == null || precios.get(id).getPrecioFinal() == null) {
+                throw new IllegalArgumentException("El producto " + id + " no existe en el catálogo.");
+            }
+        }
+        return precios;
+    }
+
+    /** La compra falló (rollback): se devuelve el stock. Si catálogo no responde, vence sola (TTL). */
+    private void liberarReserva(Integer reservaId) {
+        try {
+            catalogoClient.liberar(reservaId);
+        } catch (RuntimeException e) {
+            log.warn("No se pudo liberar la reserva {} (vence sola): {}", reservaId, e.getMessage());
+        }
+    }
+
+    // =======================================================
+    // --- LISTADO PAGINADO DEL ADMIN ---
+    // =======================================================
+
+    public static final int TAMANO_MAXIMO_PAGINA = 200;
+
+    // Campos por los que se puede ordenar (nombre en la URL -> propiedad de Boleta)
+    private static final Map<String, String> ORDENES_ADMIN = Map.of(
+        "id", "id",
+        "fecha", "fechaCompra",
+        "fechaCompra", "fechaCompra",
+        "total", "total",
+        "usuarioId", "usuarioId");
+
+    /**
+     * Página "pagina" (desde 0) del listado de boletas, como filas planas
+     * (sin detalles), ordenada según "orden" = "campo[,asc|desc]".
+     */
+    @Transactional(readOnly = true)
+    public ListadoBoletasDTO listarParaAdmin(int pagina, int tamano, String orden) {
+        if (pagina < 0) {
+            throw new IllegalArgumentException("'page' no puede ser negativo.");
+        }
+        if (tamano < 1 || tamano > TAMANO_MAXIMO_PAGINA) {
+            throw new IllegalArgumentException("'size' debe estar entre 1 y " + TAMANO_MAXIMO_PAGINA + ".");
+        }
+
+        Page<FilaAdmin> filas = boletaRepository.listarParaAdmin(PageRequest.of(pagina, tamano, ordenAdmin(orden)));
+        List<ListadoBoletasDTO.FilaDTO> boletas = filas.getContent().stream()
+            .map(f -> new ListadoBoletasDTO.FilaDTO(f.getId(), f.getUsuarioId(), f.getFechaCompra(),
+                f.getTotal(), f.getRegion(), f.getItems()))
+            .collect(Collectors.toList());
+        return new ListadoBoletasDTO(boletas, pagina, tamano, filas.getTotalElements(), filas.getTotalPages());
+    }
+
+    /**
+     * Una boleta con sus detalles (un solo query), para ver el detalle desde el listado.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Boleta> findBoletaConDetalles(Integer id) {
+        return boletaRepository.findConDetalles(id);
+    }
+
+    // "fecha,desc" -> ORDER BY fechaCompra DESC, id DESC (el id desempata para que las páginas no se mezclen)
+    private static Sort ordenAdmin(String orden) {
+        String[] partes = (orden == null || orden.isBlank() ? "fecha,desc" : orden).split(",");
+        String campo = ORDENES_ADMIN.get(partes[0].trim());
+        if (campo == null) {
+            throw new IllegalArgumentException("No se puede ordenar por '" + partes[0].trim()
+                + "'. Valores posibles: id, fecha, total, usuarioId");
+        }
+        Sort.Direction direccion = Sort.Direction.DESC;
+        if (partes.length > 1) {
+            direccion = Sort.Direction.fromOptionalString(partes[1].trim())
+                .orElseThrow(() -> new IllegalArgumentException("Dirección de orden inválida: '" + partes[1].trim() + "' (asc | desc)."));
+        }
+        Sort sort = Sort.by(direccion, campo);
+        return campo.equals("id") ? sort : sort.and(Sort.by(direccion, "id"));
     }
 }
\ No newline at end of file
@@ -0,0 +1,92 @@
+package com.example.servicio_ordenes.service;
+
+import com.example.servicio_ordenes.entity.Boleta;
+import com.example.servicio_ordenes.entity.BoletaDetalle;
+import com.example.servicio_ordenes.repository.VentaDiariaRepository;
+import com.example.servicio_ordenes.repository.VentaProductoDiariaRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Mantiene los rollups ventas_diarias y ventas_producto_diarias.
+ *
+ * - registrar(): lo llama processPurchase dentro de su transacción, así el
+ *   rollup nunca queda distinto de las boletas (si la compra falla, tampoco se suma).
+ * - reconstruir(): los recalcula desde boletas/boleta_detalles (backfill de
+ *   datos existentes o reparación). Se puede repetir sin problema.
+ */
+@Service
+public class VentasRollup {
+
+    private static final Logger log = LoggerFactory.getLogger(VentasRollup.class);
+
+    private final VentaDiariaRepository ventaDiariaRepository;
+    private final VentaProductoDiariaRepository ventaProductoDiariaRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public VentasRollup(VentaDiariaRepository ventaDiariaRepository,
+                        VentaProductoDiariaRepository ventaProductoDiariaRepository,
+                        JdbcTemplate jdbcTemplate) {
+        this.ventaDiariaRepository = ventaDiariaRepository;
+        this.ventaProductoDiariaRepository = ventaProductoDiariaRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Suma la boleta (y sus detalles) al día de su fecha de compra. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(Boleta boleta) {
+        LocalDate dia = boleta.getFechaCompra().toLocalDate();
+
+        // Agrupa por producto (el carrito puede repetir un producto) y en orden de id:
+        // dos compras que tocan los mismos productos toman los locks en el mismo orden
+        Map<Integer, double[]> porProducto = new TreeMap<>();
+        Map<Integer, String> nombres = new TreeMap<>();
+        for (BoletaDetalle detalle : boleta.getDetalles()) {
+            double[] suma = porProducto.computeIfAbsent(detalle.getProductoId(), id -> new double[2]);
+            suma[0] += detalle.getCantidad();
+            suma[1] += detalle.getPrecioUnitario() * detalle.getCantidad();
+            nombres.put(detalle.getProductoId(), detalle.getNombreProducto());
+        }
+        porProducto.forEach((productoId, suma) ->
+            ventaProductoDiariaRepository.sumar(dia, productoId, nombres.get(productoId), (long) suma[0], suma[1]));
+
+        // La fila del día es la más disputada: se toca al final para tenerla bloqueada lo menos posible
+        ventaDiariaRepository.sumar(dia, boleta.getTotal());
+    }
+
+    /** Borra y recalcula ambos rollups desde las boletas. Devuelve los días reconstruidos. */
+    @Transactional
+    public int reconstruir() {
+        jdbcTemplate.update("DELETE FROM ventas_producto_diarias");
+        jdbcTemplate.update("DELETE FROM ventas_diarias");
+
+        int dias = jdbcTemplate.update(
+            "INSERT INTO ventas_diarias (dia, boletas, total) "
+          + "SELECT CAST(fecha_compra AS DATE), COUNT(*), COALESCE(SUM(total), 0) "
+          + "FROM boletas GROUP BY CAST(fecha_compra AS DATE)");
+        int filas = jdbcTemplate.update(
+            "INSERT INTO ventas_producto_diarias (dia, producto_id, nombre_producto, unidades, total) "
+          + "SELECT CAST(b.fecha_compra AS DATE), d.producto_id, MAX(d.nombre_producto), SUM(d.cantidad), SUM(d.precio_unitario * d.cantidad) "
+          + "FROM boleta_detalles d JOIN boletas b ON b.id = d.boleta_id "
+          + "GROUP BY CAST(b.fecha_compra AS DATE), d.producto_id");
+
+        log.info("Rollup de ventas reconstruido: {} días, {} filas por producto.", dias, filas);
+        return dias;
+    }
+
+    /** true si hay boletas pero el rollup está vacío (p. ej. recién se agregó la tabla). */
+    public boolean necesitaBackfill() {
+        Boolean vacio = jdbcTemplate.queryForObject(
+            "SELECT NOT EXISTS (SELECT 1 FROM ventas_diarias) AND EXISTS (SELECT 1 FROM boletas)", Boolean.class);
+        return Boolean.TRUE.equals(vacio);
+    }
+}
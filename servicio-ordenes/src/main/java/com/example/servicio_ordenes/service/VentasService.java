@@ -0,0 +1,124 @@
+package com.example.servicio_ordenes.service;
+
+import com.example.servicio_ordenes.dto.ResumenVentasDTO;
+import com.example.servicio_ordenes.dto.TopProductoDTO;
+import com.example.servicio_ordenes.dto.VentasPeriodoDTO;
+import com.example.servicio_ordenes.repository.VentaDiariaRepository;
+import com.example.servicio_ordenes.repository.VentaProductoDiariaRepository;
+
+import org.springframework.data.domain.Limit;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reportes de ventas calculados con SQL (SUM/GROUP BY) en vez de
+ * mandar todas las boletas a servicio-reportes para que las sume.
+ * Se leen del rollup ventas_diarias (ver VentasRollup): un rango de un año
+ * son a lo más 366 filas, sin importar cuántas boletas tenga.
+ */
+@Service
+public class VentasService {
+
+    /** Agrupaciones permitidas. */
+    public enum Agrupacion {
+        DAY, WEEK, MONTH;
+
+        public static Agrupacion desde(String valor) {
+            for (Agrupacion agrupacion : values()) {
+                if (agrupacion.name().equalsIgnoreCase(valor.trim())) {
+                    return agrupacion;
+                }
+            }
+            throw new IllegalArgumentException("Agrupación inválida: " + valor + ". Valores posibles: day, week, month");
+        }
+    }
+
+    // Sin rango = todos los días (límites que PostgreSQL acepta sin problema)
+    private static final LocalDate DESDE_SIEMPRE = LocalDate.of(1970, 1, 1);
+    private static final LocalDate HASTA_SIEMPRE = LocalDate.of(9999, 12, 31);
+
+    // Máximo de productos en el ranking
+    private static final int MAX_TOP = 100;
+
+    private final VentaDiariaRepository ventaDiariaRepository;
+    private final VentaProductoDiariaRepository ventaProductoDiariaRepository;
+
+    public VentasService(VentaDiariaRepository ventaDiariaRepository,
+                         VentaProductoDiariaRepository ventaProductoDiariaRepository) {
+        this.ventaDiariaRepository = ventaDiariaRepository;
+        this.ventaProductoDiariaRepository = ventaProductoDiariaRepository;
+    }
+
+    /**
+     * Resumen de las ventas entre "desde" y "hasta" (ambos días incluidos; null = sin límite).
+     * Con "agrupacion" también devuelve el desglose por día/semana/mes.
+     */
+    @Transactional(readOnly = true)
+    public ResumenVentasDTO resumen(LocalDate desde, LocalDate hasta, Agrupacion agrupacion) {
+        validarRango(desde, hasta);
+        LocalDate inicio = desde != null ? desde : DESDE_SIEMPRE;
+        LocalDate fin = hasta != null ? hasta : HASTA_SIEMPRE;
+
+        ResumenVentasDTO resumen = new ResumenVentasDTO();
+        resumen.setDesde(desde);
+        resumen.setHasta(hasta);
+
+        if (agrupacion == null) {
+            // Una sola fila con los totales
+            VentaDiariaRepository.TotalVentas totales = ventaDiariaRepository.totalVentas(inicio, fin);
+            resumen.setBoletas(totales.getBoletas());
+            resumen.setTotal(totales.getTotal());
+            return resumen;
+        }
+
+        // Una fila por período; los totales del rango son la suma de los períodos
+        List<VentaDiariaRepository.VentasPorPeriodo> filas = switch (agrupacion) {
+            case DAY -> ventaDiariaRepository.ventasPorDia(inicio, fin);
+            case WEEK -> ventaDiariaRepository.ventasPorSemana(inicio, fin);
+            case MONTH -> ventaDiariaRepository.ventasPorMes(inicio, fin);
+        };
+        List<VentasPeriodoDTO> periodos = new ArrayList<>();
+        long boletas = 0;
+        double total = 0;
+        for (VentaDiariaRepository.VentasPorPeriodo fila : filas) {
+            periodos.add(new VentasPeriodoDTO(fila.getPeriodo(), fila.getBoletas(), fila.getTotal()));
+            boletas += fila.getBoletas();
+            total += fila.getTotal();
+        }
+        resumen.setAgrupacion(agrupacion.name().toLowerCase(Locale.ROOT));
+        resumen.setBoletas(boletas);
+        resumen.setTotal(total);
+        resumen.setPeriodos(periodos);
+        return resumen;
+    }
+
+    /**
+     * Los "limite" productos con más unidades vendidas entre "desde" y "hasta"
+     * (null = sin límite). Empates: mayor total, luego menor id.
+     */
+    @Transactional(readOnly = true)
+    public List<TopProductoDTO> topProductos(LocalDate desde, LocalDate hasta, int limite) {
+        validarRango(desde, hasta);
+        if (limite < 1 || limite > MAX_TOP) {
+            throw new IllegalArgumentException("'limit' debe estar entre 1 y " + MAX_TOP + ".");
+        }
+        LocalDate inicio = desde != null ? desde : DESDE_SIEMPRE;
+        LocalDate fin = hasta != null ? hasta : HASTA_SIEMPRE;
+
+        return ventaProductoDiariaRepository.topProductos(inicio, fin, Limit.of(limite)).stream()
+            .map(fila -> new TopProductoDTO(fila.getProductoId(), fila.getNombreProducto(), fila.getUnidades(), fila.getTotal()))
+            .toList();
+    }
+
+    private static void validarRango(LocalDate desde, LocalDate hasta) {
+        if (desde != null && hasta != null && desde.isAfter(hasta)) {
+            throw new IllegalArgumentException("'from' no puede ser posterior a 'to'.");
+        }
+    }
+}
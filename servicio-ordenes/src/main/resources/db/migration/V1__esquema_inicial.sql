@@ -0,0 +1,26 @@
+-- Esquema base de ordenes_db: las tablas que creaba ddl-auto=update ANTES de las
+-- migraciones (tal como están en producción). Lo agregado después va en V3 en adelante.
+-- En una BD que ya tenía estas tablas Flyway NO corre este script
+-- (baseline-on-migrate marca la versión 1 como aplicada) y sigue con la V2.
+
+CREATE TABLE boletas (
+    id              integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    usuario_id      integer,
+    fecha_compra    timestamp(6),
+    total           double precision,
+    calle_envio     varchar(255),
+    depto_envio     varchar(255),
+    region_envio    varchar(255),
+    comuna_envio    varchar(255)
+);
+
+CREATE TABLE boleta_detalles (
+    id              integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    producto_id     integer,
+    nombre_producto varchar(255),
+    precio_unitario double precision,
+    cantidad        integer,
+    imagen_url      varchar(255),
+    boleta_id       integer,
+    CONSTRAINT fk_boleta_detalles_boleta FOREIGN KEY (boleta_id) REFERENCES boletas (id)
+);
@@ -0,0 +1,12 @@
+-- Índices para los predicados de las consultas calientes de ordenes.
+-- IF NOT EXISTS: en BDs que venían de ddl-auto=update alguno puede existir ya.
+
+-- Reportes y exportaciones por rango de fechas (fecha_compra >= :desde AND < :hasta)
+-- y el listado de admin ordenado por fecha
+CREATE INDEX IF NOT EXISTS idx_boletas_fecha ON boletas (fecha_compra, id);
+
+-- Historial de un usuario con paginación keyset (ver HistorialService)
+CREATE INDEX IF NOT EXISTS idx_boletas_usuario_fecha ON boletas (usuario_id, fecha_compra DESC, id DESC);
+
+-- Detalles de una boleta (Postgres no indexa solo la llave foránea)
+CREATE INDEX IF NOT EXISTS idx_boleta_detalles_boleta ON boleta_detalles (boleta_id);
@@ -0,0 +1,21 @@
+-- Boleta y BoletaDetalle pasan de IDENTITY a secuencias con "pooled" (allocationSize = 50),
+-- para que Hibernate pueda agrupar los INSERT en batch.
+-- IF NOT EXISTS: una BD que corrió con ddl-auto=update ya puede tener las secuencias.
+CREATE SEQUENCE IF NOT EXISTS boletas_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS boleta_detalles_seq START WITH 1 INCREMENT BY 50;
+
+-- Los ids ahora los pone Hibernate desde la secuencia
+ALTER TABLE boletas ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE boleta_detalles ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+-- En una BD que ya tenía boletas, la secuencia parte en 1 y chocaría con los ids
+-- existentes: se adelanta hasta después del MAX(id) de cada tabla (sólo si está atrás).
+-- Con "pooled", un nextval = N entrega los ids N-49..N,
+-- así que el próximo bloque queda sobre el máximo.
+SELECT setval('boletas_seq', m.maximo + 50)
+FROM (SELECT COALESCE(MAX(id), 0) AS maximo FROM boletas) m
+WHERE (SELECT last_value FROM boletas_seq) < m.maximo + 50;
+
+SELECT setval('boleta_detalles_seq', m.maximo + 50)
+FROM (SELECT COALESCE(MAX(id), 0) AS maximo FROM boleta_detalles) m
+WHERE (SELECT last_value FROM boleta_detalles_seq) < m.maximo + 50;
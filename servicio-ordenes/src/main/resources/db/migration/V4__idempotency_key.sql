@@ -0,0 +1,4 @@
+-- Header Idempotency-Key de cada compra (ver IdempotenciaService).
+-- Único: aunque dos reintentos lleguen a la vez, sólo uno puede guardarse.
+ALTER TABLE boletas ADD COLUMN IF NOT EXISTS idempotency_key varchar(64);
+CREATE UNIQUE INDEX IF NOT EXISTS uk_boletas_idempotency_key ON boletas (idempotency_key);
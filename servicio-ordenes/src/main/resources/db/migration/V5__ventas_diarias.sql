@@ -0,0 +1,16 @@
+-- Rollups de ventas por día y por producto/día (ver VentasRollup).
+-- Se llenan desde las boletas existentes al arrancar (config/ReconstruccionVentas).
+CREATE TABLE IF NOT EXISTS ventas_diarias (
+    dia     date PRIMARY KEY,
+    boletas bigint NOT NULL,
+    total   double precision NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS ventas_producto_diarias (
+    dia             date NOT NULL,
+    producto_id     integer NOT NULL,
+    nombre_producto varchar(255),
+    unidades        bigint NOT NULL,
+    total           double precision NOT NULL,
+    PRIMARY KEY (dia, producto_id)
+);
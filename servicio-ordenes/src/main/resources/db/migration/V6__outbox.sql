@@ -0,0 +1,14 @@
+-- Outbox de eventos (OrdenCreada, ver outbox/OutboxRelay)
+CREATE SEQUENCE IF NOT EXISTS outbox_eventos_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS outbox_eventos (
+    id          bigint PRIMARY KEY,
+    tipo        varchar(50) NOT NULL,
+    agregado_id integer NOT NULL,
+    datos       text NOT NULL,
+    creado      timestamp(6) NOT NULL,
+    publicado   timestamp(6)
+);
+
+-- Pendientes en orden de id (OutboxRelay) y publicados antiguos (limpieza)
+CREATE INDEX IF NOT EXISTS idx_outbox_pendientes ON outbox_eventos (publicado, id);
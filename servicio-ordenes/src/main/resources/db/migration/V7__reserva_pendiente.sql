@@ -0,0 +1,6 @@
+-- Reserva de stock de catálogo que falta confirmar (ver ConfirmacionReservas).
+-- NULL = confirmada; las boletas anteriores a esta columna ya se confirmaron al comprar.
+ALTER TABLE boletas ADD COLUMN IF NOT EXISTS reserva_pendiente integer;
+
+-- Sólo las pendientes (casi siempre ninguna), en orden de id
+CREATE INDEX IF NOT EXISTS idx_boletas_reserva_pendiente ON boletas (id) WHERE reserva_pendiente IS NOT NULL;
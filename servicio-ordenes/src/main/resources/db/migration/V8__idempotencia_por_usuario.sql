@@ -0,0 +1,8 @@
+-- Idempotency-Key por usuario (ver IdempotenciaService): dos usuarios pueden
+-- mandar la misma clave sin que uno reciba la boleta del otro.
+DROP INDEX IF EXISTS uk_boletas_idempotency_key;
+CREATE UNIQUE INDEX IF NOT EXISTS uk_boletas_usuario_idempotency_key ON boletas (usuario_id, idempotency_key);
+
+-- Huella (SHA-256) de la compra que usó la clave: un reintento desde la BD
+-- también se rechaza si trae otro carrito. Null en las boletas anteriores.
+ALTER TABLE boletas ADD COLUMN IF NOT EXISTS idempotency_huella varchar(64);
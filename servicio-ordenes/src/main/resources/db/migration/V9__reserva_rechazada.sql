@@ -0,0 +1,4 @@
+-- Reserva que catálogo rechazó al confirmar (liberada o inexistente): la boleta está
+-- pagada pero su stock no quedó descontado. Se deja marcada (reserva_pendiente sigue
+-- con el id) para revisarla a mano, y ConfirmacionReservas ya no la reintenta.
+ALTER TABLE boletas ADD COLUMN IF NOT EXISTS reserva_rechazada timestamp(6);
@@ -0,0 +1,109 @@
+package com.example.servicio_ordenes;
+
+import com.example.comun.security.Sesion;
+import com.example.comun.security.TokenEmisor;
+import com.example.servicio_ordenes.entity.Boleta;
+import com.example.servicio_ordenes.entity.BoletaDetalle;
+import com.example.servicio_ordenes.repository.BoletaRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Cada endpoint con @PresupuestoSql, con datos de verdad (varias boletas con detalles):
+ * con app.sql.presupuesto.fallar=true (perfil "test") una sentencia de más,
+ * por ejemplo un N+1 en los detalles, hace fallar la request.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PresupuestoSqlTest {
+
+	private static final int USUARIO = 7;
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private BoletaRepository boletaRepository;
+
+	@Autowired
+	private TokenEmisor tokenEmisor;
+
+	private Integer boletaId;
+
+	@BeforeEach
+	void crearBoletas() {
+		boletaRepository.deleteAll();
+		for (int i = 0; i < 3; i++) {
+			boletaId = boletaRepository.save(boleta(USUARIO, 3)).getId();
+		}
+	}
+
+	@Test
+	void listadoDelAdmin() throws Exception {
+		mvc.perform(get("/api/boletas"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.length()").value(3));
+		mvc.perform(get("/api/boletas").param("page", "0").param("size", "2"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.boletas.length()").value(2));
+	}
+
+	@Test
+	void boletaConDetalles() throws Exception {
+		mvc.perform(get("/api/boletas/{id}", boletaId))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.detalles.length()").value(3));
+	}
+
+	@Test
+	void historialDelUsuarioConDetalles() throws Exception {
+		String token = tokenEmisor.emitir(new Sesion(USUARIO, "cliente@peluchemania.cl", "Cliente")).getValor();
+
+		mvc.perform(get("/api/boletas/usuario/{id}", USUARIO).param("detalles", "true")
+				.header("Authorization", "Bearer " + token))
+			.andExpect(status().isOk());
+	}
+
+	@Test
+	void reportesDeVentas() throws Exception {
+		mvc.perform(get("/api/boletas/reporte").param("from", "2020-01-01").param("to", "2099-12-31"))
+			.andExpect(status().isOk());
+		mvc.perform(get("/api/boletas/resumen").param("group", "month")).andExpect(status().isOk());
+		mvc.perform(get("/api/boletas/top-productos")).andExpect(status().isOk());
+	}
+
+	private static Boleta boleta(int usuarioId, int productos) {
+		Boleta boleta = new Boleta();
+		boleta.setUsuarioId(usuarioId);
+		boleta.setTotal(1000.0 * productos);
+		boleta.setRegionEnvio("Metropolitana");
+		boleta.setComunaEnvio("Santiago");
+		boleta.setCalleEnvio("Calle 1");
+		List<BoletaDetalle> detalles = new ArrayList<>();
+		for (int p = 1; p <= productos; p++) {
+			BoletaDetalle detalle = new BoletaDetalle();
+			detalle.setBoleta(boleta);
+			detalle.setProductoId(p);
+			detalle.setNombreProducto("Producto " + p);
+			detalle.setPrecioUnitario(1000.0);
+			detalle.setCantidad(1);
+			detalles.add(detalle);
+		}
+		boleta.setDetalles(detalles);
+		return boleta;
+	}
+}
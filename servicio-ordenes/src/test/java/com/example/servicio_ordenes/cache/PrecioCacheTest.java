@@ -0,0 +1,184 @@
+package com.example.servicio_ordenes.cache;
+
+import com.example.servicio_ordenes.client.CatalogoClient;
+import com.example.servicio_ordenes.dto.CambiosPrecioDTO;
+import com.example.servicio_ordenes.dto.PrecioDTO;
+import com.example.servicio_ordenes.dto.PreciosDTO;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PrecioCacheTest {
+
+	private CatalogoClient catalogoClient;
+	private PrecioCache cache;
+
+	// Lo que "responde" el catálogo simulado
+	private long epoch = 1;
+	private long version = 10;
+	private final Map<Integer, Double> preciosCatalogo = new HashMap<>();
+
+	@BeforeEach
+	void crear() {
+		catalogoClient = mock(CatalogoClient.class);
+		when(catalogoClient.obtenerPrecios(anyCollection()))
+			.thenAnswer(invocacion -> precios(invocacion.getArgument(0)));
+		preciosCatalogo.put(1, 1000.0);
+		preciosCatalogo.put(2, 2000.0);
+		preciosCatalogo.put(3, 3000.0);
+		cache = new PrecioCache(catalogoClient, Duration.ofMinutes(5));
+	}
+
+	@Test
+	void loGuardadoNoVuelveAPedirse() {
+		cache.obtener(List.of(1, 2));
+		clearInvocations(catalogoClient);
+
+		assertEquals(2000.0, cache.obtener(List.of(2, 1)).get(2).getPrecioFinal());
+		verify(catalogoClient, never()).obtenerPrecios(anyCollection());
+	}
+
+	@Test
+	void soloSePideLoQueFalta() {
+		cache.obtener(List.of(1));
+		clearInvocations(catalogoClient);
+
+		Map<Integer, PrecioDTO> resultado = cache.obtener(List.of(1, 3, 3));
+
+		assertEquals(Set.of(1, 3), resultado.keySet());
+		verify(catalogoClient).obtenerPrecios(List.of(3));
+	}
+
+	@Test
+	void sincronizarBorraSoloLosQueCambiaron() {
+		cache.obtener(List.of(1, 2, 3));
+		preciosCatalogo.put(2, 2500.0);
+		cambios(epoch, 11, List.of(2), false);
+
+		cache.sincronizar();
+		clearInvocations(catalogoClient);
+
+		assertEquals(2500.0, cache.obtener(List.of(1, 2, 3)).get(2).getPrecioFinal());
+		verify(catalogoClient).obtenerPrecios(List.of(2));
+		// La siguiente pregunta parte desde la versión ya aplicada
+		cache.sincronizar();
+		verify(catalogoClient).cambiosDePrecio(epoch, 11);
+	}
+
+	@Test
+	void sincronizarCompletoBorraTodo() {
+		cache.obtener(List.of(1, 2));
+		cambios(epoch, 50, List.of(), true);
+
+		cache.sincronizar();
+		clearInvocations(catalogoClient);
+
+		cache.obtener(List.of(1, 2));
+		verify(catalogoClient).obtenerPrecios(List.of(1, 2));
+	}
+
+	@Test
+	void siElCatalogoSeReinicioSeDescartaLoAnterior() {
+		cache.obtener(List.of(1, 2));
+
+		// Catálogo reiniciado: otro epoch y la versión vuelve a empezar
+		epoch = 2;
+		version = 0;
+		preciosCatalogo.put(1, 1100.0);
+		cache.obtener(List.of(3));
+		clearInvocations(catalogoClient);
+
+		assertEquals(1100.0, cache.obtener(List.of(1, 3)).get(1).getPrecioFinal());
+		verify(catalogoClient).obtenerPrecios(List.of(1));
+	}
+
+	@Test
+	void unaLecturaAnteriorALoYaAplicadoNoSeGuarda() {
+		cache.obtener(List.of(1));
+		cambios(epoch, 20, List.of(), false);
+		cache.sincronizar();
+
+		// Respuesta leída antes de la versión 20: se usa, pero no se guarda
+		version = 15;
+		assertEquals(2000.0, cache.obtener(List.of(2)).get(2).getPrecioFinal());
+		clearInvocations(catalogoClient);
+
+		cache.obtener(List.of(2));
+		verify(catalogoClient).obtenerPrecios(List.of(2));
+	}
+
+	@Test
+	void sinCatalogoSeMantieneLoGuardado() {
+		cache.obtener(List.of(1));
+		when(catalogoClient.cambiosDePrecio(anyLong(), anyLong())).thenThrow(new RuntimeException("Connection refused"));
+
+		cache.sincronizar();
+		clearInvocations(catalogoClient);
+
+		assertTrue(cache.obtener(List.of(1)).containsKey(1));
+		verify(catalogoClient, never()).obtenerPrecios(anyCollection());
+	}
+
+	@Test
+	void sinNadaGuardadoNoSePregunta() {
+		cache.sincronizar();
+
+		verify(catalogoClient, never()).cambiosDePrecio(anyLong(), anyLong());
+	}
+
+	@Test
+	void cadaPrecioVence() throws InterruptedException {
+		cache = new PrecioCache(catalogoClient, Duration.ofMillis(50));
+		cache.obtener(List.of(1));
+		Thread.sleep(100);
+		clearInvocations(catalogoClient);
+
+		cache.obtener(List.of(1));
+		verify(catalogoClient).obtenerPrecios(List.of(1));
+	}
+
+	// --- Utilidades ---
+
+	private PreciosDTO precios(Collection<Integer> ids) {
+		PreciosDTO respuesta = new PreciosDTO();
+		respuesta.setEpoch(epoch);
+		respuesta.setVersion(version);
+		respuesta.setPrecios(ids.stream().filter(preciosCatalogo::containsKey).map(this::precio).toList());
+		return respuesta;
+	}
+
+	private PrecioDTO precio(Integer id) {
+		PrecioDTO precio = new PrecioDTO();
+		precio.setId(id);
+		precio.setNombre("Producto " + id);
+		precio.setPrecio(preciosCatalogo.get(id));
+		precio.setPrecioFinal(preciosCatalogo.get(id));
+		return precio;
+	}
+
+	private void cambios(long epochRespuesta, long versionRespuesta, List<Integer> ids, boolean completo) {
+		CambiosPrecioDTO cambios = new CambiosPrecioDTO();
+		cambios.setEpoch(epochRespuesta);
+		cambios.setVersion(versionRespuesta);
+		cambios.setIds(ids);
+		cambios.setCompleto(completo);
+		when(catalogoClient.cambiosDePrecio(anyLong(), anyLong())).thenReturn(cambios);
+	}
+}
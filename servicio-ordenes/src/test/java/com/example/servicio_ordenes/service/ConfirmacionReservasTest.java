@@ -0,0 +1,97 @@
+package com.example.servicio_ordenes.service;
+
+import com.example.servicio_ordenes.client.CatalogoClient;
+import com.example.servicio_ordenes.entity.Boleta;
+import com.example.servicio_ordenes.repository.BoletaRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/** Confirmación de reservas contra la BD real, con catálogo simulado. */
+@SpringBootTest
+@ActiveProfiles("test")
+class ConfirmacionReservasTest {
+
+	@MockitoBean
+	private CatalogoClient catalogoClient;
+
+	@Autowired
+	private ConfirmacionReservas confirmacion;
+
+	@Autowired
+	private BoletaRepository boletaRepository;
+
+	@BeforeEach
+	void limpiar() {
+		boletaRepository.deleteAll();
+	}
+
+	@Test
+	void confirmadaDejaDeEstarPendiente() {
+		Integer boletaId = guardarConReserva(5);
+
+		assertTrue(confirmacion.confirmar(boletaId, 5));
+
+		assertNull(boletaRepository.findById(boletaId).orElseThrow().getReservaPendiente());
+	}
+
+	@Test
+	void siCatalogoNoRespondeQuedaParaElReintento() {
+		Integer boletaId = guardarConReserva(5);
+		doThrow(new RuntimeException("Connection refused")).when(catalogoClient).confirmar(5);
+
+		assertFalse(confirmacion.confirmar(boletaId, 5));
+
+		Boleta boleta = boletaRepository.findById(boletaId).orElseThrow();
+		assertEquals(5, boleta.getReservaPendiente());
+		assertNull(boleta.getReservaRechazada());
+	}
+
+	@Test
+	void rechazadaQuedaMarcadaYNoSeReintenta() {
+		Integer rechazada = guardarConReserva(5);
+		Integer otra = guardarConReserva(6);
+		doThrow(new IllegalStateException("Reserva 5 liberada")).when(catalogoClient).confirmar(5);
+
+		confirmacion.reintentarPendientes();
+
+		// No se da por confirmada: sigue con su reserva y con la fecha del rechazo
+		Boleta boleta = boletaRepository.findById(rechazada).orElseThrow();
+		assertEquals(5, boleta.getReservaPendiente());
+		assertNotNull(boleta.getReservaRechazada());
+		// El rechazo no detiene al resto del lote
+		assertNull(boletaRepository.findById(otra).orElseThrow().getReservaPendiente());
+
+		confirmacion.reintentarPendientes();
+		verify(catalogoClient, times(1)).confirmar(5);
+		assertEquals(List.of(), boletaRepository.reservasPendientes(Limit.of(10)));
+	}
+
+	private Integer guardarConReserva(int reservaId) {
+		Boleta boleta = new Boleta();
+		boleta.setUsuarioId(7);
+		boleta.setTotal(1000.0);
+		boleta.setRegionEnvio("Metropolitana");
+		boleta.setComunaEnvio("Santiago");
+		boleta.setCalleEnvio("Calle 1");
+		boleta.setReservaPendiente(reservaId);
+		boleta.setDetalles(List.of());
+		return boletaRepository.save(boleta).getId();
+	}
+}
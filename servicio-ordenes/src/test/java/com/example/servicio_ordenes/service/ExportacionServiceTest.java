@@ -0,0 +1,208 @@
+package com.example.servicio_ordenes.service;
+
+import com.example.servicio_ordenes.entity.Boleta;
+import com.example.servicio_ordenes.entity.BoletaDetalle;
+import com.example.servicio_ordenes.repository.BoletaRepository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Exportación en streaming: NDJSON agrupa las filas del cursor en una línea
+ * por boleta, y CSV escapa comas, comillas y saltos de línea (RFC 4180).
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ExportacionServiceTest {
+
+	private static final LocalDate DIA = LocalDate.of(2025, 5, 20);
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private ExportacionService exportacionService;
+
+	@Autowired
+	private BoletaRepository boletaRepository;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private Integer conTres;
+	private Integer sinDetalles;
+	private Integer raro;
+
+	@BeforeEach
+	void crearBoletas() {
+		boletaRepository.deleteAll();
+		conTres = guardar(DIA.atTime(9, 0), "Calle 1", "Producto 1", "Producto 2", "Producto 3");
+		sinDetalles = guardar(DIA.atTime(12, 0), "Calle 2");
+		raro = guardar(DIA.atTime(23, 59, 59), "Pasaje \"Los Aromos\", casa 3\nal fondo",
+			"Oso \"Gigante\", rosado", "Conejo\r\nde peluche");
+		guardar(DIA.plusDays(1).atTime(0, 0), "Calle fuera del rango", "Producto 9");
+	}
+
+	@Test
+	void ndjsonUnaLineaPorBoletaConSusDetalles() throws Exception {
+		String[] lineas = exportar(ExportacionService.Formato.NDJSON).split("\n");
+
+		assertEquals(3, lineas.length);
+		JsonNode primera = objectMapper.readTree(lineas[0]);
+		assertEquals(conTres, primera.get("id").asInt());
+		assertEquals(3, primera.get("detalles").size());
+		assertEquals("Producto 2", primera.get("detalles").get(1).get("nombreProducto").asText());
+
+		JsonNode vacia = objectMapper.readTree(lineas[1]);
+		assertEquals(sinDetalles, vacia.get("id").asInt());
+		assertEquals(0, vacia.get("detalles").size());
+
+		JsonNode ultima = objectMapper.readTree(lineas[2]);
+		assertEquals(raro, ultima.get("id").asInt());
+		assertEquals("Oso \"Gigante\", rosado", ultima.get("detalles").get(0).get("nombreProducto").asText());
+		assertEquals("Pasaje \"Los Aromos\", casa 3\nal fondo", ultima.get("calleEnvio").asText());
+	}
+
+	@Test
+	void csvUnaFilaPorDetalleYEscapaLosCampos() throws Exception {
+		List<List<String>> filas = leerCsv(exportar(ExportacionService.Formato.CSV));
+
+		assertEquals("boleta_id", filas.get(0).get(0));
+		assertEquals(12, filas.get(0).size());
+		// 3 detalles + 1 boleta sin detalles + 2 detalles
+		assertEquals(1 + 3 + 1 + 2, filas.size());
+		filas.forEach(fila -> assertEquals(12, fila.size()));
+
+		List<String> sinProductos = filas.get(4);
+		assertEquals(String.valueOf(sinDetalles), sinProductos.get(0));
+		assertEquals("", sinProductos.get(8));
+
+		List<String> oso = filas.get(5);
+		assertEquals(String.valueOf(raro), oso.get(0));
+		assertEquals("Pasaje \"Los Aromos\", casa 3\nal fondo", oso.get(4));
+		assertEquals("Oso \"Gigante\", rosado", oso.get(9));
+		assertEquals("Conejo\r\nde peluche", filas.get(6).get(9));
+	}
+
+	@Test
+	void elEndpointEscribeElArchivo() throws Exception {
+		MvcResult inicio = mvc.perform(get("/api/boletas/export")
+				.param("from", DIA.toString()).param("to", DIA.toString()).param("format", "csv"))
+			.andExpect(request().asyncStarted())
+			.andReturn();
+
+		MvcResult respuesta = mvc.perform(asyncDispatch(inicio))
+			.andExpect(status().isOk())
+			.andExpect(header().string(HttpHeaders.CONTENT_TYPE, "text/csv;charset=UTF-8"))
+			.andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"boletas.csv\""))
+			.andReturn();
+		assertEquals(7, leerCsv(respuesta.getResponse().getContentAsString(StandardCharsets.UTF_8)).size());
+	}
+
+	@Test
+	void parametrosInvalidos() throws Exception {
+		mvc.perform(get("/api/boletas/export").param("format", "xml"))
+			.andExpect(status().isBadRequest())
+			.andExpect(jsonPath("$.error").exists());
+		mvc.perform(get("/api/boletas/export").param("from", "2025-05-21").param("to", "2025-05-20"))
+			.andExpect(status().isBadRequest());
+		mvc.perform(get("/api/boletas/export").param("from", "20-05-2025"))
+			.andExpect(status().isBadRequest());
+	}
+
+	// --- Utilidades ---
+
+	private String exportar(ExportacionService.Formato formato) throws Exception {
+		ByteArrayOutputStream salida = new ByteArrayOutputStream();
+		exportacionService.exportar(DIA, DIA, formato, salida);
+		return salida.toString(StandardCharsets.UTF_8);
+	}
+
+	/** Lector RFC 4180 mínimo: comillas dobles, "" dentro de comillas y CRLF entre filas. */
+	private static List<List<String>> leerCsv(String texto) {
+		List<List<String>> filas = new ArrayList<>();
+		List<String> fila = new ArrayList<>();
+		StringBuilder campo = new StringBuilder();
+		boolean entreComillas = false;
+		for (int i = 0; i < texto.length(); i++) {
+			char c = texto.charAt(i);
+			if (entreComillas) {
+				if (c == '"' && i + 1 < texto.length() && texto.charAt(i + 1) == '"') {
+					campo.append('"');
+					i++;
+				} else if (c == '"') {
+					entreComillas = false;
+				} else {
+					campo.append(c);
+				}
+			} else if (c == '"') {
+				entreComillas = true;
+			} else if (c == ',') {
+				fila.add(campo.toString());
+				campo.setLength(0);
+			} else if (c == '\r' && i + 1 < texto.length() && texto.charAt(i + 1) == '\n') {
+				fila.add(campo.toString());
+				campo.setLength(0);
+				filas.add(fila);
+				fila = new ArrayList<>();
+				i++;
+			} else {
+				assertTrue(c != '\n' && c != '\r', "Salto de línea sin comillas en la fila " + filas.size());
+				campo.append(c);
+			}
+		}
+		assertTrue(fila.isEmpty() && campo.length() == 0, "La última fila no termina en CRLF");
+		return filas;
+	}
+
+	private Integer guardar(LocalDateTime fecha, String calle, String... productos) {
+		Boleta boleta = new Boleta();
+		boleta.setUsuarioId(7);
+		boleta.setFechaCompra(fecha);
+		boleta.setCalleEnvio(calle);
+		boleta.setRegionEnvio("Metropolitana");
+		boleta.setComunaEnvio("Santiago");
+		List<BoletaDetalle> detalles = new ArrayList<>();
+		double total = 0;
+		for (int i = 0; i < productos.length; i++) {
+			BoletaDetalle detalle = new BoletaDetalle();
+			detalle.setBoleta(boleta);
+			detalle.setProductoId(i + 1);
+			detalle.setNombreProducto(productos[i]);
+			detalle.setCantidad(1);
+			detalle.setPrecioUnitario(1000.0);
+			detalles.add(detalle);
+			total += 1000.0;
+		}
+		boleta.setDetalles(detalles);
+		boleta.setTotal(total);
+		return boletaRepository.save(boleta).getId();
+	}
+}
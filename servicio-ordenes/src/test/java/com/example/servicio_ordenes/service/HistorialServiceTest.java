@@ -0,0 +1,212 @@
+package com.example.servicio_ordenes.service;
+
+import com.example.comun.security.Sesion;
+import com.example.comun.security.TokenEmisor;
+import com.example.servicio_ordenes.dto.BoletaResumenDTO;
+import com.example.servicio_ordenes.dto.PaginaBoletasDTO;
+import com.example.servicio_ordenes.entity.Boleta;
+import com.example.servicio_ordenes.entity.BoletaDetalle;
+import com.example.servicio_ordenes.repository.BoletaRepository;
+
+import com.jayway.jsonpath.JsonPath;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Historial por cursor: recorrer todas las páginas entrega cada boleta del
+ * usuario una sola vez y en orden (fecha desc, id desc), también con fechas
+ * repetidas y con compras nuevas llegando a mitad del recorrido.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class HistorialServiceTest {
+
+	private static final int USUARIO = 31;
+	private static final int OTRO_USUARIO = 32;
+	private static final LocalDateTime INICIO = LocalDateTime.of(2025, 3, 1, 10, 0);
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private HistorialService historialService;
+
+	@Autowired
+	private BoletaRepository boletaRepository;
+
+	@Autowired
+	private TokenEmisor tokenEmisor;
+
+	// Las boletas del usuario, ya en el orden en que debe entregarlas el historial
+	private List<Boleta> esperadas;
+
+	@BeforeEach
+	void crearBoletas() {
+		boletaRepository.deleteAll();
+		List<Boleta> delUsuario = new ArrayList<>();
+		for (int i = 0; i < 25; i++) {
+			// De a tres por la misma fecha: el id desempata, también en el borde de una página
+			delUsuario.add(boletaRepository.save(boleta(USUARIO, INICIO.plusHours(i / 3), 1 + i % 3)));
+			boletaRepository.save(boleta(OTRO_USUARIO, INICIO.plusHours(i / 3), 1));
+		}
+		esperadas = delUsuario.stream()
+			.sorted(Comparator.comparing(Boleta::getFechaCompra).thenComparing(Boleta::getId).reversed())
+			.toList();
+	}
+
+	@Test
+	void recorrerTodasLasPaginasEntregaCadaBoletaUnaVez() {
+		for (int limite : new int[] {1, 3, 7, 25, 100}) {
+			assertEquals(ids(esperadas), ids(recorrer(limite, false)), "limit=" + limite);
+		}
+	}
+
+	@Test
+	void lasComprasNuevasNoMuevenElRecorrido() {
+		PaginaBoletasDTO primera = historialService.pagina(USUARIO, null, 10, false);
+		// Llega una compra nueva (y otra con la misma fecha que el borde de la página)
+		Boleta nueva = boletaRepository.save(boleta(USUARIO, INICIO.plusDays(1), 1));
+		Boleta empatada = boletaRepository.save(boleta(USUARIO, primera.getBoletas().get(9).getFechaCompra(), 1));
+
+		List<BoletaResumenDTO> vistas = new ArrayList<>(primera.getBoletas());
+		String cursor = primera.getSiguiente();
+		while (cursor != null) {
+			PaginaBoletasDTO pagina = historialService.pagina(USUARIO, cursor, 10, false);
+			vistas.addAll(pagina.getBoletas());
+			cursor = pagina.getSiguiente();
+		}
+
+		// La nueva es más reciente que el cursor; la empatada tiene un id mayor que el
+		// de la última boleta entregada, así que también queda "antes" del cursor
+		assertEquals(ids(esperadas), ids(vistas));
+		assertEquals(List.of(nueva.getId()), ids(historialService.pagina(USUARIO, null, 1, false).getBoletas()));
+		assertTrue(ids(recorrer(100, false)).contains(empatada.getId()));
+	}
+
+	@Test
+	void losDetallesSoloSiSePiden() {
+		PaginaBoletasDTO sin = historialService.pagina(USUARIO, null, 5, false);
+		sin.getBoletas().forEach(boleta -> assertNull(boleta.getDetalles()));
+
+		for (BoletaResumenDTO boleta : recorrer(4, true)) {
+			Boleta guardada = esperadas.stream().filter(b -> b.getId().equals(boleta.getId())).findFirst().orElseThrow();
+			assertEquals(guardada.getDetalles().size(), boleta.getDetalles().size(), "boleta " + boleta.getId());
+			assertEquals("Producto 1", boleta.getDetalles().get(0).getNombreProducto());
+		}
+	}
+
+	@Test
+	void cursorOLimiteInvalidos() {
+		assertThrows(IllegalArgumentException.class, () -> historialService.pagina(USUARIO, "no-es-un-cursor", 10, false));
+		assertThrows(IllegalArgumentException.class, () -> historialService.pagina(USUARIO, null, 0, false));
+		assertThrows(IllegalArgumentException.class,
+			() -> historialService.pagina(USUARIO, null, HistorialService.LIMITE_MAXIMO + 1, false));
+	}
+
+	@Test
+	void elEndpointRecorreConElCursor() throws Exception {
+		String token = token(USUARIO, "Cliente");
+		List<Integer> vistas = new ArrayList<>();
+		String cursor = null;
+		do {
+			var pedido = get("/api/boletas/usuario/{id}", USUARIO).param("limit", "10")
+				.header("Authorization", "Bearer " + token);
+			if (cursor != null) {
+				pedido.param("cursor", cursor);
+			}
+			String json = mvc.perform(pedido)
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.boletas[0].detalles").doesNotExist())
+				.andReturn().getResponse().getContentAsString();
+			vistas.addAll(JsonPath.read(json, "$.boletas[*].id"));
+			cursor = JsonPath.read(json, "$.siguiente");
+		} while (cursor != null);
+
+		assertEquals(ids(esperadas), vistas);
+	}
+
+	@Test
+	void elEndpointValidaYProtege() throws Exception {
+		mvc.perform(get("/api/boletas/usuario/{id}", USUARIO).param("cursor", "%%%")
+				.header("Authorization", "Bearer " + token(USUARIO, "Cliente")))
+			.andExpect(status().isBadRequest())
+			.andExpect(jsonPath("$.error").value("Cursor inválido."));
+		mvc.perform(get("/api/boletas/usuario/{id}", USUARIO).param("limit", "0")
+				.header("Authorization", "Bearer " + token(USUARIO, "Cliente")))
+			.andExpect(status().isBadRequest());
+		mvc.perform(get("/api/boletas/usuario/{id}", USUARIO)
+				.header("Authorization", "Bearer " + token(OTRO_USUARIO, "Cliente")))
+			.andExpect(status().isForbidden());
+		mvc.perform(get("/api/boletas/usuario/{id}", USUARIO).param("detalles", "true")
+				.header("Authorization", "Bearer " + token(OTRO_USUARIO, "Administrador")))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.boletas.length()").value(20))
+			.andExpect(jsonPath("$.boletas[0].detalles").isArray());
+	}
+
+	// --- Utilidades ---
+
+	private List<BoletaResumenDTO> recorrer(int limite, boolean conDetalles) {
+		List<BoletaResumenDTO> vistas = new ArrayList<>();
+		String cursor = null;
+		do {
+			PaginaBoletasDTO pagina = historialService.pagina(USUARIO, cursor, limite, conDetalles);
+			assertTrue(pagina.getBoletas().size() <= limite);
+			vistas.addAll(pagina.getBoletas());
+			cursor = pagina.getSiguiente();
+		} while (cursor != null);
+		return vistas;
+	}
+
+	private static List<Integer> ids(List<?> boletas) {
+		return boletas.stream()
+			.map(b -> b instanceof Boleta boleta ? boleta.getId() : ((BoletaResumenDTO) b).getId())
+			.toList();
+	}
+
+	private String token(int usuarioId, String rol) {
+		return tokenEmisor.emitir(new Sesion(usuarioId, "usuario" + usuarioId + "@peluchemania.cl", rol)).getValor();
+	}
+
+	private static Boleta boleta(int usuarioId, LocalDateTime fecha, int productos) {
+		Boleta boleta = new Boleta();
+		boleta.setUsuarioId(usuarioId);
+		boleta.setFechaCompra(fecha);
+		boleta.setTotal(1000.0 * productos);
+		boleta.setRegionEnvio("Metropolitana");
+		boleta.setComunaEnvio("Santiago");
+		boleta.setCalleEnvio("Calle 1");
+		List<BoletaDetalle> detalles = new ArrayList<>();
+		for (int p = 1; p <= productos; p++) {
+			BoletaDetalle detalle = new BoletaDetalle();
+			detalle.setBoleta(boleta);
+			detalle.setProductoId(p);
+			detalle.setNombreProducto("Producto " + p);
+			detalle.setCantidad(1);
+			detalle.setPrecioUnitario(1000.0);
+			detalles.add(detalle);
+		}
+		boleta.setDetalles(detalles);
+		return boleta;
+	}
+}
@@ -0,0 +1,182 @@
+package com.example.servicio_ordenes.service;
+
+import com.example.servicio_ordenes.dto.CheckoutItemDTO;
+import com.example.servicio_ordenes.dto.PurchaseRequestDTO;
+import com.example.servicio_ordenes.repository.BoletaRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdempotenciaServiceTest {
+
+	private OrdenesService ordenesService;
+	private BoletaRepository boletaRepository;
+	private IdempotenciaService idempotencia;
+
+	@BeforeEach
+	void crear() {
+		ordenesService = mock(OrdenesService.class);
+		boletaRepository = mock(BoletaRepository.class);
+		when(boletaRepository.findCompraIdempotente(anyInt(), anyString())).thenReturn(Optional.empty());
+		idempotencia = nuevoServicio();
+	}
+
+	@Test
+	void unReintentoDevuelveLaMismaBoletaSinVolverAComprar() throws Exception {
+		when(ordenesService.processPurchase(any(), eq("k1"), anyString())).thenReturn(10);
+
+		assertEquals(10, idempotencia.procesarUnaVez("k1", compra(1, 2)));
+		assertEquals(10, idempotencia.procesarUnaVez("k1", compra(1, 2)));
+
+		verify(ordenesService, times(1)).processPurchase(any(), anyString(), anyString());
+	}
+
+	@Test
+	void laMismaClaveConOtroCarritoSeRechaza() throws Exception {
+		when(ordenesService.processPurchase(any(), eq("k1"), anyString())).thenReturn(10);
+		idempotencia.procesarUnaVez("k1", compra(1, 2));
+
+		assertThrows(IdempotenciaService.ClaveReutilizadaException.class,
+			() -> idempotencia.procesarUnaVez("k1", compra(1, 3)));
+	}
+
+	@Test
+	void laClaveEsDeCadaUsuario() throws Exception {
+		when(ordenesService.processPurchase(any(), eq("k1"), anyString())).thenReturn(10, 11);
+
+		assertEquals(10, idempotencia.procesarUnaVez("k1", compra(1, 2)));
+		assertEquals(11, idempotencia.procesarUnaVez("k1", compra(2, 2)));
+	}
+
+	@Test
+	void siNoEstaEnMemoriaLaBuscaEnLaBd() throws Exception {
+		String huella = IdempotenciaService.huella(compra(1, 2));
+		when(boletaRepository.findCompraIdempotente(1, "k1")).thenReturn(Optional.of(guardada(10, huella)));
+
+		assertEquals(10, idempotencia.procesarUnaVez("k1", compra(1, 2)));
+		verify(ordenesService, never()).processPurchase(any(), anyString(), anyString());
+	}
+
+	@Test
+	void enLaBdTambienSeComparaLaHuella() {
+		when(boletaRepository.findCompraIdempotente(1, "k1"))
+			.thenReturn(Optional.of(guardada(10, IdempotenciaService.huella(compra(1, 3)))));
+
+		assertThrows(IdempotenciaService.ClaveReutilizadaException.class,
+			() -> idempotencia.procesarUnaVez("k1", compra(1, 2)));
+	}
+
+	@Test
+	void lasBoletasSinHuellaSeAceptan() throws Exception {
+		when(boletaRepository.findCompraIdempotente(1, "k1")).thenReturn(Optional.of(guardada(10, null)));
+
+		assertEquals(10, idempotencia.procesarUnaVez("k1", compra(1, 2)));
+	}
+
+	@Test
+	void unaCompraFallidaSePuedeReintentar() throws Exception {
+		when(ordenesService.processPurchase(any(), eq("k1"), anyString()))
+			.thenThrow(new IllegalStateException("Sin stock"))
+			.thenReturn(10);
+
+		assertThrows(IllegalStateException.class, () -> idempotencia.procesarUnaVez("k1", compra(1, 2)));
+		assertEquals(10, idempotencia.procesarUnaVez("k1", compra(1, 2)));
+	}
+
+	@Test
+	void elReintentoConcurrenteEsperaALaPrimera() throws Exception {
+		CountDownLatch comprando = new CountDownLatch(1);
+		CountDownLatch terminar = new CountDownLatch(1);
+		when(ordenesService.processPurchase(any(), eq("k1"), anyString())).thenAnswer(invocacion -> {
+			comprando.countDown();
+			terminar.await(5, TimeUnit.SECONDS);
+			return 10;
+		});
+
+		CompletableFuture<Integer> primera = CompletableFuture.supplyAsync(() -> procesar("k1", compra(1, 2)));
+		assertTrue(comprando.await(5, TimeUnit.SECONDS));
+		CompletableFuture<Integer> reintento = CompletableFuture.supplyAsync(() -> procesar("k1", compra(1, 2)));
+		terminar.countDown();
+
+		assertEquals(10, primera.get(5, TimeUnit.SECONDS));
+		assertEquals(10, reintento.get(5, TimeUnit.SECONDS));
+		verify(ordenesService, times(1)).processPurchase(any(), anyString(), anyString());
+	}
+
+	@Test
+	void siOtraInstanciaGanaLaCarreraDevuelveSuBoleta() throws Exception {
+		String huella = IdempotenciaService.huella(compra(1, 2));
+		when(boletaRepository.findCompraIdempotente(1, "k1"))
+			.thenReturn(Optional.empty())
+			.thenReturn(Optional.of(guardada(20, huella)));
+		when(ordenesService.processPurchase(any(), eq("k1"), anyString()))
+			.thenThrow(new DataIntegrityViolationException("uk_boletas_usuario_idempotency_key"));
+
+		assertEquals(20, idempotencia.procesarUnaVez("k1", compra(1, 2)));
+	}
+
+	@Test
+	void validaElLargoDeLaClave() {
+		assertThrows(IllegalArgumentException.class, () -> idempotencia.procesarUnaVez(" ", compra(1, 2)));
+		assertThrows(IllegalArgumentException.class, () -> idempotencia.procesarUnaVez("k".repeat(65), compra(1, 2)));
+	}
+
+	// --- Utilidades ---
+
+	private IdempotenciaService nuevoServicio() {
+		return new IdempotenciaService(ordenesService, boletaRepository, 100, Duration.ofHours(1), Duration.ofSeconds(5));
+	}
+
+	private Integer procesar(String clave, PurchaseRequestDTO request) {
+		try {
+			return idempotencia.procesarUnaVez(clave, request);
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static PurchaseRequestDTO compra(int usuarioId, int cantidad) {
+		CheckoutItemDTO item = new CheckoutItemDTO();
+		item.setId(1);
+		item.setQuantity(cantidad);
+		PurchaseRequestDTO request = new PurchaseRequestDTO();
+		request.setUserId(usuarioId);
+		request.setCartItems(List.of(item));
+		return request;
+	}
+
+	private static BoletaRepository.CompraIdempotente guardada(Integer boletaId, String huella) {
+		return new BoletaRepository.CompraIdempotente() {
+			@Override
+			public Integer getBoletaId() {
+				return boletaId;
+			}
+
+			@Override
+			public String getHuella() {
+				return huella;
+			}
+		};
+	}
+}
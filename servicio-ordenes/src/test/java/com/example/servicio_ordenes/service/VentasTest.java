@@ -0,0 +1,272 @@
+package com.example.servicio_ordenes.service;
+
+import com.example.servicio_ordenes.dto.ResumenVentasDTO;
+import com.example.servicio_ordenes.dto.TopProductoDTO;
+import com.example.servicio_ordenes.dto.VentasPeriodoDTO;
+import com.example.servicio_ordenes.entity.Boleta;
+import com.example.servicio_ordenes.entity.BoletaDetalle;
+import com.example.servicio_ordenes.repository.BoletaRepository;
+import com.example.servicio_ordenes.repository.VentaDiariaRepository;
+import com.example.servicio_ordenes.repository.VentaProductoDiariaRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Los reportes salen del rollup (ventas_diarias, ventas_producto_diarias):
+ * aquí se comparan con lo que dan las boletas mismas, sumadas a mano, tanto
+ * con el rollup incremental (registrar en cada compra) como reconstruido.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class VentasTest {
+
+	private static final LocalDate INICIO = LocalDate.of(2025, 1, 1);
+	private static final int DIAS = 90;
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private VentasService ventasService;
+
+	@Autowired
+	private VentasRollup ventasRollup;
+
+	@Autowired
+	private BoletaRepository boletaRepository;
+
+	@Autowired
+	private VentaDiariaRepository ventaDiariaRepository;
+
+	@Autowired
+	private VentaProductoDiariaRepository ventaProductoDiariaRepository;
+
+	@Autowired
+	private TransactionTemplate transaction;
+
+	// Las boletas tal como se guardaron: contra esto se comparan los reportes
+	private final List<Boleta> boletas = new ArrayList<>();
+
+	@BeforeEach
+	void comprar() {
+		ventaProductoDiariaRepository.deleteAll();
+		ventaDiariaRepository.deleteAll();
+		boletaRepository.deleteAll();
+
+		Random azar = new Random(42);
+		for (int i = 0; i < 120; i++) {
+			Boleta boleta = boleta(INICIO.plusDays(azar.nextInt(DIAS)), azar);
+			// Igual que processPurchase: la boleta y el rollup en la misma transacción
+			transaction.executeWithoutResult(estado -> {
+				boletaRepository.save(boleta);
+				ventasRollup.registrar(boleta);
+			});
+			boletas.add(boleta);
+		}
+	}
+
+	@Test
+	void totalesIgualesALasBoletas() {
+		verificarTotales();
+	}
+
+	@Test
+	void reconstruidoDaLoMismo() {
+		ventasRollup.reconstruir();
+
+		verificarTotales();
+	}
+
+	@Test
+	void porDiaSemanaYMes() {
+		LocalDate desde = INICIO.plusDays(10);
+		LocalDate hasta = INICIO.plusDays(70);
+
+		verificarPeriodos(desde, hasta, VentasService.Agrupacion.DAY, dia -> dia);
+		verificarPeriodos(desde, hasta, VentasService.Agrupacion.WEEK,
+			dia -> dia.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)));
+		verificarPeriodos(desde, hasta, VentasService.Agrupacion.MONTH, dia -> dia.withDayOfMonth(1));
+	}
+
+	@Test
+	void rankingIgualAlDeLosDetalles() {
+		verificarRanking(null, null, 100);
+		verificarRanking(INICIO.plusDays(20), INICIO.plusDays(40), 3);
+	}
+
+	@Test
+	void rankingReconstruidoDaLoMismo() {
+		ventasRollup.reconstruir();
+
+		verificarRanking(null, null, 100);
+		verificarRanking(INICIO.plusDays(20), INICIO.plusDays(40), 3);
+	}
+
+	@Test
+	void rankingValidaElLimite() throws Exception {
+		assertThrows(IllegalArgumentException.class, () -> ventasService.topProductos(null, null, 0));
+		assertThrows(IllegalArgumentException.class, () -> ventasService.topProductos(null, null, 101));
+		mvc.perform(get("/api/boletas/top-productos").param("limit", "0"))
+			.andExpect(status().isBadRequest());
+		mvc.perform(get("/api/boletas/top-productos").param("limit", "2"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.length()").value(2));
+	}
+
+	@Test
+	void elEndpointDevuelveLoMismo() throws Exception {
+		LocalDate desde = INICIO.plusDays(30);
+		LocalDate hasta = INICIO.plusDays(59);
+		List<Boleta> delRango = entre(desde, hasta);
+
+		mvc.perform(get("/api/boletas/resumen").param("from", desde.toString()).param("to", hasta.toString()))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.boletas").value(delRango.size()))
+			.andExpect(jsonPath("$.total").value(total(delRango)));
+	}
+
+	@Test
+	void parametrosInvalidos() throws Exception {
+		mvc.perform(get("/api/boletas/resumen").param("from", "2025-03-01").param("to", "2025-02-01"))
+			.andExpect(status().isBadRequest());
+		mvc.perform(get("/api/boletas/resumen").param("group", "year"))
+			.andExpect(status().isBadRequest());
+		mvc.perform(get("/api/boletas/resumen").param("from", "01-03-2025"))
+			.andExpect(status().isBadRequest());
+		// Sin rango, /reporte ya no devuelve todas las boletas
+		mvc.perform(get("/api/boletas/reporte"))
+			.andExpect(status().isBadRequest())
+			.andExpect(jsonPath("$.error").exists());
+		mvc.perform(get("/api/boletas/reporte").param("from", "2025-03-01").param("to", "2025-02-01"))
+			.andExpect(status().isBadRequest());
+	}
+
+	// --- Utilidades ---
+
+	private void verificarTotales() {
+		ResumenVentasDTO todo = ventasService.resumen(null, null, null);
+		assertEquals(boletas.size(), todo.getBoletas());
+		assertEquals(total(boletas), todo.getTotal(), 0.001);
+
+		LocalDate desde = INICIO.plusDays(15);
+		LocalDate hasta = INICIO.plusDays(44);
+		ResumenVentasDTO rango = ventasService.resumen(desde, hasta, null);
+		assertEquals(entre(desde, hasta).size(), rango.getBoletas());
+		assertEquals(total(entre(desde, hasta)), rango.getTotal(), 0.001);
+	}
+
+	private void verificarPeriodos(LocalDate desde, LocalDate hasta, VentasService.Agrupacion agrupacion,
+	                               Function<LocalDate, LocalDate> periodo) {
+		Map<LocalDate, double[]> esperado = new TreeMap<>();
+		for (Boleta boleta : entre(desde, hasta)) {
+			double[] suma = esperado.computeIfAbsent(periodo.apply(dia(boleta)), p -> new double[2]);
+			suma[0]++;
+			suma[1] += boleta.getTotal();
+		}
+
+		ResumenVentasDTO resumen = ventasService.resumen(desde, hasta, agrupacion);
+
+		assertEquals(new ArrayList<>(esperado.keySet()), resumen.getPeriodos().stream().map(VentasPeriodoDTO::getPeriodo).toList(),
+			agrupacion.name());
+		for (VentasPeriodoDTO fila : resumen.getPeriodos()) {
+			double[] suma = esperado.get(fila.getPeriodo());
+			assertEquals((long) suma[0], fila.getBoletas(), agrupacion + " " + fila.getPeriodo());
+			assertEquals(suma[1], fila.getTotal(), 0.001, agrupacion + " " + fila.getPeriodo());
+		}
+		assertEquals(entre(desde, hasta).size(), resumen.getBoletas());
+	}
+
+	private void verificarRanking(LocalDate desde, LocalDate hasta, int limite) {
+		// Unidades y total por producto, sumando los detalles de cada boleta del rango
+		Map<Integer, TopProductoDTO> porProducto = new HashMap<>();
+		for (Boleta boleta : desde == null ? boletas : entre(desde, hasta)) {
+			for (BoletaDetalle detalle : boleta.getDetalles()) {
+				TopProductoDTO fila = porProducto.computeIfAbsent(detalle.getProductoId(),
+					id -> new TopProductoDTO(id, detalle.getNombreProducto(), 0, 0));
+				fila.setUnidades(fila.getUnidades() + detalle.getCantidad());
+				fila.setTotal(fila.getTotal() + detalle.getPrecioUnitario() * detalle.getCantidad());
+			}
+		}
+		List<TopProductoDTO> esperado = porProducto.values().stream()
+			.sorted(Comparator.comparingLong(TopProductoDTO::getUnidades).reversed()
+				.thenComparing(Comparator.comparingDouble(TopProductoDTO::getTotal).reversed())
+				.thenComparing(TopProductoDTO::getProductoId))
+			.limit(limite)
+			.toList();
+
+		List<TopProductoDTO> top = ventasService.topProductos(desde, hasta, limite);
+
+		assertEquals(esperado.stream().map(TopProductoDTO::getProductoId).toList(),
+			top.stream().map(TopProductoDTO::getProductoId).toList());
+		for (int i = 0; i < top.size(); i++) {
+			assertEquals(esperado.get(i).getUnidades(), top.get(i).getUnidades());
+			assertEquals(esperado.get(i).getTotal(), top.get(i).getTotal(), 0.001);
+			assertEquals(esperado.get(i).getNombreProducto(), top.get(i).getNombreProducto());
+		}
+	}
+
+	private List<Boleta> entre(LocalDate desde, LocalDate hasta) {
+		return boletas.stream().filter(b -> !dia(b).isBefore(desde) && !dia(b).isAfter(hasta)).toList();
+	}
+
+	private static double total(List<Boleta> boletas) {
+		return boletas.stream().mapToDouble(Boleta::getTotal).sum();
+	}
+
+	private static LocalDate dia(Boleta boleta) {
+		return boleta.getFechaCompra().toLocalDate();
+	}
+
+	private static Boleta boleta(LocalDate dia, Random azar) {
+		Boleta boleta = new Boleta();
+		boleta.setUsuarioId(1 + azar.nextInt(5));
+		boleta.setFechaCompra(dia.atTime(azar.nextInt(24), azar.nextInt(60)));
+		boleta.setRegionEnvio("Metropolitana");
+		boleta.setComunaEnvio("Santiago");
+		boleta.setCalleEnvio("Calle 1");
+		List<BoletaDetalle> detalles = new ArrayList<>();
+		double total = 0;
+		int items = 1 + azar.nextInt(4);
+		for (int i = 0; i < items; i++) {
+			// Un mismo producto puede repetirse en el carrito, y su precio varía entre boletas
+			int productoId = 1 + azar.nextInt(8);
+			BoletaDetalle detalle = new BoletaDetalle();
+			detalle.setBoleta(boleta);
+			detalle.setProductoId(productoId);
+			detalle.setNombreProducto("Producto " + productoId);
+			detalle.setPrecioUnitario(1000.0 * productoId + 10 * azar.nextInt(50));
+			detalle.setCantidad(1 + azar.nextInt(3));
+			detalles.add(detalle);
+			total += detalle.getPrecioUnitario() * detalle.getCantidad();
+		}
+		boleta.setDetalles(detalles);
+		boleta.setTotal(total);
+		return boleta;
+	}
+}
@@ -0,0 +1,105 @@
+package com.example.servicio_reportes.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import lombok.Data;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Cache de resultados de reportes, por tipo de reporte + rango de fechas normalizado.
+ *
+ * - Rango cerrado (termina antes de hoy): esos días ya no cambian, el resultado
+ *   se guarda sin vencimiento (sólo sale por tamaño).
+ * - Rango que incluye hoy (o sin fechas): vence a los "ttlHoy" segundos.
+ * - Single-flight: si llegan varias requests iguales a la vez, sólo la primera
+ *   llama a servicio-ordenes y las demás esperan ese mismo resultado.
+ * - Un error no se guarda: la próxima request vuelve a intentar.
+ */
+@Component
+public class CacheReportes {
+
+    /** Reporte + parámetros. desde/hasta null = sin rango (todas las fechas). */
+    @Data
+    public static final class Clave {
+        private final String reporte;
+        private final LocalDate desde;
+        private final LocalDate hasta;
+        private final String parametros;
+    }
+
+    private final Cache<Clave, CompletableFuture<Object>> resultados;
+
+    public CacheReportes(@Value("${app.reportes.cache.maximo:1000}") long maximo,
+                         @Value("${app.reportes.cache.ttl-hoy:PT15S}") Duration ttlHoy) {
+        long ttlHoyNanos = ttlHoy.toNanos();
+        this.resultados = Caffeine.newBuilder()
+            .maximumSize(maximo)
+            .expireAfter(new Expiry<Clave, CompletableFuture<Object>>() {
+                @Override
+                public long expireAfterCreate(Clave clave, CompletableFuture<Object> valor, long ahora) {
+                    return esCerrado(clave) ? Long.MAX_VALUE : ttlHoyNanos;
+                }
+
+                @Override
+                public long expireAfterUpdate(Clave clave, CompletableFuture<Object> valor, long ahora, long restante) {
+                    return expireAfterCreate(clave, valor, ahora);
+                }
+
+                @Override
+                public long expireAfterRead(Clave clave, CompletableFuture<Object> valor, long ahora, long restante) {
+                    return restante;
+                }
+            })
+            .build();
+    }
+
+    /** Resultado en cache para "clave", o lo calcula con "calcular" (una sola vez aunque lleguen varias). */
+    @SuppressWarnings("unchecked")
+    public <T> T obtener(Clave clave, Supplier<T> calcular) {
+        CompletableFuture<Object> nuevo = new CompletableFuture<>();
+        CompletableFuture<Object> existente = resultados.asMap().putIfAbsent(clave, nuevo);
+        if (existente != null) {
+            return (T) esperar(existente);
+        }
+
+        // Somos los primeros: calculamos y despertamos a los que esperan
+        try {
+            T valor = calcular.get();
+            nuevo.complete(valor);
+            return valor;
+        } catch (RuntimeException e) {
+            resultados.asMap().remove(clave, nuevo);
+            nuevo.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static boolean esCerrado(Clave clave) {
+        return clave.getHasta() != null && clave.getHasta().isBefore(LocalDate.now());
+    }
+
+    private static Object esperar(CompletableFuture<Object> futuro) {
+        try {
+            return futuro.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando el reporte.", e);
+        } catch (ExecutionException e) {
+            // Quien esperaba recibe el mismo error que la llamada original
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
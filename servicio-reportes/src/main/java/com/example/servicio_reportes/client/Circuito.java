@@ -0,0 +1,84 @@
+package com.example.servicio_reportes.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Circuit breaker simple:
+ * - CERRADO: las llamadas pasan. Tras "umbralFallas" fallas seguidas se abre.
+ * - ABIERTO: las llamadas se rechazan al instante durante "tiempoAbierto"
+ *   (no se acumulan hilos esperando a un servicio caído).
+ * - MEDIO_ABIERTO: pasado ese tiempo se deja pasar UNA llamada de prueba;
+ *   si funciona se cierra, si falla vuelve a abrirse.
+ */
+public class Circuito {
+
+    private static final Logger log = LoggerFactory.getLogger(Circuito.class);
+
+    public enum Estado { CERRADO, ABIERTO, MEDIO_ABIERTO }
+
+    private final int umbralFallas;
+    private final long tiempoAbiertoNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private Estado estado = Estado.CERRADO;
+    private int fallasSeguidas;
+    private long abiertoDesde;
+
+    public Circuito(int umbralFallas, Duration tiempoAbierto) {
+        this.umbralFallas = umbralFallas;
+        this.tiempoAbiertoNanos = tiempoAbierto.toNanos();
+    }
+
+    /** true si la llamada puede hacerse (en MEDIO_ABIERTO sólo la primera). */
+    public boolean permiteLlamar() {
+        lock.lock();
+        try {
+            if (estado == Estado.ABIERTO && System.nanoTime() - abiertoDesde >= tiempoAbiertoNanos) {
+                estado = Estado.MEDIO_ABIERTO;
+                return true; // La llamada de prueba
+            }
+            return estado == Estado.CERRADO;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void registrarExito() {
+        lock.lock();
+        try {
+            estado = Estado.CERRADO;
+            fallasSeguidas = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void registrarFalla() {
+        lock.lock();
+        try {
+            fallasSeguidas++;
+            if (estado == Estado.MEDIO_ABIERTO || fallasSeguidas >= umbralFallas) {
+                if (estado != Estado.ABIERTO) {
+                    log.warn("Circuito abierto tras {} fallas seguidas.", fallasSeguidas);
+                }
+                estado = Estado.ABIERTO;
+                abiertoDesde = System.nanoTime();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Estado getEstado() {
+        lock.lock();
+        try {
+            return estado;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
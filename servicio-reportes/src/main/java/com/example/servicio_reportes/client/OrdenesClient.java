@@ -0,0 +1,132 @@
+package com.example.servicio_reportes.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Llamadas GET a servicio-ordenes, protegidas para que un ordenes lento o caído
+ * no se lleve a servicio-reportes con él:
+ * - Concurrencia acotada: a lo más "maxConcurrentes" llamadas a la vez; las demás
+ *   esperan un poco y si no hay cupo se rechazan (en vez de acumular hilos).
+ * - Reintentos con backoff exponencial (+ jitter) ante timeouts, errores de conexión y 5xx.
+ * - Circuit breaker (ver Circuito): tras varias fallas seguidas se rechaza al instante.
+ * En esos casos lanza NoDisponibleException (el controller responde 503).
+ */
+@Component
+public class OrdenesClient {
+
+    private static final Logger log = LoggerFactory.getLogger(OrdenesClient.class);
+
+    /** servicio-ordenes no respondió (caído, lento, circuito abierto o sin cupo). */
+    public static class NoDisponibleException extends RuntimeException {
+        public NoDisponibleException(String mensaje, Throwable causa) {
+            super(mensaje, causa);
+        }
+    }
+
+    private final RestTemplate restTemplate;
+    private final Semaphore cupos;
+    private final Duration esperaMaxima;
+    private final int intentos;
+    private final Duration backoffInicial;
+    private final Circuito circuito;
+
+    @Value("${app.services.ordenes_url}")
+    private String ordenesServiceUrl;
+
+    public OrdenesClient(RestTemplate restTemplate,
+                         @Value("${app.ordenes.max-concurrentes:16}") int maxConcurrentes,
+                         @Value("${app.ordenes.espera-maxima:PT1S}") Duration esperaMaxima,
+                         @Value("${app.ordenes.intentos:3}") int intentos,
+                         @Value("${app.ordenes.backoff-inicial:PT0.2S}") Duration backoffInicial,
+                         @Value("${app.ordenes.circuito.fallas:5}") int umbralFallas,
+                         @Value("${app.ordenes.circuito.abierto:PT30S}") Duration tiempoAbierto) {
+        this.restTemplate = restTemplate;
+        this.cupos = new Semaphore(maxConcurrentes);
+        this.esperaMaxima = esperaMaxima;
+        this.intentos = intentos;
+        this.backoffInicial = backoffInicial;
+        this.circuito = new Circuito(umbralFallas, tiempoAbierto);
+    }
+
+    /**
+     * GET a "ruta" (con query string) de servicio-ordenes.
+     * Un 4xx no se reintenta: se relanza como IllegalArgumentException con el mensaje de ordenes.
+     */
+    public <T> T get(String ruta, Class<T> tipo) {
+        if (!tomarCupo()) {
+            throw new NoDisponibleException("Demasiadas consultas en curso a servicio-ordenes.", null);
+        }
+        try {
+            if (!circuito.permiteLlamar()) {
+                throw new NoDisponibleException("servicio-ordenes no está disponible (circuito abierto).", null);
+            }
+            return getConReintentos(ordenesServiceUrl + ruta, tipo);
+        } finally {
+            cupos.release();
+        }
+    }
+
+    public Circuito.Estado getEstadoCircuito() {
+        return circuito.getEstado();
+    }
+
+    private <T> T getConReintentos(String url, Class<T> tipo) {
+        for (int intento = 1; ; intento++) {
+            try {
+                T respuesta = restTemplate.getForObject(url, tipo);
+                circuito.registrarExito();
+                return respuesta;
+            } catch (HttpClientErrorException e) {
+                // 4xx: ordenes respondió bien, el error es de la consulta
+                circuito.registrarExito();
+                throw new IllegalArgumentException(mensajeDeError(e), e);
+            } catch (RestClientException e) {
+                // Timeout, conexión rechazada o 5xx
+                if (intento >= intentos || !esperar(intento)) {
+                    circuito.registrarFalla();
+                    log.error("servicio-ordenes falló tras {} intentos: {}", intento, e.getMessage());
+                    throw new NoDisponibleException("servicio-ordenes no respondió.", e);
+                }
+            }
+        }
+    }
+
+    private boolean tomarCupo() {
+        try {
+            return cupos.tryAcquire(esperaMaxima.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /** Backoff exponencial con jitter: ~inicial, ~2x, ~4x... Devuelve false si se interrumpió. */
+    private boolean esperar(int intento) {
+        long base = backoffInicial.toMillis() << (intento - 1);
+        long espera = base / 2 + ThreadLocalRandom.current().nextLong(base / 2 + 1);
+        try {
+            Thread.sleep(espera);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static String mensajeDeError(HttpClientErrorException e) {
+        Map<?, ?> cuerpo = e.getResponseBodyAs(Map.class);
+        return cuerpo != null && cuerpo.get("error") != null ? cuerpo.get("error").toString() : e.getMessage();
+    }
+}
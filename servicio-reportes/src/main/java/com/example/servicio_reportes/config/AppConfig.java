@@ -1,14 +1,30 @@
 package com.example.servicio_reportes.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+
 @Configuration
 public class AppConfig {
 
-    @Bean // Esto crea la herramienta "RestTemplate" para hacer llamadas HTTP
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    // Esto crea la herramienta "RestTemplate" para hacer llamadas HTTP.
+    // Usa el HttpClient del JDK: reutiliza las conexiones (keep-alive) en vez
+    // de abrir una por llamada, y tiene timeouts para no colgar hilos si
+    // servicio-ordenes está lento (los reintentos y el circuito están en OrdenesClient).
+    @Bean
+    public RestTemplate restTemplate(@Value("${app.http.connect-timeout:PT2S}") Duration connectTimeout,
+                                     @Value("${app.http.read-timeout:PT10S}") Duration readTimeout) {
+        HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(connectTimeout)
+            .build();
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(httpClient);
+        factory.setReadTimeout(readTimeout);
+        return new RestTemplate(factory);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,42 @@
+package com.example.servicio_reportes.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+
+import com.example.comun.security.TokenFilter;
+import com.example.comun.security.TokenVerificador;
+
+@Configuration
+public class SecurityConfig {
+
+    /**
+     * Mismo modelo que los demás servicios: si la request trae el token de
+     * identidad, TokenFilter lo verifica aquí mismo (sin llamar a identidad).
+     * Las rutas de reportes siguen siendo públicas, como antes.
+     */
+    @Bean
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, TokenVerificador tokenVerificador) throws Exception {
+        http
+            // 1. Deshabilitar CSRF (necesario para APIs REST)
+            .csrf(AbstractHttpConfigurer::disable)
+
+            // Sin sesión HTTP: cada request trae su token
+            .sessionManagement(s -> s.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .addFilterBefore(new TokenFilter(tokenVerificador), UsernamePasswordAuthenticationFilter.class)
+
+            // 2. Todas las rutas públicas
+            .authorizeHttpRequests(auth -> auth
+                .anyRequest().permitAll()
+            )
+
+            // 3. Deshabilitar el pop-up de login del navegador
+            .httpBasic(AbstractHttpConfigurer::disable);
+
+        return http.build();
+    }
+}
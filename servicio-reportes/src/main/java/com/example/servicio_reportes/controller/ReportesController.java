@@ -1,14 +1,17 @@
 package com.example.servicio_reportes.controller;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
-// Importamos el DTO de respuesta
-import com.example.servicio_reportes.dto.ReporteSalesDTO; 
 import com.example.servicio_reportes.service.ReportesService;
+import com.example.servicio_reportes.client.OrdenesClient;
     
-import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 import org.springframework.web.bind.annotation.RequestParam;
 
 @RestController
@@ -22,23 +25,41 @@ public class ReportesController {
     }
 
     // --- ENDPOINT MODIFICADO ---
-    // Ahora devuelve un ReporteSalesDTO, no una List<BoletaDTO>
+    // Ahora devuelve un ReporteSalesDTO, no una List<BoletaDTO> (o 400/503 con "error")
+    // "group" (day, week o month) agrega el desglose por período
     @GetMapping("/sales")
-    public ReporteSalesDTO getReporteVentas(
+    public ResponseEntity<?> getReporteVentas(
             @RequestParam Optional<String> from,
-            @RequestParam Optional<String> to) {
+            @RequestParam Optional<String> to,
+            @RequestParam Optional<String> group) {
         
         // Pasa las fechas al servicio
-        return reportesService.getReporteVentas(from, to);
+        return responder(() -> reportesService.getReporteVentas(from, to, group));
     }
 
-    // --- ENDPOINT /top-products (sigue pendiente) ---
+    // --- ENDPOINT /top-products ---
+    // Los "limit" productos más vendidos del rango (por unidades)
     @GetMapping("/top-products")
-    public List<?> getTopProducts(
+    public ResponseEntity<?> getTopProducts(
             @RequestParam Optional<String> from,
-            @RequestParam Optional<String> to) {
+            @RequestParam Optional<String> to,
+            @RequestParam(defaultValue = "10") int limit) {
         
-        // TODO: Implementar esta lógica más adelante
-        return List.of(); 
+        return responder(() -> reportesService.getTopProducts(from, to, limit));
+    }
+
+    // Si servicio-ordenes no está disponible se responde 503 al instante
+    // (el frontend puede reintentar más tarde) en vez de dejar la request colgada
+    private ResponseEntity<?> responder(Supplier<?> reporte) {
+        try {
+            return ResponseEntity.ok(reporte.get());
+        } catch (IllegalArgumentException e) {
+            // Parámetros inválidos (fechas, group, limit)
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (OrdenesClient.NoDisponibleException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                 .header(HttpHeaders.RETRY_AFTER, "30")
+                                 .body(Map.of("error", "Reporte no disponible por ahora: " + e.getMessage()));
+        }
     }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.example.servicio_reportes.dto;
 
 import lombok.Data;
+import java.util.List;
 
 @Data // Esto nos da getters y setters
 public class ReporteSalesDTO {
@@ -9,6 +10,9 @@ public class ReporteSalesDTO {
     private long num_boletas;
     private Double total_vendido;
 
+    // Desglose por día/semana/mes (sólo si se pidió "group")
+    private List<ResumenVentasDTO.Periodo> periodos;
+
     // Constructor para facilidad de uso
     public ReporteSalesDTO(long num_boletas, Double total_vendido) {
         this.num_boletas = num_boletas;
@@ -0,0 +1,21 @@
+package com.example.servicio_reportes.dto;
+
+import lombok.Data;
+import java.time.LocalDate;
+import java.util.List;
+
+// "Copia" del resumen que calcula servicio-ordenes en GET /api/boletas/resumen
+@Data
+public class ResumenVentasDTO {
+    private long boletas;
+    private double total;
+    private String agrupacion;
+    private List<Periodo> periodos;
+
+    @Data
+    public static class Periodo {
+        private LocalDate periodo;
+        private long boletas;
+        private double total;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.servicio_reportes.dto;
+
+import lombok.Data;
+
+// "Copia" de un elemento de GET /api/boletas/top-productos de servicio-ordenes
+@Data
+public class TopProductoDTO {
+    private Integer productoId;
+    private String nombreProducto;
+    private long unidades;
+    private double total;
+}
@@ -1,56 +1,98 @@
 package com.example.servicio_reportes.service;
 
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import com.example.servicio_reportes.dto.BoletaDTO;
+import com.example.servicio_reportes.cache.CacheReportes;
+import com.example.servicio_reportes.client.OrdenesClient;
+import org.springframework.web.util.UriComponentsBuilder;
 import com.example.servicio_reportes.dto.ReporteSalesDTO; // <-- IMPORTA EL NUEVO DTO
+import com.example.servicio_reportes.dto.ResumenVentasDTO;
+import com.example.servicio_reportes.dto.TopProductoDTO;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 @Service
 public class ReportesService {
 
-    private final RestTemplate restTemplate;
+    // Cliente con timeouts, reintentos y circuit breaker (ver OrdenesClient)
+    private final OrdenesClient ordenesClient;
 
-    @Value("${app.services.ordenes_url}")
-    private String ordenesServiceUrl;
+    // Resultados ya calculados por rango de fechas (ver CacheReportes)
+    private final CacheReportes cacheReportes;
 
-    public ReportesService(RestTemplate restTemplate) {
-        this.restTemplate = restTemplate;
+    public ReportesService(OrdenesClient ordenesClient, CacheReportes cacheReportes) {
+        this.ordenesClient = ordenesClient;
+        this.cacheReportes = cacheReportes;
     }
 
     // --- MÉTODO MODIFICADO ---
-    // Ahora devuelve el OBJETO de resumen, no la lista
-    public ReporteSalesDTO getReporteVentas(Optional<String> from, Optional<String> to) {
-        // 1. Define la URL a la que llamaremos (la ruta de reporte en 8082)
-        String url = ordenesServiceUrl + "/api/boletas/reporte";
+    // servicio-ordenes calcula el resumen en SQL (COUNT/SUM): ya no
+    // se traen todas las boletas para sumarlas aquí
+    public ReporteSalesDTO getReporteVentas(Optional<String> from, Optional<String> to, Optional<String> group) {
+        // Clave del cache: fechas ya parseadas y "group" en minúsculas
+        LocalDate[] rango = rango(from, to);
+        String agrupacion = group.filter(g -> !g.isEmpty()).map(g -> g.trim().toLowerCase(Locale.ROOT)).orElse("");
+        CacheReportes.Clave clave = new CacheReportes.Clave("sales", rango[0], rango[1], agrupacion);
 
-        // 2. Añade los parámetros de fecha si existen
-        if (from.isPresent() && to.isPresent() && !from.get().isEmpty() && !to.get().isEmpty()) {
-            url += "?from=" + from.get() + "&to=" + to.get();
-        }
+        return cacheReportes.obtener(clave, () -> {
+            // 1. Define la URL a la que llamaremos (el resumen en 8082)
+            UriComponentsBuilder url = UriComponentsBuilder.fromPath("/api/boletas/resumen");
 
-        // 3. Llama a la API del puerto 8082 y pide la lista de boletas
-        BoletaDTO[] boletas = restTemplate.getForObject(url, BoletaDTO[].class);
+            // 2. Añade los parámetros de fecha si existen
+            if (rango[0] != null) {
+                url.queryParam("from", rango[0]).queryParam("to", rango[1]);
+            }
+            if (!agrupacion.isEmpty()) {
+                url.queryParam("group", agrupacion);
+            }
 
-        // 4. --- LÓGICA DE CÁLCULO ---
-        if (boletas == null || boletas.length == 0) {
-            // Si no hay boletas, devuelve un resumen en cero
-            return new ReporteSalesDTO(0, 0.0);
-        }
+            // 3. Llama a la API del puerto 8082: sólo viaja el resumen
+            ResumenVentasDTO resumen = ordenesClient.get(url.toUriString(), ResumenVentasDTO.class);
+
+            if (resumen == null) {
+                // Si no hay respuesta, devuelve un resumen en cero
+                return new ReporteSalesDTO(0, 0.0);
+            }
+
+            // 4. Devuelve el objeto de resumen
+            ReporteSalesDTO reporte = new ReporteSalesDTO(resumen.getBoletas(), resumen.getTotal());
+            reporte.setPeriodos(resumen.getPeriodos());
+            return reporte;
+        });
+    }
 
-        // Calcula el total de boletas
-        long numeroDeBoletas = boletas.length;
-        
-        // Calcula el total vendido sumando todos los 'total' de las boletas
-        Double totalVendido = Arrays.stream(boletas)
-                                    .mapToDouble(BoletaDTO::getTotal)
-                                    .sum();
+    // servicio-ordenes arma el ranking con GROUP BY/ORDER BY/LIMIT:
+    // aquí sólo llegan los "limit" productos, nunca los detalles
+    public List<TopProductoDTO> getTopProducts(Optional<String> from, Optional<String> to, int limit) {
+        LocalDate[] rango = rango(from, to);
+        CacheReportes.Clave clave = new CacheReportes.Clave("top-products", rango[0], rango[1], String.valueOf(limit));
 
-        // 5. Devuelve el objeto de resumen
-        return new ReporteSalesDTO(numeroDeBoletas, totalVendido);
+        return cacheReportes.obtener(clave, () -> {
+            UriComponentsBuilder url = UriComponentsBuilder.fromPath("/api/boletas/top-productos")
+                .queryParam("limit", limit);
+
+            if (rango[0] != null) {
+                url.queryParam("from", rango[0]).queryParam("to", rango[1]);
+            }
+
+            TopProductoDTO[] top = ordenesClient.get(url.toUriString(), TopProductoDTO[].class);
+            return top == null ? List.of() : List.copyOf(Arrays.asList(top));
+        });
+    }
+
+    /** [desde, hasta] si vienen las dos fechas, [null, null] si no (= todas las fechas). */
+    private static LocalDate[] rango(Optional<String> from, Optional<String> to) {
+        if (from.isPresent() && to.isPresent() && !from.get().isEmpty() && !to.get().isEmpty()) {
+            try {
+                return new LocalDate[] { LocalDate.parse(from.get().trim()), LocalDate.parse(to.get().trim()) };
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Fecha inválida (formato YYYY-MM-DD): " + e.getParsedString());
+            }
+        }
+        return new LocalDate[2];
     }
-}
\ No newline at end of file
+}
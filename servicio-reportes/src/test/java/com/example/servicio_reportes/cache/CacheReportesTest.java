@@ -0,0 +1,130 @@
+package com.example.servicio_reportes.cache;
+
+import com.example.servicio_reportes.cache.CacheReportes.Clave;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CacheReportesTest {
+
+	private static final Duration TTL_HOY = Duration.ofMillis(200);
+
+	private final CacheReportes cache = new CacheReportes(100, TTL_HOY);
+	private final AtomicInteger llamadas = new AtomicInteger();
+
+	@Test
+	void variasRequestsIgualesCalculanUnaSolaVez() throws Exception {
+		Clave clave = clave(null, null);
+		CountDownLatch calculando = new CountDownLatch(1);
+		CountDownLatch soltar = new CountDownLatch(1);
+		Object resultado = new Object();
+
+		ExecutorService hilos = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Object>> respuestas = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				respuestas.add(hilos.submit(() -> cache.obtener(clave, () -> {
+					llamadas.incrementAndGet();
+					calculando.countDown();
+					esperar(soltar);
+					return resultado;
+				})));
+			}
+			assertTrue(calculando.await(5, TimeUnit.SECONDS));
+			Thread.sleep(100); // Que los demás alcancen a quedar esperando
+			soltar.countDown();
+
+			for (Future<Object> respuesta : respuestas) {
+				assertSame(resultado, respuesta.get(5, TimeUnit.SECONDS));
+			}
+		} finally {
+			hilos.shutdownNow();
+		}
+		assertEquals(1, llamadas.get());
+	}
+
+	@Test
+	void unErrorNoSeGuarda() {
+		Clave clave = clave(null, null);
+
+		assertThrows(IllegalStateException.class, () -> cache.obtener(clave, () -> {
+			throw new IllegalStateException("servicio-ordenes no responde");
+		}));
+
+		assertEquals("ok", cache.obtener(clave, this::calcular));
+		assertEquals(1, llamadas.get());
+	}
+
+	@Test
+	void elRangoQueIncluyeHoyVence() throws InterruptedException {
+		LocalDate hoy = LocalDate.now();
+		Clave sinFechas = clave(null, null);
+		Clave hastaHoy = clave(hoy.minusDays(7), hoy);
+
+		cache.obtener(sinFechas, this::calcular);
+		cache.obtener(hastaHoy, this::calcular);
+		cache.obtener(sinFechas, this::calcular);
+		cache.obtener(hastaHoy, this::calcular);
+		assertEquals(2, llamadas.get());
+
+		Thread.sleep(TTL_HOY.toMillis() + 100);
+		cache.obtener(sinFechas, this::calcular);
+		cache.obtener(hastaHoy, this::calcular);
+		assertEquals(4, llamadas.get());
+	}
+
+	@Test
+	void elRangoCerradoNoVence() throws InterruptedException {
+		LocalDate ayer = LocalDate.now().minusDays(1);
+		Clave cerrado = clave(ayer.minusDays(7), ayer);
+
+		cache.obtener(cerrado, this::calcular);
+		Thread.sleep(TTL_HOY.toMillis() + 100);
+		cache.obtener(cerrado, this::calcular);
+
+		assertEquals(1, llamadas.get());
+	}
+
+	@Test
+	void losParametrosSonParteDeLaClave() {
+		cache.obtener(new Clave("resumen", null, null, "group=day"), this::calcular);
+		cache.obtener(new Clave("resumen", null, null, "group=month"), this::calcular);
+		cache.obtener(new Clave("top-productos", null, null, "group=day"), this::calcular);
+
+		assertEquals(3, llamadas.get());
+	}
+
+	// --- Utilidades ---
+
+	private String calcular() {
+		llamadas.incrementAndGet();
+		return "ok";
+	}
+
+	private static Clave clave(LocalDate desde, LocalDate hasta) {
+		return new Clave("resumen", desde, hasta, "");
+	}
+
+	private static void esperar(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package com.example.servicio_reportes.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitoTest {
+
+	@Test
+	void seAbreTrasElUmbralDeFallasSeguidas() {
+		Circuito circuito = new Circuito(3, Duration.ofHours(1));
+
+		circuito.registrarFalla();
+		circuito.registrarFalla();
+		assertEquals(Circuito.Estado.CERRADO, circuito.getEstado());
+		assertTrue(circuito.permiteLlamar());
+
+		circuito.registrarFalla();
+		assertEquals(Circuito.Estado.ABIERTO, circuito.getEstado());
+		assertFalse(circuito.permiteLlamar());
+	}
+
+	@Test
+	void unExitoReiniciaLaCuenta() {
+		Circuito circuito = new Circuito(3, Duration.ofHours(1));
+
+		circuito.registrarFalla();
+		circuito.registrarFalla();
+		circuito.registrarExito();
+		circuito.registrarFalla();
+		circuito.registrarFalla();
+
+		assertEquals(Circuito.Estado.CERRADO, circuito.getEstado());
+	}
+
+	@Test
+	void pasadoElTiempoDejaPasarUnaSolaLlamadaDePrueba() {
+		Circuito circuito = abierto(Duration.ZERO);
+
+		assertTrue(circuito.permiteLlamar());
+		assertEquals(Circuito.Estado.MEDIO_ABIERTO, circuito.getEstado());
+		// Mientras la prueba no termina, las demás se rechazan
+		assertFalse(circuito.permiteLlamar());
+		assertFalse(circuito.permiteLlamar());
+	}
+
+	@Test
+	void siLaPruebaFuncionaSeCierra() {
+		Circuito circuito = abierto(Duration.ZERO);
+		circuito.permiteLlamar();
+
+		circuito.registrarExito();
+
+		assertEquals(Circuito.Estado.CERRADO, circuito.getEstado());
+		assertTrue(circuito.permiteLlamar());
+		assertTrue(circuito.permiteLlamar());
+	}
+
+	@Test
+	void siLaPruebaFallaVuelveAAbrirseConElTiempoDesdeCero() throws InterruptedException {
+		Circuito circuito = abierto(Duration.ofMillis(200));
+		Thread.sleep(250);
+		assertTrue(circuito.permiteLlamar());
+
+		// Una sola falla basta en MEDIO_ABIERTO, aunque no llegue al umbral
+		circuito.registrarFalla();
+
+		assertEquals(Circuito.Estado.ABIERTO, circuito.getEstado());
+		assertFalse(circuito.permiteLlamar());
+		Thread.sleep(250);
+		assertTrue(circuito.permiteLlamar());
+	}
+
+	private static Circuito abierto(Duration tiempoAbierto) {
+		Circuito circuito = new Circuito(2, tiempoAbierto);
+		circuito.registrarFalla();
+		circuito.registrarFalla();
+		assertEquals(Circuito.Estado.ABIERTO, circuito.getEstado());
+		return circuito;
+	}
+}